@@ -66,6 +66,20 @@ public abstract class Binarizer {
    */
   public abstract BitMatrix getBlackMatrix() throws NotFoundException;
 
+  /**
+   * Like {@link #getBlackMatrix()}, but implementations may convert the rows of the returned
+   * matrix in bands, the first time they are read, so that a caller which only examines part of
+   * the image only pays for that part. Until {@link #getBlackMatrix()} is called, which completes
+   * the conversion and returns the same matrix, it must only be used from one thread.
+   * By default this simply returns {@link #getBlackMatrix()}.
+   *
+   * @return The 2D array of bits for the image (true means black).
+   * @throws NotFoundException if image can't be binarized to make a matrix
+   */
+  public BitMatrix getLazyBlackMatrix() throws NotFoundException {
+    return getBlackMatrix();
+  }
+
   /**
    * Creates a new object with the same type as this Binarizer implementation, but with pristine
    * state. This is needed because Binarizer implementations may be stateful, e.g. keeping a cache
@@ -28,13 +28,44 @@ import com.google.zxing.common.BitMatrix;
 public final class BinaryBitmap {
 
   private final Binarizer binarizer;
+  private final DecodeContext context;
+  // Set on the view returned by invert(); the bitmap whose matrix this one inverts
+  private final BinaryBitmap invertedFrom;
   private BitMatrix matrix;
+  private BitMatrix lazyMatrix;
+  private BinaryBitmap rotated;
+  private BinaryBitmap inverted;
 
   public BinaryBitmap(Binarizer binarizer) {
+    this(binarizer, new DecodeContext());
+  }
+
+  /**
+   * @param binarizer binarizer to convert the image with
+   * @param context counters for the image being decoded, which may be shared with other bitmaps
+   *  built over the same image, for example with a different binarizer
+   */
+  public BinaryBitmap(Binarizer binarizer, DecodeContext context) {
+    this(binarizer, context, null);
+  }
+
+  private BinaryBitmap(Binarizer binarizer, DecodeContext context, BinaryBitmap invertedFrom) {
     if (binarizer == null) {
       throw new IllegalArgumentException("Binarizer must be non-null.");
     }
+    if (context == null) {
+      throw new IllegalArgumentException("DecodeContext must be non-null.");
+    }
     this.binarizer = binarizer;
+    this.context = context;
+    this.invertedFrom = invertedFrom;
+  }
+
+  /**
+   * @return counters of the work done for this bitmap and the others sharing its context
+   */
+  public DecodeContext getDecodeContext() {
+    return context;
   }
 
   /**
@@ -81,12 +112,42 @@ public final class BinaryBitmap {
     // 1. This work will never be done if the caller only installs 1D Reader objects, or if a
     //    1D Reader finds a barcode before the 2D Readers run.
     // 2. This work will only be done once even if the caller installs multiple 2D Readers.
-    if (matrix == null) {
+    if (matrix != null) {
+      context.recordBlackMatrix(true);
+      return matrix;
+    }
+    if (invertedFrom != null) {
+      BitMatrix newMatrix = invertedFrom.getBlackMatrix().clone();
+      newMatrix.flip();
+      context.recordInversion(false);
+      matrix = newMatrix;
+    } else {
       matrix = binarizer.getBlackMatrix();
+      context.recordBlackMatrix(false);
     }
     return matrix;
   }
 
+  /**
+   * Like {@link #getBlackMatrix()}, but rows may only be converted the first time they are read,
+   * if the {@link Binarizer} supports it, for readers which only examine part of the image. The
+   * returned matrix must only be used from the calling thread; a later call to
+   * {@link #getBlackMatrix()} completes it and returns the same object.
+   *
+   * @return The 2D array of bits for the image (true means black).
+   * @throws NotFoundException if image can't be binarized to make a matrix
+   * @see Binarizer#getLazyBlackMatrix()
+   */
+  public BitMatrix getLazyBlackMatrix() throws NotFoundException {
+    if (matrix != null || invertedFrom != null) {
+      return getBlackMatrix();
+    }
+    if (lazyMatrix == null) {
+      lazyMatrix = binarizer.getLazyBlackMatrix();
+    }
+    return lazyMatrix;
+  }
+
   /**
    * @return Whether this bitmap can be cropped.
    */
@@ -106,7 +167,7 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap crop(int left, int top, int width, int height) {
     LuminanceSource newSource = binarizer.getLuminanceSource().crop(left, top, width, height);
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    return new BinaryBitmap(binarizer.createBinarizer(newSource), context);
   }
 
   /**
@@ -117,14 +178,46 @@ public final class BinaryBitmap {
   }
 
   /**
-   * Returns a new object with rotated image data by 90 degrees counterclockwise.
-   * Only callable if {@link #isRotateSupported()} is true.
+   * Returns an object with rotated image data by 90 degrees counterclockwise. It is created on
+   * the first call and returned again by later ones, so that readers which retry rotated don't
+   * each rotate the image data again. The rotated image data is also shared, through the
+   * {@link DecodeContext}, with other bitmaps over the same {@link LuminanceSource}. Only callable
+   * if {@link #isRotateSupported()} is true.
    *
    * @return A rotated version of this object.
    */
   public BinaryBitmap rotateCounterClockwise() {
-    LuminanceSource newSource = binarizer.getLuminanceSource().rotateCounterClockwise();
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    if (invertedFrom != null) {
+      return invertedFrom.rotateCounterClockwise();
+    }
+    if (rotated != null) {
+      context.recordRotation(true);
+      return rotated;
+    }
+    LuminanceSource newSource = context.rotateCounterClockwise(binarizer.getLuminanceSource());
+    rotated = new BinaryBitmap(binarizer.createBinarizer(newSource), context);
+    return rotated;
+  }
+
+  /**
+   * Returns a view of this object whose {@link #getBlackMatrix()} is the inverse of this one's,
+   * to look for light barcodes on dark backgrounds. The matrix is inverted on first use, and the
+   * same view is returned by later calls. Only the matrix is inverted: rows from
+   * {@link #getBlackRow(int, BitArray)}, as well as cropped and rotated versions, are the same as
+   * this object's.
+   *
+   * @return An inverted version of this object.
+   */
+  public BinaryBitmap invert() {
+    if (invertedFrom != null) {
+      return invertedFrom;
+    }
+    if (inverted != null) {
+      context.recordInversion(true);
+      return inverted;
+    }
+    inverted = new BinaryBitmap(binarizer, context, this);
+    return inverted;
   }
 
   @Override
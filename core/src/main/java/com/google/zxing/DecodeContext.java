@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Counts the work done, and the work saved by caching, while decoding one image. Pass the same
+ * instance to each {@link BinaryBitmap} built over the image, for example one per
+ * {@link Binarizer}; bitmaps derived from them by rotation, inversion or cropping share it too.
+ * Rotated image data is cached here, so that bitmaps over the same {@link LuminanceSource} only
+ * rotate it once between them, and each only has to binarize the result.
+ *
+ * Like BinaryBitmap, this class is not thread-safe.
+ *
+ * @see BinaryBitmap#BinaryBitmap(Binarizer, DecodeContext)
+ */
+public final class DecodeContext {
+
+  private int blackMatrixComputations;
+  private int blackMatrixHits;
+  private int rotations;
+  private int rotationHits;
+  private int inversions;
+  private int inversionHits;
+  // Rotated image data, by the source it was rotated from
+  private final Map<LuminanceSource,LuminanceSource> rotatedSources = new IdentityHashMap<>();
+
+  /**
+   * @param source image data to rotate
+   * @return the source rotated by 90 degrees counterclockwise, which is only computed the first
+   *  time it is requested
+   */
+  LuminanceSource rotateCounterClockwise(LuminanceSource source) {
+    LuminanceSource rotated = rotatedSources.get(source);
+    if (rotated != null) {
+      recordRotation(true);
+      return rotated;
+    }
+    rotated = source.rotateCounterClockwise();
+    rotatedSources.put(source, rotated);
+    recordRotation(false);
+    return rotated;
+  }
+
+  void recordBlackMatrix(boolean hit) {
+    if (hit) {
+      blackMatrixHits++;
+    } else {
+      blackMatrixComputations++;
+    }
+  }
+
+  void recordRotation(boolean hit) {
+    if (hit) {
+      rotationHits++;
+    } else {
+      rotations++;
+    }
+  }
+
+  void recordInversion(boolean hit) {
+    if (hit) {
+      inversionHits++;
+    } else {
+      inversions++;
+    }
+  }
+
+  /**
+   * @return number of times an image was binarized to a full matrix
+   */
+  public int getBlackMatrixComputations() {
+    return blackMatrixComputations;
+  }
+
+  /**
+   * @return number of requests for a full matrix answered from the cache
+   */
+  public int getBlackMatrixHits() {
+    return blackMatrixHits;
+  }
+
+  /**
+   * @return number of times image data was rotated
+   */
+  public int getRotations() {
+    return rotations;
+  }
+
+  /**
+   * @return number of requests for a rotated image answered from the cache
+   */
+  public int getRotationHits() {
+    return rotationHits;
+  }
+
+  /**
+   * @return number of times a matrix was inverted
+   */
+  public int getInversions() {
+    return inversions;
+  }
+
+  /**
+   * @return number of requests for an inverted image answered from the cache
+   */
+  public int getInversionHits() {
+    return inversionHits;
+  }
+
+  @Override
+  public String toString() {
+    return "black matrix " + blackMatrixComputations + " computed/" + blackMatrixHits + " cached, " +
+        "rotation " + rotations + '/' + rotationHits + ", " +
+        "inversion " + inversions + '/' + inversionHits;
+  }
+
+}
@@ -104,6 +104,28 @@ public enum DecodeHintType {
    */
   ALSO_INVERTED(Void.class),
 
+  /**
+   * If set, QR code finder patterns in large images are searched for in bands of rows on the
+   * common {@link java.util.concurrent.ForkJoinPool}. Doesn't matter what it maps to;
+   * use {@link Boolean#TRUE}.
+   */
+  QR_PARALLEL_FINDER_SEARCH(Void.class),
+
+  /**
+   * If set, QR codes in large images are first looked for in copies of the image at a half and
+   * a quarter of the resolution, then located exactly in the full image near what was found.
+   * The full image is searched as usual if that fails. Doesn't matter what it maps to;
+   * use {@link Boolean#TRUE}.
+   */
+  QR_PYRAMID_DETECTION(Void.class),
+
+  /**
+   * If set, QR Code and Data Matrix detectors sample 9 points per module and take the majority,
+   * and the decoders treat codewords holding modules where the vote was close as erasures.
+   * Doesn't matter what it maps to; use {@link Boolean#TRUE}.
+   */
+  MAJORITY_VOTE_SAMPLING(Void.class),
+
   // End of enumeration values.
   ;
 
@@ -60,6 +60,13 @@ public enum EncodeHintType {
    */
   DATA_MATRIX_COMPACT,
 
+  /**
+   * Receives statistics about each compact Data Matrix encoding (see {@link #DATA_MATRIX_COMPACT}): the
+   * time it took and the largest number of edges of the encodation graph held at once. Maps to a
+   * {@link com.google.zxing.datamatrix.encoder.MinimalEncoder.MetricsCallback}.
+   */
+  DATA_MATRIX_COMPACT_METRICS_CALLBACK,
+
   /**
    * Specifies a minimum barcode size (type {@link Dimension}). Only applicable to Data Matrix now.
    *
@@ -136,6 +143,14 @@ public enum EncodeHintType {
    */
   QR_MASK_PATTERN,
 
+  /**
+   * Specifies whether to evaluate the QR code mask patterns in parallel, on the common
+   * {@link java.util.concurrent.ForkJoinPool}, when choosing the best one (type {@link Boolean}, or
+   * "true" or "false" {@link String} value). The chosen mask is the same either way; this only
+   * pays off for large versions. Has no effect if {@link #QR_MASK_PATTERN} is given.
+   */
+  QR_PARALLEL_MASKS,
+
 
   /**
    * Specifies whether to use compact mode for QR code (type {@link Boolean}, or "true" or "false"
@@ -147,6 +162,14 @@ public enum EncodeHintType {
    */
   QR_COMPACT,
 
+  /**
+   * Specifies whether compact mode ({@link #QR_COMPACT}) searches for the most compact encoding for
+   * small, medium and large versions in parallel, on the common {@link java.util.concurrent.ForkJoinPool}
+   * (type {@link Boolean}, or "true" or "false" {@link String} value). The encoding is the same either
+   * way; this only pays off for long content.
+   */
+  QR_PARALLEL_COMPACT,
+
   /**
    * Specifies whether the data should be encoded to the GS1 standard (type {@link Boolean}, or "true" or "false"
    * {@link String } value).
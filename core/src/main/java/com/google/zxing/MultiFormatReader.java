@@ -186,11 +186,12 @@ private void Refactor2(Map<DecodeHintType, ?> hints, boolean tryHarder, Collecti
         }
       }
       if (hints != null && hints.containsKey(DecodeHintType.ALSO_INVERTED)) {
-        // Calling all readers again with inverted image
-        image.getBlackMatrix().flip();
+        // Calling all readers again with inverted image. The inverted view is cached by the image,
+        // and leaves its own matrix untouched for any later decoding of the same image.
+        BinaryBitmap invertedImage = image.invert();
         for (Reader reader : readers) {
           try {
-            return reader.decode(image, hints);
+            return reader.decode(invertedImage, hints);
           } catch (ReaderException re) {
             // continue
           }
@@ -16,6 +16,8 @@
 
 package com.google.zxing;
 
+import com.google.zxing.common.LuminanceConverter;
+
 /**
  * This class is used to help decode images from files which arrive as RGB data from
  * an ARGB pixel array. It does not support rotation.
@@ -45,14 +47,7 @@ public final class RGBLuminanceSource extends LuminanceSource {
     // Total number of pixels suffices, can ignore shape
     int size = width * height;
     luminances = new byte[size];
-    for (int offset = 0; offset < size; offset++) {
-      int pixel = pixels[offset];
-      int r = (pixel >> 16) & 0xff; // red
-      int g2 = (pixel >> 7) & 0x1fe; // 2 * green
-      int b = pixel & 0xff; // blue
-      // Calculate green-favouring average cheaply
-      luminances[offset] = (byte) ((r + g2 + b) / 4);
-    }
+    LuminanceConverter.getInstance().averageToLuminance(pixels, 0, luminances, 0, size);
   }
 
   private RGBLuminanceSource(byte[] pixels,
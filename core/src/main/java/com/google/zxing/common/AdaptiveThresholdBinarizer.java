@@ -0,0 +1,224 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+
+/**
+ * This class implements per-pixel local thresholding against a square window centered on each
+ * pixel, using either Sauvola's or Bradley's method. Window statistics come from an integral image
+ * (summed-area table) built once per image, so the cost per pixel does not depend on the window
+ * size. Compared to {@link HybridBinarizer}, whose threshold is fixed per 8x8 block and ignores
+ * blocks with little contrast, it copes better with strong uneven lighting, such as labels lit from
+ * one side, at the cost of more memory and time.
+ *
+ * Like HybridBinarizer, this class extends GlobalHistogramBinarizer and keeps the histogram
+ * approach for 1D readers; only {@link #getBlackMatrix()} is local.
+ *
+ * @see <a href="https://doi.org/10.1016/S0031-3203(99)00055-2">J. Sauvola, M. Pietikainen,
+ *  Adaptive document image binarization</a>
+ * @see <a href="https://doi.org/10.1080/2151237X.2007.10129236">D. Bradley, G. Roth,
+ *  Adaptive Thresholding using the Integral Image</a>
+ */
+public final class AdaptiveThresholdBinarizer extends GlobalHistogramBinarizer {
+
+  /**
+   * Method used to derive a pixel's threshold from the statistics of the window around it.
+   */
+  public enum Method {
+    /**
+     * Threshold is {@code mean * (1 + k * (stddev / 128 - 1))}. Raises the threshold in textured
+     * areas and lowers it in flat ones, which suppresses noise in blank regions. Typical k is 0.2.
+     */
+    SAUVOLA,
+    /**
+     * Threshold is {@code mean * (1 - k)}. Cheaper, since no variance is needed. Typical k is 0.15.
+     */
+    BRADLEY
+  }
+
+  public static final float DEFAULT_SAUVOLA_K = 0.2f;
+  public static final float DEFAULT_BRADLEY_K = 0.15f;
+  // Sums of squares over the window must fit in 32 unsigned bits: 255 * 255 * 255 * 255 < 2^32
+  public static final int MAX_WINDOW_SIZE = 255;
+  private static final int MIN_AUTOMATIC_WINDOW_SIZE = 15;
+  private static final int AUTOMATIC_WINDOW_SIZE = 0;
+  // Dynamic range of the standard deviation, "R" in Sauvola's formula
+  private static final double SAUVOLA_R = 128.0;
+  private static final int BRADLEY_SCALE_BITS = 10;
+
+  private final Method method;
+  private final int windowSize;
+  private final float k;
+  private BitMatrix matrix;
+
+  /**
+   * Uses Sauvola's method with a window of 1/8 of the smaller image dimension.
+   *
+   * @param source luminance data to binarize
+   */
+  public AdaptiveThresholdBinarizer(LuminanceSource source) {
+    this(source, Method.SAUVOLA);
+  }
+
+  /**
+   * Uses a window of 1/8 of the smaller image dimension, with the default k for the method.
+   *
+   * @param source luminance data to binarize
+   * @param method thresholding method
+   */
+  public AdaptiveThresholdBinarizer(LuminanceSource source, Method method) {
+    this(source, method, AUTOMATIC_WINDOW_SIZE,
+         method == Method.BRADLEY ? DEFAULT_BRADLEY_K : DEFAULT_SAUVOLA_K);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param method thresholding method
+   * @param windowSize side of the square window around each pixel, odd, from 3 to {@link #MAX_WINDOW_SIZE}.
+   *  It should be several times the size of a barcode module.
+   * @param k method sensitivity, from 0 to 1; see {@link Method}
+   * @throws IllegalArgumentException if windowSize or k is out of range
+   */
+  public AdaptiveThresholdBinarizer(LuminanceSource source, Method method, int windowSize, float k) {
+    super(source);
+    if (windowSize != AUTOMATIC_WINDOW_SIZE &&
+        (windowSize < 3 || windowSize > MAX_WINDOW_SIZE || (windowSize & 0x01) == 0)) {
+      throw new IllegalArgumentException("Window size must be odd and between 3 and " + MAX_WINDOW_SIZE);
+    }
+    if (!(k >= 0.0f && k <= 1.0f)) {
+      throw new IllegalArgumentException("k must be between 0 and 1");
+    }
+    this.method = method;
+    this.windowSize = windowSize;
+    this.k = k;
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() throws NotFoundException {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSource source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = source.getMatrix();
+    int size = windowSize == AUTOMATIC_WINDOW_SIZE ? automaticWindowSize(width, height) : windowSize;
+
+    int[] sums = new int[(width + 1) * (height + 1)];
+    int[] squares = method == Method.SAUVOLA ? new int[sums.length] : null;
+    buildIntegralImages(luminances, width, height, sums, squares);
+
+    BitMatrix newMatrix = new BitMatrix(width, height);
+    if (method == Method.SAUVOLA) {
+      thresholdSauvola(luminances, width, height, size / 2, sums, squares, newMatrix);
+    } else {
+      thresholdBradley(luminances, width, height, size / 2, sums, newMatrix);
+    }
+    matrix = newMatrix;
+    return matrix;
+  }
+
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return new AdaptiveThresholdBinarizer(source, method, windowSize, k);
+  }
+
+  static int automaticWindowSize(int width, int height) {
+    int size = Math.min(width, height) / 8;
+    return Math.max(MIN_AUTOMATIC_WINDOW_SIZE, Math.min(MAX_WINDOW_SIZE, size | 0x01));
+  }
+
+  /**
+   * Fills summed-area tables of (width + 1) x (height + 1) entries, where entry (x, y) holds the
+   * total over all pixels above and to the left of pixel (x, y). Totals may exceed 32 bits and wrap
+   * around; differences of them are still exact as long as the total over a window fits in 32
+   * unsigned bits, which {@link #MAX_WINDOW_SIZE} guarantees.
+   */
+  private static void buildIntegralImages(byte[] luminances, int width, int height, int[] sums, int[] squares) {
+    int stride = width + 1;
+    for (int y = 0; y < height; y++) {
+      int offset = y * width;
+      int above = y * stride + 1;
+      int current = above + stride;
+      int rowSum = 0;
+      int rowSquares = 0;
+      for (int x = 0; x < width; x++) {
+        int pixel = luminances[offset + x] & 0xFF;
+        rowSum += pixel;
+        sums[current + x] = sums[above + x] + rowSum;
+        if (squares != null) {
+          rowSquares += pixel * pixel;
+          squares[current + x] = squares[above + x] + rowSquares;
+        }
+      }
+    }
+  }
+
+  private static long windowTotal(int[] table, int stride, int left, int top, int right, int bottom) {
+    int topRow = top * stride;
+    int bottomRow = bottom * stride;
+    return (table[bottomRow + right] - table[bottomRow + left] - table[topRow + right] + table[topRow + left]) &
+        0xFFFFFFFFL;
+  }
+
+  private void thresholdSauvola(byte[] luminances, int width, int height, int radius, int[] sums, int[] squares,
+                                BitMatrix bits) {
+    int stride = width + 1;
+    for (int y = 0; y < height; y++) {
+      int top = Math.max(0, y - radius);
+      int bottom = Math.min(height, y + radius + 1);
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        int left = Math.max(0, x - radius);
+        int right = Math.min(width, x + radius + 1);
+        double area = (double) (bottom - top) * (right - left);
+        double mean = windowTotal(sums, stride, left, top, right, bottom) / area;
+        double variance = windowTotal(squares, stride, left, top, right, bottom) / area - mean * mean;
+        double deviation = variance > 0.0 ? Math.sqrt(variance) : 0.0;
+        double threshold = mean * (1.0 + k * (deviation / SAUVOLA_R - 1.0));
+        if ((luminances[offset + x] & 0xFF) <= threshold) {
+          bits.set(x, y);
+        }
+      }
+    }
+  }
+
+  private void thresholdBradley(byte[] luminances, int width, int height, int radius, int[] sums,
+                                BitMatrix bits) {
+    int stride = width + 1;
+    // pixel <= mean * (1 - k), in fixed point to keep the inner loop in integer arithmetic
+    long scale = Math.round((1.0 - k) * (1 << BRADLEY_SCALE_BITS));
+    for (int y = 0; y < height; y++) {
+      int top = Math.max(0, y - radius);
+      int bottom = Math.min(height, y + radius + 1);
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        int left = Math.max(0, x - radius);
+        int right = Math.min(width, x + radius + 1);
+        long area = (long) (bottom - top) * (right - left);
+        long sum = windowTotal(sums, stride, left, top, right, bottom);
+        if (((luminances[offset + x] & 0xFF) * area << BRADLEY_SCALE_BITS) <= sum * scale) {
+          bits.set(x, y);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * <p>Scratch buffers which a {@link GlobalHistogramBinarizer} or {@link HybridBinarizer} can reuse
+ * from one frame to the next instead of allocating them again, for callers that binarize a stream
+ * of same-sized images, like a camera preview. Buffers only grow; once they fit the frame size,
+ * binarizing another frame allocates nothing here.</p>
+ *
+ * <p>The {@link BitMatrix} returned by a binarizer using a workspace is owned by the workspace.
+ * It is cleared and overwritten by the next binarizer that uses the same workspace, so callers must
+ * be done with it, including any {@link com.google.zxing.BinaryBitmap} holding it, before
+ * binarizing the next frame. Binarizers created by {@code createBinarizer()}, as happens for
+ * cropped or rotated images, do not share the workspace.</p>
+ *
+ * <p>This class is not thread-safe; use one workspace per decoding thread.</p>
+ */
+public final class BinarizerWorkspace {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private byte[] luminanceRow;
+  private final int[] buckets;
+  private int[] blackPoints;
+  private BitMatrix matrix;
+
+  public BinarizerWorkspace() {
+    luminanceRow = EMPTY;
+    buckets = new int[GlobalHistogramBinarizer.LUMINANCE_BUCKETS];
+    blackPoints = new int[0];
+  }
+
+  /**
+   * @param size minimum length needed
+   * @return row buffer of at least the given length, with undefined contents
+   */
+  byte[] getLuminanceRow(int size) {
+    if (luminanceRow.length < size) {
+      luminanceRow = new byte[size];
+    }
+    return luminanceRow;
+  }
+
+  /**
+   * @return histogram buckets for {@link GlobalHistogramBinarizer}, with undefined contents
+   */
+  int[] getBuckets() {
+    return buckets;
+  }
+
+  /**
+   * @param size minimum length needed
+   * @return flat black point grid of at least the given length, with undefined contents
+   */
+  int[] getBlackPoints(int size) {
+    if (blackPoints.length < size) {
+      blackPoints = new int[size];
+    }
+    return blackPoints;
+  }
+
+  /**
+   * @param width matrix width
+   * @param height matrix height
+   * @return a cleared matrix of exactly the given size
+   */
+  BitMatrix getMatrix(int width, int height) {
+    if (matrix == null || matrix.getWidth() != width || matrix.getHeight() != height) {
+      matrix = new BitMatrix(width, height);
+    } else {
+      matrix.clear();
+    }
+    return matrix;
+  }
+
+}
@@ -40,6 +40,29 @@ public final class BitMatrix implements Cloneable {
   private int height;
   private int rowSize;
   private int[] bits;
+  // Set while some bands of rows are still to be filled in on first access; see BandFiller
+  private BandFiller filler;
+  private int bandHeight;
+  private boolean[] filledBands;
+  private int unfilledBands;
+
+  /**
+   * Computes the bits of a {@link BitMatrix} a band of rows at a time, the first time one of its
+   * rows is accessed, so that a caller which only examines part of an image only pays for that part.
+   */
+  interface BandFiller {
+
+    /**
+     * Sets the bits of rows {@code top} to {@code top + height - 1}. Bits are only ever set, never
+     * cleared. Bits in other rows may be set too, as long as they are also set once those rows are
+     * filled in.
+     *
+     * @param top first row of the band
+     * @param height number of rows in the band
+     * @param matrix matrix to set bits in
+     */
+    void fillBand(int top, int height, BitMatrix matrix);
+  }
 
   /**
    * Creates an empty square {@code BitMatrix}.
@@ -73,6 +96,24 @@ public final class BitMatrix implements Cloneable {
     this.bits = bits;
   }
 
+  /**
+   * Creates a {@code BitMatrix} whose rows are filled in by {@code filler}, in bands of
+   * {@code bandHeight} rows, as they are first accessed. Until all of them are, the matrix must
+   * only be used from one thread.
+   *
+   * @param width bit matrix width
+   * @param height bit matrix height
+   * @param bandHeight number of rows filled in at a time
+   * @param filler computes the bits of each band
+   */
+  BitMatrix(int width, int height, int bandHeight, BandFiller filler) {
+    this(width, height);
+    this.filler = filler;
+    this.bandHeight = bandHeight;
+    filledBands = new boolean[(height + bandHeight - 1) / bandHeight];
+    unfilledBands = filledBands.length;
+  }
+
   /**
    * Interprets a 2D array of booleans as a {@code BitMatrix}, where "true" means an "on" bit.
    *
@@ -137,6 +178,9 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * @return value of given bit in matrix
    */
   public boolean get(int x, int y) {
+    if (filler != null) {
+      fillRows(y, y);
+    }
     int offset = y * rowSize + (x / 32);
     return ((bits[offset] >>> (x & 0x1f)) & 1) != 0;
   }
@@ -148,11 +192,17 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * @param y The vertical component (i.e. which row)
    */
   public void set(int x, int y) {
+    if (filler != null) {
+      fillRows(y, y);
+    }
     int offset = y * rowSize + (x / 32);
     bits[offset] |= 1 << (x & 0x1f);
   }
 
   public void unset(int x, int y) {
+    if (filler != null) {
+      fillRows(y, y);
+    }
     int offset = y * rowSize + (x / 32);
     bits[offset] &= ~(1 << (x & 0x1f));
   }
@@ -164,6 +214,9 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * @param y The vertical component (i.e. which row)
    */
   public void flip(int x, int y) {
+    if (filler != null) {
+      fillRows(y, y);
+    }
     int offset = y * rowSize + (x / 32);
     bits[offset] ^= 1 << (x & 0x1f);
   }
@@ -172,6 +225,7 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * <p>Flips every bit in the matrix.</p>
    */
   public void flip() {
+    fillAllRows();
     int max = bits.length;
     for (int i = 0; i < max; i++) {
       bits[i] = ~bits[i];
@@ -185,16 +239,18 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * @param mask XOR mask
    */
   public void xor(BitMatrix mask) {
-    if (width != mask.width || height != mask.height || rowSize != mask.rowSize) {
-      throw new IllegalArgumentException("input matrix dimensions do not match");
+    checkSameDimensions(mask);
+    fillAllRows();
+    mask.fillAllRows();
+    int[] maskBits = mask.bits;
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] ^= maskBits[i];
     }
-    BitArray rowArray = new BitArray(width);
-    for (int y = 0; y < height; y++) {
-      int offset = y * rowSize;
-      int[] row = mask.getRow(y, rowArray).getBitArray();
-      for (int x = 0; x < rowSize; x++) {
-        bits[offset + x] ^= row[x];
-      }
+  }
+
+  private void checkSameDimensions(BitMatrix other) {
+    if (width != other.width || height != other.height || rowSize != other.rowSize) {
+      throw new IllegalArgumentException("input matrix dimensions do not match");
     }
   }
 
@@ -202,6 +258,7 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * Clears all bits (sets to false).
    */
   public void clear() {
+    fillAllRows();
     int max = bits.length;
     for (int i = 0; i < max; i++) {
       bits[i] = 0;
@@ -228,6 +285,7 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
     if (bottom > this.height || right > this.width) {
       throw new IllegalArgumentException("The region must fit inside the matrix");
     }
+    fillRows(top, bottom - 1);
     for (int y = top; y < bottom; y++) {
       int offset = y * rowSize;
       for (int x = left; x < right; x++) {
@@ -236,6 +294,144 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
     }
   }
 
+  /**
+   * Checks that no bit in a region is set, a whole 32-bit word at a time.
+   *
+   * @param left The horizontal position to begin at (inclusive)
+   * @param top The vertical position to begin at (inclusive)
+   * @param width The width of the region
+   * @param height The height of the region
+   * @return true iff no bit in the region is set
+   */
+  public boolean isRegionClear(int left, int top, int width, int height) {
+    checkRegion(left, top, width, height);
+    fillRows(top, top + height - 1);
+    int right = left + width - 1;
+    int firstWord = left / 32;
+    int lastWord = right / 32;
+    int firstMask = -1 << (left & 0x1f);
+    int lastMask = -1 >>> (31 - (right & 0x1f));
+    for (int y = top; y < top + height; y++) {
+      int offset = y * rowSize;
+      if (firstWord == lastWord) {
+        if ((bits[offset + firstWord] & firstMask & lastMask) != 0) {
+          return false;
+        }
+      } else {
+        if ((bits[offset + firstWord] & firstMask) != 0 || (bits[offset + lastWord] & lastMask) != 0) {
+          return false;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+          if (bits[offset + i] != 0) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private void checkRegion(int left, int top, int width, int height) {
+    if (top < 0 || left < 0) {
+      throw new IllegalArgumentException("Left and top must be nonnegative");
+    }
+    if (height < 1 || width < 1) {
+      throw new IllegalArgumentException("Height and width must be at least 1");
+    }
+    if (top + height > this.height || left + width > this.width) {
+      throw new IllegalArgumentException("The region must fit inside the matrix");
+    }
+  }
+
+  /**
+   * Halves the resolution of the matrix, a whole 32-bit word at a time. Each bit of the result
+   * stands for a 2x2 block of bits, and is set iff at least 2 of them are. A last odd row or
+   * column is dropped.
+   *
+   * @return new matrix of half the width and height
+   * @throws IllegalArgumentException if the matrix is less than 2 bits wide or high
+   */
+  public BitMatrix downsample() {
+    if (width < 2 || height < 2) {
+      throw new IllegalArgumentException("Both dimensions must be at least 2");
+    }
+    fillAllRows();
+    BitMatrix result = new BitMatrix(width / 2, height / 2);
+    int[] resultBits = result.bits;
+    int resultRowSize = result.rowSize;
+    int lastMask = (result.width & 0x1f) == 0 ? -1 : (1 << (result.width & 0x1f)) - 1;
+    for (int y = 0; y < result.height; y++) {
+      int top = 2 * y * rowSize;
+      int bottom = top + rowSize;
+      int offset = y * resultRowSize;
+      // Each word of a row halves to 16 bits, so the last words may only hold dropped columns
+      int words = Math.min(rowSize, 2 * resultRowSize);
+      for (int i = 0; i < words; i++) {
+        int topBits = bits[top + i];
+        int bottomBits = bits[bottom + i];
+        int topEven = topBits & 0x55555555;
+        int topOdd = (topBits >>> 1) & 0x55555555;
+        int bottomEven = bottomBits & 0x55555555;
+        int bottomOdd = (bottomBits >>> 1) & 0x55555555;
+        // Two of four: both of one row, or one of each row
+        int majority = (topEven & topOdd) | (bottomEven & bottomOdd) |
+            ((topEven | topOdd) & (bottomEven | bottomOdd));
+        // Gather the even bits into the low half
+        majority = (majority | (majority >>> 1)) & 0x33333333;
+        majority = (majority | (majority >>> 2)) & 0x0f0f0f0f;
+        majority = (majority | (majority >>> 4)) & 0x00ff00ff;
+        majority = (majority | (majority >>> 8)) & 0x0000ffff;
+        resultBits[offset + i / 2] |= majority << ((i & 1) * 16);
+      }
+      resultBits[offset + resultRowSize - 1] &= lastMask;
+    }
+    return result;
+  }
+
+  /**
+   * Computes the lengths of the runs of equal bits in part of a row, skipping over whole 32-bit
+   * words within a run. Runs alternate between unset and set bits, starting with unset bits, so
+   * the first run is empty if bit {@code from} is set.
+   *
+   * @param y The row to scan
+   * @param from The first column to scan (inclusive)
+   * @param to The last column to scan (exclusive)
+   * @param runLengths array to receive run lengths, which must hold {@code to - from + 1} values
+   * @return number of runs
+   */
+  public int getRowRunLengths(int y, int from, int to, int[] runLengths) {
+    fillRows(y, y);
+    int offset = y * rowSize;
+    int count = 0;
+    int x = from;
+    boolean set = false;
+    while (x < to) {
+      int next = nextInRow(offset, x, to, !set);
+      runLengths[count++] = next - x;
+      x = next;
+      set = !set;
+    }
+    return count;
+  }
+
+  /**
+   * @return first column at or after {@code from}, and before {@code to}, whose bit equals
+   *  {@code set}, or {@code to} if there is none
+   */
+  private int nextInRow(int offset, int from, int to, boolean set) {
+    int word = from / 32;
+    int currentBits = set ? bits[offset + word] : ~bits[offset + word];
+    currentBits &= -1 << (from & 0x1f);
+    int lastWord = (to - 1) / 32;
+    while (currentBits == 0) {
+      if (++word > lastWord) {
+        return to;
+      }
+      currentBits = set ? bits[offset + word] : ~bits[offset + word];
+    }
+    return Math.min(word * 32 + Integer.numberOfTrailingZeros(currentBits), to);
+  }
+
   /**
    * A fast method to retrieve one row of data from the matrix as a BitArray.
    *
@@ -250,6 +446,7 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
     } else {
       row.clear();
     }
+    fillRows(y, y);
     int offset = y * rowSize;
     for (int x = 0; x < rowSize; x++) {
       row.setBulk(x * 32, bits[offset + x]);
@@ -262,6 +459,7 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * @param row {@link BitArray} to copy from
    */
   public void setRow(int y, BitArray row) {
+    fillRows(y, y);
     System.arraycopy(row.getBitArray(), 0, bits, y * rowSize, rowSize);
   }
 
@@ -269,6 +467,7 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * Modifies this {@code BitMatrix} to represent the same but rotated 180 degrees
    */
   public void rotate180() {
+    fillAllRows();
     BitArray topRow = new BitArray(width);
     BitArray bottomRow = new BitArray(width);
     int maxHeight = (height + 1) / 2;
@@ -287,17 +486,24 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
    * Modifies this {@code BitMatrix} to represent the same but rotated 90 degrees counterclockwise
    */
   public void rotate90() {
+    fillAllRows();
     int newWidth = height;
     int newHeight = width;
     int newRowSize = (newWidth + 31) / 32;
     int[] newBits = new int[newRowSize * newHeight];
 
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        int offset = y * rowSize + (x / 32);
-        if (((bits[offset] >>> (x & 0x1f)) & 1) != 0) {
-          int newOffset = (newHeight - 1 - x) * newRowSize + (y / 32);
-          newBits[newOffset] |= 1 << (y & 0x1f);
+    // Transpose 32x32 blocks, then write column x of this matrix out as row newHeight - 1 - x
+    int[] block = new int[32];
+    for (int blockY = 0; blockY < newRowSize; blockY++) {
+      int blockHeight = Math.min(32, height - blockY * 32);
+      for (int blockX = 0; blockX < rowSize; blockX++) {
+        for (int i = 0; i < 32; i++) {
+          block[i] = i < blockHeight ? bits[(blockY * 32 + i) * rowSize + blockX] : 0;
+        }
+        transpose32(block);
+        int blockWidth = Math.min(32, width - blockX * 32);
+        for (int i = 0; i < blockWidth; i++) {
+          newBits[(newHeight - 1 - (blockX * 32 + i)) * newRowSize + blockY] = block[i];
         }
       }
     }
@@ -307,12 +513,28 @@ public static BitMatrix parse(String stringRepresentation, String setString, Str
     bits = newBits;
   }
 
+  /**
+   * Transposes a 32x32 block of bits in place, where bit j of {@code block[i]} is the bit at
+   * column j, row i, by swapping ever smaller quadrants (see Hacker's Delight, 7-3).
+   */
+  static void transpose32(int[] block) {
+    int mask = 0x0000FFFF;
+    for (int j = 16; j != 0; j >>>= 1, mask ^= mask << j) {
+      for (int k = 0; k < 32; k = (k + j + 1) & ~j) {
+        int t = ((block[k] >>> j) ^ block[k + j]) & mask;
+        block[k] ^= t << j;
+        block[k + j] ^= t;
+      }
+    }
+  }
+
   /**
    * This is useful in detecting the enclosing rectangle of a 'pure' barcode.
    *
    * @return {@code left,top,width,height} enclosing rectangle of all 1 bits, or null if it is all white
    */
   public int[] getEnclosingRectangle() {
+    fillAllRows();
     int left = left();
 	int top = top();
 	int right = -1;
@@ -403,6 +625,7 @@ private int bit(int theBits) {
    * @return {@code x,y} coordinate of top-left-most 1 bit, or null if it is all white
    */
   public int[] getTopLeftOnBit() {
+    fillAllRows();
     int bitsOffset = 0;
     while (bitsOffset < bits.length && bits[bitsOffset] == 0) {
       bitsOffset++;
@@ -423,6 +646,7 @@ private int bit(int theBits) {
   }
 
   public int[] getBottomRightOnBit() {
+    fillAllRows();
     int bitsOffset = bits.length - 1;
     while (bitsOffset >= 0 && bits[bitsOffset] == 0) {
       bitsOffset--;
@@ -465,18 +689,83 @@ private int bit(int theBits) {
     return rowSize;
   }
 
+  /**
+   * @return the words of the matrix, {@link #getRowSize()} per row, laid out as by {@link #get(int, int)}
+   */
+  int[] getBits() {
+    fillAllRows();
+    return bits;
+  }
+
+  /**
+   * Like {@link #getBits()}, but only guarantees that the given rows are filled in.
+   *
+   * @param top first row needed
+   * @param bottom last row needed
+   * @return the words of the matrix
+   */
+  int[] getBits(int top, int bottom) {
+    fillRows(top, bottom);
+    return bits;
+  }
+
+  /**
+   * @param y row to check
+   * @return whether the row has been filled in; always true unless the matrix was created with a
+   *  {@link BandFiller}
+   */
+  boolean isRowFilled(int y) {
+    return filler == null || filledBands[y / bandHeight];
+  }
+
+  /**
+   * Fills in any rows which have not been yet.
+   */
+  void fillAllRows() {
+    if (filler != null) {
+      fillRows(0, height - 1);
+    }
+  }
+
+  /**
+   * Fills in rows {@code top} to {@code bottom}, if they have not been yet.
+   */
+  private void fillRows(int top, int bottom) {
+    BandFiller bandFiller = filler;
+    if (bandFiller == null) {
+      return;
+    }
+    for (int band = top / bandHeight; band <= bottom / bandHeight; band++) {
+      if (!filledBands[band]) {
+        filledBands[band] = true;
+        unfilledBands--;
+        // The filler sets bits through set(), which must not try to fill bands in turn
+        filler = null;
+        try {
+          int bandTop = band * bandHeight;
+          bandFiller.fillBand(bandTop, Math.min(bandHeight, height - bandTop), this);
+        } finally {
+          filler = unfilledBands == 0 ? null : bandFiller;
+        }
+      }
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (!(o instanceof BitMatrix)) {
       return false;
     }
     BitMatrix other = (BitMatrix) o;
+    fillAllRows();
+    other.fillAllRows();
     return width == other.width && height == other.height && rowSize == other.rowSize &&
     Arrays.equals(bits, other.bits);
   }
 
   @Override
   public int hashCode() {
+    fillAllRows();
     int hash = width;
     hash = 31 * hash + width;
     hash = 31 * hash + height;
@@ -527,6 +816,7 @@ private int bit(int theBits) {
 
   @Override
   public BitMatrix clone() {
+    fillAllRows();
     return new BitMatrix(width, height, rowSize, bits.clone());
   }
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * <p>A read-only view of a {@link BitMatrix}, possibly rotated, inverted or cropped, which
+ * translates coordinates on each access instead of copying bits. Rotating or cropping a view only
+ * creates another small view, so callers that try several orientations, and usually find nothing,
+ * avoid copying the matrix each time. Use {@link #toBitMatrix()} to get a real copy once one is
+ * needed.</p>
+ *
+ * <p>Views reflect later changes to the underlying matrix.</p>
+ */
+public final class BitMatrixView {
+
+  private final BitMatrix matrix;
+  private final int width;
+  private final int height;
+  private final boolean inverted;
+  // The matrix coordinates of view point (x, y) are
+  // (offsetX + xFromX * x + xFromY * y, offsetY + yFromX * x + yFromY * y)
+  private final int offsetX;
+  private final int offsetY;
+  private final int xFromX;
+  private final int xFromY;
+  private final int yFromX;
+  private final int yFromY;
+
+  /**
+   * @param matrix matrix to view, unchanged
+   */
+  public BitMatrixView(BitMatrix matrix) {
+    this(matrix, matrix.getWidth(), matrix.getHeight(), false, 0, 0, 1, 0, 0, 1);
+  }
+
+  private BitMatrixView(BitMatrix matrix,
+                        int width,
+                        int height,
+                        boolean inverted,
+                        int offsetX,
+                        int offsetY,
+                        int xFromX,
+                        int xFromY,
+                        int yFromX,
+                        int yFromY) {
+    this.matrix = matrix;
+    this.width = width;
+    this.height = height;
+    this.inverted = inverted;
+    this.offsetX = offsetX;
+    this.offsetY = offsetY;
+    this.xFromX = xFromX;
+    this.xFromY = xFromY;
+    this.yFromX = yFromX;
+    this.yFromY = yFromY;
+  }
+
+  /**
+   * @return The width of the view
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * @return The height of the view
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * @param x The horizontal component (i.e. which column)
+   * @param y The vertical component (i.e. which row)
+   * @return value of given bit in the view
+   */
+  public boolean get(int x, int y) {
+    return matrix.get(offsetX + xFromX * x + xFromY * y, offsetY + yFromX * x + yFromY * y) != inverted;
+  }
+
+  /**
+   * @return whether the view shows the underlying matrix as it is, apart from cropping
+   */
+  private boolean isUpright() {
+    return xFromX == 1 && yFromY == 1 && !inverted;
+  }
+
+  /**
+   * Gets one row of the view, like {@link BitMatrix#getRow(int, BitArray)}.
+   *
+   * @param y The row to retrieve
+   * @param row An optional caller-allocated BitArray, will be allocated if null or too small
+   * @return The resulting BitArray - this reference should always be used even when passing
+   *         your own row
+   */
+  public BitArray getRow(int y, BitArray row) {
+    if (isUpright() && offsetX == 0 && width == matrix.getWidth()) {
+      return matrix.getRow(offsetY + y, row);
+    }
+    if (row == null || row.getSize() < width) {
+      row = new BitArray(width);
+    } else {
+      row.clear();
+    }
+    for (int x = 0; x < width; x++) {
+      if (get(x, y)) {
+        row.set(x);
+      }
+    }
+    return row;
+  }
+
+  /**
+   * @return A view of this view rotated 90 degrees counterclockwise, as by {@link BitMatrix#rotate90()}
+   */
+  public BitMatrixView rotate90() {
+    // View point (x, y) is this view's point (width - 1 - y, x)
+    return new BitMatrixView(matrix, height, width, inverted,
+                             offsetX + xFromX * (width - 1), offsetY + yFromX * (width - 1),
+                             xFromY, -xFromX, yFromY, -yFromX);
+  }
+
+  /**
+   * @return A view of this view rotated 180 degrees, as by {@link BitMatrix#rotate180()}
+   */
+  public BitMatrixView rotate180() {
+    // View point (x, y) is this view's point (width - 1 - x, height - 1 - y)
+    return new BitMatrixView(matrix, width, height, inverted,
+                             offsetX + xFromX * (width - 1) + xFromY * (height - 1),
+                             offsetY + yFromX * (width - 1) + yFromY * (height - 1),
+                             -xFromX, -xFromY, -yFromX, -yFromY);
+  }
+
+  /**
+   * @return A view of this view rotated 270 degrees counterclockwise (90 degrees clockwise)
+   */
+  public BitMatrixView rotate270() {
+    // View point (x, y) is this view's point (y, height - 1 - x)
+    return new BitMatrixView(matrix, height, width, inverted,
+                             offsetX + xFromY * (height - 1), offsetY + yFromY * (height - 1),
+                             -xFromY, xFromX, -yFromY, yFromX);
+  }
+
+  /**
+   * @return A view of this view in which every bit is flipped, as by {@link BitMatrix#flip()}
+   */
+  public BitMatrixView invert() {
+    return new BitMatrixView(matrix, width, height, !inverted,
+                             offsetX, offsetY, xFromX, xFromY, yFromX, yFromY);
+  }
+
+  /**
+   * @param left The left coordinate of the region, in this view
+   * @param top The top coordinate of the region, in this view
+   * @param width The width of the region
+   * @param height The height of the region
+   * @return A view of the given region of this view
+   */
+  public BitMatrixView crop(int left, int top, int width, int height) {
+    if (left < 0 || top < 0 || width < 1 || height < 1 || left + width > this.width || top + height > this.height) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within the view");
+    }
+    return new BitMatrixView(matrix, width, height, inverted,
+                             offsetX + xFromX * left + xFromY * top, offsetY + yFromX * left + yFromY * top,
+                             xFromX, xFromY, yFromX, yFromY);
+  }
+
+  /**
+   * @return A new {@link BitMatrix} with the bits of this view, or the underlying matrix itself if
+   *  the view shows all of it unchanged
+   */
+  public BitMatrix toBitMatrix() {
+    if (isUpright() && offsetX == 0 && offsetY == 0 &&
+        width == matrix.getWidth() && height == matrix.getHeight()) {
+      return matrix;
+    }
+    BitMatrix result = new BitMatrix(width, height);
+    BitArray row = null;
+    for (int y = 0; y < height; y++) {
+      row = getRow(y, row);
+      result.setRow(y, row);
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return toBitMatrix().toString();
+  }
+
+}
@@ -37,6 +37,7 @@ public final class DecoderResult {
   private final String ecLevel;
   private Integer errorsCorrected;
   private Integer erasures;
+  private Integer blocksCorrected;
   private Object other;
   private final int structuredAppendParity;
   private final int structuredAppendSequenceNumber;
@@ -149,6 +150,18 @@ public final class DecoderResult {
     this.erasures = erasures;
   }
 
+  /**
+   * @return number of error-correction blocks that had errors, all of which were corrected,
+   *  or {@code null} if not applicable
+   */
+  public Integer getBlocksCorrected() {
+    return blocksCorrected;
+  }
+
+  public void setBlocksCorrected(Integer blocksCorrected) {
+    this.blocksCorrected = blocksCorrected;
+  }
+
   /**
    * @return arbitrary additional metadata
    */
@@ -19,10 +19,18 @@ package com.google.zxing.common;
 import com.google.zxing.NotFoundException;
 
 /**
+ * <p>When the whole grid maps into the image, samples it by stepping the homogeneous coordinates
+ * of the transform along each row, a word of 32 modules at a time, without per-point checks.
+ * Otherwise each row is transformed, checked and nudged into the image first.</p>
+ *
  * @author Sean Owen
  */
 public final class DefaultGridSampler extends GridSampler {
 
+  // How far inside the image the corners of the grid must map for the fast path, in pixels,
+  // to absorb rounding differences between the corners and the points stepped to
+  private static final double MARGIN = 0.01;
+
   @Override
   public BitMatrix sampleGrid(BitMatrix image,
                               int dimensionX,
@@ -52,6 +60,11 @@ public final class DefaultGridSampler extends GridSampler {
       throw NotFoundException.getNotFoundInstance();
     }
     BitMatrix bits = new BitMatrix(dimensionX, dimensionY);
+    int[] rows = gridRowsInImage(image, dimensionX, dimensionY, transform);
+    if (rows != null) {
+      sampleGridInImage(image, bits, transform, rows);
+      return bits;
+    }
     float[] points = new float[2 * dimensionX];
     for (int y = 0; y < dimensionY; y++) {
       int max = points.length;
@@ -85,4 +98,82 @@ public final class DefaultGridSampler extends GridSampler {
     return bits;
   }
 
+  /**
+   * The denominator of the transform is linear in x and y, so if it has the same sign at all
+   * four corners of the grid, the grid maps to the quadrilateral between the images of the
+   * corners, which is then in the image if they are.
+   *
+   * @return first and last image row the grid may be sampled from, or null if it is not in the image
+   */
+  private static int[] gridRowsInImage(BitMatrix image,
+                                       int dimensionX,
+                                       int dimensionY,
+                                       PerspectiveTransform transform) {
+    double maxX = image.getWidth() - MARGIN;
+    double maxY = image.getHeight() - MARGIN;
+    double[] corners = {0.5, 0.5, dimensionX - 0.5, 0.5, 0.5, dimensionY - 0.5, dimensionX - 0.5, dimensionY - 0.5};
+    boolean positive = false;
+    double top = maxY;
+    double bottom = MARGIN;
+    for (int i = 0; i < corners.length; i += 2) {
+      double x = corners[i];
+      double y = corners[i + 1];
+      double denominator = transform.a13 * x + transform.a23 * y + transform.a33;
+      if (denominator == 0.0 || (i > 0 && denominator > 0.0 != positive)) {
+        return null;
+      }
+      positive = denominator > 0.0;
+      double imageX = (transform.a11 * x + transform.a21 * y + transform.a31) / denominator;
+      double imageY = (transform.a12 * x + transform.a22 * y + transform.a32) / denominator;
+      // Also false for NaN
+      if (!(imageX >= MARGIN && imageX <= maxX && imageY >= MARGIN && imageY <= maxY)) {
+        return null;
+      }
+      top = Math.min(top, imageY);
+      bottom = Math.max(bottom, imageY);
+    }
+    // One more row either way for the rounding differences again
+    return new int[] {Math.max((int) top - 1, 0), Math.min((int) bottom + 1, image.getHeight() - 1)};
+  }
+
+  /**
+   * Samples a grid which {@link #gridRowsInImage} found to be in the image, within the given rows.
+   * Along a row only x changes, so the numerators and denominator of the transform each grow by a
+   * constant from one module to the next.
+   */
+  private static void sampleGridInImage(BitMatrix image,
+                                        BitMatrix bits,
+                                        PerspectiveTransform transform,
+                                        int[] rows) {
+    int[] imageBits = image.getBits(rows[0], rows[1]);
+    int imageRowSize = image.getRowSize();
+    int[] gridBits = bits.getBits();
+    int gridRowSize = bits.getRowSize();
+    int dimensionX = bits.getWidth();
+    int dimensionY = bits.getHeight();
+    double stepX = transform.a11;
+    double stepY = transform.a12;
+    double stepDenominator = transform.a13;
+    for (int y = 0; y < dimensionY; y++) {
+      double rowY = y + 0.5;
+      double numeratorX = transform.a11 * 0.5 + transform.a21 * rowY + transform.a31;
+      double numeratorY = transform.a12 * 0.5 + transform.a22 * rowY + transform.a32;
+      double denominator = transform.a13 * 0.5 + transform.a23 * rowY + transform.a33;
+      int offset = y * gridRowSize;
+      for (int x = 0; x < dimensionX; offset++) {
+        int end = Math.min(x + 32, dimensionX);
+        int word = 0;
+        for (int bit = 0; x < end; x++, bit++) {
+          int imageX = (int) (numeratorX / denominator);
+          int imageY = (int) (numeratorY / denominator);
+          word |= ((imageBits[imageY * imageRowSize + (imageX >> 5)] >>> (imageX & 0x1f)) & 1) << bit;
+          numeratorX += stepX;
+          numeratorY += stepY;
+          denominator += stepDenominator;
+        }
+        gridBits[offset] = word;
+      }
+    }
+  }
+
 }
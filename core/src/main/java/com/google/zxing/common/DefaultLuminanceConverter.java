@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * Portable {@link LuminanceConverter} which converts one pixel at a time.
+ */
+public final class DefaultLuminanceConverter extends LuminanceConverter {
+
+  @Override
+  public void averageToLuminance(int[] pixels, int pixelOffset, byte[] luminances, int offset, int count) {
+    for (int i = 0; i < count; i++) {
+      int pixel = pixels[pixelOffset + i];
+      int r = (pixel >> 16) & 0xff; // red
+      int g2 = (pixel >> 7) & 0x1fe; // 2 * green
+      int b = pixel & 0xff; // blue
+      // Calculate green-favouring average cheaply
+      luminances[offset + i] = (byte) ((r + g2 + b) / 4);
+    }
+  }
+
+  @Override
+  public void weightedToLuminance(int[] pixels, int pixelOffset, byte[] luminances, int offset, int count) {
+    for (int i = 0; i < count; i++) {
+      int pixel = pixels[pixelOffset + i];
+      if ((pixel & 0xFF000000) == 0) {
+        // Fully transparent, so white, and we know its luminance is 255
+        luminances[offset + i] = (byte) 0xFF;
+      } else {
+        // (306*R) >> 10 is approximately equal to R*0.299, and so on.
+        // 0x200 >> 10 is 0.5, it implements rounding.
+        luminances[offset + i] = (byte)
+            ((306 * ((pixel >> 16) & 0xFF) +
+              601 * ((pixel >> 8) & 0xFF) +
+              117 * (pixel & 0xFF) +
+              0x200) >> 10);
+      }
+    }
+  }
+
+}
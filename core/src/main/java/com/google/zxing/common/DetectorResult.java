@@ -29,10 +29,21 @@ public class DetectorResult {
 
   private final BitMatrix bits;
   private final ResultPoint[] points;
+  private final BitMatrix uncertainModules;
 
   public DetectorResult(BitMatrix bits, ResultPoint[] points) {
+    this(bits, points, null);
+  }
+
+  /**
+   * @param bits modules of the barcode
+   * @param points points of interest in the image
+   * @param uncertainModules set bits mark modules which may have been misread, or null if unknown
+   */
+  public DetectorResult(BitMatrix bits, ResultPoint[] points, BitMatrix uncertainModules) {
     this.bits = bits;
     this.points = points;
+    this.uncertainModules = uncertainModules;
   }
 
   public final BitMatrix getBits() {
@@ -43,4 +54,13 @@ public class DetectorResult {
     return points;
   }
 
+  /**
+   * @return set bits mark modules of {@link #getBits()} which may have been misread, as from
+   *  {@link GridSampler#sampleGrid(BitMatrix, int, int, PerspectiveTransform, BitMatrix)}, or null
+   *  if unknown
+   */
+  public final BitMatrix getUncertainModules() {
+    return uncertainModules;
+  }
+
 }
\ No newline at end of file
@@ -35,16 +35,32 @@ public class GlobalHistogramBinarizer extends Binarizer {
 
   private static final int LUMINANCE_BITS = 5;
   private static final int LUMINANCE_SHIFT = 8 - LUMINANCE_BITS;
-  private static final int LUMINANCE_BUCKETS = 1 << LUMINANCE_BITS;
+  static final int LUMINANCE_BUCKETS = 1 << LUMINANCE_BITS;
   private static final byte[] EMPTY = new byte[0];
 
+  private final BinarizerWorkspace workspace;
   private byte[] luminances;
   private final int[] buckets;
 
   public GlobalHistogramBinarizer(LuminanceSource source) {
+    this(source, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param workspace buffers to reuse instead of allocating new ones, or null to allocate as usual.
+   *  See {@link BinarizerWorkspace} for the restrictions this places on the returned matrix.
+   */
+  public GlobalHistogramBinarizer(LuminanceSource source, BinarizerWorkspace workspace) {
     super(source);
-    luminances = EMPTY;
-    buckets = new int[LUMINANCE_BUCKETS];
+    this.workspace = workspace;
+    if (workspace == null) {
+      luminances = EMPTY;
+      buckets = new int[LUMINANCE_BUCKETS];
+    } else {
+      luminances = workspace.getLuminanceRow(0);
+      buckets = workspace.getBuckets();
+    }
   }
 
   // Applies simple sharpening to the row data to improve performance of the 1D Readers.
@@ -95,7 +111,7 @@ public class GlobalHistogramBinarizer extends Binarizer {
     LuminanceSource source = getLuminanceSource();
     int width = source.getWidth();
     int height = source.getHeight();
-    BitMatrix matrix = new BitMatrix(width, height);
+    BitMatrix matrix = newMatrix(width, height);
 
     // Quickly calculates the histogram by sampling four rows from the image. This proved to be
     // more robust on the blackbox tests than sampling a diagonal as we used to do.
@@ -134,9 +150,16 @@ public class GlobalHistogramBinarizer extends Binarizer {
     return new GlobalHistogramBinarizer(source);
   }
 
+  /**
+   * @return a cleared matrix of the given size, taken from the workspace if there is one
+   */
+  BitMatrix newMatrix(int width, int height) {
+    return workspace == null ? new BitMatrix(width, height) : workspace.getMatrix(width, height);
+  }
+
   private void initArrays(int luminanceSize) {
     if (luminances.length < luminanceSize) {
-      luminances = new byte[luminanceSize];
+      luminances = workspace == null ? new byte[luminanceSize] : workspace.getLuminanceRow(luminanceSize);
     }
     for (int x = 0; x < LUMINANCE_BUCKETS; x++) {
       buckets[x] = 0;
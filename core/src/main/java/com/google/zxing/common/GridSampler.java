@@ -101,6 +101,81 @@ public abstract class GridSampler {
                                        int dimensionY,
                                        PerspectiveTransform transform) throws NotFoundException;
 
+  /**
+   * <p>Samples each module at 9 points instead of 1, in a 3x3 pattern a quarter of a module
+   * apart around its center, and takes the majority. This tolerates blur and noise better than
+   * a single point. Modules where the vote was 5 to 4 either way are marked as uncertain, so that
+   * decoders can treat the codewords that hold them as erasures.</p>
+   *
+   * <p>Each of the 9 points is sampled as a whole grid with
+   * {@link #sampleGrid(BitMatrix, int, int, PerspectiveTransform)}, so this works with any
+   * implementation. A shifted grid which does not fit in the image is replaced by the grid through
+   * the module centers.</p>
+   *
+   * @param image image to sample
+   * @param dimensionX width of {@link BitMatrix} to sample from image
+   * @param dimensionY height of {@link BitMatrix} to sample from image
+   * @param transform transform from module coordinates to image coordinates
+   * @param uncertainModules matrix of the same dimensions, in which uncertain modules are set
+   * @return {@link BitMatrix} representing a grid of points sampled from the image
+   * @throws NotFoundException if the grid through the module centers can't be sampled
+   * @throws IllegalArgumentException if uncertainModules does not have the dimensions of the grid
+   */
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              BitMatrix uncertainModules) throws NotFoundException {
+    if (uncertainModules.getWidth() != dimensionX || uncertainModules.getHeight() != dimensionY) {
+      throw new IllegalArgumentException("Uncertain modules must have the dimensions of the grid");
+    }
+    BitMatrix center = sampleGrid(image, dimensionX, dimensionY, transform);
+    int[] centerBits = center.getBits();
+    // Number of votes for black per module, in bit-sliced counters
+    int[] count0 = centerBits.clone();
+    int[] count1 = new int[centerBits.length];
+    int[] count2 = new int[centerBits.length];
+    int[] count3 = new int[centerBits.length];
+    for (int i = 0; i < 9; i++) {
+      if (i == 4) {
+        continue;
+      }
+      float dx = (i % 3 - 1) * 0.25f;
+      float dy = (i / 3 - 1) * 0.25f;
+      PerspectiveTransform shift = PerspectiveTransform.squareToQuadrilateral(
+          dx, dy, 1.0f + dx, dy, 1.0f + dx, 1.0f + dy, dx, 1.0f + dy);
+      int[] shiftedBits;
+      try {
+        shiftedBits = sampleGrid(image, dimensionX, dimensionY, transform.times(shift)).getBits();
+      } catch (NotFoundException ignored) {
+        shiftedBits = centerBits;
+      }
+      for (int w = 0; w < shiftedBits.length; w++) {
+        int carry = shiftedBits[w];
+        int sum = count0[w];
+        count0[w] = sum ^ carry;
+        carry &= sum;
+        sum = count1[w];
+        count1[w] = sum ^ carry;
+        carry &= sum;
+        sum = count2[w];
+        count2[w] = sum ^ carry;
+        carry &= sum;
+        count3[w] |= carry;
+      }
+    }
+    BitMatrix bits = new BitMatrix(dimensionX, dimensionY);
+    int[] resultBits = bits.getBits();
+    int[] uncertainBits = uncertainModules.getBits();
+    for (int w = 0; w < resultBits.length; w++) {
+      // At least 5 votes: 8 or more, or 4 plus 1 or 2
+      resultBits[w] = count3[w] | (count2[w] & (count1[w] | count0[w]));
+      // 4 or 5 votes
+      uncertainBits[w] |= ~count3[w] & count2[w] & ~count1[w];
+    }
+    return bits;
+  }
+
   /**
    * <p>Checks a set of points that have been transformed to sample points on an image against
    * the image's dimensions to see if the point are even within the image.</p>
@@ -44,13 +44,31 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
   private static final int BLOCK_SIZE_POWER = 3;
   private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER; // ...0100...00
   private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;   // ...0011...11
-  private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+  static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
   private static final int MIN_DYNAMIC_RANGE = 24;
+  // Rows of the matrix from getLazyBlackMatrix() are thresholded in bands of this many rows
+  private static final int BAND_HEIGHT = 8 * BLOCK_SIZE;
 
+  private final BinarizerWorkspace workspace;
   private BitMatrix matrix;
+  private BitMatrix lazyMatrix;
+  // For lazyMatrix, black points are computed top down, only as far as the bands filled in need
+  private byte[] luminances;
+  private int[] blackPoints;
+  private int resolvedBlockRows;
 
   public HybridBinarizer(LuminanceSource source) {
-    super(source);
+    this(source, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param workspace buffers to reuse instead of allocating new ones, or null to allocate as usual.
+   *  See {@link BinarizerWorkspace} for the restrictions this places on the returned matrix.
+   */
+  public HybridBinarizer(LuminanceSource source, BinarizerWorkspace workspace) {
+    super(source, workspace);
+    this.workspace = workspace;
   }
 
   /**
@@ -63,23 +81,25 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
     if (matrix != null) {
       return matrix;
     }
+    if (lazyMatrix != null) {
+      lazyMatrix.fillAllRows();
+      matrix = lazyMatrix;
+      return matrix;
+    }
     LuminanceSource source = getLuminanceSource();
     int width = source.getWidth();
     int height = source.getHeight();
     if (width >= MINIMUM_DIMENSION && height >= MINIMUM_DIMENSION) {
       byte[] luminances = source.getMatrix();
-      int subWidth = width >> BLOCK_SIZE_POWER;
-      if ((width & BLOCK_SIZE_MASK) != 0) {
-        subWidth++;
-      }
-      int subHeight = height >> BLOCK_SIZE_POWER;
-      if ((height & BLOCK_SIZE_MASK) != 0) {
-        subHeight++;
-      }
-      int[][] blackPoints = calculateBlackPoints(luminances, subWidth, subHeight, width, height);
+      int subWidth = blockCount(width);
+      int subHeight = blockCount(height);
+      int[] blackPoints = workspace == null ?
+          new int[subWidth * subHeight] : workspace.getBlackPoints(subWidth * subHeight);
+      calculateBlackPoints(luminances, subWidth, subHeight, width, height, blackPoints);
 
-      BitMatrix newMatrix = new BitMatrix(width, height);
-      calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, newMatrix);
+      BitMatrix newMatrix = newMatrix(width, height);
+      calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, newMatrix,
+                                 0, subHeight);
       matrix = newMatrix;
     } else {
       // If the image is too small, fall back to the global histogram approach.
@@ -88,26 +108,93 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
     return matrix;
   }
 
+  /**
+   * Thresholds each band of 64 rows the first time it is accessed. Computing the black points of
+   * its blocks still requires the statistics of all blocks above, since a block with low dynamic
+   * range takes its black point from the blocks above and to its left, but that pass is cheaper
+   * than thresholding and its results are kept for later bands.
+   */
+  @Override
+  public BitMatrix getLazyBlackMatrix() throws NotFoundException {
+    if (matrix != null) {
+      return matrix;
+    }
+    if (lazyMatrix == null) {
+      LuminanceSource source = getLuminanceSource();
+      int width = source.getWidth();
+      int height = source.getHeight();
+      if (width < MINIMUM_DIMENSION || height < MINIMUM_DIMENSION) {
+        return getBlackMatrix();
+      }
+      lazyMatrix = new BitMatrix(width, height, BAND_HEIGHT, this::thresholdBand);
+    }
+    return lazyMatrix;
+  }
+
+  private void thresholdBand(int top, int bandHeight, BitMatrix target) {
+    LuminanceSource source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int subWidth = blockCount(width);
+    int subHeight = blockCount(height);
+    if (blackPoints == null) {
+      luminances = source.getMatrix();
+      blackPoints = new int[subWidth * subHeight];
+    }
+    int fromY = top >> BLOCK_SIZE_POWER;
+    int toY = blockCount(top + bandHeight);
+    // The last two block rows may overlap, and must then be thresholded together
+    if (toY >= subHeight - 1) {
+      toY = subHeight;
+      fromY = Math.min(fromY, subHeight - 2);
+    }
+    // Thresholding block row y averages the black points of rows cap(y) - 2 to cap(y) + 2
+    int neededBlockRows = cap(toY - 1, subHeight - 3) + 3;
+    if (neededBlockRows > resolvedBlockRows) {
+      calculateBlockStatistics(luminances, subWidth, width, height, blackPoints, resolvedBlockRows, neededBlockRows);
+      resolveBlackPoints(blackPoints, subWidth, resolvedBlockRows, neededBlockRows);
+      resolvedBlockRows = neededBlockRows;
+    }
+    calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, target, fromY, toY);
+  }
+
   @Override
   public Binarizer createBinarizer(LuminanceSource source) {
     return new HybridBinarizer(source);
   }
 
+  /**
+   * @param dimension image width or height
+   * @return number of blocks needed to cover it, counting a final fractional block
+   */
+  static int blockCount(int dimension) {
+    int count = dimension >> BLOCK_SIZE_POWER;
+    if ((dimension & BLOCK_SIZE_MASK) != 0) {
+      count++;
+    }
+    return count;
+  }
+
   /**
    * For each block in the image, calculate the average black point using a 5x5 grid
    * of the blocks around it. Also handles the corner cases (fractional blocks are computed based
    * on the last pixels in the row/column which are also used in the previous block).
+   * Only block rows {@code fromY} (inclusive) to {@code toY} (exclusive) are thresholded.
+   * The last two block rows overlap when the height is not a multiple of the block size, so they
+   * must be thresholded by the same call.
    */
-  private static void calculateThresholdForBlock(byte[] luminances,
-                                                 int subWidth,
-                                                 int subHeight,
-                                                 int width,
-                                                 int height,
-                                                 int[][] blackPoints,
-                                                 BitMatrix matrix) {
+  static void calculateThresholdForBlock(byte[] luminances,
+                                         int subWidth,
+                                         int subHeight,
+                                         int width,
+                                         int height,
+                                         int[] blackPoints,
+                                         BitMatrix matrix,
+                                         int fromY,
+                                         int toY) {
     int maxYOffset = height - BLOCK_SIZE;
     int maxXOffset = width - BLOCK_SIZE;
-    for (int y = 0; y < subHeight; y++) {
+    for (int y = fromY; y < toY; y++) {
       int yoffset = y << BLOCK_SIZE_POWER;
       if (yoffset > maxYOffset) {
         yoffset = maxYOffset;
@@ -125,12 +212,13 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
     }
   }
 
-private static int sum(int subWidth, int[][] blackPoints, int top, int x) {
+private static int sum(int subWidth, int[] blackPoints, int top, int x) {
 	int left = cap(x, subWidth - 3);
 	int sum = 0;
 	for (int z = -2; z <= 2; z++) {
-		int[] blackRow = blackPoints[top + z];
-		sum += blackRow[left - 2] + blackRow[left - 1] + blackRow[left] + blackRow[left + 1] + blackRow[left + 2];
+		int offset = (top + z) * subWidth + left;
+		sum += blackPoints[offset - 2] + blackPoints[offset - 1] + blackPoints[offset] +
+		    blackPoints[offset + 1] + blackPoints[offset + 2];
 	}
 	return sum;
 }
@@ -159,31 +247,83 @@ private static int sum(int subWidth, int[][] blackPoints, int top, int x) {
   }
 
   /**
-   * Calculates a single black point for each block of pixels and saves it away.
+   * Calculates a single black point for each block of pixels and saves it away, in row-major order
+   * into {@code blackPoints}, which must hold at least {@code subWidth * subHeight} values.
    * See the following thread for a discussion of this algorithm:
    *  http://groups.google.com/group/zxing/browse_thread/thread/d06efa2c35a7ddc0
    */
-  private static int[][] calculateBlackPoints(byte[] luminances,
-                                              int subWidth,
-                                              int subHeight,
-                                              int width,
-                                              int height) {
+  static void calculateBlackPoints(byte[] luminances,
+                                   int subWidth,
+                                   int subHeight,
+                                   int width,
+                                   int height,
+                                   int[] blackPoints) {
+    calculateBlockStatistics(luminances, subWidth, width, height, blackPoints, 0, subHeight);
+    resolveBlackPoints(blackPoints, subWidth, 0, subHeight);
+  }
+
+  /**
+   * First step of {@link #calculateBlackPoints}, for block rows {@code fromY} (inclusive) to
+   * {@code toY} (exclusive). Each block only looks at its own pixels, so any set of rows can be
+   * computed independently. A block with enough dynamic range gets its average; any other block
+   * gets the bitwise complement of its minimum, a negative value, which
+   * {@link #resolveBlackPoints} later turns into a black point using its neighbors.
+   */
+  static void calculateBlockStatistics(byte[] luminances,
+                                       int subWidth,
+                                       int width,
+                                       int height,
+                                       int[] blackPoints,
+                                       int fromY,
+                                       int toY) {
     int maxYOffset = height - BLOCK_SIZE;
     int maxXOffset = width - BLOCK_SIZE;
-    int[][] blackPoints = new int[subHeight][subWidth];
-    for (int y = 0; y < subHeight; y++) {
+    for (int y = fromY; y < toY; y++) {
       int yoffset = yoffset(maxYOffset, y);
 	for (int x = 0; x < subWidth; x++) {
-        int average = average(luminances, width, maxXOffset, blackPoints, y, yoffset, x);
-		blackPoints[y][x] = average;
+		blackPoints[y * subWidth + x] = statistic(luminances, width, xoffset(maxXOffset, x), yoffset);
       }
     }
-    return blackPoints;
   }
 
-private static int average(byte[] luminances, int width, int maxXOffset, int[][] blackPoints, int y, int yoffset,
-		int x) {
-	int xoffset = xoffset(maxXOffset, x);
+  /**
+   * Second step of {@link #calculateBlackPoints}, for block rows {@code fromY} (inclusive) to
+   * {@code toY} (exclusive). Low dynamic range blocks depend on the final black points of the blocks
+   * above and to the left, so this runs in row-major order, and rows above {@code fromY} must already
+   * be resolved. It only touches the grid, not the pixels, so it is cheap.
+   */
+  static void resolveBlackPoints(int[] blackPoints, int subWidth, int fromY, int toY) {
+    for (int y = fromY; y < toY; y++) {
+      for (int x = 0; x < subWidth; x++) {
+        int index = y * subWidth + x;
+        int statistic = blackPoints[index];
+        if (statistic < 0) {
+          blackPoints[index] = lowContrastBlackPoint(blackPoints, subWidth, y, x, ~statistic);
+        }
+      }
+    }
+  }
+
+  /**
+   * If the block has little dynamic range, it is assumed to be all white or all black, and its black
+   * point is based on its neighbors' (see the thread linked from {@link #calculateBlackPoints}).
+   */
+  private static int lowContrastBlackPoint(int[] blackPoints, int subWidth, int y, int x, int min) {
+    // The default estimate is the minimum divided by 2. Since this block has low dynamic range it
+    // is assumed to be all white (or black); unless a neighbor says otherwise, treat it as white.
+    int average = min / 2;
+    if (y > 0 && x > 0) {
+      int index = y * subWidth + x;
+      int averageNeighborBlackPoint = (blackPoints[index - subWidth] + (2 * blackPoints[index - 1]) +
+          blackPoints[index - subWidth - 1]) / 4;
+      if (min < averageNeighborBlackPoint) {
+        average = averageNeighborBlackPoint;
+      }
+    }
+    return average;
+  }
+
+private static int statistic(byte[] luminances, int width, int xoffset, int yoffset) {
 	int sum = 0;
 	int min = 0xFF;
 	int max = 0;
@@ -202,18 +342,10 @@ private static int average(byte[] luminances, int width, int maxXOffset, int[][]
 			}
 		}
 	}
-	int average = sum >> (BLOCK_SIZE_POWER * 2);
 	if (max - min <= MIN_DYNAMIC_RANGE) {
-		average = min / 2;
-		if (y > 0 && x > 0) {
-			int averageNeighborBlackPoint = (blackPoints[y - 1][x] + (2 * blackPoints[y][x - 1])
-					+ blackPoints[y - 1][x - 1]) / 4;
-			if (min < averageNeighborBlackPoint) {
-				average = averageNeighborBlackPoint;
-			}
-		}
+		return ~min;
 	}
-	return average;
+	return sum >> (BLOCK_SIZE_POWER * 2);
 }
 
 private static int max(byte[] luminances, int max, int offset) {
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Implementations of this class convert ARGB pixels to luminance values. This is a large share of
+ * the work of building a {@link com.google.zxing.LuminanceSource} from a decoded image file, so it
+ * is abstracted to allow platform-specific implementations, such as one using SIMD instructions.
+ *
+ * At first use, the first implementation registered with {@link ServiceLoader} that can be loaded
+ * is installed, or {@link DefaultLuminanceConverter} if there is none. This can be overridden by
+ * calling {@link #setLuminanceConverter(LuminanceConverter)}.
+ */
+public abstract class LuminanceConverter {
+
+  private static LuminanceConverter luminanceConverter = loadLuminanceConverter();
+
+  /**
+   * Sets the implementation of LuminanceConverter used by the library. As with
+   * {@link GridSampler#setGridSampler(GridSampler)}, one global instance is stored.
+   *
+   * @param newLuminanceConverter The platform-specific object to install.
+   */
+  public static void setLuminanceConverter(LuminanceConverter newLuminanceConverter) {
+    luminanceConverter = newLuminanceConverter;
+  }
+
+  /**
+   * @return the current implementation of LuminanceConverter
+   */
+  public static LuminanceConverter getInstance() {
+    return luminanceConverter;
+  }
+
+  private static LuminanceConverter loadLuminanceConverter() {
+    try {
+      Iterator<LuminanceConverter> providers =
+          ServiceLoader.load(LuminanceConverter.class, LuminanceConverter.class.getClassLoader()).iterator();
+      if (providers.hasNext()) {
+        return providers.next();
+      }
+    } catch (ServiceConfigurationError | LinkageError e) {
+      // An implementation is present but can't run here, e.g. it needs a JDK module that is not
+      // enabled; fall back to the portable one
+    }
+    return new DefaultLuminanceConverter();
+  }
+
+  /**
+   * Converts pixels with the cheap green-favouring average {@code (R + 2G + B) / 4}, ignoring alpha.
+   * This is what {@link com.google.zxing.RGBLuminanceSource} uses.
+   *
+   * @param pixels ARGB pixels
+   * @param pixelOffset index of the first pixel to convert
+   * @param luminances array to write luminance values to
+   * @param offset index of the first luminance value to write
+   * @param count number of pixels to convert
+   */
+  public abstract void averageToLuminance(int[] pixels, int pixelOffset, byte[] luminances, int offset, int count);
+
+  /**
+   * Converts pixels with the weights {@code 0.299 R + 0.587 G + 0.114 B} (YUV/YIQ for PAL and NTSC),
+   * rounded, except that fully transparent pixels become white (255). Such pixels are often
+   * technically transparent black, but are used as the white area of a barcode image.
+   *
+   * @param pixels ARGB pixels
+   * @param pixelOffset index of the first pixel to convert
+   * @param luminances array to write luminance values to
+   * @param offset index of the first luminance value to write
+   * @param count number of pixels to convert
+   */
+  public abstract void weightedToLuminance(int[] pixels, int pixelOffset, byte[] luminances, int offset, int count);
+
+}
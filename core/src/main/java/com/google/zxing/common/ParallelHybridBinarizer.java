@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Produces exactly the same output as {@link HybridBinarizer}, but splits the work on large
+ * images into bands of block rows which are processed on a {@link ForkJoinPool}. This is meant for
+ * servers decoding large scans; on camera-sized frames the overhead is not worth it, so images
+ * below a threshold number of pixels are binarized on the calling thread.</p>
+ *
+ * <p>The black point of a block with little dynamic range depends on the blocks above and to the
+ * left of it, which would make bands depend on each other. The work is therefore done in three
+ * steps: per-block statistics for each band in parallel, then a cheap serial pass over the block
+ * grid to resolve those dependencies, then thresholding of each band in parallel. Thresholding
+ * reads the 5x5 neighborhood of black points across band borders, which is safe since the grid is
+ * complete by then.</p>
+ */
+public final class ParallelHybridBinarizer extends GlobalHistogramBinarizer {
+
+  /** Images with fewer pixels than this are binarized on the calling thread by default. */
+  public static final int DEFAULT_PARALLELISM_THRESHOLD = 1 << 21; // ~2 megapixels
+
+  // Smallest band of block rows worth its own task: 16 rows of 8 pixels
+  private static final int MIN_BAND_BLOCK_ROWS = 16;
+
+  private final ForkJoinPool pool;
+  private final int parallelismThreshold;
+  private BitMatrix matrix;
+
+  /**
+   * Uses the common pool and {@link #DEFAULT_PARALLELISM_THRESHOLD}.
+   *
+   * @param source luminance data to binarize
+   */
+  public ParallelHybridBinarizer(LuminanceSource source) {
+    this(source, ForkJoinPool.commonPool(), DEFAULT_PARALLELISM_THRESHOLD);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param pool pool on which bands are processed
+   * @param parallelismThreshold minimum number of pixels for which work is split into bands
+   */
+  public ParallelHybridBinarizer(LuminanceSource source, ForkJoinPool pool, int parallelismThreshold) {
+    super(source);
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool must be non-null.");
+    }
+    this.pool = pool;
+    this.parallelismThreshold = parallelismThreshold;
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() throws NotFoundException {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSource source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    if (width >= HybridBinarizer.MINIMUM_DIMENSION && height >= HybridBinarizer.MINIMUM_DIMENSION) {
+      byte[] luminances = source.getMatrix();
+      int subWidth = HybridBinarizer.blockCount(width);
+      int subHeight = HybridBinarizer.blockCount(height);
+      int[] blackPoints = new int[subWidth * subHeight];
+      BitMatrix newMatrix = new BitMatrix(width, height);
+      if ((long) width * height < parallelismThreshold) {
+        HybridBinarizer.calculateBlackPoints(luminances, subWidth, subHeight, width, height, blackPoints);
+        HybridBinarizer.calculateThresholdForBlock(luminances, subWidth, subHeight, width, height,
+                                                   blackPoints, newMatrix, 0, subHeight);
+      } else {
+        int bandRows = Math.max(MIN_BAND_BLOCK_ROWS, subHeight / (4 * pool.getParallelism()));
+        pool.invoke(new BandTask(luminances, subWidth, subHeight, width, height, blackPoints, null,
+                                 0, subHeight, bandRows));
+        HybridBinarizer.resolveBlackPoints(blackPoints, subWidth, 0, subHeight);
+        pool.invoke(new BandTask(luminances, subWidth, subHeight, width, height, blackPoints, newMatrix,
+                                 0, subHeight, bandRows));
+      }
+      matrix = newMatrix;
+    } else {
+      // If the image is too small, fall back to the global histogram approach.
+      matrix = super.getBlackMatrix();
+    }
+    return matrix;
+  }
+
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return new ParallelHybridBinarizer(source, pool, parallelismThreshold);
+  }
+
+  /**
+   * Computes block statistics for, or if {@code matrix} is set thresholds, block rows
+   * {@code fromY} (inclusive) to {@code toY} (exclusive), splitting the range in half until
+   * it is no more than {@code bandRows} rows.
+   */
+  private static final class BandTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] luminances;
+    private final int subWidth;
+    private final int subHeight;
+    private final int width;
+    private final int height;
+    private final int[] blackPoints;
+    private final BitMatrix matrix;
+    private final int fromY;
+    private final int toY;
+    private final int bandRows;
+
+    BandTask(byte[] luminances,
+             int subWidth,
+             int subHeight,
+             int width,
+             int height,
+             int[] blackPoints,
+             BitMatrix matrix,
+             int fromY,
+             int toY,
+             int bandRows) {
+      this.luminances = luminances;
+      this.subWidth = subWidth;
+      this.subHeight = subHeight;
+      this.width = width;
+      this.height = height;
+      this.blackPoints = blackPoints;
+      this.matrix = matrix;
+      this.fromY = fromY;
+      this.toY = toY;
+      this.bandRows = bandRows;
+    }
+
+    @Override
+    protected void compute() {
+      if (toY - fromY > bandRows) {
+        int middle = (fromY + toY) >>> 1;
+        // The last two block rows can cover some of the same pixel rows, and so the same words
+        // of the matrix; keep them in one band so that no two threads write the same word.
+        if (middle == subHeight - 1) {
+          middle--;
+        }
+        invokeAll(new BandTask(luminances, subWidth, subHeight, width, height, blackPoints, matrix,
+                               fromY, middle, bandRows),
+                  new BandTask(luminances, subWidth, subHeight, width, height, blackPoints, matrix,
+                               middle, toY, bandRows));
+      } else if (matrix == null) {
+        HybridBinarizer.calculateBlockStatistics(luminances, subWidth, width, height, blackPoints, fromY, toY);
+      } else {
+        HybridBinarizer.calculateThresholdForBlock(luminances, subWidth, subHeight, width, height,
+                                                   blackPoints, matrix, fromY, toY);
+      }
+    }
+  }
+
+}
@@ -49,10 +49,10 @@ private static final int INIT_SIZE = 10;
    * @throws NotFoundException if image is too small to accommodate {@code initSize}
    */
   public WhiteRectangleDetector(BitMatrix image, int initSize, int x, int y) throws NotFoundException {
-    whiteRectangleDetectorProduct3.getWhiteRectangleDetectorProduct2().setWhiteRectangleDetectorProduct(new WhiteRectangleDetectorProduct(image));
 	width = image.getWidth();
     int halfsize = initSize / 2;
 	this.whiteRectangleDetectorProduct3 = new WhiteRectangleDetectorProduct3(image.getHeight(), x, halfsize, y);
+    whiteRectangleDetectorProduct3.getWhiteRectangleDetectorProduct2().setWhiteRectangleDetectorProduct(new WhiteRectangleDetectorProduct(image));
     if (whiteRectangleDetectorProduct3.getUpInit() < 0 || whiteRectangleDetectorProduct3.getLeftInit() < 0 || whiteRectangleDetectorProduct3.getDownInit() >= whiteRectangleDetectorProduct3.getHeight() || whiteRectangleDetectorProduct3.getRightInit() >= width) {
       throw NotFoundException.getNotFoundInstance();
     }
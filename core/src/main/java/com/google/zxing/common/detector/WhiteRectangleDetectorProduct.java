@@ -34,19 +34,18 @@ public class WhiteRectangleDetectorProduct {
 	* @return  true if a black point has been found, else false.
 	*/
 	public boolean containsBlackPoint(int a, int b, int fixed, boolean horizontal) {
+		// Points off the image are never black; only the part of the segment on it is checked
+		int length = horizontal ? image.getWidth() : image.getHeight();
+		int across = horizontal ? image.getHeight() : image.getWidth();
+		int from = Math.max(a, 0);
+		int to = Math.min(b, length - 1);
+		if (to < from || fixed < 0 || fixed >= across) {
+			return false;
+		}
+		// Rows are checked a whole word at a time
 		if (horizontal) {
-			for (int x = a; x <= b; x++) {
-				if (image.get(x, fixed)) {
-					return true;
-				}
-			}
-		} else {
-			for (int y = a; y <= b; y++) {
-				if (image.get(fixed, y)) {
-					return true;
-				}
-			}
+			return !image.isRegionClear(from, fixed, to - from + 1, 1);
 		}
-		return false;
+		return !image.isRegionClear(fixed, from, 1, to - from + 1);
 	}
 }
\ No newline at end of file
@@ -16,6 +16,8 @@
 
 package com.google.zxing.common.reedsolomon;
 
+import java.util.Arrays;
+
 /**
  * <p>This class contains utility methods for performing mathematical operations over
  * the Galois Fields. Operations use a given primitive polynomial in calculations.</p>
@@ -39,11 +41,20 @@ public static final GenericGF AZTEC_DATA_12 = new GenericGF(0x1069, 4096, 1); //
   public static final GenericGF AZTEC_DATA_8 = DATA_MATRIX_FIELD_256;
   public static final GenericGF MAXICODE_FIELD_64 = AZTEC_DATA_6;
 
+  // Fields up to this size get a full multiplication table: 64KB for GF(256). The Aztec
+  // GF(1024) and GF(4096) fields would need megabytes, so they keep using log and exp tables.
+  private static final int MAX_MULTIPLICATION_TABLE_SIZE = 256;
+
   private final GenericGFPoly zero;
   private final GenericGFPoly one;
+  // a * b is multiplicationTable[a * size + b], or null if the field is too large
+  private final byte[] multiplicationTable;
   private final int size;
   private final int primitive;
   private final int generatorBase;
+  // generators[d] is the generator polynomial of degree d, highest-order coefficient first. It
+  // only ever grows, by replacing the whole array, so readers need no lock.
+  private volatile int[][] generators = {{1}};
 
   /**
    * Create a representation of GF(size) using the given primitive polynomial.
@@ -75,10 +86,69 @@ public static final GenericGF AZTEC_DATA_12 = new GenericGF(0x1069, 4096, 1); //
       genericGFProduct.getLogTable()[genericGFProduct.getExpTable()[i]] = i;
     }
     // logTable[0] == 0 but this should never be used
+    multiplicationTable = size <= MAX_MULTIPLICATION_TABLE_SIZE ? buildMultiplicationTable() : null;
     zero = new GenericGFPoly(this, new int[]{0});
     one = new GenericGFPoly(this, new int[]{1});
   }
 
+  private byte[] buildMultiplicationTable() {
+    int[] expTable = genericGFProduct.getExpTable();
+    int[] logTable = genericGFProduct.getLogTable();
+    byte[] table = new byte[size * size];
+    // Row and column 0 stay 0
+    for (int a = 1; a < size; a++) {
+      int row = a * size;
+      for (int b = 1; b < size; b++) {
+        table[row + b] = (byte) expTable[(logTable[a] + logTable[b]) % (size - 1)];
+      }
+    }
+    return table;
+  }
+
+  /**
+   * @return table in which a * b is at index a * size + b, or null if this field is too large
+   *  to have one; not to be modified
+   */
+  byte[] getMultiplicationTable() {
+    return multiplicationTable;
+  }
+
+  /**
+   * @param degree degree of the generator polynomial, at least 1 and less than the size of the field
+   * @return coefficients of the Reed-Solomon generator polynomial
+   *  (x+a^b)(x+a^(b+1))...(x+a^(b+degree-1)), highest-order first; not to be modified
+   */
+  int[] getGenerator(int degree) {
+    if (degree < 1 || degree >= size) {
+      throw new IllegalArgumentException("Invalid number of error correction codewords: " + degree);
+    }
+    int[][] known = generators;
+    return degree < known.length ? known[degree] : buildGenerators(degree)[degree];
+  }
+
+  private synchronized int[][] buildGenerators(int degree) {
+    int[][] known = generators;
+    if (degree < known.length) {
+      // Another thread built it meanwhile
+      return known;
+    }
+    int[][] grown = Arrays.copyOf(known, degree + 1);
+    for (int d = known.length; d <= degree; d++) {
+      // Multiply the last generator by (x + a^(b+d-1))
+      int[] last = grown[d - 1];
+      int root = exp(d - 1 + generatorBase);
+      int[] next = new int[d + 1];
+      next[0] = 1;
+      for (int i = 1; i < d; i++) {
+        next[i] = last[i] ^ multiply(last[i - 1], root);
+      }
+      next[d] = multiply(last[d - 1], root);
+      grown[d] = next;
+    }
+    generators = grown;
+    return grown;
+  }
+
   GenericGFPoly getZero() {
     return zero;
   }
@@ -139,6 +209,9 @@ public static final GenericGF AZTEC_DATA_12 = new GenericGF(0x1069, 4096, 1); //
    * @return product of a and b in GF(size)
    */
   int multiply(int a, int b) {
+    if (multiplicationTable != null) {
+      return multiplicationTable[a * size + b] & 0xFF;
+    }
     if (a == 0 || b == 0) {
       return 0;
     }
@@ -16,6 +16,8 @@
 
 package com.google.zxing.common.reedsolomon;
 
+import java.util.Arrays;
+
 /**
  * <p>Implements Reed-Solomon decoding, as the name implies.</p>
  *
@@ -29,6 +31,8 @@ package com.google.zxing.common.reedsolomon;
  * <li>J.I. Hall. <a href="www.mth.msu.edu/~jhall/classes/codenotes/GRS.pdf">
  * "Chapter 5. Generalized Reed-Solomon Codes"</a>
  * (see discussion of Euclidean algorithm)</li>
+ * <li>J.L. Massey. "Shift-register synthesis and BCH decoding", IEEE Transactions on
+ * Information Theory 15(1), 1969 (see {@link Algorithm#BERLEKAMP_MASSEY})</li>
  * </ul>
  *
  * <p>Much credit is due to William Rucklidge since portions of this code are an indirect
@@ -40,10 +44,97 @@ package com.google.zxing.common.reedsolomon;
  */
 public final class ReedSolomonDecoder {
 
+  /**
+   * Algorithm used to find the error locator polynomial of a damaged block. Both correct any
+   * block in which twice the number of errors plus the number of erasures is at most twoS, and
+   * correct it the same way; they may fail differently on blocks with more errors than that.
+   */
+  public enum Algorithm {
+    /**
+     * The extended Euclidean algorithm on x^twoS and the syndrome polynomial, which yields the
+     * error evaluator along with the locator, as {@link GenericGF#decode(int[], int)} does.
+     */
+    EUCLIDEAN,
+    /**
+     * The Berlekamp-Massey algorithm, which builds the locator directly from the syndromes with
+     * one polynomial update per syndrome. The evaluator is then a single truncated product, and
+     * error magnitudes come from Forney's formula with the formal derivative of the locator.
+     */
+    BERLEKAMP_MASSEY
+  }
+
+  /**
+   * Scratch arrays for decoding, which grow to fit the largest number of error-correction
+   * codewords seen so far. A workspace can be reused from one call to the next, and with decoders
+   * over different fields, but only by one thread at a time.
+   */
+  public static final class Workspace {
+
+    // Polynomials are stored lowest-order coefficient first, so that p[i] is the coefficient of x^i.
+    private int[] syndromes;
+    // Product of (1 + Xk x) over the locators Xk of the erased codewords
+    private int[] erasureLocator;
+    // For each syndrome i, the row of a^(b+i) in the multiplication table, or just b+i, its log,
+    // if the field has no table
+    private int[] syndromePoints;
+    // Field in which syndromePoints were computed, and for how many syndromes
+    private GenericGF syndromeField;
+    private int numSyndromePoints;
+    private int[] remainder;
+    private int[] lastRemainder;
+    private int[] locator;
+    private int[] lastLocator;
+    private int[] errorLocations;
+    private int[] errorMagnitudes;
+    // Logs of the locator's terms at the current point of the Chien search
+    private int[] chienTerms;
+    private int remainderDegree;
+    private int locatorDegree;
+
+    private void ensureCapacity(GenericGF field, int twoS) {
+      if (syndromes == null || syndromes.length < twoS) {
+        syndromes = new int[twoS];
+        erasureLocator = new int[twoS + 1];
+        syndromePoints = new int[twoS];
+        numSyndromePoints = 0;
+        remainder = new int[twoS + 1];
+        lastRemainder = new int[twoS + 1];
+        locator = new int[twoS + 1];
+        lastLocator = new int[twoS + 1];
+        errorLocations = new int[twoS + 1];
+        errorMagnitudes = new int[twoS + 1];
+        chienTerms = new int[twoS + 1];
+      }
+      if (syndromeField != field || numSyndromePoints < twoS) {
+        byte[] table = field.getMultiplicationTable();
+        for (int i = 0; i < twoS; i++) {
+          int power = i + field.getGeneratorBase();
+          syndromePoints[i] = table == null ? power : field.exp(power) * field.getSize();
+        }
+        syndromeField = field;
+        numSyndromePoints = twoS;
+      }
+    }
+  }
+
   private final GenericGF field;
+  private final Algorithm algorithm;
 
   public ReedSolomonDecoder(GenericGF field) {
+    this(field, Algorithm.EUCLIDEAN);
+  }
+
+  /**
+   * @param field field over which codewords are defined
+   * @param algorithm algorithm to find the errors in a damaged block with
+   */
+  public ReedSolomonDecoder(GenericGF field, Algorithm algorithm) {
     this.field = field;
+    this.algorithm = algorithm;
+  }
+
+  public Algorithm getAlgorithm() {
+    return algorithm;
   }
 
   /**
@@ -51,12 +142,501 @@ public final class ReedSolomonDecoder {
    * codewords. Really, this means it uses Reed-Solomon to detect and correct errors, in-place,
    * in the input.</p>
    *
+   * <p>The same steps as {@link GenericGF#decode(int[], int)} are carried out on the arrays of a
+   * new {@link Workspace} rather than on new polynomials; see
+   * {@link #decode(int[], int, int[], Workspace)} to reuse one from call to call.</p>
+   *
    * @param received data and error-correction codewords
    * @param twoS number of error-correction codewords available
    * @throws ReedSolomonException if decoding fails for any reason
    */
   public void decode(int[] received, int twoS) throws ReedSolomonException {
-    field.decode(received, twoS);
+    decode(received, twoS, null);
+  }
+
+  /**
+   * <p>Decodes given set of received codewords, as {@link #decode(int[], int)} does, knowing that
+   * the codewords at some positions are likely wrong, for example because they were hard to read.
+   * Such erasures cost one error-correction codeword each to correct, where an error at an
+   * unknown position costs two, so up to twoS erasures can be corrected rather than twoS / 2
+   * errors. An erased codeword that was right after all is left unchanged.</p>
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @param erasures distinct positions in received of codewords which are likely wrong,
+   *  or null if none are known
+   * @throws ReedSolomonException if decoding fails for any reason, including if there are more
+   *  than twoS erasures
+   */
+  public void decode(int[] received, int twoS, int[] erasures) throws ReedSolomonException {
+    decode(received, twoS, erasures, new Workspace());
+  }
+
+  /**
+   * <p>Decodes given set of received codewords as {@link #decode(int[], int, int[])} does, in the
+   * arrays of the given workspace, so that once they have grown to fit {@code twoS}, a call
+   * allocates nothing unless it fails. The decoder itself holds no state, so it may be shared by
+   * several threads, as long as each passes its own workspace.</p>
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @param erasures distinct positions in received of codewords which are likely wrong,
+   *  or null if none are known
+   * @param workspace scratch space for this call, not in use by any other thread
+   * @throws ReedSolomonException if decoding fails for any reason, including if there are more
+   *  than twoS erasures
+   */
+  public void decode(int[] received, int twoS, int[] erasures, Workspace workspace)
+      throws ReedSolomonException {
+    workspace.ensureCapacity(field, twoS);
+    if (computeSyndromes(received, twoS, workspace)) {
+      correctErrors(received, twoS, erasures, workspace);
+    }
+  }
+
+  /**
+   * <p>Decodes the blocks of one symbol, which all have the same number of error-correction
+   * codewords, in place, as {@link #decode(int[], int)} would one at a time. Most blocks in a
+   * symbol that decodes at all have no errors, so the syndromes of each block are checked first,
+   * and the error-locating steps only run for blocks that have some.</p>
+   *
+   * @param blocks data and error-correction codewords of each block
+   * @param twoS number of error-correction codewords in each block
+   * @return number of blocks that had errors, all of which were corrected
+   * @throws ReedSolomonException if decoding any block fails; blocks before it have been corrected
+   */
+  public int decodeBlocks(int[][] blocks, int twoS) throws ReedSolomonException {
+    return decodeBlocks(blocks, twoS, null);
+  }
+
+  /**
+   * <p>Decodes the blocks of one symbol as {@link #decodeBlocks(int[][], int)} does, with known
+   * erasures in each block as {@link #decode(int[], int, int[])} takes them. Erasures typically
+   * come from modules that could not be read with confidence, some of which will have been read
+   * correctly anyway; if a block cannot be decoded with its erasures, because there are too many,
+   * it is decoded again without them.</p>
+   *
+   * @param blocks data and error-correction codewords of each block
+   * @param twoS number of error-correction codewords in each block
+   * @param erasures for each block, distinct positions of codewords which are likely wrong, or null
+   *  if none are known; or null if none are known in any block
+   * @return number of blocks that had errors, all of which were corrected
+   * @throws ReedSolomonException if decoding any block fails; blocks before it have been corrected
+   */
+  public int decodeBlocks(int[][] blocks, int twoS, int[][] erasures) throws ReedSolomonException {
+    return decodeBlocks(blocks, twoS, erasures, new Workspace());
+  }
+
+  /**
+   * <p>Decodes the blocks of one symbol as {@link #decodeBlocks(int[][], int, int[][])} does, in
+   * the arrays of the given workspace, as {@link #decode(int[], int, int[], Workspace)} does.</p>
+   *
+   * @param blocks data and error-correction codewords of each block
+   * @param twoS number of error-correction codewords in each block
+   * @param erasures for each block, distinct positions of codewords which are likely wrong, or null
+   *  if none are known; or null if none are known in any block
+   * @param workspace scratch space for this call, not in use by any other thread
+   * @return number of blocks that had errors, all of which were corrected
+   * @throws ReedSolomonException if decoding any block fails; blocks before it have been corrected
+   */
+  public int decodeBlocks(int[][] blocks, int twoS, int[][] erasures, Workspace workspace)
+      throws ReedSolomonException {
+    workspace.ensureCapacity(field, twoS);
+    int numCorrected = 0;
+    for (int j = 0; j < blocks.length; j++) {
+      int[] block = blocks[j];
+      if (computeSyndromes(block, twoS, workspace)) {
+        int[] blockErasures = erasures == null ? null : erasures[j];
+        if (blockErasures == null || blockErasures.length == 0) {
+          correctErrors(block, twoS, null, workspace);
+        } else {
+          try {
+            correctErrors(block, twoS, blockErasures, workspace);
+          } catch (ReedSolomonException ignored) {
+            // The syndromes are still those of the unchanged block
+            correctErrors(block, twoS, null, workspace);
+          }
+        }
+        numCorrected++;
+      }
+    }
+    return numCorrected;
+  }
+
+  /**
+   * Corrects received in place, given its syndromes, at least one of which is non-zero.
+   * Leaves received unchanged if it fails.
+   */
+  private void correctErrors(int[] received, int twoS, int[] erasures, Workspace w) throws ReedSolomonException {
+    int numErasures = erasures == null ? 0 : erasures.length;
+    if (numErasures > twoS) {
+      throw new ReedSolomonException("Too many erasures");
+    }
+    buildErasureLocator(received.length, erasures, numErasures, w);
+    int numErrors;
+    if (algorithm == Algorithm.BERLEKAMP_MASSEY) {
+      runBerlekampMasseyAlgorithm(twoS, numErasures, w);
+      numErrors = findErrorLocations(received.length, w);
+      findErrorMagnitudesFromDerivative(numErrors, w);
+    } else {
+      runEuclideanAlgorithm(twoS, numErasures, w);
+      numErrors = findErrorLocations(received.length, w);
+      findErrorMagnitudes(numErrors, w);
+    }
+    for (int i = 0; i < numErrors; i++) {
+      if (field.log(w.errorLocations[i]) >= received.length) {
+        throw new ReedSolomonException("Bad error location");
+      }
+    }
+    for (int i = 0; i < numErrors; i++) {
+      int position = received.length - 1 - field.log(w.errorLocations[i]);
+      received[position] = GenericGF.addOrSubtract(received[position], w.errorMagnitudes[i]);
+    }
+  }
+
+  private void buildErasureLocator(int numCodewords, int[] erasures, int numErasures, Workspace w) {
+    int[] gamma = w.erasureLocator;
+    gamma[0] = 1;
+    for (int k = 0; k < numErasures; k++) {
+      int position = erasures[k];
+      if (position < 0 || position >= numCodewords) {
+        throw new IllegalArgumentException("Erasure position " + position + " is not in the block");
+      }
+      // Multiply by (1 + Xk x)
+      int xk = field.exp(numCodewords - 1 - position);
+      gamma[k + 1] = 0;
+      for (int i = k + 1; i > 0; i--) {
+        gamma[i] ^= field.multiply(xk, gamma[i - 1]);
+      }
+    }
+  }
+
+  /**
+   * Evaluates the received polynomial at a^(b+i) for each i &lt; twoS, into {@link Workspace#syndromes}.
+   *
+   * @return true iff any syndrome is non-zero, that is, the codewords contain errors
+   */
+  private boolean computeSyndromes(int[] received, int twoS, Workspace w) {
+    int[] s = w.syndromes;
+    Arrays.fill(s, 0, twoS, 0);
+    // Horner's rule at every point at once, one codeword at a time: s_i = s_i * a^(b+i) + c
+    byte[] table = field.getMultiplicationTable();
+    if (table != null) {
+      for (int coefficient : received) {
+        for (int i = 0; i < twoS; i++) {
+          s[i] = (table[w.syndromePoints[i] + s[i]] & 0xFF) ^ coefficient;
+        }
+      }
+    } else {
+      int order = field.getSize() - 1;
+      for (int coefficient : received) {
+        for (int i = 0; i < twoS; i++) {
+          int syndrome = s[i];
+          if (syndrome != 0) {
+            syndrome = field.exp((field.log(syndrome) + w.syndromePoints[i]) % order);
+          }
+          s[i] = syndrome ^ coefficient;
+        }
+      }
+    }
+    int any = 0;
+    for (int i = 0; i < twoS; i++) {
+      any |= s[i];
+    }
+    return any != 0;
+  }
+
+  /**
+   * Runs the extended Euclidean algorithm on x^twoS and the syndrome polynomial, as
+   * {@link GenericGF#runEuclideanAlgorithm(GenericGFPoly, GenericGFPoly, int)} does, leaving the
+   * error locator sigma in {@link Workspace#locator} and the error evaluator omega in {@link Workspace#remainder}.
+   * Each step reduces r_{i-2} modulo r_{i-1} in the array that held r_{i-2}, and adds q_i t_{i-1}
+   * to t_{i-2} as it goes, so no quotient is ever built.
+   *
+   * With erasures, the algorithm runs on the syndromes times the erasure locator instead, and
+   * stops at a higher degree, since omega then has a term for each erasure too; the locator of
+   * the errors it finds is then multiplied by the erasure locator.
+   */
+  private void runEuclideanAlgorithm(int twoS, int numErasures, Workspace w) throws ReedSolomonException {
+    int[] rLast = w.lastRemainder;
+    int[] r = w.remainder;
+    int[] tLast = w.lastLocator;
+    int[] t = w.locator;
+    Arrays.fill(rLast, 0, twoS + 1, 0);
+    rLast[twoS] = 1;
+    int rLastDegree = twoS;
+    if (numErasures == 0) {
+      System.arraycopy(w.syndromes, 0, r, 0, twoS);
+    } else {
+      for (int i = 0; i < twoS; i++) {
+        int term = 0;
+        for (int j = Math.min(i, numErasures); j >= 0; j--) {
+          term ^= field.multiply(w.erasureLocator[j], w.syndromes[i - j]);
+        }
+        r[i] = term;
+      }
+    }
+    r[twoS] = 0;
+    int rDegree = degree(r, twoS);
+    Arrays.fill(tLast, 0, twoS + 1, 0);
+    int tLastDegree = 0;
+    Arrays.fill(t, 0, twoS + 1, 0);
+    t[0] = 1;
+    int tDegree = 0;
+
+    while (2 * rDegree >= twoS + numErasures) {
+      // r_{i-1} becomes rLast, and r_{i-2} is reduced in place into r_i; same for t
+      int[] temp = rLast;
+      rLast = r;
+      r = temp;
+      int tempDegree = rLastDegree;
+      rLastDegree = rDegree;
+      rDegree = tempDegree;
+      temp = tLast;
+      tLast = t;
+      t = temp;
+      tempDegree = tLastDegree;
+      tLastDegree = tDegree;
+      tDegree = tempDegree;
+
+      if (rLastDegree == 0 && rLast[0] == 0) {
+        throw new ReedSolomonException("r_{i-1} was zero");
+      }
+      int dltInverse = field.inverse(rLast[rLastDegree]);
+      while (rDegree >= rLastDegree && (rDegree > 0 || r[0] != 0)) {
+        int degreeDiff = rDegree - rLastDegree;
+        int scale = field.multiply(r[rDegree], dltInverse);
+        for (int i = 0; i <= rLastDegree; i++) {
+          r[i + degreeDiff] ^= field.multiply(rLast[i], scale);
+        }
+        for (int i = 0; i <= tLastDegree; i++) {
+          t[i + degreeDiff] ^= field.multiply(tLast[i], scale);
+        }
+        rDegree = degree(r, rDegree);
+        tDegree = Math.max(tDegree, tLastDegree + degreeDiff);
+      }
+      tDegree = degree(t, tDegree);
+      if (rDegree >= rLastDegree) {
+        throw new IllegalStateException("Division algorithm failed to reduce polynomial?");
+      }
+    }
+
+    int sigmaTildeAtZero = t[0];
+    if (sigmaTildeAtZero == 0) {
+      throw new ReedSolomonException("sigmaTilde(0) was zero");
+    }
+    int inverse = field.inverse(sigmaTildeAtZero);
+    for (int i = 0; i <= tDegree; i++) {
+      t[i] = field.multiply(t[i], inverse);
+    }
+    for (int i = 0; i <= rDegree; i++) {
+      r[i] = field.multiply(r[i], inverse);
+    }
+    if (numErasures > 0) {
+      // t has degree at most (twoS - numErasures) / 2, so the product fits
+      Arrays.fill(tLast, 0, tDegree + numErasures + 1, 0);
+      for (int i = 0; i <= tDegree; i++) {
+        for (int j = 0; j <= numErasures; j++) {
+          tLast[i + j] ^= field.multiply(t[i], w.erasureLocator[j]);
+        }
+      }
+      int[] temp = t;
+      t = tLast;
+      tLast = temp;
+      tDegree += numErasures;
+    }
+    // Keep the results under their usual names for the following steps
+    w.locator = t;
+    w.lastLocator = tLast;
+    w.remainder = r;
+    w.lastRemainder = rLast;
+    w.locatorDegree = tDegree;
+    w.remainderDegree = rDegree;
+  }
+
+  /**
+   * Runs the Berlekamp-Massey algorithm on the syndromes, leaving the error locator in
+   * {@link Workspace#locator} and the error evaluator, the locator times the syndrome polynomial modulo
+   * x^numErrors, in {@link Workspace#remainder}. {@link Workspace#lastRemainder} holds a copy of the previous
+   * locator while it is being updated.
+   *
+   * With erasures, the locator starts out as the erasure locator rather than 1, and the first
+   * numErasures syndromes are skipped, as in Blahut's errors-and-erasures variant.
+   */
+  private void runBerlekampMasseyAlgorithm(int twoS, int numErasures, Workspace w) throws ReedSolomonException {
+    int[] c = w.locator;
+    int[] b = w.lastLocator;
+    int[] temp = w.lastRemainder;
+    Arrays.fill(c, 0, twoS + 1, 0);
+    System.arraycopy(w.erasureLocator, 0, c, 0, numErasures + 1);
+    int cDegree = numErasures;
+    System.arraycopy(w.erasureLocator, 0, b, 0, numErasures + 1);
+    int bDegree = numErasures;
+    int bDiscrepancyInverse = 1;
+    // Number of errors and erasures the locator accounts for so far, and steps since it last grew
+    int l = numErasures;
+    int m = 1;
+
+    for (int n = numErasures; n < twoS; n++) {
+      int discrepancy = w.syndromes[n];
+      int maxTerm = Math.min(l, n);
+      for (int i = 1; i <= maxTerm; i++) {
+        discrepancy ^= field.multiply(c[i], w.syndromes[n - i]);
+      }
+      if (discrepancy == 0) {
+        m++;
+        continue;
+      }
+      boolean grow = 2 * l <= n + numErasures;
+      int tempDegree = cDegree;
+      if (grow) {
+        System.arraycopy(c, 0, temp, 0, cDegree + 1);
+      }
+      // c -= discrepancy / bDiscrepancy * x^m * b
+      int scale = field.multiply(discrepancy, bDiscrepancyInverse);
+      for (int i = 0; i <= bDegree; i++) {
+        c[i + m] ^= field.multiply(b[i], scale);
+      }
+      cDegree = degree(c, Math.max(cDegree, bDegree + m));
+      if (grow) {
+        l = n + 1 + numErasures - l;
+        int[] swap = b;
+        b = temp;
+        temp = swap;
+        bDegree = tempDegree;
+        bDiscrepancyInverse = field.inverse(discrepancy);
+        m = 1;
+      } else {
+        m++;
+      }
+    }
+    if (cDegree != l || 2 * l > twoS + numErasures) {
+      throw new ReedSolomonException("Error locator degree does not match number of errors");
+    }
+
+    int[] omega = w.remainder;
+    for (int i = 0; i < l; i++) {
+      int term = 0;
+      for (int j = 0; j <= i; j++) {
+        term ^= field.multiply(c[j], w.syndromes[i - j]);
+      }
+      omega[i] = term;
+    }
+    omega[l] = 0;
+    w.lastLocator = b;
+    w.lastRemainder = temp;
+    w.locatorDegree = cDegree;
+    w.remainderDegree = degree(omega, l);
+  }
+
+  /**
+   * Finds the roots of the error locator with a Chien search, into {@link Workspace#errorLocations}.
+   * Unlike {@link GenericGFPoly#findErrorLocations(GenericGF)}, it only tries the points that
+   * correspond to a position within the block, and it steps from one point to the next by
+   * adding the log of a constant to each term, rather than evaluating the locator afresh.
+   *
+   * @param numBlockWords number of codewords in the block
+   * @return number of errors
+   */
+  private int findErrorLocations(int numBlockWords, Workspace w) throws ReedSolomonException {
+    int numErrors = w.locatorDegree;
+    if (numErrors == 1) {
+      w.errorLocations[0] = w.locator[1];
+      return 1;
+    }
+    int order = field.getSize() - 1;
+    for (int j = 1; j <= numErrors; j++) {
+      w.chienTerms[j] = w.locator[j] == 0 ? -1 : field.log(w.locator[j]);
+    }
+    int e = 0;
+    // An error at position numBlockWords - 1 - p has locator a^p, so it is a root at a^-p
+    int maxPower = Math.min(numBlockWords, order);
+    for (int p = 0; p < maxPower && e < numErrors; p++) {
+      int value = w.locator[0];
+      for (int j = 1; j <= numErrors; j++) {
+        int term = w.chienTerms[j];
+        if (term >= 0) {
+          value ^= field.exp(term);
+          // The x^j term is multiplied by a^-j at the next point
+          term -= j;
+          w.chienTerms[j] = term < 0 ? term + order : term;
+        }
+      }
+      if (value == 0) {
+        w.errorLocations[e] = field.exp(p);
+        e++;
+      }
+    }
+    if (e != numErrors) {
+      throw new ReedSolomonException("Error locator degree does not match number of roots");
+    }
+    return numErrors;
+  }
+
+  /**
+   * Applies Forney's formula to the error evaluator, into {@link Workspace#errorMagnitudes}.
+   */
+  private void findErrorMagnitudes(int numErrors, Workspace w) {
+    for (int i = 0; i < numErrors; i++) {
+      int xiInverse = field.inverse(w.errorLocations[i]);
+      int denominator = 1;
+      for (int j = 0; j < numErrors; j++) {
+        if (i != j) {
+          // 1 + Xj/Xi
+          denominator = field.multiply(denominator, field.multiply(w.errorLocations[j], xiInverse) ^ 1);
+        }
+      }
+      int magnitude = field.multiply(evaluateAt(w.remainder, w.remainderDegree, xiInverse), field.inverse(denominator));
+      if (field.getGeneratorBase() != 0) {
+        magnitude = field.multiply(magnitude, xiInverse);
+      }
+      w.errorMagnitudes[i] = magnitude;
+    }
+  }
+
+  /**
+   * Applies Forney's formula as magnitude = Xi^(1-b) omega(Xi^-1) / sigma'(Xi^-1), which is what
+   * {@link #findErrorMagnitudes(int, Workspace)} computes, for a locator with sigma(0) = 1. Only the odd
+   * terms of sigma survive its formal derivative over GF(2^m), so sigma' takes half the work.
+   */
+  private void findErrorMagnitudesFromDerivative(int numErrors, Workspace w) throws ReedSolomonException {
+    int highestOddPower = (numErrors & 0x01) == 0 ? numErrors - 1 : numErrors;
+    for (int i = 0; i < numErrors; i++) {
+      int xi = w.errorLocations[i];
+      int xiInverse = field.inverse(xi);
+      int xiInverseSquared = field.multiply(xiInverse, xiInverse);
+      int derivative = 0;
+      for (int j = highestOddPower; j > 0; j -= 2) {
+        derivative = field.multiply(derivative, xiInverseSquared) ^ w.locator[j];
+      }
+      if (derivative == 0) {
+        throw new ReedSolomonException("Error locator has a repeated root");
+      }
+      int magnitude = field.multiply(evaluateAt(w.remainder, w.remainderDegree, xiInverse), field.inverse(derivative));
+      if (field.getGeneratorBase() == 0) {
+        magnitude = field.multiply(magnitude, xi);
+      }
+      w.errorMagnitudes[i] = magnitude;
+    }
+  }
+
+  private int evaluateAt(int[] poly, int degree, int a) {
+    int result = poly[degree];
+    for (int i = degree - 1; i >= 0; i--) {
+      result = field.multiply(a, result) ^ poly[i];
+    }
+    return result;
+  }
+
+  /**
+   * @return degree of poly, given that its coefficients above x^maxDegree are 0
+   */
+  private static int degree(int[] poly, int maxDegree) {
+    int degree = maxDegree;
+    while (degree > 0 && poly[degree] == 0) {
+      degree--;
+    }
+    return degree;
   }
 
 }
@@ -16,59 +16,117 @@
 
 package com.google.zxing.common.reedsolomon;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * <p>Implements Reed-Solomon encoding, as the name implies.</p>
  *
+ * <p>Generator polynomials are cached by the {@link GenericGF} and shared by all encoders for
+ * the field. Encoders have no other state, so one instance may be used by many threads at once.</p>
+ *
  * @author Sean Owen
  * @author William Rucklidge
  */
 public final class ReedSolomonEncoder {
 
   private final GenericGF field;
-  private final List<GenericGFPoly> cachedGenerators;
 
   public ReedSolomonEncoder(GenericGF field) {
     this.field = field;
-    this.cachedGenerators = new ArrayList<>();
-    cachedGenerators.add(new GenericGFPoly(field, new int[]{1}));
   }
 
-  private GenericGFPoly buildGenerator(int degree) {
-    if (degree >= cachedGenerators.size()) {
-      GenericGFPoly lastGenerator = cachedGenerators.get(cachedGenerators.size() - 1);
-      for (int d = cachedGenerators.size(); d <= degree; d++) {
-        GenericGFPoly nextGenerator = lastGenerator.multiply(
-            new GenericGFPoly(field, new int[] { 1, field.exp(d - 1 + field.getGeneratorBase()) }));
-        cachedGenerators.add(nextGenerator);
-        lastGenerator = nextGenerator;
+  /**
+   * @param toEncode data codewords followed by room for the error correction codewords, which
+   *  are written there
+   * @param ecBytes number of error correction codewords
+   */
+  public void encode(int[] toEncode, int ecBytes) {
+    if (ecBytes == 0) {
+      throw new IllegalArgumentException("No error correction bytes");
+    }
+    int dataBytes = toEncode.length - ecBytes;
+    encode(toEncode, 0, dataBytes, toEncode, dataBytes, ecBytes);
+  }
+
+  /**
+   * <p>Computes error correction codewords into an array supplied by the caller, without
+   * allocating anything.</p>
+   *
+   * @param data array holding the data codewords
+   * @param dataOffset offset of the first data codeword
+   * @param numData number of data codewords
+   * @param ec array to write the error correction codewords into; may be {@code data} if the
+   *  ranges do not overlap
+   * @param ecOffset offset of the first error correction codeword
+   * @param numEc number of error correction codewords
+   */
+  public void encode(int[] data, int dataOffset, int numData, int[] ec, int ecOffset, int numEc) {
+    int[] generator = getGenerator(numData, numEc);
+    byte[] multiplicationTable = field.getMultiplicationTable();
+    int size = field.getSize();
+    int last = ecOffset + numEc - 1;
+    Arrays.fill(ec, ecOffset, last + 1, 0);
+    // Divide data * x^numEc by the generator in a shift register holding the remainder
+    for (int i = dataOffset; i < dataOffset + numData; i++) {
+      int feedback = data[i] ^ ec[ecOffset];
+      if (feedback == 0) {
+        System.arraycopy(ec, ecOffset + 1, ec, ecOffset, numEc - 1);
+        ec[last] = 0;
+      } else if (multiplicationTable != null) {
+        int row = feedback * size;
+        for (int j = ecOffset, g = 1; j < last; j++, g++) {
+          ec[j] = ec[j + 1] ^ (multiplicationTable[row + generator[g]] & 0xFF);
+        }
+        ec[last] = multiplicationTable[row + generator[numEc]] & 0xFF;
+      } else {
+        for (int j = ecOffset, g = 1; j < last; j++, g++) {
+          ec[j] = ec[j + 1] ^ field.multiply(feedback, generator[g]);
+        }
+        ec[last] = field.multiply(feedback, generator[numEc]);
       }
     }
-    return cachedGenerators.get(degree);
   }
 
-  public void encode(int[] toEncode, int ecBytes) {
-    if (ecBytes == 0) {
+  /**
+   * <p>As {@link #encode(int[], int, int, int[], int, int)}, for fields of at most 256 elements
+   * whose codewords are held in bytes.</p>
+   *
+   * @param data array holding the data codewords
+   * @param dataOffset offset of the first data codeword
+   * @param numData number of data codewords
+   * @param ec array to write the error correction codewords into; may be {@code data} if the
+   *  ranges do not overlap
+   * @param ecOffset offset of the first error correction codeword
+   * @param numEc number of error correction codewords
+   * @throws IllegalStateException if the field has more than 256 elements
+   */
+  public void encode(byte[] data, int dataOffset, int numData, byte[] ec, int ecOffset, int numEc) {
+    byte[] multiplicationTable = field.getMultiplicationTable();
+    if (multiplicationTable == null) {
+      throw new IllegalStateException("Codewords of " + field + " do not fit in bytes");
+    }
+    int[] generator = getGenerator(numData, numEc);
+    int size = field.getSize();
+    int last = ecOffset + numEc - 1;
+    Arrays.fill(ec, ecOffset, last + 1, (byte) 0);
+    for (int i = dataOffset; i < dataOffset + numData; i++) {
+      int feedback = (data[i] ^ ec[ecOffset]) & 0xFF;
+      int row = feedback * size;
+      for (int j = ecOffset, g = 1; j < last; j++, g++) {
+        ec[j] = (byte) (ec[j + 1] ^ multiplicationTable[row + generator[g]]);
+      }
+      ec[last] = multiplicationTable[row + generator[numEc]];
+    }
+  }
+
+  private int[] getGenerator(int numData, int numEc) {
+    if (numEc <= 0) {
       throw new IllegalArgumentException("No error correction bytes");
     }
-    int dataBytes = toEncode.length - ecBytes;
-    if (dataBytes <= 0) {
+    if (numData <= 0) {
       throw new IllegalArgumentException("No data bytes provided");
     }
-    GenericGFPoly generator = buildGenerator(ecBytes);
-    int[] infoCoefficients = new int[dataBytes];
-    System.arraycopy(toEncode, 0, infoCoefficients, 0, dataBytes);
-    GenericGFPoly info = new GenericGFPoly(field, infoCoefficients);
-    info = info.multiplyByMonomial(ecBytes, 1);
-    GenericGFPoly remainder = info.divide(generator)[1];
-    int[] coefficients = remainder.getCoefficients();
-    int numZeroCoefficients = ecBytes - coefficients.length;
-    for (int i = 0; i < numZeroCoefficients; i++) {
-      toEncode[dataBytes + i] = 0;
-    }
-    System.arraycopy(coefficients, 0, toEncode, dataBytes + numZeroCoefficients, coefficients.length);
+    return field.getGenerator(numEc);
   }
 
 }
@@ -69,8 +69,9 @@ public final class DataMatrixReader implements Reader {
       decoderResult = decoder.decode(bits);
       points = NO_POINTS;
     } else {
-      DetectorResult detectorResult = new Detector(image.getBlackMatrix()).detect();
-      decoderResult = decoder.decode(detectorResult.getBits());
+      // The detector works outwards from the center, so it often never reads most of the rows
+      DetectorResult detectorResult = new Detector(image.getLazyBlackMatrix()).detect(hints);
+      decoderResult = decoder.decode(detectorResult.getBits(), detectorResult.getUncertainModules());
       points = detectorResult.getPoints();
     }
     Result result = new Result(decoderResult.getText(), decoderResult.getRawBytes(), points,
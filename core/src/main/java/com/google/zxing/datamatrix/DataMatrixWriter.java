@@ -120,7 +120,10 @@ private String encodeDataMatrixRefactor(String contents, Map<EncodeHintType, ?>
       if (hasEncodingHint) {
         charset = Charset.forName(hints.get(EncodeHintType.CHARACTER_SET).toString());
       }
-      encoded = MinimalEncoder.encodeHighLevel(contents, charset, hasGS1FormatHint ? 0x1D : -1, shape);
+      MinimalEncoder.MetricsCallback metricsCallback =
+          (MinimalEncoder.MetricsCallback) hints.get(EncodeHintType.DATA_MATRIX_COMPACT_METRICS_CALLBACK);
+      encoded = MinimalEncoder.encodeHighLevel(contents, charset, hasGS1FormatHint ? 0x1D : -1, shape,
+          metricsCallback);
     } else {
       boolean hasForceC40Hint = hints != null && hints.containsKey(EncodeHintType.FORCE_C40) &&
           Boolean.parseBoolean(hints.get(EncodeHintType.FORCE_C40).toString());
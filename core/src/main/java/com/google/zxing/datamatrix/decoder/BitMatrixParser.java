@@ -26,21 +26,39 @@ final class BitMatrixParser {
 
   private final BitMatrix mappingBitMatrix;
   private final BitMatrix readMappingMatrix;
+  private final BitMatrix uncertainMappingMatrix;
   private final Version version;
+  private byte[] uncertainCodewords;
+  private boolean uncertainModuleRead;
 
   /**
    * @param bitMatrix {@link BitMatrix} to parse
    * @throws FormatException if dimension is < 8 or > 144 or not 0 mod 2
    */
   BitMatrixParser(BitMatrix bitMatrix) throws FormatException {
+    this(bitMatrix, null);
+  }
+
+  /**
+   * @param bitMatrix {@link BitMatrix} to parse
+   * @param uncertainModules modules of bitMatrix which may have been misread, or null if unknown
+   * @throws FormatException if dimension is < 8 or > 144 or not 0 mod 2
+   */
+  BitMatrixParser(BitMatrix bitMatrix, BitMatrix uncertainModules) throws FormatException {
     int dimension = bitMatrix.getHeight();
     if (dimension < 8 || dimension > 144 || (dimension & 0x01) != 0) {
       throw FormatException.getFormatInstance();
     }
+    if (uncertainModules != null &&
+        (uncertainModules.getWidth() != bitMatrix.getWidth() ||
+         uncertainModules.getHeight() != dimension)) {
+      throw new IllegalArgumentException("Uncertain modules do not match the bit matrix");
+    }
 
     version = readVersion(bitMatrix);
     this.mappingBitMatrix = version.extractDataRegion(bitMatrix);
     this.readMappingMatrix = new BitMatrix(this.mappingBitMatrix.getWidth(), this.mappingBitMatrix.getHeight());
+    this.uncertainMappingMatrix = uncertainModules == null ? null : version.extractDataRegion(uncertainModules);
   }
 
   Version getVersion() {
@@ -75,6 +93,7 @@ final class BitMatrixParser {
   byte[] readCodewords() throws FormatException {
 
     byte[] result = new byte[version.getTotalCodewords()];
+    uncertainCodewords = uncertainMappingMatrix == null ? null : new byte[result.length];
     int resultOffset = 0;
 
     int row = 4;
@@ -92,22 +111,26 @@ final class BitMatrixParser {
     do {
       // Check the four corner cases
       if ((row == numRows) && (column == 0) && !corner1Read) {
-        result[resultOffset++] = (byte) readCorner1(numRows, numColumns);
+        result[resultOffset] = (byte) readCorner1(numRows, numColumns);
+        resultOffset = finishCodeword(resultOffset);
         row -= 2;
         column += 2;
         corner1Read = true;
       } else if ((row == numRows - 2) && (column == 0) && ((numColumns & 0x03) != 0) && !corner2Read) {
-        result[resultOffset++] = (byte) readCorner2(numRows, numColumns);
+        result[resultOffset] = (byte) readCorner2(numRows, numColumns);
+        resultOffset = finishCodeword(resultOffset);
         row -= 2;
         column += 2;
         corner2Read = true;
       } else if ((row == numRows + 4) && (column == 2) && ((numColumns & 0x07) == 0) && !corner3Read) {
-        result[resultOffset++] = (byte) readCorner3(numRows, numColumns);
+        result[resultOffset] = (byte) readCorner3(numRows, numColumns);
+        resultOffset = finishCodeword(resultOffset);
         row -= 2;
         column += 2;
         corner3Read = true;
       } else if ((row == numRows - 2) && (column == 0) && ((numColumns & 0x07) == 4) && !corner4Read) {
-        result[resultOffset++] = (byte) readCorner4(numRows, numColumns);
+        result[resultOffset] = (byte) readCorner4(numRows, numColumns);
+        resultOffset = finishCodeword(resultOffset);
         row -= 2;
         column += 2;
         corner4Read = true;
@@ -115,7 +138,8 @@ final class BitMatrixParser {
         // Sweep upward diagonally to the right
         do {
           if ((row < numRows) && (column >= 0) && !readMappingMatrix.get(column, row)) {
-            result[resultOffset++] = (byte) readUtah(row, column, numRows, numColumns);
+            result[resultOffset] = (byte) readUtah(row, column, numRows, numColumns);
+            resultOffset = finishCodeword(resultOffset);
           }
           row -= 2;
           column += 2;
@@ -126,7 +150,8 @@ final class BitMatrixParser {
         // Sweep downward diagonally to the left
         do {
           if ((row >= 0) && (column < numColumns) && !readMappingMatrix.get(column, row)) {
-            result[resultOffset++] = (byte) readUtah(row, column, numRows, numColumns);
+            result[resultOffset] = (byte) readUtah(row, column, numRows, numColumns);
+            resultOffset = finishCodeword(resultOffset);
           }
           row += 2;
           column -= 2;
@@ -142,6 +167,27 @@ final class BitMatrixParser {
     return result;
   }
 
+  /**
+   * Flags the codeword just read if any of its modules was uncertain.
+   *
+   * @return offset of the next codeword
+   */
+  private int finishCodeword(int resultOffset) {
+    if (uncertainModuleRead) {
+      uncertainCodewords[resultOffset] = 1;
+      uncertainModuleRead = false;
+    }
+    return resultOffset + 1;
+  }
+
+  /**
+   * @return for each codeword last returned by {@link #readCodewords()}, 1 if any of its modules
+   *  is one of the uncertain modules, else 0; or null if the uncertain modules are not known
+   */
+  byte[] getUncertainCodewords() {
+    return uncertainCodewords;
+  }
+
   /**
    * <p>Reads a bit of the mapping matrix accounting for boundary wrapping.</p>
    *
@@ -165,6 +211,9 @@ final class BitMatrixParser {
       row -= numRows;
     }
     readMappingMatrix.set(column, row);
+    if (uncertainMappingMatrix != null && uncertainMappingMatrix.get(column, row)) {
+      uncertainModuleRead = true;
+    }
     return mappingBitMatrix.get(column, row);
   }
 
@@ -33,9 +33,11 @@ import com.google.zxing.common.reedsolomon.ReedSolomonException;
 public final class Decoder {
 
   private final ReedSolomonDecoder rsDecoder;
+  private final ReedSolomonDecoder.Workspace rsWorkspace;
 
   public Decoder() {
     rsDecoder = new ReedSolomonDecoder(GenericGF.DATA_MATRIX_FIELD_256);
+    rsWorkspace = new ReedSolomonDecoder.Workspace();
   }
 
   /**
@@ -61,15 +63,36 @@ public final class Decoder {
    * @throws ChecksumException if error correction fails
    */
   public DecoderResult decode(BitMatrix bits) throws FormatException, ChecksumException {
+    return decode(bits, null);
+  }
+
+  /**
+   * <p>Decodes a Data Matrix Code represented as a {@link BitMatrix}, knowing which modules may
+   * have been misread, for example because they were sampled close to the black/white threshold.
+   * Codewords that contain such modules are treated as erasures in error correction, which can
+   * correct up to twice as many of them as it can errors at unknown positions.</p>
+   *
+   * @param bits booleans representing white/black Data Matrix Code modules
+   * @param uncertainModules set bits mark modules of bits which may have been misread, or null
+   *  if unknown
+   * @return text and bytes encoded within the Data Matrix Code
+   * @throws FormatException if the Data Matrix Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult decode(BitMatrix bits, BitMatrix uncertainModules) throws FormatException, ChecksumException {
 
     // Construct a parser and read version, error-correction level
-    BitMatrixParser parser = new BitMatrixParser(bits);
+    BitMatrixParser parser = new BitMatrixParser(bits, uncertainModules);
     Version version = parser.getVersion();
 
     // Read codewords
     byte[] codewords = parser.readCodewords();
     // Separate into data blocks
     DataBlock[] dataBlocks = DataBlock.getDataBlocks(codewords, version);
+    // ... and split the flags of uncertain codewords the same way
+    byte[] uncertainCodewords = parser.getUncertainCodewords();
+    int[][] erasures = uncertainCodewords == null ? null :
+        getErasures(DataBlock.getDataBlocks(uncertainCodewords, version));
 
     // Count total number of data bytes
     int totalBytes = 0;
@@ -79,12 +102,12 @@ public final class Decoder {
     byte[] resultBytes = new byte[totalBytes];
 
     int dataBlocksCount = dataBlocks.length;
-    // Error-correct and copy data blocks together into a stream of bytes
+    // Error-correct all data blocks, then copy them together into a stream of bytes
+    int blocksCorrected = correctErrors(dataBlocks, erasures);
     for (int j = 0; j < dataBlocksCount; j++) {
       DataBlock dataBlock = dataBlocks[j];
       byte[] codewordBytes = dataBlock.getCodewords();
       int numDataCodewords = dataBlock.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
       for (int i = 0; i < numDataCodewords; i++) {
         // De-interlace data blocks.
         resultBytes[i * dataBlocksCount + j] = codewordBytes[i];
@@ -92,34 +115,73 @@ public final class Decoder {
     }
 
     // Decode the contents of that stream of bytes
-    return DecodedBitStreamParser.decode(resultBytes);
+    DecoderResult result = DecodedBitStreamParser.decode(resultBytes);
+    result.setBlocksCorrected(blocksCorrected);
+    return result;
   }
 
   /**
-   * <p>Given data and error-correction codewords received, possibly corrupted by errors, attempts to
-   * correct the errors in-place using Reed-Solomon error correction.</p>
+   * <p>Given data and error-correction codewords received in each block, possibly corrupted by
+   * errors, attempts to correct the errors in-place using Reed-Solomon error correction.</p>
    *
-   * @param codewordBytes data and error correction codewords
-   * @param numDataCodewords number of codewords that are data bytes
+   * @param dataBlocks blocks of data and error correction codewords, which all have the same
+   *  number of error correction codewords
+   * @param erasures for each block, positions of codewords which are likely wrong, or null
+   * @return number of blocks that had errors
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
-    int numCodewords = codewordBytes.length;
-    // First read into an array of ints
-    int[] codewordsInts = new int[numCodewords];
-    for (int i = 0; i < numCodewords; i++) {
-      codewordsInts[i] = codewordBytes[i] & 0xFF;
+  private int correctErrors(DataBlock[] dataBlocks, int[][] erasures) throws ChecksumException {
+    // First read into arrays of ints
+    int[][] codewordsInts = new int[dataBlocks.length][];
+    for (int j = 0; j < dataBlocks.length; j++) {
+      byte[] codewordBytes = dataBlocks[j].getCodewords();
+      int[] blockInts = new int[codewordBytes.length];
+      for (int i = 0; i < codewordBytes.length; i++) {
+        blockInts[i] = codewordBytes[i] & 0xFF;
+      }
+      codewordsInts[j] = blockInts;
     }
+    int numECCodewords = dataBlocks[0].getCodewords().length - dataBlocks[0].getNumDataCodewords();
+    int blocksCorrected;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      blocksCorrected = rsDecoder.decodeBlocks(codewordsInts, numECCodewords, erasures, rsWorkspace);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
-    // Copy back into array of bytes -- only need to worry about the bytes that were data
+    // Copy back into arrays of bytes -- only need to worry about the bytes that were data
     // We don't care about errors in the error-correction codewords
-    for (int i = 0; i < numDataCodewords; i++) {
-      codewordBytes[i] = (byte) codewordsInts[i];
+    for (int j = 0; j < dataBlocks.length; j++) {
+      byte[] codewordBytes = dataBlocks[j].getCodewords();
+      int numDataCodewords = dataBlocks[j].getNumDataCodewords();
+      for (int i = 0; i < numDataCodewords; i++) {
+        codewordBytes[i] = (byte) codewordsInts[j][i];
+      }
+    }
+    return blocksCorrected;
+  }
+
+  /**
+   * @param flagBlocks blocks of flags, 1 for each uncertain codeword
+   * @return positions of the uncertain codewords in each block
+   */
+  private static int[][] getErasures(DataBlock[] flagBlocks) {
+    int[][] erasures = new int[flagBlocks.length][];
+    for (int j = 0; j < flagBlocks.length; j++) {
+      byte[] flags = flagBlocks[j].getCodewords();
+      int count = 0;
+      for (byte flag : flags) {
+        count += flag;
+      }
+      int[] positions = new int[count];
+      count = 0;
+      for (int i = 0; i < flags.length; i++) {
+        if (flags[i] != 0) {
+          positions[count++] = i;
+        }
+      }
+      erasures[j] = positions;
     }
+    return erasures;
   }
 
 }
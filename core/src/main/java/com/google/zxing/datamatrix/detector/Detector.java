@@ -16,13 +16,17 @@
 
 package com.google.zxing.datamatrix.detector;
 
+import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.common.GridSampler;
+import com.google.zxing.common.PerspectiveTransform;
 import com.google.zxing.common.detector.WhiteRectangleDetector;
 
+import java.util.Map;
+
 /**
  * <p>Encapsulates logic that can detect a Data Matrix Code in an image, even if the Data Matrix Code
  * is rotated or skewed, or partially obscured.</p>
@@ -46,6 +50,17 @@ public final class Detector {
    * @throws NotFoundException if no Data Matrix Code can be found
    */
   public DetectorResult detect() throws NotFoundException {
+    return detect(null);
+  }
+
+  /**
+   * <p>Detects a Data Matrix Code in an image.</p>
+   *
+   * @param hints optional hints to detector; only {@link DecodeHintType#MAJORITY_VOTE_SAMPLING} is used
+   * @return {@link DetectorResult} encapsulating results of detecting a Data Matrix Code
+   * @throws NotFoundException if no Data Matrix Code can be found
+   */
+  public DetectorResult detect(Map<DecodeHintType,?> hints) throws NotFoundException {
 
     ResultPoint[] cornerPoints = rectangleDetector.detect();
 
@@ -76,15 +91,21 @@ public final class Detector {
       dimensionTop = dimensionRight = Math.max(dimensionTop, dimensionRight);
     }
 
+    BitMatrix uncertainModules = null;
+    if (hints != null && hints.containsKey(DecodeHintType.MAJORITY_VOTE_SAMPLING)) {
+      uncertainModules = new BitMatrix(dimensionTop, dimensionRight);
+    }
     BitMatrix bits = sampleGrid(image,
                                 topLeft,
                                 bottomLeft,
                                 bottomRight,
                                 topRight,
                                 dimensionTop,
-                                dimensionRight);
+                                dimensionRight,
+                                uncertainModules);
 
-    return new DetectorResult(bits, new ResultPoint[]{topLeft, bottomLeft, bottomRight, topRight});
+    return new DetectorResult(bits, new ResultPoint[]{topLeft, bottomLeft, bottomRight, topRight},
+        uncertainModules);
   }
 
   private static ResultPoint shiftPoint(ResultPoint point, ResultPoint to, int div) {
@@ -306,10 +327,19 @@ public final class Detector {
                                       ResultPoint bottomRight,
                                       ResultPoint topRight,
                                       int dimensionX,
-                                      int dimensionY) throws NotFoundException {
+                                      int dimensionY,
+                                      BitMatrix uncertainModules) throws NotFoundException {
 
     GridSampler sampler = GridSampler.getInstance();
 
+    if (uncertainModules != null) {
+      PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+          0.5f, 0.5f, dimensionX - 0.5f, 0.5f, dimensionX - 0.5f, dimensionY - 0.5f, 0.5f, dimensionY - 0.5f,
+          topLeft.getX(), topLeft.getY(), topRight.getX(), topRight.getY(),
+          bottomRight.getX(), bottomRight.getY(), bottomLeft.getX(), bottomLeft.getY());
+      return sampler.sampleGrid(image, dimensionX, dimensionY, transform, uncertainModules);
+    }
+
     return sampler.sampleGrid(image,
                               dimensionX,
                               dimensionY,
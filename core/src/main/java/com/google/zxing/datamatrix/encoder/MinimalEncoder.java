@@ -19,6 +19,7 @@ package com.google.zxing.datamatrix.encoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.google.zxing.common.MinimalECIInput;
@@ -68,6 +69,22 @@ public final class MinimalEncoder {
     EDF,
     B256
   }
+  /**
+   * Receives statistics about the work done to encode a message, for example to monitor the encoding of long
+   * messages.
+   */
+  public interface MetricsCallback {
+
+    /**
+     * Called once a message has been encoded.
+     *
+     * @param inputLength number of characters and ECIs in the message
+     * @param peakEdgeCount largest number of edges of the encodation graph held at the same time
+     * @param encodingNanos time spent choosing the encodation and producing the codewords, in nanoseconds
+     */
+    void encoded(int inputLength, int peakEdgeCount, long encodingNanos);
+  }
+
   static final char[] C40_SHIFT2_CHARS = {'!', '"', '#', '$', '%', '&', '\'', '(', ')', '*',  '+', ',', '-', '.', '/',
                                           ':', ';', '<', '=', '>', '?',  '@', '[', '\\', ']', '^', '_' };
 
@@ -124,6 +141,23 @@ public final class MinimalEncoder {
    * @return the encoded message (the char values range from 0 to 255)
    */
   public static String encodeHighLevel(String msg, Charset priorityCharset, int fnc1, SymbolShapeHint shape) {
+    return encodeHighLevel(msg, priorityCharset, fnc1, shape, null);
+  }
+
+  /**
+   * Performs message encoding of a DataMatrix message
+   *
+   * @param msg the message
+   * @param priorityCharset The preferred {@link Charset}, or null
+   * @param fnc1 denotes the character in the input that represents the FNC1 character or -1 if this is not a GS1
+   *   bar code. If the value is not -1 then a FNC1 is also prepended.
+   * @param shape requested shape.
+   * @param callback receives the statistics of the encoding, or null
+   * @return the encoded message (the char values range from 0 to 255)
+   * @see #encodeHighLevel(String, Charset, int, SymbolShapeHint)
+   */
+  public static String encodeHighLevel(String msg, Charset priorityCharset, int fnc1, SymbolShapeHint shape,
+                                       MetricsCallback callback) {
     int macroId = 0;
     if (msg.startsWith(HighLevelEncoder.MACRO_05_HEADER) && msg.endsWith(HighLevelEncoder.MACRO_TRAILER)) {
       macroId = 5;
@@ -132,7 +166,7 @@ public final class MinimalEncoder {
       macroId = 6;
       msg = msg.substring(HighLevelEncoder.MACRO_06_HEADER.length(), msg.length() - 2);
     }
-    return new String(encode(msg, priorityCharset, fnc1, shape, macroId), StandardCharsets.ISO_8859_1);
+    return new String(encode(msg, priorityCharset, fnc1, shape, macroId, callback), StandardCharsets.ISO_8859_1);
   }
 
   /**
@@ -147,18 +181,19 @@ public final class MinimalEncoder {
    *   bar code. If the value is not -1 then a FNC1 is also prepended.
    * @param shape requested shape.
    * @param macroId Prepends the specified macro function in case that a value of 5 or 6 is specified.
+   * @param callback receives the statistics of the encoding, or null
    * @return An array of bytes representing the codewords of a minimal encoding.
    */
-  static byte[] encode(String input, Charset priorityCharset, int fnc1, SymbolShapeHint shape, int macroId) {
-    return encodeMinimally(new Input(input, priorityCharset, fnc1, shape, macroId)).getBytes();
-  }
-
-  static void addEdge(Edge[][] edges, Edge edge) {
-    int vertexIndex = edge.data.data.fromPosition + edge.data.data.characterLength;
-    if (edges[vertexIndex][edge.getEndMode().ordinal()] == null ||
-        edges[vertexIndex][edge.getEndMode().ordinal()].data.data.cachedTotalSize > edge.data.data.cachedTotalSize) {
-      edges[vertexIndex][edge.getEndMode().ordinal()] = edge;
+  static byte[] encode(String input, Charset priorityCharset, int fnc1, SymbolShapeHint shape, int macroId,
+                       MetricsCallback callback) {
+    long start = System.nanoTime();
+    Input minimalInput = new Input(input, priorityCharset, fnc1, shape, macroId);
+    Frontier frontier = new Frontier(minimalInput);
+    byte[] bytes = encodeMinimally(minimalInput, frontier).getBytes();
+    if (callback != null) {
+      callback.encoded(minimalInput.length(), frontier.getPeakEdgeCount(), System.nanoTime() - start);
     }
+    return bytes;
   }
 
   /** @return the number of words in which the string starting at from can be encoded in c40 or text mode.
@@ -209,71 +244,7 @@ private static int getNumberOfC40WordsRefactoring(boolean c40, int thirdsCount,
 	return thirdsCount;
 }
 
-  static void addEdges(Input input, Edge[][] edges, int from, Edge previous) {
-
-    if (input.isECI(from)) {
-      addEdge(edges, new Edge(input, Mode.ASCII, from, 1, previous));
-      return;
-    }
-
-    char ch = input.charAt(from);
-    if (previous == null || previous.getEndMode() != Mode.EDF) { //not possible to unlatch a full EDF edge to something
-                                                                 //else
-      addEdgesRefactoring(input, edges, from, previous, ch);
-  
-      Mode[] modes = {Mode.C40, Mode.TEXT};
-      for (Mode mode : modes) {
-        int[] characterLength = new int[1];
-        if (getNumberOfC40Words(input, from, mode == Mode.C40, characterLength) > 0) {
-          addEdge(edges, new Edge(input, mode, from, characterLength[0], previous));
-        }
-      }
-  
-      addEdgesRefactoring(input, edges, from, previous);
-
-      addEdge(edges, new Edge(input, Mode.B256, from, 1, previous));
-    }
-
-    //We create 4 EDF edges,  with 1, 2 3 or 4 characters length. The fourth normally doesn't have a latch to ASCII
-    //unless it is 2 characters away from the end of the input.
-    int i;
-    for (i = 0; i < 3; i++) {
-      int pos = from + i;
-      if (input.haveNCharacters(pos,1) && HighLevelEncoder.isNativeEDIFACT(input.charAt(pos))) {
-        addEdge(edges, new Edge(input, Mode.EDF, from, i + 1, previous));
-      } else {
-        break;
-      }
-    }
-    addEdgesRefactoring(input, edges, from, previous, i);
-  }
-
-private static void addEdgesRefactoring(Input input, Edge[][] edges, int from, Edge previous, int i) {
-	if (i == 3 && input.haveNCharacters(from, 4) && HighLevelEncoder.isNativeEDIFACT(input.charAt(from + 3))) {
-      addEdge(edges, new Edge(input, Mode.EDF, from, 4, previous));
-    }
-}
-
-private static void addEdgesRefactoring(Input input, Edge[][] edges, int from, Edge previous) {
-	if (input.haveNCharacters(from,3) &&
-          HighLevelEncoder.isNativeX12(input.charAt(from)) &&
-          HighLevelEncoder.isNativeX12(input.charAt(from + 1)) &&
-          HighLevelEncoder.isNativeX12(input.charAt(from + 2))) {
-        addEdge(edges, new Edge(input, Mode.X12, from, 3, previous));
-      }
-}
-
-private static void addEdgesRefactoring(Input input, Edge[][] edges, int from, Edge previous, char ch) {
-	if (HighLevelEncoder.isDigit(ch) && input.haveNCharacters(from, 2) &&
-          HighLevelEncoder.isDigit(input.charAt(from + 1))) {
-        // two digits ASCII encoded
-        addEdge(edges, new Edge(input, Mode.ASCII, from, 2, previous));
-      } else {
-        // one ASCII encoded character or an extended character via Upper Shift
-        addEdge(edges, new Edge(input, Mode.ASCII, from, 1, previous));
-      }
-}
-  static Result encodeMinimally(Input input) {
+  static Result encodeMinimally(Input input, Frontier frontier) {
 
     @SuppressWarnings("checkstyle:lineLength")
     /* The minimal encoding is computed by Dijkstra. The acyclic graph is modeled as follows:
@@ -462,26 +433,25 @@ private static void addEdgesRefactoring(Input input, Edge[][] edges, int from, E
 
     int inputLength = input.length();
 
-    // Array that represents vertices. There is a vertex for every character and mode.
-    // The last dimension in the array below encodes the 6 modes ASCII, C40, TEXT, X12, EDF and B256
-    Edge[][] edges = new Edge[inputLength + 1][6];
-    addEdges(input, edges, 0, null);
+    // Only the vertices that edges can still lead to are held as such. Of the others, only the back pointers remain.
+    frontier.addEdges(0, -1);
 
-    for (int i = 1; i <= inputLength; i++) {
-      encodeMinimallyRefactoring(input, inputLength, edges, i);
-      //optimize memory by removing edges that have been passed.
+    for (int i = 1; i < inputLength; i++) {
       for (int j = 0; j < 6; j++) {
-        edges[i - 1][j] = null;
+        if (frontier.hasEdge(i, j)) {
+          frontier.addEdges(i, j);
+        }
       }
+      //optimize memory by removing edges that have been passed.
+      frontier.remove(i);
     }
 
     int minimalJ = -1;
     int minimalSize = Integer.MAX_VALUE;
     for (int j = 0; j < 6; j++) {
-      if (edges[inputLength][j] != null) {
-        Edge edge = edges[inputLength][j];
-        int size = j >= 1 && j <= 3 ? edge.data.data.cachedTotalSize + 1 : edge.data.data.cachedTotalSize; //C40, TEXT and X12 need an
-                                                                                       // extra unlatch at the end
+      if (frontier.hasEdge(inputLength, j)) {
+        //C40, TEXT and X12 need an extra unlatch at the end
+        int size = j >= 1 && j <= 3 ? frontier.getSize(inputLength, j) + 1 : frontier.getSize(inputLength, j);
         if (size < minimalSize) {
           minimalSize = size;
           minimalJ = j;
@@ -492,16 +462,214 @@ private static void addEdgesRefactoring(Input input, Edge[][] edges, int from, E
     if (minimalJ < 0) {
       throw new RuntimeException("Internal error: failed to encode \"" + input + "\"");
     }
-    return new Result(edges[inputLength][minimalJ]);
+    return new Result(frontier.getSolution(inputLength, minimalJ));
   }
 
-private static void encodeMinimallyRefactoring(Input input, int inputLength, Edge[][] edges, int i) {
-	for (int j = 0; j < 6; j++) {
-        if (edges[i][j] != null && i < inputLength) {
-          addEdges(input, edges, i, edges[i][j]);
+  /**
+   * The vertices of the graph between the position being processed and the furthest position an edge from there
+   * reaches, with the shortest edge found so far leading to each. They are kept in a ring of primitive arrays,
+   * indexed by position modulo the number of positions in the ring and by mode. Most edges encode at most 4
+   * characters, but C40 and TEXT edges can be longer, in which case the ring grows.
+   *
+   * Of every vertex left behind, only the back pointer of its shortest edge is kept, in one int: the mode of the
+   * edge, the end mode of the edge before it and the length of the edge. The solution is rebuilt from them at the
+   * end.
+   */
+  private static final class Frontier {
+
+    private static final Mode[] MODES = Mode.values();
+
+    private final Input input;
+    // Number of positions in the ring, a power of 2
+    private int positions = 8;
+    // Accumulated size of the shortest edge leading to each vertex, Integer.MAX_VALUE if there is none
+    private int[] sizes = new int[positions * MODES.length];
+    // For B256 vertices, the getB256Size() of that edge
+    private int[] b256Sizes = new int[positions * MODES.length];
+    // Per vertex of the whole input: mode | (end mode of the previous edge + 1) << 3 | characterLength << 6
+    private final int[] backPointers;
+    private int edgeCount;
+    private int peakEdgeCount;
+
+    private Frontier(Input input) {
+      this.input = input;
+      Arrays.fill(sizes, Integer.MAX_VALUE);
+      backPointers = new int[(input.length() + 1) * MODES.length];
+    }
+
+    private int getIndex(int position, int mode) {
+      return (position & (positions - 1)) * MODES.length + mode;
+    }
+
+    /**
+     * Grows the ring until it holds the positions from {@code from}, the position being processed, to {@code to}
+     */
+    private void ensureCapacity(int from, int to) {
+      if (to - from < positions) {
+        return;
+      }
+      int newPositions = positions;
+      while (to - from >= newPositions) {
+        newPositions *= 2;
+      }
+      int[] newSizes = new int[newPositions * MODES.length];
+      int[] newB256Sizes = new int[newPositions * MODES.length];
+      Arrays.fill(newSizes, Integer.MAX_VALUE);
+      // All vertices still held are at the positions from "from" on
+      for (int position = from; position < from + positions; position++) {
+        int oldIndex = getIndex(position, 0);
+        int newIndex = (position & (newPositions - 1)) * MODES.length;
+        System.arraycopy(sizes, oldIndex, newSizes, newIndex, MODES.length);
+        System.arraycopy(b256Sizes, oldIndex, newB256Sizes, newIndex, MODES.length);
+      }
+      positions = newPositions;
+      sizes = newSizes;
+      b256Sizes = newB256Sizes;
+    }
+
+    boolean hasEdge(int position, int mode) {
+      return sizes[getIndex(position, mode)] != Integer.MAX_VALUE;
+    }
+
+    int getSize(int position, int mode) {
+      return sizes[getIndex(position, mode)];
+    }
+
+    int getPeakEdgeCount() {
+      return peakEdgeCount;
+    }
+
+    /**
+     * Removes the vertices at a position once all edges starting there have been added.
+     */
+    void remove(int position) {
+      for (int j = 0; j < MODES.length; j++) {
+        int index = getIndex(position, j);
+        if (sizes[index] != Integer.MAX_VALUE) {
+          sizes[index] = Integer.MAX_VALUE;
+          edgeCount--;
         }
       }
-}
+    }
+
+    /**
+     * Adds the edges starting at {@code from}
+     *
+     * @param previous end mode of the vertex at {@code from} the edges start on, or -1 at the beginning of the input
+     */
+    void addEdges(int from, int previous) {
+
+      if (input.isECI(from)) {
+        addEdge(Mode.ASCII, from, 1, previous);
+        return;
+      }
+
+      char ch = input.charAt(from);
+      if (previous != Mode.EDF.ordinal()) { //not possible to unlatch a full EDF edge to something else
+        if (HighLevelEncoder.isDigit(ch) && input.haveNCharacters(from, 2) &&
+            HighLevelEncoder.isDigit(input.charAt(from + 1))) {
+          // two digits ASCII encoded
+          addEdge(Mode.ASCII, from, 2, previous);
+        } else {
+          // one ASCII encoded character or an extended character via Upper Shift
+          addEdge(Mode.ASCII, from, 1, previous);
+        }
+
+        Mode[] modes = {Mode.C40, Mode.TEXT};
+        for (Mode mode : modes) {
+          int[] characterLength = new int[1];
+          if (getNumberOfC40Words(input, from, mode == Mode.C40, characterLength) > 0) {
+            addEdge(mode, from, characterLength[0], previous);
+          }
+        }
+
+        if (input.haveNCharacters(from,3) &&
+            HighLevelEncoder.isNativeX12(input.charAt(from)) &&
+            HighLevelEncoder.isNativeX12(input.charAt(from + 1)) &&
+            HighLevelEncoder.isNativeX12(input.charAt(from + 2))) {
+          addEdge(Mode.X12, from, 3, previous);
+        }
+
+        addEdge(Mode.B256, from, 1, previous);
+      }
+
+      //We create 4 EDF edges,  with 1, 2 3 or 4 characters length. The fourth normally doesn't have a latch to ASCII
+      //unless it is 2 characters away from the end of the input.
+      int i;
+      for (i = 0; i < 3; i++) {
+        int pos = from + i;
+        if (input.haveNCharacters(pos,1) && HighLevelEncoder.isNativeEDIFACT(input.charAt(pos))) {
+          addEdge(Mode.EDF, from, i + 1, previous);
+        } else {
+          break;
+        }
+      }
+      if (i == 3 && input.haveNCharacters(from, 4) && HighLevelEncoder.isNativeEDIFACT(input.charAt(from + 3))) {
+        addEdge(Mode.EDF, from, 4, previous);
+      }
+    }
+
+    /**
+     * Adds an edge unless the vertex it ends on already has one that is no longer. Computes the same sizes as
+     * {@link Edge}.
+     */
+    private void addEdge(Mode mode, int from, int characterLength, int previous) {
+      assert from + characterLength <= input.length();
+      int previousSize = 0;
+      Mode previousMode = Mode.ASCII;
+      int b256Size = 0;
+      if (previous >= 0) {
+        int previousIndex = getIndex(from, previous);
+        previousSize = sizes[previousIndex];
+        previousMode = MODES[previous];
+        if (mode == Mode.B256) {
+          // does not count beyond 251, as getB256Size()
+          b256Size = previousMode == Mode.B256 ? Math.min(b256Sizes[previousIndex] + 1, 251) : 1;
+        }
+      } else if (mode == Mode.B256) {
+        b256Size = 1;
+      }
+      int size = Edge.getTotalSize(input, mode, from, previousSize, previousMode, b256Size);
+      int to = from + characterLength;
+      ensureCapacity(from, to);
+      int endMode = Edge.getEndMode(input, mode, from, characterLength, size).ordinal();
+      int index = getIndex(to, endMode);
+      if (sizes[index] == Integer.MAX_VALUE) {
+        edgeCount++;
+        peakEdgeCount = Math.max(peakEdgeCount, edgeCount);
+      } else if (sizes[index] <= size) {
+        return;
+      }
+      sizes[index] = size;
+      b256Sizes[index] = b256Size;
+      backPointers[to * MODES.length + endMode] = mode.ordinal() | (previous + 1) << 3 | characterLength << 6;
+    }
+
+    /**
+     * Follows the back pointers from a vertex to the beginning of the input and rebuilds the edges on the way
+     *
+     * @return the edge leading to the vertex
+     */
+    Edge getSolution(int position, int mode) {
+      List<Integer> path = new ArrayList<>();
+      int current = mode;
+      while (current >= 0) {
+        int backPointer = backPointers[position * MODES.length + current];
+        path.add(backPointer);
+        position -= backPointer >> 6;
+        current = ((backPointer >> 3) & 0x07) - 1;
+      }
+      Edge edge = null;
+      position = 0;
+      for (int i = path.size() - 1; i >= 0; i--) {
+        int backPointer = path.get(i);
+        int characterLength = backPointer >> 6;
+        edge = new Edge(input, MODES[backPointer & 0x07], position, characterLength, edge);
+        position += characterLength;
+      }
+      return edge;
+    }
+  }
 
   private static final class Edge {
     private static final int[] allCodewordCapacities = {3, 5, 8, 10, 12, 16, 18, 22, 30, 32, 36, 44, 49, 62, 86, 114,
@@ -522,8 +690,21 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
       assert fromPosition + characterLength <= input.length();
 
       int size = previous != null ? previous.data.data.cachedTotalSize : 0;
+      data.data.cachedTotalSize = getTotalSize(input, mode, fromPosition, size, getPreviousMode(),
+          mode == Mode.B256 ? getB256Size() : 0);
+    }
 
-      Mode previousMode = getPreviousMode();
+    /**
+     * Computes the accumulated size of an edge.
+     *
+     * @param previousSize accumulated size of the previous edge, 0 at the beginning of the input
+     * @param previousMode end mode of the previous edge, ASCII at the beginning of the input
+     * @param b256Size for a B256 edge, its {@link #getB256Size()}
+     * @return the size in codewords of the edge and all edges before it
+     */
+    static int getTotalSize(Input input, Mode mode, int fromPosition, int previousSize, Mode previousMode,
+                            int b256Size) {
+      int size = previousSize;
 
      /*
       * Switching modes
@@ -547,7 +728,7 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
           break;
         case B256:
           size++;
-          size = edgeRefactoring(size, previousMode);
+          size = edgeRefactoring(size, previousMode, b256Size);
           break;
         case C40:
         case TEXT:
@@ -559,10 +740,10 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
           size = edgeRefactoring2(size, previousMode);
           break;
       }
-      data.data.cachedTotalSize = size;
+      return size;
     }
 
-	private int edgeRefactoring3(int size, Mode previousMode) {
+	private static int edgeRefactoring3(int size, Mode previousMode) {
 		if (previousMode == Mode.C40 ||
               previousMode == Mode.TEXT ||
               previousMode == Mode.X12) {
@@ -571,7 +752,7 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
 		return size;
 	}
 
-	private int edgeRefactoring2(int size, Mode previousMode) {
+	private static int edgeRefactoring2(int size, Mode previousMode) {
 		if (previousMode == Mode.ASCII || previousMode == Mode.B256) {
             size++; //additional byte for latch from ASCII to this mode
           } else if (previousMode == Mode.C40 ||
@@ -582,7 +763,7 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
 		return size;
 	}
 
-	private int edgeRefactoring1(Input input, Mode mode, int fromPosition, int size, Mode previousMode) {
+	private static int edgeRefactoring1(Input input, Mode mode, int fromPosition, int size, Mode previousMode) {
 		if (mode == Mode.X12) {
             size += 2;
           } else {
@@ -600,10 +781,10 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
 		return size;
 	}
 
-	private int edgeRefactoring(int size, Mode previousMode) {
+	private static int edgeRefactoring(int size, Mode previousMode, int b256Size) {
 		if (previousMode != Mode.B256) {
             size++; //byte count
-          } else if (getB256Size() == 250) {
+          } else if (b256Size == 250) {
             size++; //extra byte count
           }
           if (previousMode == Mode.ASCII) {
@@ -616,7 +797,7 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
 		return size;
 	}
 
-	private int edgeRefactoring(Input input, int fromPosition, int size) {
+	private static int edgeRefactoring(Input input, int fromPosition, int size) {
 		if (input.isECI(fromPosition) || isExtendedASCII(input.charAt(fromPosition), input.getFNC1Character())) {
             size++;
           }
@@ -649,46 +830,49 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
      *  Returns mode in all other cases.
      * */
     Mode getEndMode() {
-      if (data.data.mode == Mode.EDF) {
-        if (data.data.characterLength < 4) {
+      return getEndMode(input, data.data.mode, data.data.fromPosition, data.data.characterLength,
+          data.data.cachedTotalSize);
+    }
+
+    /**
+     * As {@link #getEndMode()}, for an edge with the given mode, position, length and accumulated size.
+     */
+    static Mode getEndMode(Input input, Mode mode, int fromPosition, int characterLength, int cachedTotalSize) {
+      if (mode == Mode.EDF) {
+        if (characterLength < 4) {
           return Mode.ASCII;
         }
-        int lastASCII = getLastASCII(); // see 5.2.8.2 EDIFACT encodation Rules
-        if (lastASCII > 0 && getCodewordsRemaining(data.data.cachedTotalSize + lastASCII) <= 2 - lastASCII) {
+        int lastASCII = getLastASCII(input, fromPosition + characterLength); // see 5.2.8.2 EDIFACT encodation Rules
+        if (lastASCII > 0 && getCodewordsRemaining(input, cachedTotalSize + lastASCII) <= 2 - lastASCII) {
           return Mode.ASCII;
         }
       }
-      if (getEndModeRefactoring()) {
+      if (mode == Mode.C40 ||
+          mode == Mode.TEXT ||
+          mode == Mode.X12) {
 
         // see 5.2.5.2 C40 encodation rules and 5.2.7.2 ANSI X12 encodation rules
-        if (data.data.fromPosition + data.data.characterLength >= input.length() && getCodewordsRemaining(data.data.cachedTotalSize) == 0) {
-          return Mode.ASCII; 
+        if (fromPosition + characterLength >= input.length() && getCodewordsRemaining(input, cachedTotalSize) == 0) {
+          return Mode.ASCII;
         }
-        int lastASCII = getLastASCII();
-        if (lastASCII == 1 && getCodewordsRemaining(data.data.cachedTotalSize + 1) == 0) {
+        int lastASCII = getLastASCII(input, fromPosition + characterLength);
+        if (lastASCII == 1 && getCodewordsRemaining(input, cachedTotalSize + 1) == 0) {
           return Mode.ASCII;
         }
       }
-      return data.data.mode;
+      return mode;
     }
 
-	private boolean getEndModeRefactoring() {
-		return data.data.mode == Mode.C40 ||
-		      data.data.mode == Mode.TEXT ||
-		      data.data.mode == Mode.X12;
-	}
-
     Mode getMode() {
       return data.data.mode;
     }
 
-    /** Peeks ahead and returns 1 if the postfix consists of exactly two digits, 2 if the postfix consists of exactly
-     *  two consecutive digits and a non extended character or of 4 digits. 
+    /** Peeks ahead and returns 1 if the postfix starting at from consists of exactly two digits, 2 if the postfix
+     *  consists of exactly two consecutive digits and a non extended character or of 4 digits. 
      *  Returns 0 in any other case
      **/
-    int getLastASCII() {
+    static int getLastASCII(Input input, int from) {
       int length = input.length();
-      int from = data.data.fromPosition + data.data.characterLength;
       if (length - from > 4 || from >= length) {
         return 0;
       }
@@ -730,6 +914,10 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
      * number of codewords.
      **/
     int getMinSymbolSize(int minimum) {
+      return getMinSymbolSize(input, minimum);
+    }
+
+    static int getMinSymbolSize(Input input, int minimum) {
       switch (input.getShapeHint()) {
         case FORCE_SQUARE:
           for (int capacity : squareCodewordCapacities) {
@@ -757,8 +945,8 @@ private static void encodeMinimallyRefactoring(Input input, int inputLength, Edg
     /** Returns the remaining capacity in codewords of the smallest symbol that has enough capacity to fit the given
      * minimal number of codewords.
      **/
-    int getCodewordsRemaining(int minimum) {
-      return getMinSymbolSize(minimum) - minimum;
+    static int getCodewordsRemaining(Input input, int minimum) {
+      return getMinSymbolSize(input, minimum) - minimum;
     }
 
     static byte[] getBytes(int c) {
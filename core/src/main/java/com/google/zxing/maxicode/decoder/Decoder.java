@@ -40,9 +40,11 @@ public final class Decoder {
   private static final int ODD = 2;
 
   private final ReedSolomonDecoder rsDecoder;
+  private final ReedSolomonDecoder.Workspace rsWorkspace;
 
   public Decoder() {
     rsDecoder = new ReedSolomonDecoder(GenericGF.MAXICODE_FIELD_64);
+    rsWorkspace = new ReedSolomonDecoder.Workspace();
   }
 
   public DecoderResult decode(BitMatrix bits) throws ChecksumException, FormatException {
@@ -98,7 +100,7 @@ public final class Decoder {
       }
     }
     try {
-      rsDecoder.decode(codewordsInts, ecCodewords / divisor);
+      rsDecoder.decode(codewordsInts, ecCodewords / divisor, null, rsWorkspace);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
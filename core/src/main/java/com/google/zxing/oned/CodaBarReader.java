@@ -79,9 +79,15 @@ public final class CodaBarReader extends OneDReader {
 
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException {
 
     Arrays.fill(counters, 0);
-    setCounters(row);
+    setCounters(runs);
     int startOffset = findStartPattern();
     int nextStart = startOffset;
 
@@ -223,9 +229,9 @@ public final class CodaBarReader extends OneDReader {
    * Records the size of all runs of white and black pixels, starting with white.
    * This is just like recordPattern, except it records all the counters, and
    * uses our builtin "counters" member for storage.
-   * @param row row to count from
+   * @param row runs of the row to count from
    */
-  private void setCounters(BitArray row) throws NotFoundException {
+  private void setCounters(RowRuns row) throws NotFoundException {
     counterLength = 0;
     // Start from the first white bit.
     int i = row.getNextUnset(0);
@@ -233,19 +239,9 @@ public final class CodaBarReader extends OneDReader {
     if (i >= end) {
       throw NotFoundException.getNotFoundInstance();
     }
-    boolean isWhite = true;
-    int count = 0;
-    while (i < end) {
-      if (row.get(i) != isWhite) {
-        count++;
-      } else {
-        counterAppend(count);
-        count = 1;
-        isWhite = !isWhite;
-      }
-      i++;
+    for (int run = row.getRunAt(i); run < row.getRunCount(); run++) {
+      counterAppend(row.getRunLength(run));
     }
-    counterAppend(count);
   }
 
   private void counterAppend(int e) {
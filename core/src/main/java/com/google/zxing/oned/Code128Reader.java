@@ -167,20 +167,20 @@ public final class Code128Reader extends OneDReader {
   private static final int CODE_START_C = 105;
   private static final int CODE_STOP = 106;
 
-  private static int[] findStartPattern(BitArray row) throws NotFoundException {
+  private static int[] findStartPattern(RowRuns row) throws NotFoundException {
     int width = row.getSize();
     int rowOffset = row.getNextSet(0);
 
     int counterPosition = 0;
     int[] counters = new int[6];
     int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = counters.length;
 
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
+    // Run 0 is white, so the first black run is run 1
+    for (int run = 1; run < row.getRunCount(); run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      int i = row.getRunEnd(run);
+      if (i < width) {
         if (counterPosition == patternLength - 1) {
           float bestVariance = MAX_AVG_VARIANCE;
           int bestMatch = -1;
@@ -205,14 +205,12 @@ public final class Code128Reader extends OneDReader {
         } else {
           counterPosition++;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
       }
     }
     throw NotFoundException.getNotFoundInstance();
   }
 
-  private static int decodeCode(BitArray row, int[] counters, int rowOffset)
+  private static int decodeCode(RowRuns row, int[] counters, int rowOffset)
       throws NotFoundException {
     recordPattern(row, rowOffset, counters);
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
@@ -236,12 +234,18 @@ public final class Code128Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
 
     boolean convertFNC1 = hints != null && hints.containsKey(DecodeHintType.ASSUME_GS1);
 
     int symbologyModifier = 0;
 
-    int[] startPatternInfo = findStartPattern(row);
+    int[] startPatternInfo = findStartPattern(runs);
     int startCode = startPatternInfo[2];
 
     List<Byte> rawCodes = new ArrayList<>(20);
@@ -288,7 +292,7 @@ public final class Code128Reader extends OneDReader {
       lastCode = code;
 
       // Decode another code from image
-      code = decodeCode(row, counters, nextStart);
+      code = decodeCode(runs, counters, nextStart);
 
       rawCodes.add((byte) code);
 
@@ -481,10 +485,10 @@ public final class Code128Reader extends OneDReader {
     // Check for ample whitespace following pattern, but, to do this we first need to remember that
     // we fudged decoding CODE_STOP since it actually has 7 bars, not 6. There is a black bar left
     // to read off. Would be slightly better to properly read. Here we just skip it:
-    nextStart = row.getNextUnset(nextStart);
-    if (!row.isRange(nextStart,
-                     Math.min(row.getSize(), nextStart + (nextStart - lastStart) / 2),
-                     false)) {
+    nextStart = runs.getNextUnset(nextStart);
+    if (!runs.isRange(nextStart,
+                      Math.min(runs.getSize(), nextStart + (nextStart - lastStart) / 2),
+                      false)) {
       throw NotFoundException.getNotFoundInstance();
     }
 
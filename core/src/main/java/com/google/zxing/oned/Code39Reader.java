@@ -98,21 +98,27 @@ public final class Code39Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
 
     int[] theCounters = counters;
     Arrays.fill(theCounters, 0);
     StringBuilder result = decodeRowResult;
     result.setLength(0);
 
-    int[] start = findAsteriskPattern(row, theCounters);
+    int[] start = findAsteriskPattern(runs, theCounters);
     // Read off white space
-    int nextStart = row.getNextSet(start[1]);
-    int end = row.getSize();
+    int nextStart = runs.getNextSet(start[1]);
+    int end = runs.getSize();
 
     char decodedChar;
     int lastStart;
     do {
-      recordPattern(row, nextStart, theCounters);
+      recordPattern(runs, nextStart, theCounters);
       int pattern = toNarrowWidePattern(theCounters);
       if (pattern < 0) {
         throw NotFoundException.getNotFoundInstance();
@@ -124,7 +130,7 @@ public final class Code39Reader extends OneDReader {
         nextStart += counter;
       }
       // Read off white space
-      nextStart = row.getNextSet(nextStart);
+      nextStart = runs.getNextSet(nextStart);
     } while (decodedChar != '*');
     result.setLength(result.length() - 1); // remove asterisk
 
@@ -186,19 +192,19 @@ private String Code39Reader1(StringBuilder result) throws FormatException {
 	return resultString;
 }
 
-  private static int[] findAsteriskPattern(BitArray row, int[] counters) throws NotFoundException {
+  private static int[] findAsteriskPattern(RowRuns row, int[] counters) throws NotFoundException {
     int width = row.getSize();
     int rowOffset = row.getNextSet(0);
 
     int counterPosition = 0;
     int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = counters.length;
 
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
+    // Run 0 is white, so the first black run is run 1
+    for (int run = 1; run < row.getRunCount(); run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      int i = row.getRunEnd(run);
+      if (i < width) {
         if (counterPosition == patternLength - 1) {
           // Look for whitespace before start pattern, >= 50% of width of start pattern
           if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
@@ -213,8 +219,6 @@ private String Code39Reader1(StringBuilder result) throws FormatException {
         } else {
           counterPosition++;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -72,6 +72,13 @@ public final class EAN13Reader extends UPCEANReader {
   protected int decodeMiddle(BitArray row,
                              int[] startRange,
                              StringBuilder resultString) throws NotFoundException {
+    return decodeMiddle(new RowRuns(row), startRange, resultString);
+  }
+
+  @Override
+  protected int decodeMiddle(RowRuns row,
+                             int[] startRange,
+                             StringBuilder resultString) throws NotFoundException {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
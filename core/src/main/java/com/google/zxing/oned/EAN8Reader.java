@@ -37,6 +37,13 @@ public final class EAN8Reader extends UPCEANReader {
   protected int decodeMiddle(BitArray row,
                              int[] startRange,
                              StringBuilder result) throws NotFoundException {
+    return decodeMiddle(new RowRuns(row), startRange, result);
+  }
+
+  @Override
+  protected int decodeMiddle(RowRuns row,
+                             int[] startRange,
+                             StringBuilder result) throws NotFoundException {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
@@ -101,13 +101,19 @@ public final class ITFReader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws FormatException, NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws FormatException, NotFoundException {
 
     // Find out where the Middle section (payload) starts & ends
-    int[] startRange = decodeStart(row);
-    int[] endRange = decodeEnd(row);
+    int[] startRange = decodeStart(runs);
+    int[] endRange = decodeEnd(runs);
 
     StringBuilder result = new StringBuilder(20);
-    decodeMiddle(row, startRange[1], endRange[0], result);
+    decodeMiddle(runs, startRange[1], endRange[0], result);
     String resultString = result.toString();
 
     int[] allowedLengths = null;
@@ -156,7 +162,7 @@ public final class ITFReader extends OneDReader {
    * @param resultString {@link StringBuilder} to append decoded chars to
    * @throws NotFoundException if decoding could not complete successfully
    */
-  private static void decodeMiddle(BitArray row,
+  private static void decodeMiddle(RowRuns row,
                                    int payloadStart,
                                    int payloadEnd,
                                    StringBuilder resultString) throws NotFoundException {
@@ -199,7 +205,7 @@ public final class ITFReader extends OneDReader {
    * @return Array, containing index of start of 'start block' and end of
    *         'start block'
    */
-  private int[] decodeStart(BitArray row) throws NotFoundException {
+  private int[] decodeStart(RowRuns row) throws NotFoundException {
     int endStart = skipWhiteSpace(row);
     int[] startPattern = findGuardPattern(row, endStart, START_PATTERN);
 
@@ -228,18 +234,19 @@ public final class ITFReader extends OneDReader {
    * @param startPattern index into row of the start or end pattern.
    * @throws NotFoundException if the quiet zone cannot be found
    */
-  private void validateQuietZone(BitArray row, int startPattern) throws NotFoundException {
+  private void validateQuietZone(RowRuns row, int startPattern) throws NotFoundException {
 
     int quietCount = this.narrowLineWidth * 10;  // expect to find this many pixels of quiet zone
 
     // if there are not so many pixel at all let's try as many as possible
     quietCount = Math.min(quietCount, startPattern);
 
-    for (int i = startPattern - 1; quietCount > 0 && i >= 0; i--) {
-      if (row.get(i)) {
-        break;
+    if (quietCount > 0) {
+      // Count back over the white run, if any, that ends just before the pattern
+      int run = row.getRunAt(startPattern - 1);
+      if ((run & 0x01) == 0) {
+        quietCount -= Math.min(quietCount, startPattern - row.getRunStart(run));
       }
-      quietCount--;
     }
     if (quietCount != 0) {
       // Unable to find the necessary number of quiet zone pixels.
@@ -254,7 +261,7 @@ public final class ITFReader extends OneDReader {
    * @return index of the first black line.
    * @throws NotFoundException Throws exception if no black lines are found in the row
    */
-  private static int skipWhiteSpace(BitArray row) throws NotFoundException {
+  private static int skipWhiteSpace(RowRuns row) throws NotFoundException {
     int width = row.getSize();
     int endStart = row.getNextSet(0);
     if (endStart == width) {
@@ -271,37 +278,32 @@ public final class ITFReader extends OneDReader {
    * @return Array, containing index of start of 'end block' and end of 'end
    *         block'
    */
-  private int[] decodeEnd(BitArray row) throws NotFoundException {
+  private int[] decodeEnd(RowRuns row) throws NotFoundException {
 
-    // For convenience, reverse the row and then
+    // For convenience, reverse the runs of the row and then
     // search from 'the start' for the end block
-    row.reverse();
+    RowRuns reversed = row.reverse();
+    int endStart = skipWhiteSpace(reversed);
+    int[] endPattern;
     try {
-      int endStart = skipWhiteSpace(row);
-      int[] endPattern;
-      try {
-        endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED[0]);
-      } catch (NotFoundException nfe) {
-        endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED[1]);
-      }
-
-      // The start & end patterns must be pre/post fixed by a quiet zone. This
-      // zone must be at least 10 times the width of a narrow line.
-      // ref: http://www.barcode-1.net/i25code.html
-      validateQuietZone(row, endPattern[0]);
-
-      // Now recalculate the indices of where the 'endblock' starts & stops to
-      // accommodate
-      // the reversed nature of the search
-      int temp = endPattern[0];
-      endPattern[0] = row.getSize() - endPattern[1];
-      endPattern[1] = row.getSize() - temp;
-
-      return endPattern;
-    } finally {
-      // Put the row back the right way.
-      row.reverse();
+      endPattern = findGuardPattern(reversed, endStart, END_PATTERN_REVERSED[0]);
+    } catch (NotFoundException nfe) {
+      endPattern = findGuardPattern(reversed, endStart, END_PATTERN_REVERSED[1]);
     }
+
+    // The start & end patterns must be pre/post fixed by a quiet zone. This
+    // zone must be at least 10 times the width of a narrow line.
+    // ref: http://www.barcode-1.net/i25code.html
+    validateQuietZone(reversed, endPattern[0]);
+
+    // Now recalculate the indices of where the 'endblock' starts & stops to
+    // accommodate
+    // the reversed nature of the search
+    int temp = endPattern[0];
+    endPattern[0] = reversed.getSize() - endPattern[1];
+    endPattern[1] = reversed.getSize() - temp;
+
+    return endPattern;
   }
 
   /**
@@ -313,20 +315,20 @@ public final class ITFReader extends OneDReader {
    *         ints
    * @throws NotFoundException if pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
+  private static int[] findGuardPattern(RowRuns row,
                                         int rowOffset,
                                         int[] pattern) throws NotFoundException {
     int patternLength = pattern.length;
     int[] counters = new int[patternLength];
     int width = row.getSize();
-    boolean isWhite = false;
 
     int counterPosition = 0;
     int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
+    // rowOffset is the start of a black run
+    for (int run = row.getRunAt(rowOffset); run < row.getRunCount(); run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      int x = row.getRunEnd(run);
+      if (x < width) {
         if (counterPosition == patternLength - 1) {
           if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
             return new int[]{patternStart, x};
@@ -339,8 +341,6 @@ public final class ITFReader extends OneDReader {
         } else {
           counterPosition++;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
       }
     }
     throw NotFoundException.getNotFoundInstance();
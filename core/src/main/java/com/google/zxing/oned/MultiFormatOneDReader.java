@@ -93,9 +93,17 @@ public final class MultiFormatOneDReader extends OneDReader {
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber,
+                             BitArray row,
+                             RowRuns runs,
+                             Map<DecodeHintType,?> hints) throws NotFoundException {
     for (OneDReader reader : readers) {
       try {
-        return reader.decodeRow(rowNumber, row, hints);
+        return reader.decodeRow(rowNumber, row, runs, hints);
       } catch (ReaderException re) {
         // continue
       }
@@ -72,11 +72,19 @@ public final class MultiFormatUPCEANReader extends OneDReader {
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber,
+                             BitArray row,
+                             RowRuns runs,
+                             Map<DecodeHintType,?> hints) throws NotFoundException {
     // Compute this location once and reuse it on multiple implementations
-    int[] startGuardPattern = UPCEANReader.findStartGuardPattern(row);
+    int[] startGuardPattern = UPCEANReader.findStartGuardPattern(runs);
     for (UPCEANReader reader : readers) {
       try {
-        Result result = reader.decodeRow(rowNumber, row, startGuardPattern, hints);
+        Result result = reader.decodeRow(rowNumber, row, runs, startGuardPattern, hints);
         // Special case: a 12-digit code encoded in UPC-A is identical to a "0"
         // followed by those 12 digits encoded as EAN-13. Each will recognize such a code,
         // UPC-A as a 12-digit string and EAN-13 as a 13-digit string starting with "0".
@@ -130,13 +130,19 @@ public abstract class OneDReader implements Reader {
         continue;
       }
 
+      // Find the runs of the row once, for all readers and both directions
+      RowRuns runs = new RowRuns(row);
+
       // While we have the image data in a BitArray, it's fairly cheap to reverse it in place to
       // handle decoding upside down barcodes.
       for (int attempt = 0; attempt < 2; attempt++) {
         hints = row.OneDReader2(hints, attempt);
+        if (attempt == 1) {
+          runs = runs.reverse();
+        }
         try {
           // Look for a barcode
-          Result result = decodeRow(rowNumber, row, hints);
+          Result result = decodeRow(rowNumber, row, runs, hints);
           // We found our barcode
           result.OneDReader3(width, attempt);
           return result;
@@ -204,6 +210,34 @@ private int OndeDReader3(int height, boolean tryHarder) {
     }
   }
 
+  /**
+   * Like {@link #recordPattern(BitArray, int, int[])}, but reads whole runs from a {@link RowRuns}
+   * instead of single pixels.
+   *
+   * @param runs runs of the row to count from
+   * @param start offset into row to start at
+   * @param counters array into which to record counts
+   * @throws NotFoundException if counters cannot be filled entirely from row before running out
+   *  of pixels
+   */
+  protected static void recordPattern(RowRuns runs,
+                                      int start,
+                                      int[] counters) throws NotFoundException {
+    if (start >= runs.getSize()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    int run = runs.getRunAt(start);
+    int numCounters = counters.length;
+    if (run + numCounters > runs.getRunCount()) {
+      // Runs out of pixels before filling every counter
+      throw NotFoundException.getNotFoundInstance();
+    }
+    counters[0] = runs.getRunEnd(run) - start;
+    for (int i = 1; i < numCounters; i++) {
+      counters[i] = runs.getRunLength(run + i);
+    }
+  }
+
   protected static void recordPatternInReverse(BitArray row, int start, int[] counters)
       throws NotFoundException {
     // This could be more efficient I guess
@@ -278,4 +312,23 @@ private int OndeDReader3(int height, boolean tryHarder) {
   public abstract Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException;
 
+  /**
+   * <p>Like {@link #decodeRow(int, BitArray, Map)}, but also given the runs of the row, which
+   * the caller has already computed and may share between several readers. Readers that scan the
+   * row run by run override this; by default it ignores the runs.</p>
+   *
+   * @param rowNumber row number from top of the row
+   * @param row the black/white pixel data of the row
+   * @param runs the runs of the same row
+   * @param hints decode hints
+   * @return {@link Result} containing encoded string and start/end of barcode
+   * @throws NotFoundException if no potential barcode is found
+   * @throws ChecksumException if a potential barcode is found but does not pass its checksum
+   * @throws FormatException if a potential barcode is found but format is invalid
+   */
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, hints);
+  }
+
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.common.BitArray;
+
+import java.util.Arrays;
+
+/**
+ * <p>A run-length encoding of one row of black/white pixels. {@link OneDReader} computes it once
+ * per row, a whole word at a time, and hands the same instance to every reader that tries the row,
+ * so that they step from run to run rather than re-reading the row pixel by pixel.</p>
+ *
+ * <p>Runs alternate between white and black, starting with a white run, which is empty if the
+ * row starts with a black pixel. So run {@code i} is black iff {@code i} is odd.</p>
+ *
+ * <p>Instances are immutable; they do not follow later changes to the row they were built from.</p>
+ */
+public final class RowRuns {
+
+  private final int size;
+  private final int runCount;
+  // Run i covers [boundaries[i], boundaries[i + 1])
+  private final int[] boundaries;
+
+  /**
+   * @param row row to encode
+   */
+  public RowRuns(BitArray row) {
+    size = row.getSize();
+    int[] runBoundaries = new int[size + 2];
+    int count = 0;
+    int x = 0;
+    boolean black = false;
+    do {
+      runBoundaries[count++] = x;
+      x = black ? row.getNextUnset(x) : row.getNextSet(x);
+      black = !black;
+    } while (x < size);
+    runBoundaries[count] = size;
+    this.runCount = count;
+    this.boundaries = runBoundaries;
+  }
+
+  private RowRuns(int size, int runCount, int[] boundaries) {
+    this.size = size;
+    this.runCount = runCount;
+    this.boundaries = boundaries;
+  }
+
+  /**
+   * @return number of pixels in the row
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return number of runs, including a possibly empty first white run
+   */
+  public int getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * @param run run index
+   * @return offset of the first pixel of the run
+   */
+  public int getRunStart(int run) {
+    return boundaries[run];
+  }
+
+  /**
+   * @param run run index
+   * @return offset just past the last pixel of the run
+   */
+  public int getRunEnd(int run) {
+    return boundaries[run + 1];
+  }
+
+  /**
+   * @param run run index
+   * @return number of pixels in the run
+   */
+  public int getRunLength(int run) {
+    return boundaries[run + 1] - boundaries[run];
+  }
+
+  /**
+   * @param i pixel offset, from 0 (inclusive) to {@link #getSize()} (exclusive)
+   * @return index of the run containing that pixel
+   */
+  public int getRunAt(int i) {
+    // The first white run may be empty, so search for the last boundary <= i
+    int run = Arrays.binarySearch(boundaries, 1, runCount, i);
+    return run >= 0 ? run : -run - 2;
+  }
+
+  /**
+   * @param i pixel offset
+   * @return true iff pixel i is black, as {@link BitArray#get(int)}
+   */
+  public boolean get(int i) {
+    return (getRunAt(i) & 0x01) != 0;
+  }
+
+  /**
+   * @param from first pixel to check
+   * @return offset of the first black pixel at or after {@code from}, or {@link #getSize()}, as
+   *  {@link BitArray#getNextSet(int)}
+   */
+  public int getNextSet(int from) {
+    return getNext(from, 1);
+  }
+
+  /**
+   * @param from first pixel to check
+   * @return offset of the first white pixel at or after {@code from}, or {@link #getSize()}, as
+   *  {@link BitArray#getNextUnset(int)}
+   */
+  public int getNextUnset(int from) {
+    return getNext(from, 0);
+  }
+
+  private int getNext(int from, int parity) {
+    if (from >= size) {
+      return size;
+    }
+    int run = getRunAt(from);
+    return (run & 0x01) == parity ? from : boundaries[run + 1];
+  }
+
+  /**
+   * @param start start of range, inclusive
+   * @param end end of range, exclusive
+   * @param value if true, checks that pixels in range are black, otherwise checks that they are white
+   * @return true iff all pixels are of the given color in the specified range, as
+   *  {@link BitArray#isRange(int, int, boolean)}
+   * @throws IllegalArgumentException if end is less than start or the range is not contained in the row
+   */
+  public boolean isRange(int start, int end, boolean value) {
+    if (end < start || start < 0 || end > size) {
+      throw new IllegalArgumentException();
+    }
+    if (end == start) {
+      return true; // empty range matches
+    }
+    int run = getRunAt(start);
+    return ((run & 0x01) != 0) == value && end <= boundaries[run + 1];
+  }
+
+  /**
+   * @return the runs of the row reversed in place, as by {@link BitArray#reverse()}
+   */
+  public RowRuns reverse() {
+    int[] reversed = new int[boundaries.length];
+    int count = 0;
+    // The last run becomes the first; if it is black, the reversed row starts with an empty white run
+    if ((runCount & 0x01) == 0) {
+      reversed[count++] = 0;
+    }
+    // Drop the original first run if it was empty
+    int firstRun = runCount > 1 && boundaries[1] == 0 ? 1 : 0;
+    for (int run = runCount - 1; run >= firstRun; run--) {
+      reversed[count++] = size - boundaries[run + 1];
+    }
+    reversed[count] = size;
+    return new RowRuns(size, count, reversed);
+  }
+
+  /**
+   * @return a new row with the pixels these runs describe
+   */
+  public BitArray toBitArray() {
+    BitArray row = new BitArray(size);
+    for (int run = 1; run < runCount; run += 2) {
+      row.setRange(boundaries[run], boundaries[run + 1]);
+    }
+    return row;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder(size);
+    for (int run = 0; run < runCount; run++) {
+      char c = (run & 0x01) == 0 ? '.' : 'X';
+      for (int i = getRunLength(run); i > 0; i--) {
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+}
@@ -52,6 +52,22 @@ public final class UPCAReader extends UPCEANReader {
     return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, hints));
   }
 
+  @Override
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, runs, hints));
+  }
+
+  @Override
+  Result decodeRow(int rowNumber,
+                   BitArray row,
+                   RowRuns runs,
+                   int[] startGuardRange,
+                   Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, runs, startGuardRange, hints));
+  }
+
   @Override
   public Result decode(BinaryBitmap image) throws NotFoundException, FormatException {
     return maybeReturnResult(ean13Reader.decode(image));
@@ -74,6 +90,12 @@ public final class UPCAReader extends UPCEANReader {
     return ean13Reader.decodeMiddle(row, startRange, resultString);
   }
 
+  @Override
+  protected int decodeMiddle(RowRuns row, int[] startRange, StringBuilder resultString)
+      throws NotFoundException {
+    return ean13Reader.decodeMiddle(row, startRange, resultString);
+  }
+
   private static Result maybeReturnResult(Result result) throws FormatException {
     String text = result.getText();
     if (text.charAt(0) == '0') {
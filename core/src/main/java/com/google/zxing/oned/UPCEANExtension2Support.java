@@ -21,7 +21,6 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
-import com.google.zxing.common.BitArray;
 
 import java.util.EnumMap;
 import java.util.Map;
@@ -34,7 +33,7 @@ final class UPCEANExtension2Support {
   private final int[] decodeMiddleCounters = new int[4];
   private final StringBuilder decodeRowStringBuffer = new StringBuilder();
 
-  Result decodeRow(int rowNumber, BitArray row, int[] extensionStartRange) throws NotFoundException {
+  Result decodeRow(int rowNumber, RowRuns row, int[] extensionStartRange) throws NotFoundException {
 
     StringBuilder result = decodeRowStringBuffer;
     result.setLength(0);
@@ -57,7 +56,7 @@ final class UPCEANExtension2Support {
     return extensionResult;
   }
 
-  private int decodeMiddle(BitArray row, int[] startRange, StringBuilder resultString) throws NotFoundException {
+  private int decodeMiddle(RowRuns row, int[] startRange, StringBuilder resultString) throws NotFoundException {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
@@ -105,6 +105,10 @@ public abstract class UPCEANReader extends OneDReader {
   }
 
   static int[] findStartGuardPattern(BitArray row) throws NotFoundException {
+    return findStartGuardPattern(new RowRuns(row));
+  }
+
+  static int[] findStartGuardPattern(RowRuns row) throws NotFoundException {
     boolean foundStart = false;
     int[] startRange = null;
     int nextStart = 0;
@@ -128,7 +132,13 @@ public abstract class UPCEANReader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
-    return decodeRow(rowNumber, row, findStartGuardPattern(row), hints);
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  protected Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, runs, findStartGuardPattern(runs), hints);
   }
 
   /**
@@ -150,6 +160,18 @@ public abstract class UPCEANReader extends OneDReader {
                           int[] startGuardRange,
                           Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RowRuns(row), startGuardRange, hints);
+  }
+
+  /**
+   * Like {@link #decodeRow(int, BitArray, int[], Map)}, given the runs of the row as well.
+   */
+  Result decodeRow(int rowNumber,
+                   BitArray row,
+                   RowRuns runs,
+                   int[] startGuardRange,
+                   Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
 
     ResultPointCallback resultPointCallback = hints == null ? null :
         (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
@@ -159,14 +181,14 @@ public abstract class UPCEANReader extends OneDReader {
 
     StringBuilder result = decodeRowStringBuffer;
     result.setLength(0);
-    int endStart = decodeMiddle(row, startGuardRange, result);
+    int endStart = decodeMiddle(runs, startGuardRange, result);
 
     if (resultPointCallback != null) {
         resultPointCallback.foundPossibleResultPoint(new ResultPoint(
             endStart, rowNumber
         ));
       }
-    int[] endRange = decodeEnd(row, endStart);
+    int[] endRange = decodeEnd(runs, endStart);
 
     UPCEANReader4(rowNumber, endRange, resultPointCallback);
 
@@ -190,7 +212,7 @@ public abstract class UPCEANReader extends OneDReader {
     int extensionLength = 0;
 
     try {
-      Result extensionResult = extensionReader.decodeRow(rowNumber, row, endRange[1]);
+      Result extensionResult = extensionReader.decodeRow(rowNumber, runs, endRange[1]);
       decodeResult.putMetadata(ResultMetadataType.UPC_EAN_EXTENSION, extensionResult.getText());
       decodeResult.putAllMetadata(extensionResult.getResultMetadata());
       decodeResult.addResultPoints(extensionResult.getResultPoints());
@@ -314,6 +336,10 @@ private int UPCEANReader3(int symbologyIdentifier) {
   }
 
   int[] decodeEnd(BitArray row, int endStart) throws NotFoundException {
+    return decodeEnd(new RowRuns(row), endStart);
+  }
+
+  int[] decodeEnd(RowRuns row, int endStart) throws NotFoundException {
     return findGuardPattern(row, endStart, false, START_END_PATTERN);
   }
 
@@ -321,6 +347,13 @@ private int UPCEANReader3(int symbologyIdentifier) {
                                 int rowOffset,
                                 boolean whiteFirst,
                                 int[] pattern) throws NotFoundException {
+    return findGuardPattern(new RowRuns(row), rowOffset, whiteFirst, pattern);
+  }
+
+  static int[] findGuardPattern(RowRuns row,
+                                int rowOffset,
+                                boolean whiteFirst,
+                                int[] pattern) throws NotFoundException {
     return findGuardPattern(row, rowOffset, whiteFirst, pattern, new int[pattern.length]);
   }
 
@@ -335,35 +368,39 @@ private int UPCEANReader3(int symbologyIdentifier) {
    * @return start/end horizontal offset of guard pattern, as an array of two ints
    * @throws NotFoundException if pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
+  private static int[] findGuardPattern(RowRuns row,
                                         int rowOffset,
                                         boolean whiteFirst,
                                         int[] pattern,
                                         int[] counters) throws NotFoundException {
     int width = row.getSize();
     rowOffset = whiteFirst ? row.getNextUnset(rowOffset) : row.getNextSet(rowOffset);
+    if (rowOffset == width) {
+      throw NotFoundException.getNotFoundInstance();
+    }
     int counterPosition = 0;
     int patternStart = rowOffset;
     int patternLength = pattern.length;
-    boolean isWhite = whiteFirst;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // Step a whole run at a time
+    int x = rowOffset;
+    for (int run = row.getRunAt(rowOffset); run < row.getRunCount(); run++) {
+      int runEnd = row.getRunEnd(run);
+      counters[counterPosition] = runEnd - x;
+      x = runEnd;
+      if (x == width) {
+        break;
+      }
+      if (counterPosition == patternLength - 1) {
+        if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+          return new int[]{patternStart, x};
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+        patternStart += counters[0] + counters[1];
+        System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
+        counters[counterPosition - 1] = 0;
+        counters[counterPosition] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -383,6 +420,14 @@ private int UPCEANReader3(int symbologyIdentifier) {
    */
   static int decodeDigit(BitArray row, int[] counters, int rowOffset, int[][] patterns)
       throws NotFoundException {
+    return decodeDigit(new RowRuns(row), counters, rowOffset, patterns);
+  }
+
+  /**
+   * Like {@link #decodeDigit(BitArray, int[], int, int[][])}, on the runs of the row.
+   */
+  static int decodeDigit(RowRuns row, int[] counters, int rowOffset, int[][] patterns)
+      throws NotFoundException {
     recordPattern(row, rowOffset, counters);
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
     int bestMatch = -1;
@@ -423,4 +468,21 @@ private int UPCEANReader3(int symbologyIdentifier) {
                                       int[] startRange,
                                       StringBuilder resultString) throws NotFoundException;
 
+  /**
+   * Like {@link #decodeMiddle(BitArray, int[], StringBuilder)}, given the runs of the row, which is
+   * how {@link #decodeRow(int, BitArray, Map)} calls it. Subclasses that step from run to run
+   * override this too; by default it rebuilds the row and calls the {@link BitArray} version.
+   *
+   * @param row runs of black/white values to search
+   * @param startRange start/end offset of start guard pattern
+   * @param resultString {@link StringBuilder} to append decoded chars to
+   * @return horizontal offset of first pixel after the "middle" that was decoded
+   * @throws NotFoundException if decoding could not complete successfully
+   */
+  protected int decodeMiddle(RowRuns row,
+                             int[] startRange,
+                             StringBuilder resultString) throws NotFoundException {
+    return decodeMiddle(row.toBitArray(), startRange, resultString);
+  }
+
 }
@@ -79,6 +79,12 @@ public final class UPCEReader extends UPCEANReader {
   @Override
   protected int decodeMiddle(BitArray row, int[] startRange, StringBuilder result)
       throws NotFoundException {
+    return decodeMiddle(new RowRuns(row), startRange, result);
+  }
+
+  @Override
+  protected int decodeMiddle(RowRuns row, int[] startRange, StringBuilder result)
+      throws NotFoundException {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
@@ -107,6 +113,11 @@ public final class UPCEReader extends UPCEANReader {
 
   @Override
   protected int[] decodeEnd(BitArray row, int endStart) throws NotFoundException {
+    return decodeEnd(new RowRuns(row), endStart);
+  }
+
+  @Override
+  int[] decodeEnd(RowRuns row, int endStart) throws NotFoundException {
     return findGuardPattern(row, endStart, true, MIDDLE_END_PATTERN);
   }
 
@@ -21,6 +21,7 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.BitMatrixView;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -77,20 +78,25 @@ public final class Detector {
     // different binarizers
     //boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
 
-    BitMatrix bitMatrix = image.getBlackMatrix();
+    BitMatrix matrix = image.getBlackMatrix();
+    BitMatrixView bitMatrix = new BitMatrixView(matrix);
 
     List<ResultPoint[]> barcodeCoordinates = detect(multiple, bitMatrix);
-    // Try 180, 270, 90 degree rotations, in that order
+    // Try 180, 270, 90 degree rotations, in that order. These are views, so only a rotation in
+    // which a barcode is found gets copied.
     for (int rotate = 0; barcodeCoordinates.isEmpty() && rotate < 3; rotate++) {
-      bitMatrix = bitMatrix.clone();
       if (rotate != 1) {
-        bitMatrix.rotate180();
+        bitMatrix = bitMatrix.rotate180();
       } else {
-        bitMatrix.rotate90();
+        bitMatrix = bitMatrix.rotate90();
       }
       barcodeCoordinates = detect(multiple, bitMatrix);
     }
-    return new PDF417DetectorResult(bitMatrix, barcodeCoordinates);
+    if (barcodeCoordinates.isEmpty()) {
+      // Nothing to decode, so don't bother copying the last rotation
+      return new PDF417DetectorResult(matrix, barcodeCoordinates);
+    }
+    return new PDF417DetectorResult(bitMatrix.toBitMatrix(), barcodeCoordinates);
   }
 
   /**
@@ -100,7 +106,7 @@ public final class Detector {
    * @param bitMatrix bit matrix to detect barcodes in
    * @return List of ResultPoint arrays containing the coordinates of found barcodes
    */
-  private static List<ResultPoint[]> detect(boolean multiple, BitMatrix bitMatrix) {
+  private static List<ResultPoint[]> detect(boolean multiple, BitMatrixView bitMatrix) {
     List<ResultPoint[]> barcodeCoordinates = new ArrayList<>();
     int row = 0;
     int column = 0;
@@ -161,7 +167,7 @@ public final class Detector {
    *           vertices[6] x, y top right codeword area
    *           vertices[7] x, y bottom right codeword area
    */
-  private static ResultPoint[] findVertices(BitMatrix matrix, int startRow, int startColumn) {
+  private static ResultPoint[] findVertices(BitMatrixView matrix, int startRow, int startColumn) {
     int height = matrix.getHeight();
     int width = matrix.getWidth();
 
@@ -184,7 +190,7 @@ public final class Detector {
     }
   }
 
-  private static ResultPoint[] findRowsWithPattern(BitMatrix matrix,
+  private static ResultPoint[] findRowsWithPattern(BitMatrixView matrix,
                                                    int height,
                                                    int width,
                                                    int startRow,
@@ -222,7 +228,7 @@ public final class Detector {
     return result;
   }
 
-private static int findRowsWithPatternRefactoring(BitMatrix matrix, int height, int width, int[] pattern,
+private static int findRowsWithPatternRefactoring(BitMatrixView matrix, int height, int width, int[] pattern,
 		ResultPoint[] result, int[] counters, int stopRow) {
 	int skippedRowCount = 0;
       int[] previousRowLoc = {(int) result[0].getX(), (int) result[1].getX()};
@@ -261,7 +267,7 @@ private static int findRowsWithPatternRefactoring(BitMatrix matrix, int height,
    * @param counters array of counters, as long as pattern, to re-use
    * @return start/end horizontal offset of guard pattern, as an array of two ints.
    */
-  private static int[] findGuardPattern(BitMatrix matrix,
+  private static int[] findGuardPattern(BitMatrixView matrix,
                                         int column,
                                         int row,
                                         int width,
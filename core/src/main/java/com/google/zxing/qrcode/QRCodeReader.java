@@ -74,7 +74,7 @@ public class QRCodeReader implements Reader {
       points = NO_POINTS;
     } else {
       DetectorResult detectorResult = new Detector(image.getBlackMatrix()).detect(hints);
-      decoderResult = decoder.decode(detectorResult.getBits(), hints);
+      decoderResult = decoder.decode(detectorResult.getBits(), detectorResult.getUncertainModules(), hints);
       points = detectorResult.getPoints();
     }
 
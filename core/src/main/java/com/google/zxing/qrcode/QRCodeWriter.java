@@ -20,10 +20,11 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.Writer;
 import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.encoder.ByteMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.ModuleMatrix;
 import com.google.zxing.qrcode.encoder.QRCode;
 
 import java.util.Map;
@@ -79,10 +80,18 @@ public final class QRCodeWriter implements Writer {
     return renderResult(code, width, height, quietZone);
   }
 
-  // Note that the input matrix uses 0 == white, 1 == black, while the output matrix uses
-  // 0 == black, 255 == white (i.e. an 8 bit greyscale bitmap).
-  private static BitMatrix renderResult(QRCode code, int width, int height, int quietZone) {
-    ByteMatrix input = code.getMatrix();
+  /**
+   * Renders an encoded QR code, such as one from a {@link com.google.zxing.qrcode.encoder.BatchEncoder},
+   * as {@link #encode(String, BarcodeFormat, int, int, Map)} does.
+   *
+   * @param code QR code to render
+   * @param width minimum width of the result
+   * @param height minimum height of the result
+   * @param quietZone width of the quiet zone around the code, in modules
+   * @return the code scaled by the largest whole factor that fits, centered
+   */
+  public static BitMatrix renderResult(QRCode code, int width, int height, int quietZone) {
+    ModuleMatrix input = code.getModuleMatrix();
     if (input == null) {
       throw new IllegalStateException();
     }
@@ -102,13 +111,19 @@ public final class QRCodeWriter implements Writer {
     int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
 
     BitMatrix output = new BitMatrix(outputWidth, outputHeight);
+    BitArray row = new BitArray(outputWidth);
 
     for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
-      // Write the contents of this row of the barcode
-      for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
-        if (input.get(inputX, inputY) == 1) {
-          output.setRegion(outputX, outputY, multiple, multiple);
-        }
+      // Scale the row once, a run of dark modules at a time, then copy it into each of its output rows
+      row.clear();
+      int inputX = input.getNextDark(0, inputY);
+      while (inputX < inputWidth) {
+        int runEnd = input.getNextLight(inputX, inputY);
+        row.setRange(leftPadding + inputX * multiple, leftPadding + runEnd * multiple);
+        inputX = input.getNextDark(runEnd, inputY);
+      }
+      for (int i = 0; i < multiple; i++) {
+        output.setRow(outputY + i, row);
       }
     }
 
@@ -24,6 +24,8 @@ import com.google.zxing.common.BitMatrix;
 final class BitMatrixParser {
 
   private final BitMatrix bitMatrix;
+  private final BitMatrix uncertainModules;
+  private byte[] uncertainCodewords;
   private Version parsedVersion;
   private FormatInformation parsedFormatInfo;
   private boolean mirror;
@@ -33,11 +35,26 @@ final class BitMatrixParser {
    * @throws FormatException if dimension is not >= 21 and 1 mod 4
    */
   BitMatrixParser(BitMatrix bitMatrix) throws FormatException {
+    this(bitMatrix, null);
+  }
+
+  /**
+   * @param bitMatrix {@link BitMatrix} to parse
+   * @param uncertainModules modules of bitMatrix which may have been misread, or null if unknown
+   * @throws FormatException if dimension is not >= 21 and 1 mod 4
+   */
+  BitMatrixParser(BitMatrix bitMatrix, BitMatrix uncertainModules) throws FormatException {
     int dimension = bitMatrix.getHeight();
     if (dimension < 21 || (dimension & 0x03) != 1) {
       throw FormatException.getFormatInstance();
     }
+    if (uncertainModules != null &&
+        (uncertainModules.getWidth() != bitMatrix.getWidth() ||
+         uncertainModules.getHeight() != dimension)) {
+      throw new IllegalArgumentException("Uncertain modules do not match the bit matrix");
+    }
     this.bitMatrix = bitMatrix;
+    this.uncertainModules = uncertainModules;
   }
 
   /**
@@ -152,72 +169,27 @@ private int extractPureBitsRefactoring(int dimension, int versionBits, int ijMin
    * QR Code.</p>
    *
    * @return bytes encoded within the QR Code
-   * @throws FormatException if the exact number of bytes expected is not read
+   * @throws FormatException if the format or version information cannot be read
    */
   byte[] readCodewords() throws FormatException {
 
     FormatInformation formatInfo = readFormatInformation();
     Version version = readVersion();
 
-    // Get the data mask for the format used in this QR Code. This will exclude
-    // some bits from reading as we wind through the bit matrix.
+    // The data mask is removed as the codewords are gathered; the bit matrix is left as it is
     DataMask dataMask = DataMask.values()[formatInfo.getDataMask()];
-    int dimension = bitMatrix.getHeight();
-    dataMask.unmaskBitMatrix(bitMatrix, dimension);
-
-    BitMatrix functionPattern = version.buildFunctionPattern();
-
-    boolean readingUp = true;
-    byte[] result = new byte[version.getTotalCodewords()];
-    int resultOffset = 0;
-    int currentByte = 0;
-    int bitsRead = 0;
-    // Read columns in pairs, from right to left
-    for (int j = dimension - 1; j > 0; j -= 2) {
-      if (j == 6) {
-        // Skip whole column with vertical alignment pattern;
-        // saves time and makes the other code proceed more cleanly
-        j--;
-      }
-      // Read alternatingly from bottom to top then top to bottom
-      for (int count = 0; count < dimension; count++) {
-        int i = readingUp ? dimension - 1 - count : count;
-        for (int col = 0; col < 2; col++) {
-          // Ignore bits covered by the function pattern
-          if (!functionPattern.get(j - col, i)) {
-            // Read a bit
-            bitsRead++;
-            currentByte <<= 1;
-            if (bitMatrix.get(j - col, i)) {
-              currentByte |= 1;
-            }
-            // If we've made a whole byte, save it off
-            if (bitsRead == 8) {
-              result[resultOffset++] = (byte) currentByte;
-              bitsRead = 0;
-              currentByte = 0;
-            }
-          }
-        }
-      }
-      readingUp ^= true; // readingUp = !readingUp; // switch directions
-    }
-    if (resultOffset != version.getTotalCodewords()) {
-      throw FormatException.getFormatInstance();
-    }
+    CodewordPlacement placement = version.getCodewordPlacement();
+    byte[] result = placement.readCodewords(bitMatrix, dataMask);
+    uncertainCodewords = uncertainModules == null ? null : placement.readUncertainCodewords(uncertainModules);
     return result;
   }
 
   /**
-   * Revert the mask removal done while reading the code words. The bit matrix should revert to its original state.
+   * @return for each codeword last returned by {@link #readCodewords()}, 1 if any of its modules
+   *  is one of the uncertain modules, else 0; or null if the uncertain modules are not known
    */
-  void remask() {
-    if (parsedFormatInfo == null) {
-      return; // We have no format information, and have no data mask
-    }
-    DataMask dataMask = DataMask.values()[parsedFormatInfo.getDataMask()];
-    int dimension = bitMatrix.getHeight();
-    dataMask.unmaskBitMatrix(bitMatrix, dimension);
+  byte[] getUncertainCodewords() {
+    return uncertainCodewords;
   }
 
   /**
@@ -236,6 +208,13 @@ private int extractPureBitsRefactoring(int dimension, int versionBits, int ijMin
 
   /** Mirror the bit matrix in order to attempt a second reading. */
   void mirror() {
+    mirror(bitMatrix);
+    if (uncertainModules != null) {
+      mirror(uncertainModules);
+    }
+  }
+
+  private static void mirror(BitMatrix bitMatrix) {
     for (int x = 0; x < bitMatrix.getWidth(); x++) {
       for (int y = x + 1; y < bitMatrix.getHeight(); y++) {
         if (bitMatrix.get(x, y) != bitMatrix.get(y, x)) {
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * <p>The modules which hold each bit of the codewords of one {@link Version}, in the order they
+ * are read, and which of those bits each {@link DataMask} flips. See ISO 18004:2006 6.7.3
+ * and 6.8.1.</p>
+ *
+ * <p>Instances are never modified once built, and are shared by everything reading that version;
+ * see {@link Version#getCodewordPlacement()}.</p>
+ */
+final class CodewordPlacement {
+
+  // Module of each codeword bit as x | y << 16, most significant bit of each codeword first
+  private final int[] modules;
+  // Indexed by DataMask ordinal, then codeword: the bits of the codeword which the mask flips
+  private final byte[][] maskCodewords;
+
+  CodewordPlacement(Version version) {
+    int dimension = version.getDimensionForVersion();
+    int totalCodewords = version.getTotalCodewords();
+    BitMatrix functionPattern = version.buildFunctionPattern();
+
+    // Any remainder bits after the last codeword are left out
+    modules = new int[totalCodewords * 8];
+    int bitsPlaced = 0;
+    boolean readingUp = true;
+    // Columns in pairs, from right to left
+    for (int j = dimension - 1; j > 0 && bitsPlaced < modules.length; j -= 2) {
+      if (j == 6) {
+        // Skip whole column with vertical alignment pattern
+        j--;
+      }
+      // Alternatingly from bottom to top then top to bottom
+      for (int count = 0; count < dimension && bitsPlaced < modules.length; count++) {
+        int i = readingUp ? dimension - 1 - count : count;
+        for (int col = 0; col < 2 && bitsPlaced < modules.length; col++) {
+          if (!functionPattern.get(j - col, i)) {
+            modules[bitsPlaced++] = (j - col) | i << 16;
+          }
+        }
+      }
+      readingUp = !readingUp;
+    }
+    if (bitsPlaced != modules.length) {
+      throw new IllegalStateException("Too few modules for codewords in " + version);
+    }
+
+    DataMask[] dataMasks = DataMask.values();
+    maskCodewords = new byte[dataMasks.length][totalCodewords];
+    for (int m = 0; m < dataMasks.length; m++) {
+      byte[] maskCodeword = maskCodewords[m];
+      for (int bit = 0; bit < modules.length; bit++) {
+        int module = modules[bit];
+        if (dataMasks[m].isMasked(module >>> 16, module & 0xFFFF)) {
+          maskCodeword[bit >> 3] |= 0x80 >> (bit & 0x07);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param bits modules of a QR Code of this version, still masked
+   * @param dataMask data mask used in the QR Code
+   * @return codewords held in the QR Code, unmasked
+   */
+  byte[] readCodewords(BitMatrix bits, DataMask dataMask) {
+    byte[] maskCodeword = maskCodewords[dataMask.ordinal()];
+    byte[] result = new byte[maskCodeword.length];
+    int bit = 0;
+    for (int i = 0; i < result.length; i++) {
+      int codeword = 0;
+      for (int end = bit + 8; bit < end; bit++) {
+        int module = modules[bit];
+        codeword <<= 1;
+        if (bits.get(module & 0xFFFF, module >>> 16)) {
+          codeword |= 1;
+        }
+      }
+      result[i] = (byte) (codeword ^ maskCodeword[i]);
+    }
+    return result;
+  }
+
+  /**
+   * @param uncertainModules modules of a QR Code of this version which may have been misread
+   * @return for each codeword, 1 if any of its modules is uncertain, else 0
+   */
+  byte[] readUncertainCodewords(BitMatrix uncertainModules) {
+    byte[] result = new byte[modules.length / 8];
+    for (int bit = 0; bit < modules.length; bit++) {
+      int module = modules[bit];
+      if (uncertainModules.get(module & 0xFFFF, module >>> 16)) {
+        result[bit >> 3] = 1;
+      }
+    }
+    return result;
+  }
+
+}
@@ -36,9 +36,11 @@ import java.util.Map;
 public final class Decoder {
 
   private final ReedSolomonDecoder rsDecoder;
+  private final ReedSolomonDecoder.Workspace rsWorkspace;
 
   public Decoder() {
     rsDecoder = new ReedSolomonDecoder(GenericGF.QR_CODE_FIELD_256);
+    rsWorkspace = new ReedSolomonDecoder.Workspace();
   }
 
   public DecoderResult decode(boolean[][] image) throws ChecksumException, FormatException {
@@ -75,9 +77,28 @@ public final class Decoder {
    */
   public DecoderResult decode(BitMatrix bits, Map<DecodeHintType,?> hints)
       throws FormatException, ChecksumException {
+    return decode(bits, null, hints);
+  }
+
+  /**
+   * <p>Decodes a QR Code represented as a {@link BitMatrix}, knowing which modules may have been
+   * misread, for example because they were sampled close to the black/white threshold. Codewords
+   * that contain such modules are treated as erasures in error correction, which can correct
+   * up to twice as many of them as it can errors at unknown positions.</p>
+   *
+   * @param bits booleans representing white/black QR Code modules
+   * @param uncertainModules set bits mark modules of bits which may have been misread, or null
+   *  if unknown; mirrored along with bits if the code turns out to be mirrored
+   * @param hints decoding hints that should be used to influence decoding
+   * @return text and bytes encoded within the QR Code
+   * @throws FormatException if the QR Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult decode(BitMatrix bits, BitMatrix uncertainModules, Map<DecodeHintType,?> hints)
+      throws FormatException, ChecksumException {
 
     // Construct a parser and read version, error-correction level
-    BitMatrixParser parser = new BitMatrixParser(bits);
+    BitMatrixParser parser = new BitMatrixParser(bits, uncertainModules);
     FormatException fe = null;
     ChecksumException ce = null;
     try {
@@ -90,9 +111,6 @@ public final class Decoder {
 
     try {
 
-      // Revert the bit matrix
-      parser.remask();
-
       // Will be attempting a mirrored reading of the version and format info.
       parser.setMirror(true);
 
@@ -136,6 +154,10 @@ public final class Decoder {
     byte[] codewords = parser.readCodewords();
     // Separate into data blocks
     DataBlock[] dataBlocks = DataBlock.getDataBlocks(codewords, version, ecLevel);
+    // ... and split the flags of uncertain codewords the same way
+    byte[] uncertainCodewords = parser.getUncertainCodewords();
+    int[][] erasures = uncertainCodewords == null ? null :
+        getErasures(DataBlock.getDataBlocks(uncertainCodewords, version, ecLevel));
 
     // Count total number of data bytes
     int totalBytes = 0;
@@ -145,45 +167,84 @@ public final class Decoder {
     byte[] resultBytes = new byte[totalBytes];
     int resultOffset = 0;
 
-    // Error-correct and copy data blocks together into a stream of bytes
+    // Error-correct all data blocks, then copy them together into a stream of bytes
+    int blocksCorrected = correctErrors(dataBlocks, erasures);
     for (DataBlock dataBlock : dataBlocks) {
       byte[] codewordBytes = dataBlock.getCodewords();
       int numDataCodewords = dataBlock.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
       for (int i = 0; i < numDataCodewords; i++) {
         resultBytes[resultOffset++] = codewordBytes[i];
       }
     }
 
     // Decode the contents of that stream of bytes
-    return DecodedBitStreamParser.decode(resultBytes, version, ecLevel, hints);
+    DecoderResult result = DecodedBitStreamParser.decode(resultBytes, version, ecLevel, hints);
+    result.setBlocksCorrected(blocksCorrected);
+    return result;
   }
 
   /**
-   * <p>Given data and error-correction codewords received, possibly corrupted by errors, attempts to
-   * correct the errors in-place using Reed-Solomon error correction.</p>
+   * <p>Given data and error-correction codewords received in each block, possibly corrupted by
+   * errors, attempts to correct the errors in-place using Reed-Solomon error correction.</p>
    *
-   * @param codewordBytes data and error correction codewords
-   * @param numDataCodewords number of codewords that are data bytes
+   * @param dataBlocks blocks of data and error correction codewords, which all have the same
+   *  number of error correction codewords
+   * @param erasures for each block, positions of codewords which are likely wrong, or null
+   * @return number of blocks that had errors
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
-    int numCodewords = codewordBytes.length;
-    // First read into an array of ints
-    int[] codewordsInts = new int[numCodewords];
-    for (int i = 0; i < numCodewords; i++) {
-      codewordsInts[i] = codewordBytes[i] & 0xFF;
+  private int correctErrors(DataBlock[] dataBlocks, int[][] erasures) throws ChecksumException {
+    // First read into arrays of ints
+    int[][] codewordsInts = new int[dataBlocks.length][];
+    for (int j = 0; j < dataBlocks.length; j++) {
+      byte[] codewordBytes = dataBlocks[j].getCodewords();
+      int[] blockInts = new int[codewordBytes.length];
+      for (int i = 0; i < codewordBytes.length; i++) {
+        blockInts[i] = codewordBytes[i] & 0xFF;
+      }
+      codewordsInts[j] = blockInts;
     }
+    int numECCodewords = dataBlocks[0].getCodewords().length - dataBlocks[0].getNumDataCodewords();
+    int blocksCorrected;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      blocksCorrected = rsDecoder.decodeBlocks(codewordsInts, numECCodewords, erasures, rsWorkspace);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
-    // Copy back into array of bytes -- only need to worry about the bytes that were data
+    // Copy back into arrays of bytes -- only need to worry about the bytes that were data
     // We don't care about errors in the error-correction codewords
-    for (int i = 0; i < numDataCodewords; i++) {
-      codewordBytes[i] = (byte) codewordsInts[i];
+    for (int j = 0; j < dataBlocks.length; j++) {
+      byte[] codewordBytes = dataBlocks[j].getCodewords();
+      int numDataCodewords = dataBlocks[j].getNumDataCodewords();
+      for (int i = 0; i < numDataCodewords; i++) {
+        codewordBytes[i] = (byte) codewordsInts[j][i];
+      }
+    }
+    return blocksCorrected;
+  }
+
+  /**
+   * @param flagBlocks blocks of flags, 1 for each uncertain codeword
+   * @return positions of the uncertain codewords in each block
+   */
+  private static int[][] getErasures(DataBlock[] flagBlocks) {
+    int[][] erasures = new int[flagBlocks.length][];
+    for (int j = 0; j < flagBlocks.length; j++) {
+      byte[] flags = flagBlocks[j].getCodewords();
+      int count = 0;
+      for (byte flag : flags) {
+        count += flag;
+      }
+      int[] positions = new int[count];
+      count = 0;
+      for (int i = 0; i < flags.length; i++) {
+        if (flags[i] != 0) {
+          positions[count++] = i;
+        }
+      }
+      erasures[j] = positions;
     }
+    return erasures;
   }
 
 }
@@ -46,6 +46,8 @@ public final class Version {
   private final int[] alignmentPatternCenters;
   private final ECBlocks[] ecBlocks;
   private final int totalCodewords;
+  // Built on first use; immutable, so a race just builds an equal copy
+  private volatile CodewordPlacement codewordPlacement;
 
   private Version(int versionNumber,
                   int[] alignmentPatternCenters,
@@ -133,6 +135,18 @@ public final class Version {
     return null;
   }
 
+  /**
+   * @return where the codewords of this version are placed, shared by all callers
+   */
+  CodewordPlacement getCodewordPlacement() {
+    CodewordPlacement placement = codewordPlacement;
+    if (placement == null) {
+      placement = new CodewordPlacement(this);
+      codewordPlacement = placement;
+    }
+    return placement;
+  }
+
   /**
    * See ISO 18004:2006 Annex E
    */
@@ -92,46 +92,37 @@ final class AlignmentPatternFinder {
     // We are looking for black/white/black modules in 1:1:1 ratio;
     // this tracks the number of black/white/black modules seen so far
     int[] stateCount = new int[3];
+    int[] runLengths = new int[width + 1];
     for (int iGen = 0; iGen < height; iGen++) {
       // Search from middle outwards
       int i = middleI + ((iGen & 0x01) == 0 ? (iGen + 1) / 2 : -((iGen + 1) / 2));
       stateCount[0] = 0;
       stateCount[1] = 0;
       stateCount[2] = 0;
-      int j = startX;
-      // Burn off leading white pixels before anything else; if we start in the middle of
-      // a white run, it doesn't make sense to count its length, since we don't know if the
-      // white run continued to the left of the start point
-      j = findRefactoring1(maxJ, i, j);
-      int currentState = 0;
-      while (j < maxJ) {
-        if (image.get(j, i)) {
-          // Black pixel
-          if (currentState == 1) { // Counting black pixels
-            stateCount[1]++;
-          } else { // Counting white pixels
-            if (currentState == 2) { // A winner?
-              if (foundPatternCross(stateCount)) { // Yes
-                AlignmentPattern confirmed = handlePossibleCenter(stateCount, i, j);
-                if (confirmed != null) {
-                  return confirmed;
-                }
+      // Runs alternate white and black, starting with white. Burn off the leading white run
+      // before anything else; if we start in the middle of a white run, it doesn't make sense
+      // to count its length, since we don't know if the white run continued to the left of the
+      // start point
+      int runs = image.getRowRunLengths(i, startX, maxJ, runLengths);
+      int j = startX + runLengths[0];
+      for (int run = 1; run < runs; run++) {
+        if ((run & 0x01) == 1) { // Black run
+          if (run > 1) {
+            // The white run before it ends at j; a winner?
+            if (foundPatternCross(stateCount)) { // Yes
+              AlignmentPattern confirmed = handlePossibleCenter(stateCount, i, j);
+              if (confirmed != null) {
+                return confirmed;
               }
-              stateCount[0] = stateCount[2];
-              stateCount[1] = 1;
-              stateCount[2] = 0;
-              currentState = 1;
-            } else {
-              stateCount[++currentState]++;
             }
+            stateCount[0] = stateCount[2];
+            stateCount[2] = 0;
           }
-        } else { // White pixel
-          if (currentState == 1) { // Counting black pixels
-            currentState++;
-          }
-          stateCount[currentState]++;
+          stateCount[1] = runLengths[run];
+        } else { // White run
+          stateCount[2] = runLengths[run];
         }
-        j++;
+        j += runLengths[run];
       }
       if (foundPatternCross(stateCount)) {
         AlignmentPattern confirmed = handlePossibleCenter(stateCount, i, maxJ);
@@ -151,13 +142,6 @@ final class AlignmentPatternFinder {
     throw NotFoundException.getNotFoundInstance();
   }
 
-private int findRefactoring1(int maxJ, int i, int j) {
-	while (j < maxJ && !image.get(j, i)) {
-        j++;
-      }
-	return j;
-}
-
   /**
    * Given a count of black/white/black pixels just seen and an end position,
    * figures the location of the center of this black/white/black run.
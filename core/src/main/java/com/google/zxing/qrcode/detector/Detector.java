@@ -38,8 +38,14 @@ import java.util.Map;
  */
 public class Detector {
 
+  // Images with fewer pixels are only searched at full resolution
+  private static final int PYRAMID_THRESHOLD = 1 << 22; // ~4 megapixels
+  // Downsampled images narrower or lower than this are not searched
+  private static final int MIN_PYRAMID_DIMENSION = 256;
+
   private final BitMatrix image;
   private ResultPointCallback resultPointCallback;
+  private boolean majorityVote;
 
   public Detector(BitMatrix image) {
     this.image = image;
@@ -76,6 +82,15 @@ public class Detector {
 
     resultPointCallback = hints == null ? null :
         (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    majorityVote = hints != null && hints.containsKey(DecodeHintType.MAJORITY_VOTE_SAMPLING);
+
+    if (hints != null && hints.containsKey(DecodeHintType.QR_PYRAMID_DETECTION) &&
+        (long) image.getWidth() * image.getHeight() >= PYRAMID_THRESHOLD) {
+      DetectorResult result = detectOnPyramid(hints);
+      if (result != null) {
+        return result;
+      }
+    }
 
     FinderPatternFinder finder = new FinderPatternFinder(image, resultPointCallback);
     FinderPatternInfo info = finder.find(hints);
@@ -83,6 +98,36 @@ public class Detector {
     return processFinderPatternInfo(info);
   }
 
+  /**
+   * <p>Looks for finder patterns in the image downsampled 4 times, then 2 times, each way. Once
+   * found, they are found again in the full image near the same place, and the code is sampled
+   * from the full image.</p>
+   *
+   * @return {@link DetectorResult} as from {@link #detect(Map)}, or null if no level of the
+   *  pyramid gave one
+   */
+  private DetectorResult detectOnPyramid(Map<DecodeHintType,?> hints) {
+    if (Math.min(image.getWidth(), image.getHeight()) < 2 * MIN_PYRAMID_DIMENSION) {
+      return null;
+    }
+    BitMatrix half = image.downsample();
+    BitMatrix quarter = half.downsample();
+    int scale = 4;
+    for (BitMatrix level : new BitMatrix[] {quarter, half}) {
+      if (Math.min(level.getWidth(), level.getHeight()) >= MIN_PYRAMID_DIMENSION) {
+        try {
+          FinderPatternInfo coarse = new FinderPatternFinder(level).find(hints);
+          FinderPatternInfo info = new FinderPatternFinder(image, resultPointCallback).refine(coarse, scale);
+          return processFinderPatternInfo(info);
+        } catch (NotFoundException | FormatException ignored) {
+          // try the next level
+        }
+      }
+      scale /= 2;
+    }
+    return null;
+  }
+
   protected final DetectorResult processFinderPatternInfo(FinderPatternInfo info)
       throws NotFoundException, FormatException {
 
@@ -130,7 +175,14 @@ public class Detector {
     PerspectiveTransform transform =
         createTransform(topLeft, topRight, bottomLeft, alignmentPattern, dimension);
 
-    BitMatrix bits = sampleGrid(image, transform, dimension);
+    BitMatrix bits;
+    BitMatrix uncertainModules = null;
+    if (majorityVote) {
+      uncertainModules = new BitMatrix(dimension);
+      bits = GridSampler.getInstance().sampleGrid(image, dimension, dimension, transform, uncertainModules);
+    } else {
+      bits = sampleGrid(image, transform, dimension);
+    }
 
     ResultPoint[] points;
     if (alignmentPattern == null) {
@@ -138,7 +190,7 @@ public class Detector {
     } else {
       points = new ResultPoint[]{bottomLeft, topLeft, topRight, alignmentPattern};
     }
-    return new DetectorResult(bits, points);
+    return new DetectorResult(bits, points, uncertainModules);
   }
 
   private static PerspectiveTransform createTransform(ResultPoint topLeft,
@@ -73,4 +73,17 @@ public final class FinderPattern extends ResultPoint {
     return new FinderPattern(combinedX, combinedY, combinedModuleSize, combinedCount);
   }
 
+  /**
+   * Like {@link #combineEstimate(float, float, float)}, but with an estimate which may itself
+   * combine several, each of which is weighted the same.
+   */
+  FinderPattern combineEstimate(FinderPattern other) {
+    int combinedCount = count + other.count;
+    float combinedX = (count * getX() + other.count * other.getX()) / combinedCount;
+    float combinedY = (count * getY() + other.count * other.getY()) / combinedCount;
+    float combinedModuleSize =
+        (count * estimatedModuleSize + other.count * other.estimatedModuleSize) / combinedCount;
+    return new FinderPattern(combinedX, combinedY, combinedModuleSize, combinedCount);
+  }
+
 }
@@ -28,6 +28,10 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * <p>This class attempts to find finder patterns in a QR Code. Finder patterns are the square
@@ -43,6 +47,10 @@ public class FinderPatternFinder {
   private static final EstimatedModuleComparator moduleComparator = new EstimatedModuleComparator();
   protected static final int MIN_SKIP = 3; // 1 pixel/module times 3 modules/center
   protected static final int MAX_MODULES = 97; // support up to version 20 for mobile clients
+  // Images with fewer pixels are searched on the calling thread even if a parallel search is asked for
+  private static final int PARALLELISM_THRESHOLD = 1 << 21; // ~2 megapixels
+  // Smallest band of rows worth its own task
+  private static final int MIN_BAND_ROWS = 64;
 
   private final BitMatrix image;
   private final List<FinderPattern> possibleCenters;
@@ -88,13 +96,67 @@ public class FinderPatternFinder {
     int iSkip = (3 * maxI) / (4 * MAX_MODULES);
     iSkip = findRefactoring1(tryHarder, iSkip);
 
+    if (hints != null && hints.containsKey(DecodeHintType.QR_PARALLEL_FINDER_SEARCH) &&
+        (long) maxI * maxJ >= PARALLELISM_THRESHOLD) {
+      findInParallel(iSkip);
+    } else {
+      scanRows(iSkip - 1, maxI, 0, maxJ, iSkip, true);
+    }
+
+    FinderPattern[] patternInfo = selectBestPatterns();
+    ResultPoint.orderBestPatterns(patternInfo);
+
+    return new FinderPatternInfo(patternInfo);
+  }
+
+  /**
+   * <p>Finds finder patterns near those found in a downsampled copy of the image, scanning every
+   * row of a square around each, but no other part of the image.</p>
+   *
+   * @param coarse finder patterns found in the downsampled image
+   * @param scale number of pixels of the image per pixel of the downsampled image, each way
+   * @return finder patterns in the image, chosen as by {@link #find(Map)}
+   * @throws NotFoundException if 3 finder patterns are not found again
+   */
+  final FinderPatternInfo refine(FinderPatternInfo coarse, int scale) throws NotFoundException {
+    int maxI = image.getHeight();
+    int maxJ = image.getWidth();
+    for (FinderPattern pattern : new FinderPattern[] {coarse.getTopLeft(), coarse.getTopRight(),
+        coarse.getBottomLeft()}) {
+      // Reach past the 3.5 modules from the center to the edge of the pattern, since position and
+      // module size are only known to about a pixel of the downsampled image
+      float radius = (4.5f * pattern.getEstimatedModuleSize() + 1.0f) * scale;
+      float centerJ = pattern.getX() * scale;
+      float centerI = pattern.getY() * scale;
+      scanRows(Math.max(0, (int) (centerI - radius)), Math.min(maxI, (int) (centerI + radius) + 1),
+          Math.max(0, (int) (centerJ - radius)), Math.min(maxJ, (int) (centerJ + radius) + 1), 1, false);
+    }
+
+    FinderPattern[] patternInfo = selectBestPatterns();
+    ResultPoint.orderBestPatterns(patternInfo);
+
+    return new FinderPatternInfo(patternInfo);
+  }
+
+  /**
+   * Scans rows for finder patterns, adding candidates to {@link #possibleCenters}.
+   *
+   * @param firstRow first row to scan
+   * @param maxI row at which to stop
+   * @param minJ first column of each row to scan
+   * @param maxJ column at which to stop each row
+   * @param iSkip initial number of rows to advance by
+   * @param skipAhead whether to stop once three confirmed centers are found, and to skip rows
+   *  which the first two centers show cannot hold the third
+   */
+  private void scanRows(int firstRow, int maxI, int minJ, int maxJ, int iSkip, boolean skipAhead) {
     boolean done = false;
     int[] stateCount = new int[5];
-    for (int i = iSkip - 1; i < maxI && !done; i += iSkip) {
+    for (int i = firstRow; i < maxI && !done; i += iSkip) {
       // Get a row of black/white values
       doClearCounts(stateCount);
       int currentState = 0;
-      for (int j = 0; j < maxJ; j++) {
+      for (int j = minJ; j < maxJ; j++) {
         if (image.get(j, i)) {
           // Black pixel
           currentState = findRefactoring2(currentState);
@@ -108,21 +170,23 @@ public class FinderPatternFinder {
                   // Start examining every other line. Checking each line turned out to be too
                   // expensive and didn't improve performance.
                   iSkip = 2;
-                  if (hasSkipped) {
-                    done = haveMultiplyConfirmedCenters();
-                  } else {
-                    int rowSkip = findRowSkip();
-                    if (rowSkip > stateCount[2]) {
-                      // Skip rows between row of lower confirmed center
-                      // and top of presumed third confirmed center
-                      // but back up a bit to get a full chance of detecting
-                      // it, entire width of center of finder pattern
-
-                      // Skip by rowSkip, but back off by stateCount[2] (size of last center
-                      // of pattern we saw) to be conservative, and also back off by iSkip which
-                      // is about to be re-added
-                      i += rowSkip - stateCount[2] - iSkip;
-                      j = maxJ - 1;
+                  if (skipAhead) {
+                    if (hasSkipped) {
+                      done = haveMultiplyConfirmedCenters();
+                    } else {
+                      int rowSkip = findRowSkip();
+                      if (rowSkip > stateCount[2]) {
+                        // Skip rows between row of lower confirmed center
+                        // and top of presumed third confirmed center
+                        // but back up a bit to get a full chance of detecting
+                        // it, entire width of center of finder pattern
+
+                        // Skip by rowSkip, but back off by stateCount[2] (size of last center
+                        // of pattern we saw) to be conservative, and also back off by iSkip which
+                        // is about to be re-added
+                        i += rowSkip - stateCount[2] - iSkip;
+                        j = maxJ - 1;
+                      }
                     }
                   }
                 } else {
@@ -153,11 +217,68 @@ public class FinderPatternFinder {
         }
       }
     }
+  }
 
-    FinderPattern[] patternInfo = selectBestPatterns();
-    ResultPoint.orderBestPatterns(patternInfo);
+  /**
+   * Scans bands of rows on the common {@link ForkJoinPool}, each with its own list of candidates,
+   * then merges the lists in band order as if each candidate had been found again here, which
+   * makes the result independent of scheduling. Bands cannot tell each other what they found,
+   * so none of them stops early or skips rows based on confirmed centers. The result point
+   * callback, if any, is called on the calling thread as candidates are merged.
+   */
+  private void findInParallel(int iSkip) throws NotFoundException {
+    int maxI = image.getHeight();
+    int bandCount = Math.max(1, Math.min(4 * ForkJoinPool.commonPool().getParallelism(), maxI / MIN_BAND_ROWS));
+    List<Callable<List<FinderPattern>>> tasks = new ArrayList<>(bandCount);
+    for (int band = 0; band < bandCount; band++) {
+      int fromI = (int) ((long) maxI * band / bandCount);
+      int toI = (int) ((long) maxI * (band + 1) / bandCount);
+      // Rows on the same grid as a serial scan would start on
+      int firstRow = iSkip - 1;
+      if (firstRow < fromI) {
+        firstRow += (fromI - firstRow + iSkip - 1) / iSkip * iSkip;
+      }
+      int start = firstRow;
+      tasks.add(() -> {
+        FinderPatternFinder bandFinder = new FinderPatternFinder(image);
+        bandFinder.scanRows(start, toI, 0, image.getWidth(), iSkip, false);
+        return bandFinder.possibleCenters;
+      });
+    }
+    try {
+      for (Future<List<FinderPattern>> bandCenters : ForkJoinPool.commonPool().invokeAll(tasks)) {
+        for (FinderPattern candidate : bandCenters.get()) {
+          mergeCenter(candidate);
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw NotFoundException.getNotFoundInstance();
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
 
-    return new FinderPatternInfo(patternInfo);
+  /**
+   * Adds a candidate found by another finder as {@link #handlePossibleCenter(int[], int, int)}
+   * would have added it.
+   */
+  private void mergeCenter(FinderPattern candidate) {
+    for (int index = 0; index < possibleCenters.size(); index++) {
+      FinderPattern center = possibleCenters.get(index);
+      if (center.aboutEquals(candidate.getEstimatedModuleSize(), candidate.getY(), candidate.getX())) {
+        possibleCenters.set(index, center.combineEstimate(candidate));
+        return;
+      }
+    }
+    possibleCenters.add(candidate);
+    if (resultPointCallback != null) {
+      resultPointCallback.foundPossibleResultPoint(candidate);
+    }
   }
 
 private boolean findRefactoring2(boolean done) {
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.encoder;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <p>Encodes many payloads as QR codes of one version and error correction level, producing
+ * exactly the codes {@link Encoder#encode(String, ErrorCorrectionLevel, Map)} would with
+ * {@link EncodeHintType#QR_VERSION} set to that version.</p>
+ *
+ * <p>The exception is {@link EncodeHintType#QR_COMPACT}. Encoder ignores QR_VERSION then, and uses
+ * the smallest version its minimal encoding fits in, while this class finds the minimal encoding
+ * at its own version. Its codes are Encoder's whenever Encoder picks that same version; payloads
+ * that would fit a smaller version still get a code of this version, which Encoder does not
+ * produce.</p>
+ *
+ * <p>Everything that does not depend on the payload is computed once, when the encoder is created:
+ * for each mask pattern, a template holding the finder, separator, timing and alignment patterns,
+ * the version information and the format information for that mask; the order in which data bits
+ * are placed; and which of those places each mask inverts. Encoding a payload then only computes
+ * its codewords, and for each mask copies the template and sets the dark data modules, before
+ * scoring it.</p>
+ *
+ * <p>Instances keep scratch state between calls, so they are not thread-safe; use one per thread.</p>
+ */
+public final class BatchEncoder {
+
+  private final Version version;
+  private final ErrorCorrectionLevel ecLevel;
+  private final Map<EncodeHintType,?> hints;
+  private final int fixedMaskPattern;
+  // Per mask pattern: all modules set, data modules light
+  private final ModuleMatrix[] templates;
+  // Data module i is at (positions[i] & 0xff, positions[i] >> 8)
+  private final int[] positions;
+  // Per mask pattern: bit i says whether the mask inverts data module i, laid out like BitArray bits
+  private final int[][] maskBits;
+  private final ModuleMatrix candidate;
+
+  /**
+   * @param version version of all codes to encode
+   * @param ecLevel error correction level of all codes to encode
+   * @throws WriterException if the templates cannot be built
+   */
+  public BatchEncoder(Version version, ErrorCorrectionLevel ecLevel) throws WriterException {
+    this(version, ecLevel, null);
+  }
+
+  /**
+   * @param version version of all codes to encode
+   * @param ecLevel error correction level of all codes to encode
+   * @param hints encoding hints as for {@link Encoder#encode(String, ErrorCorrectionLevel, Map)}, or
+   *  null. {@link EncodeHintType#QR_VERSION}, {@link EncodeHintType#QR_PARALLEL_MASKS} and
+   *  {@link EncodeHintType#QR_PARALLEL_COMPACT} are ignored. See the class comment for
+   *  {@link EncodeHintType#QR_COMPACT}.
+   * @throws WriterException if the templates cannot be built
+   */
+  public BatchEncoder(Version version, ErrorCorrectionLevel ecLevel, Map<EncodeHintType,?> hints)
+      throws WriterException {
+    this.version = version;
+    this.ecLevel = ecLevel;
+    if (hints == null) {
+      this.hints = null;
+    } else {
+      Map<EncodeHintType,Object> copy = new EnumMap<>(EncodeHintType.class);
+      copy.putAll(hints);
+      this.hints = copy;
+    }
+    int maskPattern = -1;
+    if (hints != null && hints.containsKey(EncodeHintType.QR_MASK_PATTERN)) {
+      int hintMaskPattern = Integer.parseInt(hints.get(EncodeHintType.QR_MASK_PATTERN).toString());
+      maskPattern = QRCode.isValidMaskPattern(hintMaskPattern) ? hintMaskPattern : -1;
+    }
+    this.fixedMaskPattern = maskPattern;
+
+    int dimension = version.getDimensionForVersion();
+    ModuleMatrix functionPatterns = new ModuleMatrix(dimension, dimension);
+    MatrixUtil.embedBasicPatterns(version, functionPatterns);
+    // Type info cells are filled by every mask, so reserve them before finding the data cells
+    MatrixUtil.embedTypeInfo(ecLevel, 0, functionPatterns);
+    MatrixUtil.maybeEmbedVersionInfo(version, functionPatterns);
+    positions = MatrixUtil.getDataBitPositions(functionPatterns);
+
+    templates = new ModuleMatrix[QRCode.NUM_MASK_PATTERNS];
+    maskBits = new int[QRCode.NUM_MASK_PATTERNS][(positions.length + 31) / 32];
+    for (int mask = 0; mask < QRCode.NUM_MASK_PATTERNS; mask++) {
+      ModuleMatrix template = new ModuleMatrix(dimension, dimension);
+      template.copyFrom(functionPatterns);
+      MatrixUtil.embedTypeInfo(ecLevel, mask, template);
+      int[] bits = maskBits[mask];
+      for (int i = 0; i < positions.length; i++) {
+        int x = positions[i] & 0xff;
+        int y = positions[i] >> 8;
+        template.set(x, y, false);
+        if (MaskUtil.getDataMaskBit(mask, x, y)) {
+          bits[i / 32] |= 1 << (i & 0x1f);
+        }
+      }
+      templates[mask] = template;
+    }
+    candidate = new ModuleMatrix(dimension, dimension);
+  }
+
+  public Version getVersion() {
+    return version;
+  }
+
+  public ErrorCorrectionLevel getECLevel() {
+    return ecLevel;
+  }
+
+  /**
+   * @param content text to encode
+   * @return {@link QRCode} representing the encoded QR code, in a new matrix
+   * @throws WriterException if the content does not fit in the version
+   */
+  public QRCode encode(String content) throws WriterException {
+    int dimension = version.getDimensionForVersion();
+    return encode(content, new ModuleMatrix(dimension, dimension));
+  }
+
+  /**
+   * @param content text to encode
+   * @param matrix matrix to build the code in, replacing its contents; it may be reused for the
+   *  next payload once the returned code is no longer needed
+   * @return {@link QRCode} representing the encoded QR code, built in {@code matrix}
+   * @throws WriterException if the content does not fit in the version
+   * @throws IllegalArgumentException if the matrix is not the size of the version
+   */
+  public QRCode encode(String content, ModuleMatrix matrix) throws WriterException {
+    int dimension = version.getDimensionForVersion();
+    if (matrix.getWidth() != dimension || matrix.getHeight() != dimension) {
+      throw new IllegalArgumentException("Matrix must be " + dimension + 'x' + dimension);
+    }
+    QRCode qrCode = new QRCode();
+    BitArray finalBits = Encoder.encodeCodewords(content, ecLevel, version, hints, qrCode);
+
+    int maskPattern = fixedMaskPattern;
+    if (maskPattern == -1) {
+      // Same choice as Encoder: the lowest pattern with the lowest penalty
+      int minPenalty = Integer.MAX_VALUE;
+      for (int mask = 0; mask < QRCode.NUM_MASK_PATTERNS; mask++) {
+        placeDataBits(finalBits, mask, candidate);
+        int penalty = MaskUtil.calculateMaskPenalty(candidate);
+        if (penalty < minPenalty) {
+          minPenalty = penalty;
+          maskPattern = mask;
+        }
+      }
+    }
+    placeDataBits(finalBits, maskPattern, matrix);
+    qrCode.setMaskPattern(maskPattern);
+    qrCode.setModuleMatrix(matrix);
+    return qrCode;
+  }
+
+  /**
+   * As {@link MatrixUtil#buildMatrix}, starting from the template of the mask pattern.
+   */
+  private void placeDataBits(BitArray dataBits, int maskPattern, ModuleMatrix matrix) {
+    matrix.copyFrom(templates[maskPattern]);
+    int[] data = dataBits.getBitArray();
+    int[] mask = maskBits[maskPattern];
+    // Data modules past the end of the data bits are padding, which is 0 before masking
+    int size = dataBits.getSize();
+    for (int i = 0; i < mask.length; i++) {
+      int bits;
+      if (32 * i + 32 <= size) {
+        bits = data[i];
+      } else if (32 * i < size) {
+        bits = data[i] & ((1 << (size & 0x1f)) - 1);
+      } else {
+        bits = 0;
+      }
+      int dark = bits ^ mask[i];
+      while (dark != 0) {
+        int position = positions[i * 32 + Integer.numberOfTrailingZeros(dark)];
+        matrix.setDark(position & 0xff, position >> 8);
+        dark &= dark - 1;
+      }
+    }
+  }
+
+}
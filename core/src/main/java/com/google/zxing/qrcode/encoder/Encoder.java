@@ -31,7 +31,12 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * @author satorux@google.com (Satoru Takabayashi) - creator
@@ -51,16 +56,16 @@ public final class Encoder {
 
   static final Charset DEFAULT_BYTE_MODE_ENCODING = StandardCharsets.ISO_8859_1;
 
+  // Stateless, so shared by all threads
+  private static final ReedSolomonEncoder EC_ENCODER = new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256);
+
   private Encoder() {
   }
 
   // The mask penalty calculation is complicated.  See Table 21 of JISX0510:2004 (p.45) for details.
   // Basically it applies four rules and summate all penalties.
-  private static int calculateMaskPenalty(ByteMatrix matrix) {
-    return MaskUtil.applyMaskPenaltyRule1(matrix)
-        + MaskUtil.applyMaskPenaltyRule2(matrix)
-        + MaskUtil.applyMaskPenaltyRule3(matrix)
-        + MaskUtil.applyMaskPenaltyRule4(matrix);
+  private static int calculateMaskPenalty(ModuleMatrix matrix) {
+    return MaskUtil.calculateMaskPenalty(matrix);
   }
 
   /**
@@ -78,6 +83,49 @@ public final class Encoder {
                               ErrorCorrectionLevel ecLevel,
                               Map<EncodeHintType,?> hints) throws WriterException {
 
+    QRCode qrCode = new QRCode();
+    BitArray finalBits = encodeCodewords(content, ecLevel, null, hints, qrCode);
+    Version version = qrCode.getVersion();
+
+    //  Choose the mask pattern and set to "qrCode".
+    int dimension = version.getDimensionForVersion();
+    ModuleMatrix matrix = new ModuleMatrix(dimension, dimension);
+
+    // Enable manual selection of the pattern to be used via hint
+    int maskPattern = -1;
+    maskPattern = encodeRefactoring7(hints, maskPattern);
+
+    boolean parallelMasks = hints != null && hints.containsKey(EncodeHintType.QR_PARALLEL_MASKS) &&
+        Boolean.parseBoolean(hints.get(EncodeHintType.QR_PARALLEL_MASKS).toString());
+    maskPattern = encodeRefactoring6(ecLevel, version, finalBits, matrix, maskPattern, parallelMasks);
+    qrCode.setMaskPattern(maskPattern);
+
+    // Build the matrix and set it to "qrCode".
+    MatrixUtil.buildMatrix(finalBits, ecLevel, version, maskPattern, matrix);
+    qrCode.setModuleMatrix(matrix);
+
+    return qrCode;
+  }
+
+  /**
+   * Encodes content into the data and error correction codewords of a QR code, interleaved in the
+   * order in which they are placed in the matrix, and sets the mode, EC level and version of the code.
+   *
+   * @param content text to encode
+   * @param ecLevel error correction level to use
+   * @param fixedVersion version to encode at, or null to use the {@link EncodeHintType#QR_VERSION} hint
+   *  if any, or else the smallest version that fits
+   * @param hints encoding hints, or null
+   * @param qrCode receives the mode, EC level and version
+   * @return the bits of all codewords
+   * @throws WriterException if the content does not fit
+   */
+  static BitArray encodeCodewords(String content,
+                                  ErrorCorrectionLevel ecLevel,
+                                  Version fixedVersion,
+                                  Map<EncodeHintType,?> hints,
+                                  QRCode qrCode) throws WriterException {
+
     Version version;
     BitArray headerAndDataBits;
     Mode mode;
@@ -96,11 +144,21 @@ public final class Encoder {
       mode = Mode.BYTE;
 
       Charset priorityEncoding = encoding.equals(DEFAULT_BYTE_MODE_ENCODING) ? null : encoding;
-      MinimalEncoder.ResultList rn = MinimalEncoder.encode(content, null, priorityEncoding, hasGS1FormatHint, ecLevel);
+      boolean parallelCompaction = hints.containsKey(EncodeHintType.QR_PARALLEL_COMPACT) &&
+          Boolean.parseBoolean(hints.get(EncodeHintType.QR_PARALLEL_COMPACT).toString());
+      MinimalEncoder.ResultList rn = MinimalEncoder.encode(content, fixedVersion, priorityEncoding,
+          hasGS1FormatHint, ecLevel, parallelCompaction);
 
       headerAndDataBits = new BitArray();
       rn.getBits(headerAndDataBits);
       version = rn.getVersion();
+      if (fixedVersion != null) {
+        // The result moves to the smallest version of the same size class that fits; keep the one asked for
+        if (!willFit(rn.getSize(), fixedVersion, ecLevel)) {
+          throw new WriterException("Data too big for requested version");
+        }
+        version = fixedVersion;
+      }
 
     } else {
     
@@ -126,9 +184,12 @@ public final class Encoder {
       BitArray dataBits = new BitArray();
       appendBytes(content, mode, dataBits, encoding);
   
-      if (hints != null && hints.containsKey(EncodeHintType.QR_VERSION)) {
+      version = fixedVersion;
+      if (version == null && hints != null && hints.containsKey(EncodeHintType.QR_VERSION)) {
         int versionNumber = Integer.parseInt(hints.get(EncodeHintType.QR_VERSION).toString());
         version = Version.getVersionForNumber(versionNumber);
+      }
+      if (version != null) {
         int bitsNeeded = calculateBitsNeeded(mode, headerBits, dataBits, version);
         encodeRefactoring5(ecLevel, version, bitsNeeded);
       } else {
@@ -156,28 +217,10 @@ public final class Encoder {
                                                numDataBytes,
                                                ecBlocks.getNumBlocks());
 
-    QRCode qrCode = new QRCode();
-
     qrCode.setECLevel(ecLevel);
     qrCode.setMode(mode);
     qrCode.setVersion(version);
-
-    //  Choose the mask pattern and set to "qrCode".
-    int dimension = version.getDimensionForVersion();
-    ByteMatrix matrix = new ByteMatrix(dimension, dimension);
-
-    // Enable manual selection of the pattern to be used via hint
-    int maskPattern = -1;
-    maskPattern = encodeRefactoring7(hints, maskPattern);
-
-    maskPattern = encodeRefactoring6(ecLevel, version, finalBits, matrix, maskPattern);
-    qrCode.setMaskPattern(maskPattern);
-
-    // Build the matrix and set it to "qrCode".
-    MatrixUtil.buildMatrix(finalBits, ecLevel, version, maskPattern, matrix);
-    qrCode.setMatrix(matrix);
-
-    return qrCode;
+    return finalBits;
   }
 
 private static int encodeRefactoring7(Map<EncodeHintType, ?> hints, int maskPattern) {
@@ -189,9 +232,11 @@ private static int encodeRefactoring7(Map<EncodeHintType, ?> hints, int maskPatt
 }
 
 private static int encodeRefactoring6(ErrorCorrectionLevel ecLevel, Version version, BitArray finalBits,
-		ByteMatrix matrix, int maskPattern) throws WriterException {
+		ModuleMatrix matrix, int maskPattern, boolean parallelMasks) throws WriterException {
 	if (maskPattern == -1) {
-      maskPattern = chooseMaskPattern(finalBits, ecLevel, version, matrix);
+      maskPattern = parallelMasks ?
+          chooseMaskPatternInParallel(finalBits, ecLevel, version) :
+          chooseMaskPattern(finalBits, ecLevel, version, matrix);
     }
 	return maskPattern;
 }
@@ -320,7 +365,7 @@ private static Charset encodeRefactoring1(Map<EncodeHintType, ?> hints, Charset
   private static int chooseMaskPattern(BitArray bits,
                                        ErrorCorrectionLevel ecLevel,
                                        Version version,
-                                       ByteMatrix matrix) throws WriterException {
+                                       ModuleMatrix matrix) throws WriterException {
 
     int minPenalty = Integer.MAX_VALUE;  // Lower penalty is better.
     int bestMaskPattern = -1;
@@ -336,6 +381,51 @@ private static Charset encodeRefactoring1(Map<EncodeHintType, ?> hints, Charset
     return bestMaskPattern;
   }
 
+  /**
+   * As {@link #chooseMaskPattern(BitArray, ErrorCorrectionLevel, Version, ModuleMatrix)}, building and
+   * scoring each masked matrix in its own task on the common {@link ForkJoinPool}.
+   */
+  private static int chooseMaskPatternInParallel(BitArray bits,
+                                                 ErrorCorrectionLevel ecLevel,
+                                                 Version version) throws WriterException {
+    int dimension = version.getDimensionForVersion();
+    List<Callable<Integer>> tasks = new ArrayList<>(QRCode.NUM_MASK_PATTERNS);
+    for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
+      int mask = maskPattern;
+      tasks.add(() -> {
+        ModuleMatrix matrix = new ModuleMatrix(dimension, dimension);
+        MatrixUtil.buildMatrix(bits, ecLevel, version, mask, matrix);
+        return calculateMaskPenalty(matrix);
+      });
+    }
+    int minPenalty = Integer.MAX_VALUE;
+    int bestMaskPattern = -1;
+    try {
+      // Same tie-breaking as chooseMaskPattern: the lowest pattern wins
+      List<Future<Integer>> penalties = ForkJoinPool.commonPool().invokeAll(tasks);
+      for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
+        int penalty = penalties.get(maskPattern).get();
+        if (penalty < minPenalty) {
+          minPenalty = penalty;
+          bestMaskPattern = maskPattern;
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new WriterException(ie);
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof WriterException) {
+        throw (WriterException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new WriterException(cause);
+    }
+    return bestMaskPattern;
+  }
+
   private static Version chooseVersion(int numInputBits, ErrorCorrectionLevel ecLevel) throws WriterException {
     for (int versionNum = 1; versionNum <= 40; versionNum++) {
       Version version = Version.getVersionForNumber(versionNum);
@@ -528,17 +618,8 @@ private static void interleaveWithECBytesRefactoring1(BitArray bits, int numData
 }
 
   static byte[] generateECBytes(byte[] dataBytes, int numEcBytesInBlock) {
-    int numDataBytes = dataBytes.length;
-    int[] toEncode = new int[numDataBytes + numEcBytesInBlock];
-    for (int i = 0; i < numDataBytes; i++) {
-      toEncode[i] = dataBytes[i] & 0xFF;
-    }
-    new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256).encode(toEncode, numEcBytesInBlock);
-
     byte[] ecBytes = new byte[numEcBytesInBlock];
-    for (int i = 0; i < numEcBytesInBlock; i++) {
-      ecBytes[i] = (byte) toEncode[numDataBytes + i];
-    }
+    EC_ENCODER.encode(dataBytes, 0, dataBytes.length, ecBytes, 0, numEcBytesInBlock);
     return ecBytes;
   }
 
@@ -33,6 +33,169 @@ final class MaskUtil {
     // do nothing
   }
 
+  /**
+   * <p>Computes the total of the four penalty rules, exactly as the sum of
+   * {@link #applyMaskPenaltyRule1(ByteMatrix)} to {@link #applyMaskPenaltyRule4(ByteMatrix)}, for a
+   * matrix in which every cell is 0 or 1.</p>
+   *
+   * <p>The matrix is packed 64 modules to a {@code long}, once by rows and once by columns, in a
+   * single pass. Each rule then tests 64 positions of a row or column at a time with bitwise
+   * operations on the line shifted against itself.</p>
+   */
+  static int calculateMaskPenalty(ByteMatrix matrix) {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    long[][] rows = new long[height][(width + 63) / 64];
+    long[][] columns = new long[width][(height + 63) / 64];
+    byte[][] array = matrix.getArray();
+    int numDarkCells = 0;
+    for (int y = 0; y < height; y++) {
+      byte[] arrayY = array[y];
+      long[] row = rows[y];
+      int yWord = y / 64;
+      long yBit = 1L << (y & 0x3f);
+      for (int x = 0; x < width; x++) {
+        if (arrayY[x] == 1) {
+          row[x / 64] |= 1L << (x & 0x3f);
+          columns[x][yWord] |= yBit;
+          numDarkCells++;
+        }
+      }
+    }
+    return calculateMaskPenalty(rows, columns, width, height, numDarkCells);
+  }
+
+  /**
+   * As {@link #calculateMaskPenalty(ByteMatrix)} for a matrix in which every module is set, as after
+   * {@link MatrixUtil#buildMatrix}. Its rows are packed already, so only the columns are built.
+   */
+  static int calculateMaskPenalty(ModuleMatrix matrix) {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    long[][] rows = new long[height][];
+    long[][] columns = new long[width][(height + 63) / 64];
+    int numDarkCells = 0;
+    for (int y = 0; y < height; y++) {
+      long[] row = matrix.getDarkRow(y);
+      rows[y] = row;
+      int yWord = y / 64;
+      long yBit = 1L << (y & 0x3f);
+      for (int i = 0; i < row.length; i++) {
+        long word = row[i];
+        numDarkCells += Long.bitCount(word);
+        while (word != 0) {
+          columns[64 * i + Long.numberOfTrailingZeros(word)][yWord] |= yBit;
+          word &= word - 1;
+        }
+      }
+    }
+    return calculateMaskPenalty(rows, columns, width, height, numDarkCells);
+  }
+
+  private static int calculateMaskPenalty(long[][] rows, long[][] columns, int width, int height, int numDarkCells) {
+    int rule1 = 0;
+    int rule3 = 0;
+    for (long[] row : rows) {
+      rule1 += packedRule1(row, width);
+      rule3 += packedRule3(row, width);
+    }
+    for (long[] column : columns) {
+      rule1 += packedRule1(column, height);
+      rule3 += packedRule3(column, height);
+    }
+    int rule2 = 0;
+    for (int y = 0; y < height - 1; y++) {
+      rule2 += packedRule2(rows[y], rows[y + 1], width);
+    }
+    int numTotalCells = height * width;
+    int rule4 = Math.abs(numDarkCells * 2 - numTotalCells) * 10 / numTotalCells;
+    return rule1 + N2 * rule2 + N3 * rule3 + N4 * rule4;
+  }
+
+  /**
+   * As {@link #applyMaskPenaltyRule1Internal(ByteMatrix, boolean)} for one line. A run of n >= 5
+   * cells contains n - 4 windows of 5 equal cells, and its penalty N1 + n - 5 is that plus N1 - 1.
+   */
+  private static int packedRule1(long[] line, int length) {
+    int windows = 0;
+    int runs = 0;
+    for (int i = 0; i < line.length; i++) {
+      long b0 = shifted(line, i, 0);
+      long b1 = shifted(line, i, 1);
+      long b2 = shifted(line, i, 2);
+      long b3 = shifted(line, i, 3);
+      long b4 = shifted(line, i, 4);
+      long window = ~(b0 ^ b1) & ~(b1 ^ b2) & ~(b2 ^ b3) & ~(b3 ^ b4) & below(i, length - 4);
+      // A window starts a run unless the cell before it has the same color
+      long continued = ~(shifted(line, i, -1) ^ b0) & ~below(i, 1);
+      windows += Long.bitCount(window);
+      runs += Long.bitCount(window & ~continued);
+    }
+    return windows + (N1 - 1) * runs;
+  }
+
+  /**
+   * As {@link #applyMaskPenaltyRule2(ByteMatrix)} for the 2x2 blocks in two adjacent rows.
+   */
+  private static int packedRule2(long[] row, long[] nextRow, int width) {
+    int count = 0;
+    for (int i = 0; i < row.length; i++) {
+      long r0 = shifted(row, i, 0);
+      long r1 = shifted(row, i, 1);
+      long s0 = shifted(nextRow, i, 0);
+      long s1 = shifted(nextRow, i, 1);
+      count += Long.bitCount(~(r0 ^ r1) & ~(r0 ^ s0) & ~(s0 ^ s1) & below(i, width - 1));
+    }
+    return count;
+  }
+
+  /**
+   * As {@link #applyMaskPenaltyRule3(ByteMatrix)} for one line: 1011101 with 4 white cells before
+   * or after it, all inside the line.
+   */
+  private static int packedRule3(long[] line, int length) {
+    int count = 0;
+    for (int i = 0; i < line.length; i++) {
+      long pattern = shifted(line, i, 0) & ~shifted(line, i, 1) & shifted(line, i, 2) & shifted(line, i, 3) &
+          shifted(line, i, 4) & ~shifted(line, i, 5) & shifted(line, i, 6) & below(i, length - 6);
+      if (pattern == 0) {
+        continue;
+      }
+      long whiteBefore = ~(shifted(line, i, -4) | shifted(line, i, -3) | shifted(line, i, -2) |
+          shifted(line, i, -1)) & ~below(i, 4);
+      long whiteAfter = ~(shifted(line, i, 7) | shifted(line, i, 8) | shifted(line, i, 9) |
+          shifted(line, i, 10)) & below(i, length - 10);
+      count += Long.bitCount(pattern & (whiteBefore | whiteAfter));
+    }
+    return count;
+  }
+
+  /**
+   * @return bits j of which are cell 64 * i + j + offset of the line, or 0 outside it
+   */
+  private static long shifted(long[] line, int i, int offset) {
+    int first = 64 * i + offset;
+    int word = Math.floorDiv(first, 64);
+    int shift = first & 0x3f;
+    long low = word >= 0 && word < line.length ? line[word] : 0L;
+    if (shift == 0) {
+      return low;
+    }
+    long high = word + 1 >= 0 && word + 1 < line.length ? line[word + 1] : 0L;
+    return (low >>> shift) | (high << (64 - shift));
+  }
+
+  /**
+   * @return bits j of which are set iff 64 * i + j < limit
+   */
+  private static long below(int i, int limit) {
+    int n = limit - 64 * i;
+    if (n <= 0) {
+      return 0L;
+    }
+    return n >= 64 ? -1L : (1L << n) - 1;
+  }
+
   /**
    * Apply mask penalty rule 1 and return the penalty. Find repetitive cells with the same color and
    * give penalty to them. Example: 00000 or 11111.
@@ -21,6 +21,8 @@ import com.google.zxing.common.BitArray;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.decoder.Version;
 
+import java.util.Arrays;
+
 /**
  * @author satorux@google.com (Satoru Takabayashi) - creator
  * @author dswitkin@google.com (Daniel Switkin) - ported from C++
@@ -119,12 +121,9 @@ final class MatrixUtil {
     // do nothing
   }
 
-  // Set all cells to -1.  -1 means that the cell is empty (not set yet).
-  //
-  // JAVAPORT: We shouldn't need to do this at all. The code should be rewritten to begin encoding
-  // with the ByteMatrix initialized all to zero.
-  static void clearMatrix(ByteMatrix matrix) {
-    matrix.clear((byte) -1);
+  // Unset all cells, so that get() returns -1 for them.  -1 means that the cell is empty (not set yet).
+  static void clearMatrix(ModuleMatrix matrix) {
+    matrix.clear();
   }
 
   // Build 2D matrix of QR Code from "dataBits" with "ecLevel", "version" and "getMaskPattern". On
@@ -133,7 +132,7 @@ final class MatrixUtil {
                           ErrorCorrectionLevel ecLevel,
                           Version version,
                           int maskPattern,
-                          ByteMatrix matrix) throws WriterException {
+                          ModuleMatrix matrix) throws WriterException {
     clearMatrix(matrix);
     embedBasicPatterns(version, matrix);
     // Type information appear with any version.
@@ -150,7 +149,7 @@ final class MatrixUtil {
   // - Timing patterns
   // - Dark dot at the left bottom corner
   // - Position adjustment patterns, if need be
-  static void embedBasicPatterns(Version version, ByteMatrix matrix) throws WriterException {
+  static void embedBasicPatterns(Version version, ModuleMatrix matrix) throws WriterException {
     // Let's get started with embedding big squares at corners.
     embedPositionDetectionPatternsAndSeparators(matrix);
     // Then, embed the dark dot at the left bottom corner.
@@ -163,7 +162,7 @@ final class MatrixUtil {
   }
 
   // Embed type information. On success, modify the matrix.
-  static void embedTypeInfo(ErrorCorrectionLevel ecLevel, int maskPattern, ByteMatrix matrix)
+  static void embedTypeInfo(ErrorCorrectionLevel ecLevel, int maskPattern, ModuleMatrix matrix)
       throws WriterException {
     BitArray typeInfoBits = new BitArray();
     makeTypeInfoBits(ecLevel, maskPattern, typeInfoBits);
@@ -196,7 +195,7 @@ final class MatrixUtil {
 
   // Embed version information if need be. On success, modify the matrix and return true.
   // See 8.10 of JISX0510:2004 (p.47) for how to embed version information.
-  static void maybeEmbedVersionInfo(Version version, ByteMatrix matrix) throws WriterException {
+  static void maybeEmbedVersionInfo(Version version, ModuleMatrix matrix) throws WriterException {
     if (version.getVersionNumber() < 7) {  // Version info is necessary if version >= 7.
       return;  // Don't need version info.
     }
@@ -220,7 +219,7 @@ final class MatrixUtil {
   // Embed "dataBits" using "getMaskPattern". On success, modify the matrix and return true.
   // For debugging purposes, it skips masking process if "getMaskPattern" is -1.
   // See 8.7 of JISX0510:2004 (p.38) for how to embed data bits.
-  static void embedDataBits(BitArray dataBits, int maskPattern, ByteMatrix matrix)
+  static void embedDataBits(BitArray dataBits, int maskPattern, ModuleMatrix matrix)
       throws WriterException {
     int bitIndex = 0;
     int direction = -1;
@@ -246,7 +245,35 @@ final class MatrixUtil {
     }
   }
 
-private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern, ByteMatrix matrix, int bitIndex, int x,
+  // Return the cells which embedDataBits() fills, in the order in which it fills them, as
+  // (y << 8) | x. These are the cells of "matrix" which are still empty.
+  static int[] getDataBitPositions(ModuleMatrix matrix) {
+    int[] positions = new int[matrix.getWidth() * matrix.getHeight()];
+    int count = 0;
+    int direction = -1;
+    int x = matrix.getWidth() - 1;
+    int y = matrix.getHeight() - 1;
+    while (x > 0) {
+      if (x == 6) {
+        x -= 1;
+      }
+      while (y >= 0 && y < matrix.getHeight()) {
+        for (int i = 0; i < 2; ++i) {
+          int xx = x - i;
+          if (isEmpty(matrix.get(xx, y))) {
+            positions[count++] = (y << 8) | xx;
+          }
+        }
+        y += direction;
+      }
+      direction = -direction;
+      y += direction;
+      x -= 2;
+    }
+    return Arrays.copyOf(positions, count);
+  }
+
+private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern, ModuleMatrix matrix, int bitIndex, int x,
 		int y) {
 	for (int i = 0; i < 2; ++i) {
 	  int xx = x - i;
@@ -363,7 +390,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
     return value == -1;
   }
 
-  private static void embedTimingPatterns(ByteMatrix matrix) {
+  private static void embedTimingPatterns(ModuleMatrix matrix) {
     // -8 is for skipping position detection patterns (size 7), and two horizontal/vertical
     // separation patterns (size 1). Thus, 8 = 7 + 1.
     for (int i = 8; i < matrix.getWidth() - 8; ++i) {
@@ -380,7 +407,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
   }
 
   // Embed the lonely dark dot at left bottom corner. JISX0510:2004 (p.46)
-  private static void embedDarkDotAtLeftBottomCorner(ByteMatrix matrix) throws WriterException {
+  private static void embedDarkDotAtLeftBottomCorner(ModuleMatrix matrix) throws WriterException {
     if (matrix.get(8, matrix.getHeight() - 8) == 0) {
       throw new WriterException();
     }
@@ -389,7 +416,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
 
   private static void embedHorizontalSeparationPattern(int xStart,
                                                        int yStart,
-                                                       ByteMatrix matrix) throws WriterException {
+                                                       ModuleMatrix matrix) throws WriterException {
     for (int x = 0; x < 8; ++x) {
       if (!isEmpty(matrix.get(xStart + x, yStart))) {
         throw new WriterException();
@@ -400,7 +427,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
 
   private static void embedVerticalSeparationPattern(int xStart,
                                                      int yStart,
-                                                     ByteMatrix matrix) throws WriterException {
+                                                     ModuleMatrix matrix) throws WriterException {
     for (int y = 0; y < 7; ++y) {
       if (!isEmpty(matrix.get(xStart, yStart + y))) {
         throw new WriterException();
@@ -409,7 +436,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
     }
   }
 
-  private static void embedPositionAdjustmentPattern(int xStart, int yStart, ByteMatrix matrix) {
+  private static void embedPositionAdjustmentPattern(int xStart, int yStart, ModuleMatrix matrix) {
     for (int y = 0; y < 5; ++y) {
       int[] patternY = POSITION_ADJUSTMENT_PATTERN[y];
       for (int x = 0; x < 5; ++x) {
@@ -418,7 +445,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
     }
   }
 
-  private static void embedPositionDetectionPattern(int xStart, int yStart, ByteMatrix matrix) {
+  private static void embedPositionDetectionPattern(int xStart, int yStart, ModuleMatrix matrix) {
     for (int y = 0; y < 7; ++y) {
       int[] patternY = POSITION_DETECTION_PATTERN[y];
       for (int x = 0; x < 7; ++x) {
@@ -428,7 +455,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
   }
 
   // Embed position detection patterns and surrounding vertical/horizontal separators.
-  private static void embedPositionDetectionPatternsAndSeparators(ByteMatrix matrix) throws WriterException {
+  private static void embedPositionDetectionPatternsAndSeparators(ModuleMatrix matrix) throws WriterException {
     // Embed three big squares at corners.
     int pdpWidth = POSITION_DETECTION_PATTERN[0].length;
     // Left top corner.
@@ -460,7 +487,7 @@ private static int embedDataBitsRefactoring1(BitArray dataBits, int maskPattern,
   }
 
   // Embed position adjustment patterns if need be.
-  private static void maybeEmbedPositionAdjustmentPatterns(Version version, ByteMatrix matrix) {
+  private static void maybeEmbedPositionAdjustmentPatterns(Version version, ModuleMatrix matrix) {
     if (version.getVersionNumber() < 2) {  // The patterns appear if version >= 2
       return;
     }
@@ -25,7 +25,14 @@ import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 /**
@@ -73,10 +80,21 @@ final class MinimalEncoder {
     }
   }
 
+  // The modes the algorithm chooses from, in the order of the last index of the vertices in EdgeTable
+  private static final Mode[] MODES = { Mode.KANJI, Mode.ALPHANUMERIC, Mode.NUMERIC, Mode.BYTE };
+  private static final int KANJI = 0;
+  private static final int ALPHANUMERIC = 1;
+  private static final int NUMERIC = 2;
+  private static final int BYTE = 3;
+
   private final String stringToEncode;
   private final boolean isGS1;
   private final ECIEncoderSet encoders;
   private final ErrorCorrectionLevel ecLevel;
+  // For every character of the input: the number of bytes it takes in each of the charsets of encoders, or 0 if
+  // the charset cannot encode it, followed by 1 if it can be encoded in KANJI mode and 0 otherwise. Equal characters
+  // share the same array, so that every distinct character is looked up only once.
+  private final int[][] characterEncodings;
 
   /**
    * Creates a MinimalEncoder
@@ -95,6 +113,25 @@ final class MinimalEncoder {
     this.isGS1 = isGS1;
     this.encoders = new ECIEncoderSet(stringToEncode, priorityCharset, -1);
     this.ecLevel = ecLevel;
+
+    int numEncoders = encoders.length();
+    Map<Character,int[]> encodingsByCharacter = new HashMap<>();
+    characterEncodings = new int[stringToEncode.length()][];
+    for (int i = 0; i < characterEncodings.length; i++) {
+      char c = stringToEncode.charAt(i);
+      int[] encodings = encodingsByCharacter.get(c);
+      if (encodings == null) {
+        encodings = new int[numEncoders + 1];
+        for (int j = 0; j < numEncoders; j++) {
+          if (encoders.canEncode(c, j)) {
+            encodings[j] = encoders.encode(c, j).length;
+          }
+        }
+        encodings[numEncoders] = isDoubleByteKanji(c) ? 1 : 0;
+        encodingsByCharacter.put(c, encodings);
+      }
+      characterEncodings[i] = encodings;
+    }
   }
 
   /**
@@ -116,17 +153,44 @@ final class MinimalEncoder {
    */
   static ResultList encode(String stringToEncode, Version version, Charset priorityCharset, boolean isGS1,
       ErrorCorrectionLevel ecLevel) throws WriterException {
-    return new MinimalEncoder(stringToEncode, priorityCharset, isGS1, ecLevel).encode(version);
+    return encode(stringToEncode, version, priorityCharset, isGS1, ecLevel, false);
+  }
+
+  /**
+   * Encodes the string minimally
+   *
+   * @param stringToEncode The string to encode
+   * @param version The preferred {@link Version}, or null to compute a minimal version
+   * @param priorityCharset The preferred {@link Charset}, or null
+   * @param isGS1 {@code true} if a FNC1 is to be prepended; {@code false} otherwise
+   * @param ecLevel The error correction level.
+   * @param inParallel {@code true} to encode for the three version sizes in parallel, on the common
+   *   {@link ForkJoinPool}, when no version is given. The result is the same either way.
+   * @return An instance of {@code ResultList} representing the minimal solution.
+   * @see #encode(String, Version, Charset, boolean, ErrorCorrectionLevel)
+   */
+  static ResultList encode(String stringToEncode, Version version, Charset priorityCharset, boolean isGS1,
+      ErrorCorrectionLevel ecLevel, boolean inParallel) throws WriterException {
+    return new MinimalEncoder(stringToEncode, priorityCharset, isGS1, ecLevel).encode(version, inParallel);
   }
 
   ResultList encode(Version version) throws WriterException {
+    return encode(version, false);
+  }
+
+  ResultList encode(Version version, boolean inParallel) throws WriterException {
     if (version == null) { // compute minimal encoding trying the three version sizes.
       Version[] versions = { getVersion(VersionSize.SMALL),
                              getVersion(VersionSize.MEDIUM),
                              getVersion(VersionSize.LARGE) };
-      ResultList[] results = { encodeSpecificVersion(versions[0]),
-                               encodeSpecificVersion(versions[1]),
-                               encodeSpecificVersion(versions[2]) };
+      ResultList[] results;
+      if (inParallel) {
+        results = encodeInParallel(versions);
+      } else {
+        results = new ResultList[] { encodeSpecificVersion(versions[0]),
+                                     encodeSpecificVersion(versions[1]),
+                                     encodeSpecificVersion(versions[2]) };
+      }
       int smallestSize = Integer.MAX_VALUE;
       int smallestResult = -1;
       for (int i = 0; i < 3; i++) {
@@ -149,6 +213,37 @@ final class MinimalEncoder {
     }
   }
 
+  /**
+   * Runs {@link #encodeSpecificVersion(Version)} for each version in its own task on the common
+   * {@link ForkJoinPool}. The tasks only read the state of this instance.
+   */
+  private ResultList[] encodeInParallel(Version[] versions) throws WriterException {
+    List<Callable<ResultList>> tasks = new ArrayList<>(versions.length);
+    for (Version version : versions) {
+      tasks.add(() -> encodeSpecificVersion(version));
+    }
+    ResultList[] results = new ResultList[versions.length];
+    try {
+      List<Future<ResultList>> futures = ForkJoinPool.commonPool().invokeAll(tasks);
+      for (int i = 0; i < results.length; i++) {
+        results[i] = futures.get(i).get();
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new WriterException(ie);
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof WriterException) {
+        throw (WriterException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new WriterException(cause);
+    }
+    return results;
+  }
+
   static VersionSize getVersionSize(Version version) {
     return version.getVersionNumber() <= 9 ? VersionSize.SMALL : version.getVersionNumber() <= 26 ?
       VersionSize.MEDIUM : VersionSize.LARGE;
@@ -174,80 +269,6 @@ final class MinimalEncoder {
     return Encoder.isOnlyDoubleByteKanji(String.valueOf(c));
   }
 
-  boolean canEncode(Mode mode, char c) {
-    switch (mode) {
-      case KANJI: return isDoubleByteKanji(c);
-      case ALPHANUMERIC: return MinimalEncoderRefactoring.isAlphanumeric(c);
-      case NUMERIC: return isNumeric(c);
-      case BYTE: return true; // any character can be encoded as byte(s). Up to the caller to manage splitting into
-                              // multiple bytes when String.getBytes(Charset) return more than one byte.
-      default:
-        return false;
-    }
-  }
-
-  static int getCompactedOrdinal(Mode mode) {
-    if (mode == null) {
-      return 0;
-    }
-    switch (mode) {
-      case KANJI:
-        return 0;
-      case ALPHANUMERIC:
-        return 1;
-      case NUMERIC:
-        return 2;
-      case BYTE:
-        return 3;
-      default:
-        throw new IllegalStateException("Illegal mode " + mode);
-    }
-  }
-
-  void addEdge(Edge[][][] edges, int position, Edge edge) {
-    int vertexIndex = position + edge.characterLength;
-    Edge[] modeEdges = edges[vertexIndex][edge.charsetEncoderIndex];
-    int modeOrdinal = getCompactedOrdinal(edge.mode);
-    if (modeEdges[modeOrdinal] == null || modeEdges[modeOrdinal].cachedTotalSize > edge.cachedTotalSize) {
-      modeEdges[modeOrdinal] = edge;
-    }
-  }
-
-  void addEdges(Version version, Edge[][][] edges, int from, Edge previous) {
-    int start = 0;
-    int end = encoders.length();
-    int priorityEncoderIndex = encoders.getPriorityEncoderIndex();
-    if (priorityEncoderIndex >= 0 && encoders.canEncode(stringToEncode.charAt(from),priorityEncoderIndex)) {
-      start = priorityEncoderIndex;
-      end = priorityEncoderIndex + 1;
-    }
-
-    addEdgesRefactoring(version, edges, from, previous, start, end);
-
-    if (canEncode(Mode.KANJI, stringToEncode.charAt(from))) {
-      addEdge(edges, from, new Edge(Mode.KANJI, from, 0, 1, previous, version));
-    }
-
-    int inputLength = stringToEncode.length();
-    if (canEncode(Mode.ALPHANUMERIC, stringToEncode.charAt(from))) {
-      addEdge(edges, from, new Edge(Mode.ALPHANUMERIC, from, 0, from + 1 >= inputLength ||
-          !canEncode(Mode.ALPHANUMERIC, stringToEncode.charAt(from + 1)) ? 1 : 2, previous, version));
-    }
-
-    if (canEncode(Mode.NUMERIC, stringToEncode.charAt(from))) {
-      addEdge(edges, from, new Edge(Mode.NUMERIC, from, 0, from + 1 >= inputLength ||
-          !canEncode(Mode.NUMERIC, stringToEncode.charAt(from + 1)) ? 1 : from + 2 >= inputLength ||
-          !canEncode(Mode.NUMERIC, stringToEncode.charAt(from + 2)) ? 2 : 3, previous, version));
-    }
-  }
-
-private void addEdgesRefactoring(Version version, Edge[][][] edges, int from, Edge previous, int start, int end) {
-	for (int i = start; i < end; i++) {
-      if (encoders.canEncode(stringToEncode.charAt(from), i)) {
-        addEdge(edges, from, new Edge(Mode.BYTE, from, i, 1, previous, version));
-      }
-    }
-}
   ResultList encodeSpecificVersion(Version version) throws WriterException {
 
     @SuppressWarnings("checkstyle:lineLength")
@@ -362,95 +383,135 @@ private void addEdgesRefactoring(Version version, Edge[][][] edges, int from, Ed
 
     int inputLength = stringToEncode.length();
 
-    // Array that represents vertices. There is a vertex for every character, encoding and mode. The vertex contains
-    // a list of all edges that lead to it that have the same encoding and mode.
-    // The lists are created lazily
-
-    // The last dimension in the array below encodes the 4 modes KANJI, ALPHANUMERIC, NUMERIC and BYTE via the
-    // function getCompactedOrdinal(Mode)
-    Edge[][][] edges = new Edge[inputLength + 1][encoders.length()][4];
-    addEdges(version, edges, 0, null);
-
-    encodeSpecificVersionRefactoring(version, inputLength, edges);
-    int minimalJ = -1;
-    int minimalK = -1;
-    int minimalSize = Integer.MAX_VALUE;
-    for (int j = 0; j < encoders.length(); j++) {
-      for (int k = 0; k < 4; k++) {
-        if (edges[inputLength][j][k] != null) {
-          Edge edge = edges[inputLength][j][k];
-          if (edge.cachedTotalSize < minimalSize) {
-            minimalSize = edge.cachedTotalSize;
-            minimalJ = j;
-            minimalK = k;
-          }
+    EdgeTable edges = new EdgeTable(version);
+    edges.addEdges(0, -1);
+    for (int i = 1; i < inputLength; i++) {
+      int end = (i + 1) * edges.verticesPerPosition;
+      for (int vertex = i * edges.verticesPerPosition; vertex < end; vertex++) {
+        if (edges.sizes[vertex] != Integer.MAX_VALUE) {
+          edges.addEdges(i, vertex);
         }
       }
     }
-    if (minimalJ < 0) {
+    int minimalVertex = -1;
+    int minimalSize = Integer.MAX_VALUE;
+    int end = (inputLength + 1) * edges.verticesPerPosition;
+    for (int vertex = inputLength * edges.verticesPerPosition; vertex < end; vertex++) {
+      if (edges.sizes[vertex] < minimalSize) {
+        minimalSize = edges.sizes[vertex];
+        minimalVertex = vertex;
+      }
+    }
+    if (minimalVertex < 0) {
       throw new WriterException("Internal error: failed to encode \"" + stringToEncode + "\"");
     }
-    return new ResultList(version, edges[inputLength][minimalJ][minimalK]);
+    return new ResultList(version, edges, minimalVertex);
   }
 
-private void encodeSpecificVersionRefactoring(Version version, int inputLength, Edge[][][] edges) {
-	for (int i = 1; i <= inputLength; i++) {
-      for (int j = 0; j < encoders.length(); j++) {
-        for (int k = 0; k < 4; k++) {
-          if (edges[i][j][k] != null && i < inputLength) {
-            addEdges(version, edges, i, edges[i][j][k]);
-          }
+  /**
+   * The vertices of the graph for one version, with the shortest edge found so far leading to each.
+   *
+   * There is a vertex for every position in the input, charset and mode. Vertex (position, j, k), where j indexes
+   * the charsets of {@link #encoders} and k the {@link #MODES}, is at index
+   * {@code position * verticesPerPosition + 4 * j + k} of the arrays. An edge is represented by the vertex it
+   * ends on: {@code sizes} holds its accumulated size in bits, or {@link Integer#MAX_VALUE} if no edge leads to the
+   * vertex yet, and {@code previous} the vertex it starts on, or -1 if it starts at the beginning of the input.
+   * The characters the edge encodes are those between the two positions.
+   */
+  private final class EdgeTable {
+
+    private final int verticesPerPosition;
+    // Size of the mode indicator and character count indicator of each mode
+    private final int[] headerSizes = new int[MODES.length];
+    private final int[] sizes;
+    private final int[] previous;
+
+    private EdgeTable(Version version) {
+      verticesPerPosition = MODES.length * encoders.length();
+      for (int k = 0; k < MODES.length; k++) {
+        headerSizes[k] = 4 + MODES[k].getCharacterCountBits(version);
+      }
+      sizes = new int[(stringToEncode.length() + 1) * verticesPerPosition];
+      Arrays.fill(sizes, Integer.MAX_VALUE);
+      previous = new int[sizes.length];
+    }
+
+    /**
+     * Adds the edges encoding the character(s) at {@code from}, starting on {@code vertex}
+     */
+    private void addEdges(int from, int vertex) {
+      int[] encodings = characterEncodings[from];
+      int numEncoders = encoders.length();
+      int start = 0;
+      int end = numEncoders;
+      int priorityEncoderIndex = encoders.getPriorityEncoderIndex();
+      if (priorityEncoderIndex >= 0 && encodings[priorityEncoderIndex] > 0) {
+        start = priorityEncoderIndex;
+        end = priorityEncoderIndex + 1;
+      }
+
+      for (int j = start; j < end; j++) {
+        if (encodings[j] > 0) {
+          addEdge(from, vertex, BYTE, j, 1, 8 * encodings[j]);
         }
       }
 
+      if (encodings[numEncoders] != 0) {
+        addEdge(from, vertex, KANJI, 0, 1, 13);
+      }
+
+      int inputLength = stringToEncode.length();
+      if (MinimalEncoderRefactoring.isAlphanumeric(stringToEncode.charAt(from))) {
+        boolean pair = from + 1 < inputLength &&
+            MinimalEncoderRefactoring.isAlphanumeric(stringToEncode.charAt(from + 1));
+        addEdge(from, vertex, ALPHANUMERIC, 0, pair ? 2 : 1, pair ? 11 : 6);
+      }
+
+      if (isNumeric(stringToEncode.charAt(from))) {
+        int length = from + 1 >= inputLength || !isNumeric(stringToEncode.charAt(from + 1)) ? 1 :
+            from + 2 >= inputLength || !isNumeric(stringToEncode.charAt(from + 2)) ? 2 : 3;
+        addEdge(from, vertex, NUMERIC, 0, length, length == 1 ? 4 : length == 2 ? 7 : 10);
+      }
     }
-}
 
-  private final class Edge {
-    private final Mode mode;
-    private final int fromPosition;
-    private final int charsetEncoderIndex;
-    private final int characterLength;
-    private final Edge previous;
-    private final int cachedTotalSize;
-
-    private Edge(Mode mode, int fromPosition, int charsetEncoderIndex, int characterLength, Edge previous,
-                 Version version) {
-      this.mode = mode;
-      this.fromPosition = fromPosition;
-      this.charsetEncoderIndex = mode == Mode.BYTE || previous == null ? charsetEncoderIndex :
-          previous.charsetEncoderIndex; // inherit the encoding if not of type BYTE
-      this.characterLength = characterLength;
-      this.previous = previous;
-
-      int size = previous != null ? previous.cachedTotalSize : 0;
-
-      boolean needECI = mode == Mode.BYTE &&
-          (previous == null && this.charsetEncoderIndex != 0) || // at the beginning and charset is not ISO-8859-1
-          (previous != null && this.charsetEncoderIndex != previous.charsetEncoderIndex);
-
-      if (previous == null || mode != previous.mode || needECI) {
-        size += 4 + mode.getCharacterCountBits(version);
-      }
-      switch (mode) {
-        case KANJI:
-          size += 13;
-          break;
-        case ALPHANUMERIC:
-          size += characterLength == 1 ? 6 : 11;
-          break;
-        case NUMERIC:
-          size += characterLength == 1 ? 4 : characterLength == 2 ? 7 : 10;
-          break;
-        case BYTE:
-          size += 8 * encoders.encode(stringToEncode.substring(fromPosition, fromPosition + characterLength),
-              charsetEncoderIndex).length;
-          if (needECI) {
-            size += 4 + 8; // the ECI assignment numbers for ISO-8859-x, UTF-8 and UTF-16 are all 8 bit long
-          }
-          break;
+    /**
+     * Adds an edge unless the vertex it ends on already has one that is no longer
+     *
+     * @param from position of the first character the edge encodes
+     * @param vertex vertex the edge starts on, or -1 for the beginning of the input
+     * @param mode index of the mode in {@link #MODES}
+     * @param byteCharsetEncoderIndex charset of a BYTE edge; other modes keep the charset of the previous edge
+     * @param characterLength number of characters the edge encodes
+     * @param dataSize size in bits of the encoded characters
+     */
+    private void addEdge(int from, int vertex, int mode, int byteCharsetEncoderIndex, int characterLength,
+                         int dataSize) {
+      int charsetEncoderIndex;
+      int size;
+      boolean needECI;
+      if (vertex < 0) {
+        charsetEncoderIndex = mode == BYTE ? byteCharsetEncoderIndex : 0;
+        needECI = charsetEncoderIndex != 0; // at the beginning and charset is not ISO-8859-1
+        size = headerSizes[mode];
+      } else {
+        int previousCharsetEncoderIndex = vertex % verticesPerPosition / MODES.length;
+        // inherit the encoding if not of type BYTE
+        charsetEncoderIndex = mode == BYTE ? byteCharsetEncoderIndex : previousCharsetEncoderIndex;
+        needECI = charsetEncoderIndex != previousCharsetEncoderIndex;
+        size = sizes[vertex];
+        if (mode != vertex % MODES.length || needECI) {
+          size += headerSizes[mode];
+        }
+      }
+      size += dataSize;
+      if (needECI) {
+        size += 4 + 8; // the ECI assignment numbers for ISO-8859-x, UTF-8 and UTF-16 are all 8 bit long
+      }
+      int target = (from + characterLength) * verticesPerPosition + MODES.length * charsetEncoderIndex + mode;
+      if (size < sizes[target]) {
+        sizes[target] = size;
+        previous[target] = vertex;
       }
-      cachedTotalSize = size;
     }
   }
 
@@ -459,30 +520,34 @@ private void encodeSpecificVersionRefactoring(Version version, int inputLength,
     private final List<ResultList.ResultNode> list = new ArrayList<>();
     private final Version version;
 
-    ResultList(Version version, Edge solution) {
+    ResultList(Version version, EdgeTable edges, int solution) {
+      int verticesPerPosition = edges.verticesPerPosition;
       int length = 0;
-      Edge current = solution;
+      int current = solution;
       boolean containsECI = false;
 
-      while (current != null) {
-        length += current.characterLength;
-        Edge previous = current.previous;
+      while (current >= 0) {
+        int previous = edges.previous[current];
+        Mode mode = MODES[current % MODES.length];
+        int charsetEncoderIndex = current % verticesPerPosition / MODES.length;
+        int fromPosition = previous < 0 ? 0 : previous / verticesPerPosition;
+        length += current / verticesPerPosition - fromPosition;
 
-        boolean needECI = current.mode == Mode.BYTE &&
-            (previous == null && current.charsetEncoderIndex != 0) || // at the beginning and charset is not ISO-8859-1
-            (previous != null && current.charsetEncoderIndex != previous.charsetEncoderIndex);
+        boolean needECI = previous < 0 ?
+            mode == Mode.BYTE && charsetEncoderIndex != 0 : // at the beginning and charset is not ISO-8859-1
+            charsetEncoderIndex != previous % verticesPerPosition / MODES.length;
 
         if (needECI) {
           containsECI = true;
         }
 
-        if (previous == null || previous.mode != current.mode || needECI) {
-          list.add(0, new ResultNode(current.mode, current.fromPosition, current.charsetEncoderIndex, length));
+        if (previous < 0 || MODES[previous % MODES.length] != mode || needECI) {
+          list.add(0, new ResultNode(mode, fromPosition, charsetEncoderIndex, length));
           length = 0;
         }
 
         if (needECI) {
-          list.add(0, new ResultNode(Mode.ECI, current.fromPosition, current.charsetEncoderIndex, 0));
+          list.add(0, new ResultNode(Mode.ECI, fromPosition, charsetEncoderIndex, 0));
         }
         current = previous;
       }
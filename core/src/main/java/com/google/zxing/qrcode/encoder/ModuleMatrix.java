@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.encoder;
+
+/**
+ * <p>The modules of a QR code, packed 64 to a {@code long} in two bit planes: one says which
+ * modules are dark, the other which modules have been set at all. {@link MatrixUtil} builds
+ * symbols in it instead of a {@link ByteMatrix}, which takes 4 times the memory; {@link MaskUtil}
+ * and {@link com.google.zxing.qrcode.QRCodeWriter} then work on its rows a word at a time.</p>
+ *
+ * <p>Bits past the width of a row are always 0.</p>
+ */
+public final class ModuleMatrix {
+
+  private final int width;
+  private final int height;
+  private final long[][] dark;
+  private final long[][] set;
+
+  /**
+   * Creates a matrix in which no module is set yet.
+   *
+   * @param width number of modules per row
+   * @param height number of rows
+   */
+  public ModuleMatrix(int width, int height) {
+    this.width = width;
+    this.height = height;
+    int rowSize = (width + 63) / 64;
+    this.dark = new long[height][rowSize];
+    this.set = new long[height][rowSize];
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * @return 1 if the module at (x, y) is dark, 0 if it is light, or -1 if it is not set yet,
+   *  as in a {@link ByteMatrix} cleared to -1
+   */
+  public byte get(int x, int y) {
+    long bit = 1L << (x & 0x3f);
+    int word = x / 64;
+    if ((set[y][word] & bit) == 0) {
+      return -1;
+    }
+    return (dark[y][word] & bit) != 0 ? (byte) 1 : (byte) 0;
+  }
+
+  /**
+   * @return true iff the module at (x, y) is set and dark
+   */
+  public boolean isDark(int x, int y) {
+    return (dark[y][x / 64] & (1L << (x & 0x3f))) != 0;
+  }
+
+  /**
+   * @param value 1 for a dark module, 0 for a light one
+   */
+  public void set(int x, int y, int value) {
+    set(x, y, value != 0);
+  }
+
+  public void set(int x, int y, boolean value) {
+    // Fail as a ByteMatrix would, rather than set padding bits past the width of the row
+    if (x < 0 || x >= width) {
+      throw new ArrayIndexOutOfBoundsException(x);
+    }
+    long bit = 1L << (x & 0x3f);
+    int word = x / 64;
+    set[y][word] |= bit;
+    if (value) {
+      dark[y][word] |= bit;
+    } else {
+      dark[y][word] &= ~bit;
+    }
+  }
+
+  /**
+   * Makes a module which is set already dark.
+   */
+  void setDark(int x, int y) {
+    dark[y][x / 64] |= 1L << (x & 0x3f);
+  }
+
+  /**
+   * Unsets all modules.
+   */
+  public void clear() {
+    for (int y = 0; y < height; y++) {
+      long[] darkY = dark[y];
+      long[] setY = set[y];
+      for (int i = 0; i < darkY.length; i++) {
+        darkY[i] = 0L;
+        setY[i] = 0L;
+      }
+    }
+  }
+
+  /**
+   * Makes this matrix a copy of another of the same size, without allocating.
+   *
+   * @param other matrix to copy
+   * @throws IllegalArgumentException if the sizes differ
+   */
+  public void copyFrom(ModuleMatrix other) {
+    if (other.width != width || other.height != height) {
+      throw new IllegalArgumentException("Matrix sizes differ");
+    }
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(other.dark[y], 0, dark[y], 0, dark[y].length);
+      System.arraycopy(other.set[y], 0, set[y], 0, set[y].length);
+    }
+  }
+
+  /**
+   * @param from first module of the row to check
+   * @param y row
+   * @return x of the first dark module at or after {@code from}, or the width if there is none
+   */
+  public int getNextDark(int from, int y) {
+    return getNext(dark[y], from, 0L);
+  }
+
+  /**
+   * @param from first module of the row to check
+   * @param y row
+   * @return x of the first module at or after {@code from} which is not dark, or the width if
+   *  there is none
+   */
+  public int getNextLight(int from, int y) {
+    return getNext(dark[y], from, -1L);
+  }
+
+  // Searches for the first bit differing from the bits of "skip"
+  private int getNext(long[] row, int from, long skip) {
+    if (from >= width) {
+      return width;
+    }
+    int word = from / 64;
+    long current = (row[word] ^ skip) & (-1L << (from & 0x3f));
+    while (current == 0) {
+      if (++word == row.length) {
+        return width;
+      }
+      current = row[word] ^ skip;
+    }
+    return Math.min(word * 64 + Long.numberOfTrailingZeros(current), width);
+  }
+
+  /**
+   * @param y row
+   * @return the dark plane of that row, bit x % 64 of word x / 64 for module x; not to be modified
+   */
+  long[] getDarkRow(int y) {
+    return dark[y];
+  }
+
+  /**
+   * @return the same modules in a {@link ByteMatrix}, with -1 for those not set
+   */
+  public ByteMatrix toByteMatrix() {
+    ByteMatrix result = new ByteMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        result.set(x, y, get(x, y));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder(2 * width * height + 2);
+    for (int y = 0; y < height; ++y) {
+      for (int x = 0; x < width; ++x) {
+        switch (get(x, y)) {
+          case 0:
+            result.append(" 0");
+            break;
+          case 1:
+            result.append(" 1");
+            break;
+          default:
+            result.append("  ");
+            break;
+        }
+      }
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
+}
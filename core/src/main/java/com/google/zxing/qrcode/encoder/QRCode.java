@@ -33,6 +33,7 @@ public final class QRCode {
   private Version version;
   private int maskPattern;
   private ByteMatrix matrix;
+  private ModuleMatrix moduleMatrix;
 
   public QRCode() {
     maskPattern = -1;
@@ -57,10 +58,40 @@ public final class QRCode {
     return maskPattern;
   }
 
+  /**
+   * @return the modules. If the code was built in a {@link ModuleMatrix}, it is converted on the
+   *  first call, and from then on the returned matrix is the code's own: changes to it show in
+   *  later calls to this method and to {@link #getModuleMatrix()}
+   */
   public ByteMatrix getMatrix() {
+    if (matrix == null && moduleMatrix != null) {
+      matrix = moduleMatrix.toByteMatrix();
+      moduleMatrix = null;
+    }
     return matrix;
   }
 
+  /**
+   * @return the modules, bit-packed. This is the code's own matrix if it was built in one and
+   *  {@link #getMatrix()} has not been called since; otherwise it is a new copy of the
+   *  {@link ByteMatrix} on each call, and changes to it are not kept
+   */
+  public ModuleMatrix getModuleMatrix() {
+    if (moduleMatrix != null || matrix == null) {
+      return moduleMatrix;
+    }
+    ModuleMatrix modules = new ModuleMatrix(matrix.getWidth(), matrix.getHeight());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        int value = matrix.get(x, y);
+        if (value != -1) {
+          modules.set(x, y, value);
+        }
+      }
+    }
+    return modules;
+  }
+
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder(200);
@@ -73,11 +104,11 @@ public final class QRCode {
     result.append(version);
     result.append("\n maskPattern: ");
     result.append(maskPattern);
-    if (matrix == null) {
+    if (matrix == null && moduleMatrix == null) {
       result.append("\n matrix: null\n");
     } else {
       result.append("\n matrix:\n");
-      result.append(matrix);
+      result.append(matrix == null ? moduleMatrix : matrix);
     }
     result.append(">>\n");
     return result.toString();
@@ -101,6 +132,12 @@ public final class QRCode {
 
   public void setMatrix(ByteMatrix value) {
     matrix = value;
+    moduleMatrix = null;
+  }
+
+  public void setModuleMatrix(ModuleMatrix value) {
+    moduleMatrix = value;
+    matrix = null;
   }
 
   // Check if "mask_pattern" is valid.
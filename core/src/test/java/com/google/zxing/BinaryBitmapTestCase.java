@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link BinaryBitmap}, in particular caching of derived bitmaps.
+ */
+public final class BinaryBitmapTestCase extends Assert {
+
+  private static LuminanceSource createSource(int width, int height, long seed) {
+    Random random = new Random(seed);
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int value;
+        if (((x / 29) & 1) == 0) {
+          value = ((x / 3 + y / 4) & 1) == 0 ? 20 + random.nextInt(50) : 160 + random.nextInt(80);
+        } else {
+          // Flat areas, whose black points come from blocks above and to the left
+          value = (y / 40) * 25 + random.nextInt(12);
+        }
+        luminances[y * width + x] = (byte) value;
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  @Test
+  public void testRotationIsCached() {
+    DecodeContext context = new DecodeContext();
+    LuminanceSource source = new BufferedImageLuminanceSource(new BufferedImage(80, 60, BufferedImage.TYPE_BYTE_GRAY));
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source), context);
+    BinaryBitmap rotated = bitmap.rotateCounterClockwise();
+    assertEquals(60, rotated.getWidth());
+    assertSame(rotated, bitmap.rotateCounterClockwise());
+    assertSame(rotated, bitmap.invert().rotateCounterClockwise());
+    assertSame(context, rotated.getDecodeContext());
+    assertEquals(1, context.getRotations());
+    assertEquals(2, context.getRotationHits());
+  }
+
+  @Test
+  public void testRotatedSourceIsShared() throws NotFoundException {
+    DecodeContext context = new DecodeContext();
+    BufferedImage image = new BufferedImage(90, 70, BufferedImage.TYPE_BYTE_GRAY);
+    Random random = new Random(14L);
+    for (int y = 0; y < 70; y++) {
+      for (int x = 0; x < 90; x++) {
+        int value = ((x / 5 + y / 7) & 1) == 0 ? random.nextInt(60) : 180 + random.nextInt(60);
+        image.getRaster().setSample(x, y, 0, value);
+      }
+    }
+    LuminanceSource source = new BufferedImageLuminanceSource(image);
+    BinaryBitmap hybrid = new BinaryBitmap(new HybridBinarizer(source), context);
+    BinaryBitmap global = new BinaryBitmap(new GlobalHistogramBinarizer(source), context);
+    BinaryBitmap hybridRotated = hybrid.rotateCounterClockwise();
+    BinaryBitmap globalRotated = global.rotateCounterClockwise();
+    assertNotSame(hybridRotated, globalRotated);
+    assertEquals(70, globalRotated.getWidth());
+    // The image data was rotated once; each bitmap only binarizes it
+    assertEquals(1, context.getRotations());
+    assertEquals(1, context.getRotationHits());
+    LuminanceSource rotatedSource = source.rotateCounterClockwise();
+    assertEquals(new HybridBinarizer(rotatedSource).getBlackMatrix(), hybridRotated.getBlackMatrix());
+    assertEquals(new GlobalHistogramBinarizer(rotatedSource).getBlackMatrix(), globalRotated.getBlackMatrix());
+  }
+
+  @Test
+  public void testInvert() throws NotFoundException {
+    LuminanceSource source = createSource(120, 100, 12L);
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+    BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+    BinaryBitmap inverted = bitmap.invert();
+    assertSame(inverted, bitmap.invert());
+    assertSame(bitmap, inverted.invert());
+
+    BitMatrix flipped = expected.clone();
+    flipped.flip();
+    assertEquals(flipped, inverted.getBlackMatrix());
+    // The original is left alone
+    assertEquals(expected, bitmap.getBlackMatrix());
+    assertEquals(bitmap.getBlackRow(7, null), inverted.getBlackRow(7, null));
+
+    DecodeContext context = bitmap.getDecodeContext();
+    assertEquals(1, context.getBlackMatrixComputations());
+    assertEquals(1, context.getBlackMatrixHits());
+    assertEquals(1, context.getInversions());
+    assertEquals(1, context.getInversionHits());
+  }
+
+  @Test
+  public void testAlsoInvertedLeavesImageUntouched() throws NotFoundException {
+    LuminanceSource source = createSource(100, 100, 13L);
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+    BitMatrix expected = bitmap.getBlackMatrix().clone();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.ALSO_INVERTED, Boolean.TRUE);
+    hints.put(DecodeHintType.POSSIBLE_FORMATS, EnumSet.of(BarcodeFormat.QR_CODE));
+    MultiFormatReader reader = new MultiFormatReader();
+    for (int i = 0; i < 2; i++) {
+      try {
+        reader.decode(bitmap, hints);
+        fail();
+      } catch (NotFoundException nfe) {
+        // continue
+      }
+      assertEquals(expected, bitmap.getBlackMatrix());
+    }
+    assertEquals(1, bitmap.getDecodeContext().getInversions());
+  }
+
+}
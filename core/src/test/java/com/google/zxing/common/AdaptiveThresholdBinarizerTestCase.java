@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link AdaptiveThresholdBinarizer}.
+ */
+public final class AdaptiveThresholdBinarizerTestCase extends Assert {
+
+  private static final int MODULE_SIZE = 4;
+
+  private static LuminanceSource randomSource(int width, int height, long seed) {
+    Random random = new Random(seed);
+    byte[] luminances = new byte[width * height];
+    for (int i = 0; i < luminances.length; i++) {
+      luminances[i] = (byte) random.nextInt(256);
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  /**
+   * Random modules under light that falls off from 255 on the right to 60 on the left, which
+   * defeats a single global threshold.
+   */
+  private static LuminanceSource unevenlyLitSource(BitMatrix modules) {
+    int width = modules.getWidth() * MODULE_SIZE;
+    int height = modules.getHeight() * MODULE_SIZE;
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int light = 60 + 195 * x / (width - 1);
+        boolean black = modules.get(x / MODULE_SIZE, y / MODULE_SIZE);
+        luminances[y * width + x] = (byte) (light * (black ? 20 : 90) / 100);
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  /**
+   * Straightforward per-pixel reimplementation, summing each window directly.
+   */
+  private static BitMatrix reference(LuminanceSource source, AdaptiveThresholdBinarizer.Method method,
+                                     int windowSize, float k) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = source.getMatrix();
+    int radius = windowSize / 2;
+    BitMatrix result = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        long sum = 0;
+        long squares = 0;
+        int area = 0;
+        for (int wy = Math.max(0, y - radius); wy < Math.min(height, y + radius + 1); wy++) {
+          for (int wx = Math.max(0, x - radius); wx < Math.min(width, x + radius + 1); wx++) {
+            int value = luminances[wy * width + wx] & 0xFF;
+            sum += value;
+            squares += value * value;
+            area++;
+          }
+        }
+        int pixel = luminances[y * width + x] & 0xFF;
+        boolean black;
+        if (method == AdaptiveThresholdBinarizer.Method.SAUVOLA) {
+          double mean = (double) sum / area;
+          double variance = (double) squares / area - mean * mean;
+          double deviation = variance > 0.0 ? Math.sqrt(variance) : 0.0;
+          black = pixel <= mean * (1.0 + k * (deviation / 128.0 - 1.0));
+        } else {
+          black = (pixel * (long) area << 10) <= sum * Math.round((1.0 - k) * 1024);
+        }
+        if (black) {
+          result.set(x, y);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testMatchesReference() throws NotFoundException {
+    LuminanceSource source = randomSource(61, 47, 1L);
+    for (AdaptiveThresholdBinarizer.Method method : AdaptiveThresholdBinarizer.Method.values()) {
+      for (int windowSize : new int[] {3, 15, 101}) {
+        assertEquals(reference(source, method, windowSize, 0.3f),
+                     new AdaptiveThresholdBinarizer(source, method, windowSize, 0.3f).getBlackMatrix());
+      }
+    }
+  }
+
+  @Test
+  public void testLargeWindowOnBrightImage() throws NotFoundException {
+    // Totals over the whole image overflow 32 bits; only window totals must not
+    int width = 400;
+    int height = 300;
+    byte[] luminances = new byte[width * height];
+    Random random = new Random(2L);
+    for (int i = 0; i < luminances.length; i++) {
+      luminances[i] = (byte) (220 + random.nextInt(36));
+    }
+    LuminanceSource source = new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+    LuminanceSource corner = source.crop(0, 0, 150, 150);
+    int size = AdaptiveThresholdBinarizer.MAX_WINDOW_SIZE;
+    BitMatrix matrix = new AdaptiveThresholdBinarizer(source, AdaptiveThresholdBinarizer.Method.SAUVOLA,
+                                                      size, 0.05f).getBlackMatrix();
+    BitMatrix expected = reference(corner, AdaptiveThresholdBinarizer.Method.SAUVOLA, size, 0.05f);
+    // Windows around the corner pixels lie entirely within the crop
+    for (int y = 0; y < 20; y++) {
+      for (int x = 0; x < 20; x++) {
+        assertEquals(expected.get(x, y), matrix.get(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testUnevenLighting() throws NotFoundException {
+    Random random = new Random(3L);
+    BitMatrix modules = new BitMatrix(80, 40);
+    for (int y = 0; y < modules.getHeight(); y++) {
+      for (int x = 0; x < modules.getWidth(); x++) {
+        if (random.nextBoolean()) {
+          modules.set(x, y);
+        }
+      }
+    }
+    LuminanceSource source = unevenlyLitSource(modules);
+    for (AdaptiveThresholdBinarizer.Method method : AdaptiveThresholdBinarizer.Method.values()) {
+      BitMatrix matrix = new AdaptiveThresholdBinarizer(source, method).getBlackMatrix();
+      for (int y = 0; y < source.getHeight(); y++) {
+        for (int x = 0; x < source.getWidth(); x++) {
+          assertEquals(method + " at " + x + "," + y, modules.get(x / MODULE_SIZE, y / MODULE_SIZE),
+                       matrix.get(x, y));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCreateBinarizer() throws NotFoundException {
+    LuminanceSource source = randomSource(90, 70, 4L);
+    AdaptiveThresholdBinarizer binarizer =
+        new AdaptiveThresholdBinarizer(source, AdaptiveThresholdBinarizer.Method.BRADLEY, 9, 0.1f);
+    LuminanceSource cropped = source.crop(5, 7, 60, 50);
+    assertEquals(reference(cropped, AdaptiveThresholdBinarizer.Method.BRADLEY, 9, 0.1f),
+                 binarizer.createBinarizer(cropped).getBlackMatrix());
+  }
+
+  @Test
+  public void testAutomaticWindowSize() {
+    assertEquals(15, AdaptiveThresholdBinarizer.automaticWindowSize(100, 60));
+    assertEquals(135, AdaptiveThresholdBinarizer.automaticWindowSize(1920, 1080));
+    assertEquals(AdaptiveThresholdBinarizer.MAX_WINDOW_SIZE,
+                 AdaptiveThresholdBinarizer.automaticWindowSize(3840, 2160));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEvenWindowSize() {
+    new AdaptiveThresholdBinarizer(randomSource(10, 10, 5L), AdaptiveThresholdBinarizer.Method.SAUVOLA, 10, 0.2f);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadK() {
+    new AdaptiveThresholdBinarizer(randomSource(10, 10, 5L), AdaptiveThresholdBinarizer.Method.BRADLEY, 11, 1.5f);
+  }
+
+}
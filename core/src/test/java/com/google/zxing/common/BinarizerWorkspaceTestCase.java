@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link BinarizerWorkspace}.
+ */
+public final class BinarizerWorkspaceTestCase extends Assert {
+
+  private static LuminanceSource randomSource(int width, int height, long seed) {
+    Random random = new Random(seed);
+    byte[] luminances = new byte[width * height];
+    // Dark and light 4x4 cells with noise, so there is contrast everywhere
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int base = random.nextInt(8) == 0 || ((x / 4 + y / 4) & 1) == 0 ? 40 : 200;
+        luminances[y * width + x] = (byte) (base + random.nextInt(30));
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  @Test
+  public void testHybridMatchesWithoutWorkspace() throws NotFoundException {
+    BinarizerWorkspace workspace = new BinarizerWorkspace();
+    for (long seed = 0; seed < 4; seed++) {
+      LuminanceSource source = randomSource(123, 77, seed);
+      assertEquals(new HybridBinarizer(source).getBlackMatrix(),
+                   new HybridBinarizer(source, workspace).getBlackMatrix());
+    }
+  }
+
+  @Test
+  public void testGlobalHistogramMatchesWithoutWorkspace() throws NotFoundException {
+    BinarizerWorkspace workspace = new BinarizerWorkspace();
+    LuminanceSource source = randomSource(60, 30, 1L);
+    assertEquals(new GlobalHistogramBinarizer(source).getBlackMatrix(),
+                 new GlobalHistogramBinarizer(source, workspace).getBlackMatrix());
+    GlobalHistogramBinarizer plain = new GlobalHistogramBinarizer(source);
+    GlobalHistogramBinarizer reusing = new GlobalHistogramBinarizer(source, workspace);
+    for (int y = 0; y < source.getHeight(); y++) {
+      assertEquals(plain.getBlackRow(y, null), reusing.getBlackRow(y, null));
+    }
+  }
+
+  @Test
+  public void testMatrixReusedForSameSize() throws NotFoundException {
+    BinarizerWorkspace workspace = new BinarizerWorkspace();
+    BitMatrix first = new HybridBinarizer(randomSource(80, 64, 1L), workspace).getBlackMatrix();
+    LuminanceSource second = randomSource(80, 64, 2L);
+    BitMatrix reused = new HybridBinarizer(second, workspace).getBlackMatrix();
+    assertSame(first, reused);
+    assertEquals(new HybridBinarizer(second).getBlackMatrix(), reused);
+    BitMatrix resized = new HybridBinarizer(randomSource(64, 80, 3L), workspace).getBlackMatrix();
+    assertNotSame(reused, resized);
+  }
+
+  @Test
+  public void testDerivedBinarizerDoesNotShareWorkspace() throws NotFoundException {
+    BinarizerWorkspace workspace = new BinarizerWorkspace();
+    LuminanceSource source = randomSource(80, 80, 1L);
+    BitMatrix matrix = new HybridBinarizer(source, workspace).getBlackMatrix();
+    BitMatrix copy = matrix.clone();
+    new HybridBinarizer(source, workspace).createBinarizer(randomSource(80, 80, 2L)).getBlackMatrix();
+    assertEquals(copy, matrix);
+  }
+
+}
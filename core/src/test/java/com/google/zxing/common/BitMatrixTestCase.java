@@ -20,6 +20,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Random;
 
 /**
  * @author Sean Owen
@@ -301,6 +302,132 @@ public final class BitMatrixTestCase extends Assert {
     }
   }
 
+  @Test
+  public void testRotate90() {
+    int[][] sizes = {{1, 1}, {31, 33}, {32, 32}, {70, 45}, {100, 3}};
+    for (int[] size : sizes) {
+      int width = size[0];
+      int height = size[1];
+      BitMatrix matrix = randomMatrix(width, height, width);
+      BitMatrix rotated = matrix.clone();
+      rotated.rotate90();
+      assertEquals(height, rotated.getWidth());
+      assertEquals(width, rotated.getHeight());
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          assertEquals(matrix.get(x, y), rotated.get(y, width - 1 - x));
+        }
+      }
+      rotated.rotate90();
+      BitMatrix rotated180 = matrix.clone();
+      rotated180.rotate180();
+      assertEquals(rotated180, rotated);
+    }
+  }
+
+  @Test
+  public void testIsRegionClear() {
+    BitMatrix matrix = randomMatrix(100, 40, 3L);
+    int[][] regions = {{0, 0, 100, 40}, {5, 3, 1, 1}, {31, 2, 2, 10}, {33, 0, 20, 40}, {10, 10, 85, 7}};
+    for (int[] region : regions) {
+      boolean expected = true;
+      for (int y = region[1]; y < region[1] + region[3]; y++) {
+        for (int x = region[0]; x < region[0] + region[2]; x++) {
+          if (matrix.get(x, y)) {
+            expected = false;
+          }
+        }
+      }
+      assertEquals(expected, matrix.isRegionClear(region[0], region[1], region[2], region[3]));
+    }
+
+    BitMatrix sparse = new BitMatrix(100, 40);
+    sparse.set(64, 20);
+    assertTrue(sparse.isRegionClear(0, 0, 64, 40));
+    assertTrue(sparse.isRegionClear(65, 0, 35, 40));
+    assertFalse(sparse.isRegionClear(10, 20, 60, 1));
+    assertFalse(sparse.isRegionClear(64, 0, 1, 40));
+  }
+
+  @Test
+  public void testDownsample() {
+    for (int width : new int[] {2, 5, 31, 32, 33, 64, 65, 97, 130}) {
+      BitMatrix matrix = randomMatrix(width, 7, width);
+      BitMatrix downsampled = matrix.downsample();
+      assertEquals(width / 2, downsampled.getWidth());
+      assertEquals(3, downsampled.getHeight());
+      BitMatrix expected = new BitMatrix(width / 2, 3);
+      for (int y = 0; y < 3; y++) {
+        for (int x = 0; x < width / 2; x++) {
+          int count = (matrix.get(2 * x, 2 * y) ? 1 : 0) + (matrix.get(2 * x + 1, 2 * y) ? 1 : 0) +
+              (matrix.get(2 * x, 2 * y + 1) ? 1 : 0) + (matrix.get(2 * x + 1, 2 * y + 1) ? 1 : 0);
+          if (count >= 2) {
+            expected.set(x, y);
+          }
+        }
+      }
+      assertEquals(expected, downsampled);
+    }
+  }
+
+  @Test
+  public void testRunLengths() {
+    BitMatrix matrix = BitMatrix.parse("X X X     X     X X X X ", "X ", "  ");
+    int[] runLengths = new int[13];
+    assertEquals(6, matrix.getRowRunLengths(0, 0, 12, runLengths));
+    assertArrayEquals(new int[] {0, 3, 2, 1, 2, 4}, Arrays.copyOf(runLengths, 6));
+    assertEquals(6, matrix.getRowRunLengths(0, 1, 9, runLengths));
+    assertArrayEquals(new int[] {0, 2, 2, 1, 2, 1}, Arrays.copyOf(runLengths, 6));
+
+    BitMatrix random = randomMatrix(77, 66, 4L);
+    runLengths = new int[77];
+    for (int y = 0; y < 66; y++) {
+      int count = random.getRowRunLengths(y, 3, 70, runLengths);
+      int x = 3;
+      for (int i = 0; i < count; i++) {
+        // Runs alternate, starting with unset bits
+        for (int end = x + runLengths[i]; x < end; x++) {
+          assertEquals((i & 1) == 1, random.get(x, y));
+        }
+        if (i > 0) {
+          assertTrue(runLengths[i] > 0);
+        }
+      }
+      assertEquals(70, x);
+    }
+  }
+
+  @Test
+  public void testBandFiller() {
+    BitMatrix expected = randomMatrix(50, 100, 5L);
+    int[] fills = new int[1];
+    BitMatrix lazy = new BitMatrix(50, 100, 32, (top, height, matrix) -> {
+      fills[0]++;
+      for (int y = top; y < top + height; y++) {
+        for (int x = 0; x < 50; x++) {
+          if (expected.get(x, y)) {
+            matrix.set(x, y);
+          }
+        }
+      }
+    });
+    assertFalse(lazy.isRowFilled(40));
+    assertEquals(expected.get(7, 40), lazy.get(7, 40));
+    assertEquals(1, fills[0]);
+    assertTrue(lazy.isRowFilled(32));
+    assertTrue(lazy.isRowFilled(63));
+    assertFalse(lazy.isRowFilled(31));
+    assertFalse(lazy.isRowFilled(64));
+
+    assertEquals(expected.isRegionClear(0, 30, 50, 5), lazy.isRegionClear(0, 30, 50, 5));
+    assertEquals(2, fills[0]);
+    assertFalse(lazy.isRowFilled(99));
+    // The last band is only 4 rows high
+    assertEquals(expected, lazy);
+    assertEquals(4, fills[0]);
+    assertTrue(lazy.isRowFilled(99));
+  }
+
   public static String matrixToString(BitMatrix result) {
     assertEquals(1, result.getHeight());
     StringBuilder builder = new StringBuilder(result.getWidth());
@@ -336,6 +463,19 @@ public final class BitMatrixTestCase extends Assert {
     return result;
   }
 
+  private static BitMatrix randomMatrix(int width, int height, long seed) {
+    Random random = new Random(seed);
+    BitMatrix matrix = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
   private static BitMatrix getInput(int width, int height) {
     BitMatrix result = new BitMatrix(width, height);
     for (int i = 0; i < BIT_MATRIX_POINTS.length; i += 2) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link BitMatrixView} against the copying operations of {@link BitMatrix}.
+ */
+public final class BitMatrixViewTestCase extends Assert {
+
+  private static BitMatrix randomMatrix(int width, int height, long seed) {
+    Random random = new Random(seed);
+    BitMatrix matrix = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
+  private static BitMatrix crop(BitMatrix matrix, int left, int top, int width, int height) {
+    BitMatrix result = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (matrix.get(left + x, top + y)) {
+          result.set(x, y);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void assertSameBits(BitMatrix expected, BitMatrix actual) {
+    // BitMatrix.flip() also flips the padding at the end of each row, so equals() can't be used
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    for (int y = 0; y < expected.getHeight(); y++) {
+      for (int x = 0; x < expected.getWidth(); x++) {
+        assertEquals(expected.get(x, y), actual.get(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testIdentity() {
+    BitMatrix matrix = randomMatrix(37, 21, 1L);
+    BitMatrixView view = new BitMatrixView(matrix);
+    assertSame(matrix, view.toBitMatrix());
+    assertEquals(matrix.getRow(5, null), view.getRow(5, null));
+  }
+
+  @Test
+  public void testRotations() {
+    BitMatrix matrix = randomMatrix(37, 21, 2L);
+    BitMatrixView view = new BitMatrixView(matrix);
+
+    BitMatrix expected = matrix.clone();
+    expected.rotate90();
+    assertEquals(expected, view.rotate90().toBitMatrix());
+    expected.rotate90();
+    assertEquals(expected, view.rotate180().toBitMatrix());
+    assertEquals(expected, view.rotate90().rotate90().toBitMatrix());
+    expected.rotate90();
+    assertEquals(expected, view.rotate270().toBitMatrix());
+    assertEquals(expected, view.rotate180().rotate90().toBitMatrix());
+    assertEquals(matrix, view.rotate270().rotate90().toBitMatrix());
+
+    BitMatrix rotated180 = matrix.clone();
+    rotated180.rotate180();
+    assertEquals(rotated180, view.rotate180().toBitMatrix());
+  }
+
+  @Test
+  public void testInvertAndCrop() {
+    BitMatrix matrix = randomMatrix(50, 40, 3L);
+    BitMatrixView view = new BitMatrixView(matrix);
+
+    BitMatrix flipped = matrix.clone();
+    flipped.flip();
+    assertSameBits(flipped, view.invert().toBitMatrix());
+    assertEquals(matrix, view.invert().invert().toBitMatrix());
+
+    assertEquals(crop(matrix, 5, 7, 30, 20), view.crop(5, 7, 30, 20).toBitMatrix());
+    assertEquals(crop(matrix, 5, 7, 50 - 5, 20).getRow(3, null), view.crop(5, 7, 45, 20).getRow(3, null));
+
+    // Crop a rotated view, and rotate a cropped one
+    BitMatrix rotated = matrix.clone();
+    rotated.rotate90();
+    BitMatrix expected = crop(rotated, 3, 4, 20, 25);
+    assertEquals(expected, view.rotate90().crop(3, 4, 20, 25).toBitMatrix());
+    expected.rotate180();
+    assertEquals(expected, view.rotate90().crop(3, 4, 20, 25).rotate180().toBitMatrix());
+    expected.flip();
+    assertSameBits(expected, view.invert().rotate90().crop(3, 4, 20, 25).rotate180().toBitMatrix());
+  }
+
+  @Test
+  public void testReflectsChanges() {
+    BitMatrix matrix = new BitMatrix(10, 5);
+    BitMatrixView view = new BitMatrixView(matrix).rotate90();
+    assertFalse(view.get(4, 9));
+    matrix.set(0, 4);
+    assertTrue(view.get(4, 9));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCropOutside() {
+    new BitMatrixView(new BitMatrix(10, 5)).rotate90().crop(0, 0, 10, 5);
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.NotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link DefaultGridSampler}.
+ */
+public final class DefaultGridSamplerTestCase extends Assert {
+
+  @Test
+  public void testSampleInsideImage() throws NotFoundException {
+    BitMatrix image = randomImage(600, 500);
+    GridSampler sampler = new DefaultGridSampler();
+    // Widths below, at and above a word, and a Data Matrix 144x144
+    for (int dimension : new int[] {21, 32, 45, 144}) {
+      PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+          0.0f, 0.0f, dimension, 0.0f, dimension, dimension, 0.0f, dimension,
+          23.7f, 31.3f, 541.9f, 52.1f, 498.3f, 463.7f, 41.1f, 437.9f);
+      assertEquals(sampleEachPoint(image, dimension, transform),
+                   sampler.sampleGrid(image, dimension, dimension, transform));
+    }
+  }
+
+  @Test
+  public void testSampleAtBorder() throws NotFoundException {
+    BitMatrix image = randomImage(100, 100);
+    // The first column of modules maps just left of the image, and is nudged onto it
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.0f, 0.0f, 10.0f, 0.0f, 10.0f, 10.0f, 0.0f, 10.0f,
+        -6.0f, 10.0f, 84.0f, 10.0f, 84.0f, 100.0f, -6.0f, 100.0f);
+    BitMatrix bits = new DefaultGridSampler().sampleGrid(image, 10, 10, transform);
+    for (int y = 0; y < 10; y++) {
+      assertEquals(image.get(0, 14 + 9 * y), bits.get(0, y));
+      assertEquals(image.get(79, 14 + 9 * y), bits.get(9, y));
+    }
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testSampleOutsideImage() throws NotFoundException {
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.0f, 0.0f, 10.0f, 0.0f, 10.0f, 10.0f, 0.0f, 10.0f,
+        50.0f, 50.0f, 150.0f, 50.0f, 150.0f, 150.0f, 50.0f, 150.0f);
+    new DefaultGridSampler().sampleGrid(randomImage(100, 100), 10, 10, transform);
+  }
+
+  @Test
+  public void testMajorityVote() throws NotFoundException {
+    // Modules of 8 pixels, sampled at 2, 4 and 6 pixels into the module each way
+    BitMatrix image = new BitMatrix(32, 32);
+    image.setRegion(0, 0, 8, 8);
+    setSamples(image, 1, 1, 5);
+    setSamples(image, 2, 1, 4);
+    setSamples(image, 3, 3, 1);
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.0f, 0.0f, 4.0f, 0.0f, 4.0f, 4.0f, 0.0f, 4.0f,
+        0.0f, 0.0f, 32.0f, 0.0f, 32.0f, 32.0f, 0.0f, 32.0f);
+    GridSampler sampler = new DefaultGridSampler();
+    BitMatrix uncertainModules = new BitMatrix(4, 4);
+    BitMatrix bits = sampler.sampleGrid(image, 4, 4, transform, uncertainModules);
+    assertEquals(BitMatrix.parse("X . . . \n. X . . \n. . . . \n. . . . \n", "X ", ". "), bits);
+    assertEquals(BitMatrix.parse(". . . . \n. X X . \n. . . . \n. . . . \n", "X ", ". "), uncertainModules);
+    // A single sample is fooled by the speck in the center
+    assertTrue(sampler.sampleGrid(image, 4, 4, transform).get(3, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMajorityVoteDimensions() throws NotFoundException {
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.0f, 0.0f, 4.0f, 0.0f, 4.0f, 4.0f, 0.0f, 4.0f,
+        0.0f, 0.0f, 32.0f, 0.0f, 32.0f, 32.0f, 0.0f, 32.0f);
+    new DefaultGridSampler().sampleGrid(new BitMatrix(32, 32), 4, 4, transform, new BitMatrix(3, 4));
+  }
+
+  /**
+   * Sets the pixels under the first {@code count} of the 9 sample points of a module, starting
+   * with the center.
+   */
+  private static void setSamples(BitMatrix image, int x, int y, int count) {
+    int[][] offsets = {{4, 4}, {2, 2}, {6, 2}, {2, 6}, {6, 6}, {4, 2}, {2, 4}, {6, 4}, {4, 6}};
+    for (int i = 0; i < count; i++) {
+      image.set(8 * x + offsets[i][0], 8 * y + offsets[i][1]);
+    }
+  }
+
+  private static BitMatrix sampleEachPoint(BitMatrix image, int dimension, PerspectiveTransform transform) {
+    BitMatrix bits = new BitMatrix(dimension, dimension);
+    for (int y = 0; y < dimension; y++) {
+      for (int x = 0; x < dimension; x++) {
+        float[] point = {x + 0.5f, y + 0.5f};
+        transform.transformPoints(point);
+        if (image.get((int) point[0], (int) point[1])) {
+          bits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+  private static BitMatrix randomImage(int width, int height) {
+    Random random = new Random(0xCAFE);
+    BitMatrix image = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          image.set(x, y);
+        }
+      }
+    }
+    return image;
+  }
+
+}
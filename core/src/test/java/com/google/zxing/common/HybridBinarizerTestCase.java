@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.datamatrix.DataMatrixReader;
+import com.google.zxing.datamatrix.DataMatrixWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link HybridBinarizer}, in particular the matrix from
+ * {@link HybridBinarizer#getLazyBlackMatrix()}.
+ */
+public final class HybridBinarizerTestCase extends Assert {
+
+  private static LuminanceSource createSource(int width, int height, long seed) {
+    Random random = new Random(seed);
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int value;
+        if (((y / 45) & 1) == 0) {
+          // Bands of noisy modules, with enough contrast for a local average
+          value = ((x / 3 + y / 5) & 1) == 0 ? 30 + random.nextInt(40) : 170 + random.nextInt(60);
+        } else {
+          // Nearly flat areas, whose black point depends on the blocks above
+          value = (x / 50) * 20 + random.nextInt(10);
+        }
+        luminances[y * width + x] = (byte) value;
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  @Test
+  public void testLazySameAsFull() throws ReaderException {
+    int[][] sizes = {{40, 40}, {100, 130}, {257, 300}, {64, 513}};
+    for (int[] size : sizes) {
+      LuminanceSource source = createSource(size[0], size[1], size[1]);
+      BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+      HybridBinarizer binarizer = new HybridBinarizer(source);
+      BitMatrix lazy = binarizer.getLazyBlackMatrix();
+      // Fill in the bands bottom up, so each needs black points not computed yet
+      BitArray row = null;
+      for (int y = size[1] - 1; y >= 0; y--) {
+        row = lazy.getRow(y, row);
+        assertEquals(expected.getRow(y, null), row);
+      }
+      assertSame(lazy, binarizer.getBlackMatrix());
+      assertEquals(expected, lazy);
+    }
+  }
+
+  @Test
+  public void testDataMatrixOnlyReadsItsRows() throws ReaderException {
+    BitMatrix code = new DataMatrixWriter().encode("Hello, lazy rows", BarcodeFormat.DATA_MATRIX, 0, 0);
+    int scale = 4;
+    int width = 200;
+    int height = 1000;
+    int left = (width - code.getWidth() * scale) / 2;
+    int top = (height - code.getHeight() * scale) / 2;
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int codeX = (x - left) / scale;
+        int codeY = (y - top) / scale;
+        boolean black = x >= left && y >= top && codeX < code.getWidth() && codeY < code.getHeight() &&
+            code.get(codeX, codeY);
+        luminances[y * width + x] = (byte) (black ? 20 : 220);
+      }
+    }
+    LuminanceSource source =
+        new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+
+    assertEquals("Hello, lazy rows", new DataMatrixReader().decode(bitmap).getText());
+    BitMatrix matrix = bitmap.getLazyBlackMatrix();
+    assertTrue(matrix.isRowFilled(height / 2));
+    assertFalse(matrix.isRowFilled(0));
+    assertFalse(matrix.isRowFilled(height - 1));
+    assertEquals(0, bitmap.getDecodeContext().getBlackMatrixComputations());
+
+    assertSame(matrix, bitmap.getBlackMatrix());
+    assertTrue(matrix.isRowFilled(0));
+    assertEquals(new HybridBinarizer(source).getBlackMatrix(), matrix);
+  }
+
+}
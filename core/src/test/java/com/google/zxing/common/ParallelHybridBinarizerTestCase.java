@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests {@link ParallelHybridBinarizer} against {@link HybridBinarizer}.
+ */
+public final class ParallelHybridBinarizerTestCase extends Assert {
+
+  private static LuminanceSource createSource(int width, int height, long seed) {
+    Random random = new Random(seed);
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int value;
+        if (((x / 37) & 1) == 0) {
+          // Stripes of noisy modules, with enough contrast for a local average
+          value = ((x / 3 + y / 5) & 1) == 0 ? 30 + random.nextInt(40) : 170 + random.nextInt(60);
+        } else {
+          // Nearly flat areas, whose black point depends on their neighbors
+          value = (y / 50) * 20 + random.nextInt(10);
+        }
+        luminances[y * width + x] = (byte) value;
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  @Test
+  public void testSameAsHybridBinarizer() throws NotFoundException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      int[][] sizes = {{40, 40}, {301, 257}, {512, 512}, {640, 997}, {1003, 1203}};
+      for (int[] size : sizes) {
+        LuminanceSource source = createSource(size[0], size[1], size[0]);
+        BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+        // Threshold 0 forces the parallel path even for small images
+        assertEquals(expected, new ParallelHybridBinarizer(source, pool, 0).getBlackMatrix());
+        assertEquals(expected, new ParallelHybridBinarizer(source).getBlackMatrix());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testCreateBinarizer() throws NotFoundException {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      LuminanceSource source = createSource(300, 200, 1L);
+      ParallelHybridBinarizer binarizer = new ParallelHybridBinarizer(source, pool, 0);
+      LuminanceSource cropped = source.crop(10, 20, 250, 170);
+      assertEquals(new HybridBinarizer(cropped).getBlackMatrix(),
+                   binarizer.createBinarizer(cropped).getBlackMatrix());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
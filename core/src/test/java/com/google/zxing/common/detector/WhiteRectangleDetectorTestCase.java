@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common.detector;
+
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link WhiteRectangleDetector}.
+ */
+public final class WhiteRectangleDetectorTestCase extends Assert {
+
+  @Test
+  public void testContainsBlackPointOffImage() {
+    BitMatrix image = new BitMatrix(40, 30);
+    image.set(0, 5);
+    image.set(39, 29);
+    WhiteRectangleDetectorProduct product = new WhiteRectangleDetectorProduct(image);
+
+    assertTrue(product.containsBlackPoint(-5, 3, 5, true));
+    assertFalse(product.containsBlackPoint(-5, -1, 5, true));
+    assertTrue(product.containsBlackPoint(30, 45, 29, true));
+    assertFalse(product.containsBlackPoint(40, 45, 29, true));
+    assertFalse(product.containsBlackPoint(0, 39, 30, true));
+    assertFalse(product.containsBlackPoint(0, 39, -1, true));
+
+    assertTrue(product.containsBlackPoint(-4, 100, 0, false));
+    assertTrue(product.containsBlackPoint(29, 31, 39, false));
+    assertFalse(product.containsBlackPoint(0, 29, 40, false));
+    assertFalse(product.containsBlackPoint(6, 2, 0, false));
+  }
+
+  @Test
+  public void testDetect() throws NotFoundException {
+    BitMatrix image = new BitMatrix(60, 60);
+    image.setRegion(20, 20, 20, 20);
+    ResultPoint[] points = new WhiteRectangleDetector(image).detect();
+    assertEquals(4, points.length);
+    for (ResultPoint point : points) {
+      assertTrue(point.getX() >= 19.0f && point.getX() <= 40.0f);
+      assertTrue(point.getY() >= 19.0f && point.getY() <= 40.0f);
+    }
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testRectangleTouchingBorder() throws NotFoundException {
+    BitMatrix image = new BitMatrix(60, 60);
+    // Reaches the top and right edges, so there is no white border around it
+    image.setRegion(20, 0, 40, 35);
+    new WhiteRectangleDetector(image).detect();
+  }
+
+}
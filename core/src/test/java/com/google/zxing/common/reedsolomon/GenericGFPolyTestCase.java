@@ -47,4 +47,20 @@ public final class GenericGFPolyTestCase extends Assert {
     assertEquals(3, FIELD.buildMonomial(0, 3).evaluateAt(0));
   }
 
+  @Test
+  public void testMultiply() {
+    for (GenericGF field : new GenericGF[] {
+        GenericGF.QR_CODE_FIELD_256, GenericGF.DATA_MATRIX_FIELD_256, GenericGF.AZTEC_DATA_6,
+        GenericGF.AZTEC_PARAM, GenericGF.AZTEC_DATA_10}) {
+      int size = field.getSize();
+      for (int a = 0; a < size; a++) {
+        assertEquals(0, field.multiply(a, 0));
+        assertEquals(0, field.multiply(0, a));
+        for (int b = 1; a > 0 && b < size; b++) {
+          assertEquals(field.exp((field.log(a) + field.log(b)) % (size - 1)), field.multiply(a, b));
+        }
+      }
+    }
+  }
+
 }
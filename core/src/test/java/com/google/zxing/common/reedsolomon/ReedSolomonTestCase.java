@@ -19,9 +19,15 @@ package com.google.zxing.common.reedsolomon;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author Rustam Abdullaev
@@ -412,6 +418,293 @@ public final class ReedSolomonTestCase extends Assert {
     testEncodeDecodeRandom(GenericGF.AZTEC_DATA_12, 3072, 1023);
   }
 
+  @Test
+  public void testMatchesGenericGFDecode() {
+    // One workspace, so its scratch arrays are reused across block sizes and fields
+    ReedSolomonDecoder.Workspace workspace = new ReedSolomonDecoder.Workspace();
+    for (ReedSolomonDecoder.Algorithm algorithm : ReedSolomonDecoder.Algorithm.values()) {
+      for (GenericGF field : new GenericGF[] {
+          GenericGF.QR_CODE_FIELD_256, GenericGF.DATA_MATRIX_FIELD_256, GenericGF.AZTEC_DATA_6,
+          GenericGF.AZTEC_PARAM, GenericGF.AZTEC_DATA_10}) {
+        testMatchesGenericGFDecode(field, algorithm, workspace);
+      }
+    }
+  }
+
+  private static void testMatchesGenericGFDecode(GenericGF field,
+                                                 ReedSolomonDecoder.Algorithm algorithm,
+                                                 ReedSolomonDecoder.Workspace workspace) {
+    ReedSolomonDecoder decoder = new ReedSolomonDecoder(field, algorithm);
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    Random random = getPseudoRandom();
+    for (int iteration = 0; iteration < 200; iteration++) {
+      int ecSize = 2 + random.nextInt(Math.min(30, field.getSize() / 2 - 2));
+      int dataSize = 1 + random.nextInt(Math.min(60, field.getSize() - 1 - ecSize));
+      int[] message = new int[dataSize + ecSize];
+      for (int k = 0; k < dataSize; k++) {
+        message[k] = random.nextInt(field.getSize());
+      }
+      int numErrors = random.nextInt(ecSize + 1);
+      // Otherwise leave random EC words, which are rarely correctable
+      boolean encoded = iteration % 10 != 0;
+      if (encoded) {
+        encoder.encode(message, ecSize);
+      }
+      corrupt(message, numErrors, random, field.getSize());
+      int[] expected = message.clone();
+      boolean expectedFailure = false;
+      try {
+        field.decode(expected, ecSize);
+      } catch (ReedSolomonException e) {
+        expectedFailure = true;
+      }
+      boolean failure = false;
+      try {
+        decoder.decode(message, ecSize, null, workspace);
+      } catch (ReedSolomonException e) {
+        failure = true;
+      }
+      String label = algorithm + " in " + field + " iteration " + iteration;
+      if (encoded && 2 * numErrors <= ecSize) {
+        assertFalse(label, expectedFailure);
+        assertFalse(label, failure);
+        assertArrayEquals(label, expected, message);
+      } else if (algorithm == ReedSolomonDecoder.Algorithm.EUCLIDEAN) {
+        // Beyond its capacity, Berlekamp-Massey may give up where the Euclidean algorithm miscorrects
+        assertEquals(label, expectedFailure, failure);
+        if (!failure) {
+          assertArrayEquals(label, expected, message);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDecodeBlocks() throws ReedSolomonException {
+    GenericGF field = GenericGF.QR_CODE_FIELD_256;
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    Random random = getPseudoRandom();
+    // Two groups of blocks whose lengths differ by one, as in a QR Code symbol
+    int[][] expected = new int[6][];
+    for (int j = 0; j < expected.length; j++) {
+      int[] block = new int[j < 3 ? 45 : 46];
+      for (int i = 0; i < block.length - 22; i++) {
+        block[i] = random.nextInt(field.getSize());
+      }
+      encoder.encode(block, 22);
+      expected[j] = block;
+    }
+    for (ReedSolomonDecoder.Algorithm algorithm : ReedSolomonDecoder.Algorithm.values()) {
+      ReedSolomonDecoder decoder = new ReedSolomonDecoder(field, algorithm);
+      int[][] blocks = new int[expected.length][];
+      for (int j = 0; j < blocks.length; j++) {
+        blocks[j] = expected[j].clone();
+      }
+      assertEquals(0, decoder.decodeBlocks(blocks, 22));
+      corrupt(blocks[1], 11, random, field.getSize());
+      corrupt(blocks[4], 3, random, field.getSize());
+      assertEquals(2, decoder.decodeBlocks(blocks, 22));
+      for (int j = 0; j < blocks.length; j++) {
+        assertArrayEquals(algorithm + " block " + j, expected[j], blocks[j]);
+      }
+      corrupt(blocks[2], 12, random, field.getSize());
+      try {
+        decoder.decodeBlocks(blocks, 22);
+        fail(algorithm + " corrected 12 errors with 22 EC codewords");
+      } catch (ReedSolomonException e) {
+        // continue
+      }
+    }
+  }
+
+  @Test
+  public void testErasures() throws ReedSolomonException {
+    for (ReedSolomonDecoder.Algorithm algorithm : ReedSolomonDecoder.Algorithm.values()) {
+      for (GenericGF field : new GenericGF[] {
+          GenericGF.QR_CODE_FIELD_256, GenericGF.DATA_MATRIX_FIELD_256, GenericGF.AZTEC_DATA_6,
+          GenericGF.AZTEC_DATA_10}) {
+        testErasures(field, algorithm);
+      }
+    }
+  }
+
+  private static void testErasures(GenericGF field, ReedSolomonDecoder.Algorithm algorithm)
+      throws ReedSolomonException {
+    ReedSolomonDecoder decoder = new ReedSolomonDecoder(field, algorithm);
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    Random random = getPseudoRandom();
+    for (int iteration = 0; iteration < 100; iteration++) {
+      int ecSize = 2 + random.nextInt(Math.min(30, field.getSize() / 2 - 2));
+      int dataSize = 1 + random.nextInt(Math.min(60, field.getSize() - 1 - ecSize));
+      int[] expected = new int[dataSize + ecSize];
+      for (int k = 0; k < dataSize; k++) {
+        expected[k] = random.nextInt(field.getSize());
+      }
+      encoder.encode(expected, ecSize);
+      // Any mix of errors and erasures with 2 * errors + erasures <= ecSize; some erased
+      // codewords are left intact, and up to all EC codewords' worth may be erased
+      int numErasures = random.nextInt(Math.min(ecSize, expected.length) + 1);
+      int numErrors = random.nextInt((ecSize - numErasures) / 2 + 1);
+      int[] positions = randomPositions(random, expected.length, numErasures + numErrors);
+      int[] message = expected.clone();
+      for (int position : positions) {
+        if (random.nextInt(4) != 0) {
+          message[position] ^= 1 + random.nextInt(field.getSize() - 1);
+        }
+      }
+      int[] erasures = Arrays.copyOf(positions, numErasures);
+      String label = algorithm + " in " + field + " iteration " + iteration + ": " + numErasures +
+          " erasures, " + numErrors + " errors of " + ecSize;
+      try {
+        decoder.decode(message, ecSize, erasures);
+      } catch (ReedSolomonException e) {
+        fail(label + ": " + e);
+      }
+      assertArrayEquals(label, expected, message);
+    }
+  }
+
+  @Test
+  public void testDecodeBlocksFallsBackWithoutErasures() throws ReedSolomonException {
+    GenericGF field = GenericGF.DATA_MATRIX_FIELD_256;
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    Random random = getPseudoRandom();
+    int[] expected = new int[40];
+    for (int i = 0; i < 30; i++) {
+      expected[i] = random.nextInt(field.getSize());
+    }
+    encoder.encode(expected, 10);
+    for (ReedSolomonDecoder.Algorithm algorithm : ReedSolomonDecoder.Algorithm.values()) {
+      ReedSolomonDecoder decoder = new ReedSolomonDecoder(field, algorithm);
+      // 4 errors and 4 erasures of intact codewords are too many together, but not alone
+      int[][] blocks = {expected.clone()};
+      for (int position : new int[] {3, 14, 25, 36}) {
+        blocks[0][position] ^= 0x55;
+      }
+      int[][] erasures = {{0, 1, 2, 4}};
+      try {
+        decoder.decode(blocks[0].clone(), 10, erasures[0]);
+        fail(algorithm + " corrected 4 errors and 4 erasures with 10 EC codewords");
+      } catch (ReedSolomonException e) {
+        // continue
+      }
+      assertEquals(1, decoder.decodeBlocks(blocks, 10, erasures));
+      assertArrayEquals(algorithm.toString(), expected, blocks[0]);
+
+      // Only erasures can be corrected beyond 5 errors
+      int[] message = expected.clone();
+      int[] allErasures = new int[10];
+      for (int i = 0; i < 10; i++) {
+        allErasures[i] = 3 * i;
+        message[3 * i] ^= 1 + i;
+      }
+      decoder.decode(message, 10, allErasures);
+      assertArrayEquals(algorithm.toString(), expected, message);
+    }
+  }
+
+  @Test
+  public void testSharedEncoder() throws Exception {
+    // A new field, so that the threads race to build its generators
+    GenericGF field = new GenericGF(0x011D, 256, 0);
+    ReedSolomonEncoder shared = new ReedSolomonEncoder(field);
+    ReedSolomonEncoder reference = new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256);
+    int numThreads = 4;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        long seed = t;
+        results.add(executor.submit(() -> {
+          start.await();
+          Random random = new Random(seed);
+          for (int i = 0; i < 200; i++) {
+            int numEc = 1 + random.nextInt(68);
+            int[] message = new int[1 + random.nextInt(100) + numEc];
+            for (int j = 0; j < message.length - numEc; j++) {
+              message[j] = random.nextInt(256);
+            }
+            int[] expected = message.clone();
+            reference.encode(expected, numEc);
+            shared.encode(message, numEc);
+            if (!Arrays.equals(expected, message)) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      start.countDown();
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testSharedDecoder() throws Exception {
+    GenericGF field = GenericGF.DATA_MATRIX_FIELD_256;
+    ReedSolomonDecoder shared = new ReedSolomonDecoder(field);
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    int numThreads = 4;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        long seed = t;
+        // Half the threads reuse a workspace of their own, the others let each call make one
+        ReedSolomonDecoder.Workspace workspace = (t & 0x01) == 0 ? new ReedSolomonDecoder.Workspace() : null;
+        results.add(executor.submit(() -> {
+          start.await();
+          Random random = new Random(seed);
+          for (int i = 0; i < 500; i++) {
+            int numEc = 2 * (5 + random.nextInt(30));
+            int[] expected = new int[1 + random.nextInt(100) + numEc];
+            for (int j = 0; j < expected.length - numEc; j++) {
+              expected[j] = random.nextInt(256);
+            }
+            encoder.encode(expected, numEc);
+            int[] message = expected.clone();
+            corrupt(message, numEc / 2, random, 256);
+            if (workspace == null) {
+              shared.decode(message, numEc);
+            } else {
+              shared.decode(message, numEc, null, workspace);
+            }
+            if (!Arrays.equals(expected, message)) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      start.countDown();
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static int[] randomPositions(Random random, int length, int count) {
+    BitSet chosen = new BitSet(length);
+    int[] positions = new int[count];
+    for (int i = 0; i < count; i++) {
+      int position;
+      do {
+        position = random.nextInt(length);
+      } while (chosen.get(position));
+      chosen.set(position);
+      positions[i] = position;
+    }
+    return positions;
+  }
+
   public static void corrupt(int[] received, int howMany, Random random, int max) {
     BitSet corrupted = new BitSet(received.length);
     for (int j = 0; j < howMany; j++) {
@@ -464,10 +757,34 @@ public final class ReedSolomonTestCase extends Assert {
     encoder.encode(message, ecWords.length);
     assertDataEquals("Encode in " + field + " (" + dataWords.length + ',' + ecWords.length + ") failed",
                      messageExpected, message);
+
+    // Into a separate array, at offsets, over stale contents
+    int[] ec = new int[ecWords.length + 3];
+    Arrays.fill(ec, 1);
+    encoder.encode(message, 0, dataWords.length, ec, 2, ecWords.length);
+    assertDataEquals("Encode into array failed", ecWords, Arrays.copyOfRange(ec, 2, 2 + ecWords.length));
+    assertEquals(1, ec[1]);
+    assertEquals(1, ec[ec.length - 1]);
+    if (field.getSize() <= 256) {
+      byte[] dataBytes = new byte[dataWords.length];
+      for (int i = 0; i < dataWords.length; i++) {
+        dataBytes[i] = (byte) dataWords[i];
+      }
+      byte[] ecBytes = new byte[ecWords.length];
+      encoder.encode(dataBytes, 0, dataBytes.length, ecBytes, 0, ecBytes.length);
+      for (int i = 0; i < ecWords.length; i++) {
+        assertEquals(ecWords[i], ecBytes[i] & 0xFF);
+      }
+    }
   }
 
   private static void testDecoder(GenericGF field, int[] dataWords, int[] ecWords) {
-    ReedSolomonDecoder decoder = new ReedSolomonDecoder(field);
+    for (ReedSolomonDecoder.Algorithm algorithm : ReedSolomonDecoder.Algorithm.values()) {
+      testDecoder(new ReedSolomonDecoder(field, algorithm), field, dataWords, ecWords);
+    }
+  }
+
+  private static void testDecoder(ReedSolomonDecoder decoder, GenericGF field, int[] dataWords, int[] ecWords) {
     int[] message = new int[dataWords.length + ecWords.length];
     int maxErrors = ecWords.length / 2;
     Random random = getPseudoRandom();
@@ -485,14 +802,16 @@ public final class ReedSolomonTestCase extends Assert {
           decoder.decode(message, ecWords.length);
         } catch (ReedSolomonException e) {
           // fail only if maxErrors exceeded
-          assertTrue("Decode in " + field + " (" + dataWords.length + ',' + ecWords.length + ") failed at " +
+          assertTrue(decoder.getAlgorithm() + " decode in " + field +
+                         " (" + dataWords.length + ',' + ecWords.length + ") failed at " +
                          i + " errors: " + e,
                      i > maxErrors);
           // else stop
           break;
         }
         if (i < maxErrors) {
-          assertDataEquals("Decode in " + field + " (" + dataWords.length + ',' + ecWords.length + ") failed at " +
+          assertDataEquals(decoder.getAlgorithm() + " decode in " + field +
+                           " (" + dataWords.length + ',' + ecWords.length + ") failed at " +
                            i + " errors",
                            dataWords,
                            message);
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.datamatrix.decoder;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecoderResult;
+import com.google.zxing.datamatrix.DataMatrixWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link Decoder} with codewords flagged as erasures.
+ */
+public final class DecoderTestCase extends Assert {
+
+  private static int countUncertainCodewords(BitMatrix bits, BitMatrix uncertain) throws Exception {
+    BitMatrixParser parser = new BitMatrixParser(bits, uncertain);
+    parser.readCodewords();
+    int count = 0;
+    for (byte flag : parser.getUncertainCodewords()) {
+      count += flag;
+    }
+    return count;
+  }
+
+  @Test
+  public void testUncertainModules() throws Exception {
+    // A 14x14 symbol: 8 data and 10 EC codewords, filling its 12x12 data region
+    BitMatrix bits = new DataMatrixWriter().encode("ERASURE", BarcodeFormat.DATA_MATRIX, 0, 0);
+    assertEquals(14, bits.getWidth());
+
+    // Damage modules until 8 codewords are wrong
+    BitMatrix uncertain = new BitMatrix(bits.getWidth(), bits.getHeight());
+    Random random = new Random(3L);
+    while (countUncertainCodewords(bits, uncertain) < 8) {
+      int x = 1 + random.nextInt(12);
+      int y = 1 + random.nextInt(12);
+      if (!uncertain.get(x, y)) {
+        // May damage a codeword twice, which is still 1 wrong codeword
+        uncertain.set(x, y);
+        bits.flip(x, y);
+      }
+    }
+
+    // 8 errors are too many for 10 EC codewords, but 8 erasures are not
+    try {
+      new Decoder().decode(bits.clone());
+      fail("Corrected 8 errors with 10 EC codewords");
+    } catch (ChecksumException ce) {
+      // continue
+    }
+    DecoderResult result = new Decoder().decode(bits, uncertain);
+    assertEquals("ERASURE", result.getText());
+    assertEquals(Integer.valueOf(1), result.getBlocksCorrected());
+  }
+
+}
@@ -525,6 +525,41 @@ public final class HighLevelEncodeTestCase extends Assert {
     assertEquals(86, sizes[1]);
   }
 
+  @Test
+  public void testLongC40Edge() {
+    // Alternating upper and lower case keeps a single C40 edge open for the whole input
+    String visualized = visualize(MinimalEncoder.encodeHighLevel("AAaAaAaAaAaAaAaAaAa"));
+    assertEquals("66 66 98 66 98 66 98 66 98 66 98 66 98 66 98 66 98 66 98 129 223 118", visualized);
+    visualized = visualize(MinimalEncoder.encodeHighLevel("AAaAaAaAaAaAaAaAaAa1234"));
+    assertEquals("66 66 98 66 98 66 98 66 98 66 98 66 98 66 98 66 98 66 98 142 164 129", visualized);
+  }
+
+  @Test
+  public void testMetricsCallback() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.append("AaAaAaAa0123456789").append(i).append("\u00E9\u00E9\u00E9");
+    }
+    String msg = builder.toString();
+    final int[] metrics = new int[3];
+    CharSequence encoded = MinimalEncoder.encodeHighLevel(msg, null, -1, SymbolShapeHint.FORCE_NONE,
+        new MinimalEncoder.MetricsCallback() {
+          @Override
+          public void encoded(int inputLength, int peakEdgeCount, long encodingNanos) {
+            metrics[0]++;
+            metrics[1] = inputLength;
+            metrics[2] = peakEdgeCount;
+            assertTrue(encodingNanos >= 0);
+          }
+        });
+    assertEquals(visualize(MinimalEncoder.encodeHighLevel(msg)), visualize(encoded));
+    assertEquals(1, metrics[0]);
+    assertEquals(msg.length(), metrics[1]);
+    // Only edges ending at positions ahead of the search are kept
+    assertTrue(metrics[2] > 0);
+    assertTrue(metrics[2] < 100);
+  }
+
 
   private static void encodeHighLevel(String msg, int[] sizes) {
     sizes[0] = HighLevelEncoder.encodeHighLevel(msg).length();
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests {@link RowRuns} against the {@link BitArray} it encodes.
+ */
+public final class RowRunsTestCase extends Assert {
+
+  private static BitArray randomRow(Random random, int size) {
+    BitArray row = new BitArray(size);
+    boolean black = random.nextBoolean();
+    for (int i = 0; i < size; i++) {
+      // Runs of 1 to 8 pixels, like a barcode
+      if (random.nextInt(4) == 0) {
+        black = !black;
+      }
+      if (black) {
+        row.set(i);
+      }
+    }
+    return row;
+  }
+
+  private static void assertSameRow(BitArray row, RowRuns runs) {
+    int size = row.getSize();
+    assertEquals(size, runs.getSize());
+    int total = 0;
+    for (int run = 0; run < runs.getRunCount(); run++) {
+      assertTrue(run == 0 || runs.getRunLength(run) > 0);
+      total += runs.getRunLength(run);
+    }
+    assertEquals(size, total);
+    for (int i = 0; i < size; i++) {
+      assertEquals(row.get(i), runs.get(i));
+      assertEquals(row.getNextSet(i), runs.getNextSet(i));
+      assertEquals(row.getNextUnset(i), runs.getNextUnset(i));
+    }
+  }
+
+  @Test
+  public void testMatchesRow() {
+    Random random = new Random(1L);
+    for (int size : new int[] {1, 31, 32, 33, 100, 257}) {
+      for (int i = 0; i < 10; i++) {
+        BitArray row = randomRow(random, size);
+        RowRuns runs = new RowRuns(row);
+        assertSameRow(row, runs);
+        assertEquals(row, runs.toBitArray());
+        for (int start = 0; start < size; start += 7) {
+          for (int end = start; end <= size; end += 5) {
+            assertEquals(row.isRange(start, end, true), runs.isRange(start, end, true));
+            assertEquals(row.isRange(start, end, false), runs.isRange(start, end, false));
+          }
+        }
+
+        row.reverse();
+        assertSameRow(row, runs.reverse());
+        assertEquals(row, runs.reverse().toBitArray());
+        assertEquals(runs.toString(), runs.reverse().reverse().toString());
+      }
+    }
+  }
+
+  @Test
+  public void testEdgeRows() {
+    BitArray row = new BitArray(40);
+    assertEquals(1, new RowRuns(row).getRunCount());
+    assertSameRow(row, new RowRuns(row).reverse());
+    row.setRange(0, 40);
+    RowRuns runs = new RowRuns(row);
+    assertEquals(2, runs.getRunCount());
+    assertEquals(0, runs.getRunLength(0));
+    assertSameRow(row, runs);
+    assertSameRow(row, runs.reverse());
+    assertEquals(row, runs.toBitArray());
+  }
+
+  @Test
+  public void testRecordPattern() {
+    Random random = new Random(2L);
+    BitArray row = randomRow(random, 300);
+    RowRuns runs = new RowRuns(row);
+    for (int numCounters : new int[] {1, 4, 9}) {
+      int[] expected = new int[numCounters];
+      int[] actual = new int[numCounters];
+      for (int start = 0; start <= 300; start++) {
+        boolean found;
+        try {
+          OneDReader.recordPattern(row, start, expected);
+          found = true;
+        } catch (NotFoundException nfe) {
+          found = false;
+        }
+        try {
+          OneDReader.recordPattern(runs, start, actual);
+          assertTrue(found);
+          assertArrayEquals(expected, actual);
+        } catch (NotFoundException nfe) {
+          assertFalse("start " + start + ": " + Arrays.toString(expected), found);
+        }
+      }
+    }
+  }
+
+}
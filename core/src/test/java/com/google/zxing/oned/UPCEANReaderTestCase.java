@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link UPCEANReader}.
+ */
+public final class UPCEANReaderTestCase extends Assert {
+
+  /**
+   * Only implements the {@link BitArray} version of decodeMiddle, as subclasses written before
+   * {@link RowRuns} do.
+   */
+  private static final class BitArrayEAN13Reader extends UPCEANReader {
+
+    private final EAN13Reader delegate = new EAN13Reader();
+    private int decodeMiddleCalls;
+
+    @Override
+    protected int decodeMiddle(BitArray row, int[] startRange, StringBuilder resultString)
+        throws NotFoundException {
+      decodeMiddleCalls++;
+      return delegate.decodeMiddle(row, startRange, resultString);
+    }
+
+    @Override
+    BarcodeFormat getBarcodeFormat() {
+      return BarcodeFormat.EAN_13;
+    }
+  }
+
+  @Test
+  public void testBitArrayDecodeMiddle() throws ReaderException {
+    BitMatrix matrix = new EAN13Writer().encode("5901234123457", BarcodeFormat.EAN_13, 0, 0);
+    BitArray row = matrix.getRow(0, null);
+    BitArrayEAN13Reader reader = new BitArrayEAN13Reader();
+    Result result = reader.decodeRow(0, row, null);
+    assertEquals("5901234123457", result.getText());
+    assertEquals(BarcodeFormat.EAN_13, result.getBarcodeFormat());
+    assertEquals(1, reader.decodeMiddleCalls);
+  }
+
+}
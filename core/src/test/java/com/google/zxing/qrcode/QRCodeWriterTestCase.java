@@ -22,6 +22,8 @@ import com.google.zxing.Writer;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -124,6 +126,35 @@ public final class QRCodeWriterTestCase extends Assert {
     assertEquals(goldenResult, generatedResult);
   }
 
+  @Test
+  public void testRenderScaled() throws WriterException {
+    String contents = "http://www.google.com/";
+    ByteMatrix modules = Encoder.encode(contents, ErrorCorrectionLevel.L).getMatrix();
+    int[][] sizes = {{0, 0, 4}, {99, 99, 4}, {256, 256, 0}, {500, 100, 4}, {100, 333, 1}, {1000, 1000, 10}};
+    for (int[] size : sizes) {
+      Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+      hints.put(EncodeHintType.MARGIN, size[2]);
+      BitMatrix actual = new QRCodeWriter().encode(contents, BarcodeFormat.QR_CODE, size[0], size[1], hints);
+
+      // One region per dark module, as renderResult used to do
+      int qrWidth = modules.getWidth() + 2 * size[2];
+      int outputWidth = Math.max(size[0], qrWidth);
+      int outputHeight = Math.max(size[1], qrWidth);
+      int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrWidth);
+      int leftPadding = (outputWidth - modules.getWidth() * multiple) / 2;
+      int topPadding = (outputHeight - modules.getHeight() * multiple) / 2;
+      BitMatrix expected = new BitMatrix(outputWidth, outputHeight);
+      for (int y = 0; y < modules.getHeight(); y++) {
+        for (int x = 0; x < modules.getWidth(); x++) {
+          if (modules.get(x, y) == 1) {
+            expected.setRegion(leftPadding + x * multiple, topPadding + y * multiple, multiple, multiple);
+          }
+        }
+      }
+      assertEquals(expected, actual);
+    }
+  }
+
   // Golden images are generated with "qrcode_sample.cc". The images are checked with both eye balls
   // and cell phones. We expect pixel-perfect results, because the error correction level is known,
   // and the pixel dimensions matches exactly. 
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link CodewordPlacement}.
+ */
+public final class CodewordPlacementTestCase extends Assert {
+
+  @Test
+  public void testReadCodewords() {
+    Random random = new Random(0xC0DE);
+    for (int number = 1; number <= 40; number++) {
+      Version version = Version.getVersionForNumber(number);
+      BitMatrix bits = randomMatrix(random, version.getDimensionForVersion());
+      BitMatrix uncertainModules = randomMatrix(random, version.getDimensionForVersion());
+      CodewordPlacement placement = version.getCodewordPlacement();
+      for (DataMask dataMask : DataMask.values()) {
+        BitMatrix unmasked = bits.clone();
+        dataMask.unmaskBitMatrix(unmasked, unmasked.getHeight());
+        assertArrayEquals(walkCodewords(version, unmasked), placement.readCodewords(bits, dataMask));
+      }
+      byte[] uncertainCodewords = placement.readUncertainCodewords(uncertainModules);
+      byte[] expected = walkCodewords(version, uncertainModules);
+      for (int i = 0; i < expected.length; i++) {
+        // Reading uncertain modules as bits, a codeword is uncertain if any of them is set
+        assertEquals(expected[i] == 0 ? 0 : 1, uncertainCodewords[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testShared() {
+    Version version = Version.getVersionForNumber(7);
+    assertSame(version.getCodewordPlacement(), version.getCodewordPlacement());
+  }
+
+  /**
+   * Reads codewords by walking the modules in zig-zag order, skipping the function pattern.
+   */
+  private static byte[] walkCodewords(Version version, BitMatrix bits) {
+    int dimension = version.getDimensionForVersion();
+    BitMatrix functionPattern = version.buildFunctionPattern();
+    byte[] result = new byte[version.getTotalCodewords()];
+    int resultOffset = 0;
+    int currentByte = 0;
+    int bitsRead = 0;
+    boolean readingUp = true;
+    for (int j = dimension - 1; j > 0; j -= 2) {
+      if (j == 6) {
+        j--;
+      }
+      for (int count = 0; count < dimension; count++) {
+        int i = readingUp ? dimension - 1 - count : count;
+        for (int col = 0; col < 2; col++) {
+          if (!functionPattern.get(j - col, i)) {
+            bitsRead++;
+            currentByte <<= 1;
+            if (bits.get(j - col, i)) {
+              currentByte |= 1;
+            }
+            if (bitsRead == 8) {
+              result[resultOffset++] = (byte) currentByte;
+              bitsRead = 0;
+              currentByte = 0;
+            }
+          }
+        }
+      }
+      readingUp = !readingUp;
+    }
+    assertEquals(result.length, resultOffset);
+    return result;
+  }
+
+  private static BitMatrix randomMatrix(Random random, int dimension) {
+    BitMatrix bits = new BitMatrix(dimension);
+    for (int y = 0; y < dimension; y++) {
+      for (int x = 0; x < dimension; x++) {
+        if (random.nextInt(8) == 0) {
+          bits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.ChecksumException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecoderResult;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link Decoder} with codewords flagged as erasures.
+ */
+public final class DecoderTestCase extends Assert {
+
+  // One module in each of codewords 0 to 5 of a version 1 code, as (x, y)
+  private static final int[][] DAMAGED_MODULES = {
+      {20, 20}, {20, 16}, {20, 12}, {18, 9}, {18, 13}, {18, 17}};
+
+  private static BitMatrix encode(String content) throws Exception {
+    QRCode code = Encoder.encode(content, ErrorCorrectionLevel.L);
+    assertEquals(1, code.getVersion().getVersionNumber());
+    ByteMatrix matrix = code.getMatrix();
+    BitMatrix bits = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        if (matrix.get(x, y) == 1) {
+          bits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+  @Test
+  public void testUncertainModules() throws Exception {
+    BitMatrix bits = encode("ERASURES");
+    BitMatrix uncertain = new BitMatrix(bits.getWidth(), bits.getHeight());
+    for (int[] module : DAMAGED_MODULES) {
+      bits.flip(module[0], module[1]);
+      uncertain.set(module[0], module[1]);
+    }
+    // An intact module of codeword 6
+    uncertain.set(18, 20);
+
+    // 6 errors are too many for 7 EC codewords, but 7 erasures are not
+    try {
+      new Decoder().decode(bits.clone(), null);
+      fail("Corrected 6 errors with 7 EC codewords");
+    } catch (ChecksumException ce) {
+      // continue
+    }
+    DecoderResult result = new Decoder().decode(bits, uncertain, null);
+    assertEquals("ERASURES", result.getText());
+    assertEquals(Integer.valueOf(1), result.getBlocksCorrected());
+  }
+
+  @Test
+  public void testTooManyUncertainModules() throws Exception {
+    BitMatrix bits = encode("ERASURES");
+    bits.flip(20, 20);
+    bits.flip(20, 16);
+    // Every data module is uncertain, so decoding falls back to finding the 2 errors
+    BitMatrix uncertain = new BitMatrix(bits.getWidth(), bits.getHeight());
+    uncertain.setRegion(9, 9, 12, 12);
+    DecoderResult result = new Decoder().decode(bits, uncertain, null);
+    assertEquals("ERASURES", result.getText());
+    assertEquals(Integer.valueOf(1), result.getBlocksCorrected());
+  }
+
+}
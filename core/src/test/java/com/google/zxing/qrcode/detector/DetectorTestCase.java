@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.ResultPointCallback;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DetectorResult;
+import com.google.zxing.qrcode.decoder.Decoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link Detector}.
+ */
+public final class DetectorTestCase extends Assert {
+
+  private static final String CONTENTS = "http://www.example.com/pyramid";
+
+  @Test
+  public void testPyramidDetection() throws Exception {
+    // Large enough to be found at a quarter of the resolution
+    BitMatrix image = FinderPatternFinderTestCase.createImage(3000, 2000, CONTENTS, 1700, 900, 16);
+    List<ResultPoint> points = new ArrayList<>();
+    ResultPointCallback callback = points::add;
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.QR_PYRAMID_DETECTION, Boolean.TRUE);
+    hints.put(DecodeHintType.NEED_RESULT_POINT_CALLBACK, callback);
+    DetectorResult pyramid = new Detector(image).detect(hints);
+    DetectorResult full = new Detector(image).detect(null);
+    assertEquals(full.getBits(), pyramid.getBits());
+    assertPoints(full.getPoints(), pyramid.getPoints());
+    assertEquals(CONTENTS, new Decoder().decode(pyramid.getBits()).getText());
+    // Points are reported in the full image
+    assertFalse(points.isEmpty());
+    for (ResultPoint point : points) {
+      assertTrue(point.getX() >= 1700 && point.getY() >= 900);
+    }
+  }
+
+  @Test
+  public void testPyramidDetectionFallsBack() throws Exception {
+    // Modules of 2 pixels vanish at a quarter of the resolution
+    BitMatrix image = FinderPatternFinderTestCase.createImage(3000, 2000, CONTENTS, 100, 1500, 2);
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    DetectorResult full = new Detector(image).detect(hints);
+    hints.put(DecodeHintType.QR_PYRAMID_DETECTION, Boolean.TRUE);
+    DetectorResult pyramid = new Detector(image).detect(hints);
+    assertEquals(full.getBits(), pyramid.getBits());
+    assertEquals(CONTENTS, new Decoder().decode(pyramid.getBits()).getText());
+  }
+
+  @Test
+  public void testMajorityVoteSampling() throws Exception {
+    BitMatrix clean = FinderPatternFinderTestCase.createImage(400, 400, CONTENTS, 50, 50, 8);
+    BitMatrix expected = new Detector(clean).detect(null).getBits();
+    // Flip a speck at the center of every fifth data module
+    BitMatrix image = clean.clone();
+    Random random = new Random(42);
+    int dimension = expected.getWidth();
+    for (int y = 9; y < dimension - 9; y++) {
+      for (int x = 9; x < dimension - 9; x++) {
+        if (random.nextInt(5) == 0) {
+          image.flip(50 + 8 * x + 3, 50 + 8 * y + 3);
+          image.flip(50 + 8 * x + 4, 50 + 8 * y + 3);
+          image.flip(50 + 8 * x + 3, 50 + 8 * y + 4);
+          image.flip(50 + 8 * x + 4, 50 + 8 * y + 4);
+        }
+      }
+    }
+    assertNotEquals(expected, new Detector(image).detect(null).getBits());
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.MAJORITY_VOTE_SAMPLING, Boolean.TRUE);
+    DetectorResult result = new Detector(image).detect(hints);
+    assertEquals(expected, result.getBits());
+    assertNotNull(result.getUncertainModules());
+    assertEquals(CONTENTS,
+        new Decoder().decode(result.getBits(), result.getUncertainModules(), null).getText());
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testPyramidDetectionNotFound() throws Exception {
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.QR_PYRAMID_DETECTION, Boolean.TRUE);
+    new Detector(new BitMatrix(3000, 2000)).detect(hints);
+  }
+
+  private static void assertPoints(ResultPoint[] expected, ResultPoint[] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i].getX(), actual[i].getX(), 1.0f);
+      assertEquals(expected[i].getY(), actual[i].getY(), 1.0f);
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link FinderPatternFinder}.
+ */
+public final class FinderPatternFinderTestCase extends Assert {
+
+  private static final int MODULE_SIZE = 6;
+  private static final int LEFT = 700;
+  private static final int TOP = 900;
+
+  @Test
+  public void testParallelSearch() throws Exception {
+    BitMatrix image = createImage();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.QR_PARALLEL_FINDER_SEARCH, Boolean.TRUE);
+    FinderPatternInfo serial = new FinderPatternFinder(image).find(null);
+    FinderPatternInfo parallel = new FinderPatternFinder(image).find(hints);
+    float center = 3.5f * MODULE_SIZE;
+    float farCenter = (getDimension() - 3.5f) * MODULE_SIZE;
+    assertPattern(LEFT + center, TOP + center, parallel.getTopLeft());
+    assertPattern(LEFT + farCenter, TOP + center, parallel.getTopRight());
+    assertPattern(LEFT + center, TOP + farCenter, parallel.getBottomLeft());
+    assertPattern(serial.getTopLeft().getX(), serial.getTopLeft().getY(), parallel.getTopLeft());
+    assertPattern(serial.getTopRight().getX(), serial.getTopRight().getY(), parallel.getTopRight());
+    assertPattern(serial.getBottomLeft().getX(), serial.getBottomLeft().getY(), parallel.getBottomLeft());
+    assertEquals(MODULE_SIZE, parallel.getTopLeft().getEstimatedModuleSize(), 0.5f);
+  }
+
+  @Test
+  public void testParallelSearchCallsBackOnCallingThread() throws Exception {
+    BitMatrix image = createImage();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.QR_PARALLEL_FINDER_SEARCH, Boolean.TRUE);
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+    new FinderPatternFinder(image, point -> threads.add(Thread.currentThread())).find(hints);
+    assertTrue(threads.size() >= 3);
+    for (Thread thread : threads) {
+      assertSame(caller, thread);
+    }
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testParallelSearchNotFound() throws Exception {
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.QR_PARALLEL_FINDER_SEARCH, Boolean.TRUE);
+    new FinderPatternFinder(new BitMatrix(2000, 1500)).find(hints);
+  }
+
+  private static void assertPattern(float x, float y, FinderPattern pattern) {
+    assertEquals(x, pattern.getX(), 1.0f);
+    assertEquals(y, pattern.getY(), 1.0f);
+  }
+
+  private static int getDimension() throws WriterException {
+    return new QRCodeWriter().encode("0123456789", BarcodeFormat.QR_CODE, 0, 0).getWidth() - 8;
+  }
+
+  /**
+   * @return an image of about 3 megapixels holding a QR code well away from the top and left,
+   *  so that its finder patterns fall in different bands
+   */
+  private static BitMatrix createImage() throws WriterException {
+    return createImage(2048, 1536, "0123456789", LEFT, TOP, MODULE_SIZE);
+  }
+
+  /**
+   * @return an image holding a QR code of the given contents, with its top left corner at
+   *  (left, top) and modules of the given size in pixels
+   */
+  static BitMatrix createImage(int width, int height, String contents, int left, int top, int moduleSize)
+      throws WriterException {
+    // Scaled to the smallest size, with the quiet zone of 4 modules at each side
+    BitMatrix code = new QRCodeWriter().encode(contents, BarcodeFormat.QR_CODE, 0, 0);
+    BitMatrix image = new BitMatrix(width, height);
+    for (int y = 0; y < code.getHeight() - 8; y++) {
+      for (int x = 0; x < code.getWidth() - 8; x++) {
+        if (code.get(x + 4, y + 4)) {
+          image.setRegion(left + x * moduleSize, top + y * moduleSize, moduleSize, moduleSize);
+        }
+      }
+    }
+    return image;
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.encoder;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.ReaderException;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.Decoder;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link BatchEncoder} against {@link Encoder}.
+ */
+public final class BatchEncoderTestCase extends Assert {
+
+  private static String randomContent(Random random, int maxLength) {
+    StringBuilder result = new StringBuilder();
+    int length = 1 + random.nextInt(maxLength);
+    // Numeric, alphanumeric or byte mode
+    String alphabet = new String[] {"0123456789", "ABCDEF0123 $%", "abcdefghij/:.?=&"}[random.nextInt(3)];
+    for (int i = 0; i < length; i++) {
+      result.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return result.toString();
+  }
+
+  private static void assertSameAsEncoder(BatchEncoder batchEncoder,
+                                          String content,
+                                          Map<EncodeHintType,Object> hints,
+                                          ModuleMatrix matrix) throws WriterException {
+    hints.put(EncodeHintType.QR_VERSION, batchEncoder.getVersion().getVersionNumber());
+    QRCode expected = Encoder.encode(content, batchEncoder.getECLevel(), hints);
+    QRCode actual = batchEncoder.encode(content, matrix);
+    assertSame(matrix, actual.getModuleMatrix());
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test
+  public void testMatchesEncoder() throws WriterException {
+    Random random = new Random(1L);
+    for (int versionNumber : new int[] {1, 2, 6, 7, 14, 40}) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      for (ErrorCorrectionLevel ecLevel : ErrorCorrectionLevel.values()) {
+        BatchEncoder batchEncoder = new BatchEncoder(version, ecLevel);
+        int dimension = version.getDimensionForVersion();
+        ModuleMatrix matrix = new ModuleMatrix(dimension, dimension);
+        for (int i = 0; i < 5; i++) {
+          // The matrix is reused for every payload
+          assertSameAsEncoder(batchEncoder, randomContent(random, 10), new EnumMap<>(EncodeHintType.class), matrix);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMatchesCompactEncoder() throws WriterException {
+    Random random = new Random(2L);
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_COMPACT, Boolean.TRUE);
+    for (int i = 0; i < 40; i++) {
+      // Long enough to reach versions in each range of character count sizes
+      String content = randomContent(random, 1 + random.nextInt(2) * 200 + random.nextInt(40));
+      ErrorCorrectionLevel ecLevel = ErrorCorrectionLevel.values()[i % 4];
+      // Encoder picks the version in compact mode, so build the batch encoder for that version
+      QRCode expected = Encoder.encode(content, ecLevel, hints);
+      BatchEncoder batchEncoder = new BatchEncoder(expected.getVersion(), ecLevel, hints);
+      assertEquals(expected.toString(), batchEncoder.encode(content).toString());
+    }
+  }
+
+  @Test
+  public void testCompactAtLargerVersion() throws WriterException, ReaderException {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_COMPACT, Boolean.TRUE);
+    String content = "ABC123abc";
+    assertEquals(1, Encoder.encode(content, ErrorCorrectionLevel.M, hints).getVersion().getVersionNumber());
+
+    Version version = Version.getVersionForNumber(12);
+    QRCode code = new BatchEncoder(version, ErrorCorrectionLevel.M, hints).encode(content);
+    assertSame(version, code.getVersion());
+    ModuleMatrix modules = code.getModuleMatrix();
+    BitMatrix bits = new BitMatrix(modules.getWidth(), modules.getHeight());
+    for (int y = 0; y < modules.getHeight(); y++) {
+      for (int x = 0; x < modules.getWidth(); x++) {
+        if (modules.isDark(x, y)) {
+          bits.set(x, y);
+        }
+      }
+    }
+    assertEquals(content, new Decoder().decode(bits).getText());
+  }
+
+  @Test
+  public void testHints() throws WriterException {
+    Version version = Version.getVersionForNumber(5);
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+    hints.put(EncodeHintType.QR_MASK_PATTERN, 6);
+    BatchEncoder batchEncoder = new BatchEncoder(version, ErrorCorrectionLevel.Q, hints);
+    ModuleMatrix matrix = new ModuleMatrix(version.getDimensionForVersion(), version.getDimensionForVersion());
+    assertSameAsEncoder(batchEncoder, "été", hints, matrix);
+    assertEquals(6, batchEncoder.encode("été").getMaskPattern());
+  }
+
+  @Test(expected = WriterException.class)
+  public void testTooLong() throws WriterException {
+    new BatchEncoder(Version.getVersionForNumber(1), ErrorCorrectionLevel.H).encode("THIS MESSAGE IS TOO LONG");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongMatrixSize() throws WriterException {
+    new BatchEncoder(Version.getVersionForNumber(2), ErrorCorrectionLevel.L).encode("A", new ModuleMatrix(21, 21));
+  }
+
+}
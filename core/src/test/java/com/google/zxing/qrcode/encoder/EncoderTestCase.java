@@ -136,6 +136,19 @@ public final class EncoderTestCase extends Assert {
     assertTrue(qrCode.toString().contains(" version: 7\n"));
   }
 
+  @Test
+  public void testEncodeWithParallelMasks() throws WriterException {
+    Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_PARALLEL_MASKS, true);
+    for (String content : new String[] {"ABCDEF", "http://www.example.com/a/longer/url?with=a&query=string"}) {
+      for (ErrorCorrectionLevel ecLevel : ErrorCorrectionLevel.values()) {
+        QRCode expected = Encoder.encode(content, ecLevel);
+        QRCode qrCode = Encoder.encode(content, ecLevel, hints);
+        assertEquals(expected.toString(), qrCode.toString());
+      }
+    }
+  }
+
   @Test(expected = WriterException.class)
   public void testEncodeWithVersionTooSmall() throws WriterException {
     Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
@@ -905,6 +918,36 @@ public final class EncoderTestCase extends Assert {
         ".a.a.)", null, false);
   }
 
+  @Test
+  public void testMinimalEncoder45() throws Exception {
+    // Mixed Kanji and Latin with repeated characters
+    verifyMinimalEncoding("\u65E5\u672C\u65E5\u672CABC\u65E5\u672C\u65E5\u672C12345678\u0150\u65E5",
+        "KANJI(....),ALPHANUMERIC(ABC),KANJI(....),NUMERIC(12345678),ECI(UTF-16BE),BYTE(..)", null, false);
+    verifyMinimalEncoding("\u65E5\u672Cabc\u65E5\u672Cabc\u65E5\u672C\u65E5\u672C\u65E5",
+        "ECI(Shift_JIS),BYTE(..abc..abc),KANJI(.....)", null, false);
+  }
+
+  @Test
+  public void testMinimalEncoderInParallel() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 40; i++) {
+      builder.append("\u65E5\u672C\u8A9E").append(i).append(i % 3 == 0 ? "ABC" : "abc").append('\u0150');
+    }
+    String content = builder.toString();
+    for (ErrorCorrectionLevel ecLevel : ErrorCorrectionLevel.values()) {
+      MinimalEncoder.ResultList expected = MinimalEncoder.encode(content, null, null, false, ecLevel, false);
+      MinimalEncoder.ResultList result = MinimalEncoder.encode(content, null, null, false, ecLevel, true);
+      assertEquals(expected.toString(), result.toString());
+      assertEquals(expected.getVersion(), result.getVersion());
+    }
+
+    Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_COMPACT, true);
+    QRCode expected = Encoder.encode(content, ErrorCorrectionLevel.M, hints);
+    hints.put(EncodeHintType.QR_PARALLEL_COMPACT, true);
+    assertEquals(expected.toString(), Encoder.encode(content, ErrorCorrectionLevel.M, hints).toString());
+  }
+
   static void verifyMinimalEncoding(String input, String expectedResult, Charset priorityCharset, boolean isGS1) 
       throws Exception {
     MinimalEncoder.ResultList result = MinimalEncoder.encode(input, null, priorityCharset, isGS1,
@@ -16,9 +16,15 @@
 
 package com.google.zxing.qrcode.encoder;
 
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * @author satorux@google.com (Satoru Takabayashi) - creator
  * @author mysen@google.com (Chris Mysen) - ported from C++
@@ -189,6 +195,52 @@ public final class MaskUtilTestCase extends Assert {
     assertEquals(30, MaskUtil.applyMaskPenaltyRule4(matrix));
   }
 
+  private static void assertPenaltyMatches(ByteMatrix matrix) {
+    int expected = MaskUtil.applyMaskPenaltyRule1(matrix) +
+        MaskUtil.applyMaskPenaltyRule2(matrix) +
+        MaskUtil.applyMaskPenaltyRule3(matrix) +
+        MaskUtil.applyMaskPenaltyRule4(matrix);
+    assertEquals(matrix.toString(), expected, MaskUtil.calculateMaskPenalty(matrix));
+  }
+
+  @Test
+  public void testCalculateMaskPenalty() {
+    Random random = new Random(1L);
+    int[][] sizes = {{1, 1}, {7, 1}, {1, 12}, {11, 11}, {21, 21}, {63, 5}, {64, 64}, {65, 70}, {177, 177}};
+    for (int[] size : sizes) {
+      for (int i = 0; i < 20; i++) {
+        ByteMatrix matrix = new ByteMatrix(size[0], size[1]);
+        // Vary the density, so that long runs and 1:1:3:1:1 patterns come up
+        int density = random.nextInt(8);
+        for (int y = 0; y < size[1]; y++) {
+          for (int x = 0; x < size[0]; x++) {
+            matrix.set(x, y, random.nextInt(8) < density);
+          }
+        }
+        assertPenaltyMatches(matrix);
+      }
+    }
+  }
+
+  @Test
+  public void testCalculateMaskPenaltyOfSymbols() throws WriterException {
+    for (int versionNumber : new int[] {1, 7, 40}) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      int dimension = version.getDimensionForVersion();
+      BitArray bits = new BitArray();
+      Random random = new Random(versionNumber);
+      for (int i = 0; i < version.getTotalCodewords(); i++) {
+        bits.appendBits(random.nextInt(256), 8);
+      }
+      for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
+        ModuleMatrix matrix = new ModuleMatrix(dimension, dimension);
+        MatrixUtil.buildMatrix(bits, ErrorCorrectionLevel.M, version, maskPattern, matrix);
+        assertPenaltyMatches(matrix.toByteMatrix());
+        assertEquals(MaskUtil.calculateMaskPenalty(matrix.toByteMatrix()), MaskUtil.calculateMaskPenalty(matrix));
+      }
+    }
+  }
+
   private static boolean testGetDataMaskBitInternal(int maskPattern, int[][] expected) {
     for (int x = 0; x < 6; ++x) {
       for (int y = 0; y < 6; ++y) {
@@ -47,7 +47,9 @@ public final class MatrixUtilTestCase extends Assert {
 
   @Test
   public void testClearMatrix() {
-    ByteMatrix matrix = new ByteMatrix(2, 2);
+    ModuleMatrix matrix = new ModuleMatrix(2, 2);
+    matrix.set(0, 0, 1);
+    matrix.set(1, 1, 0);
     MatrixUtil.clearMatrix(matrix);
     assertEquals(-1, matrix.get(0, 0));
     assertEquals(-1, matrix.get(1, 0));
@@ -58,7 +60,7 @@ public final class MatrixUtilTestCase extends Assert {
   @Test
   public void testEmbedBasicPatterns1() throws WriterException {
     // Version 1.
-    ByteMatrix matrix = new ByteMatrix(21, 21);
+    ModuleMatrix matrix = new ModuleMatrix(21, 21);
     MatrixUtil.clearMatrix(matrix);
     MatrixUtil.embedBasicPatterns(Version.getVersionForNumber(1), matrix);
     String expected =
@@ -90,7 +92,7 @@ public final class MatrixUtilTestCase extends Assert {
   public void testEmbedBasicPatterns2() throws WriterException {
     // Version 2.  Position adjustment pattern should apppear at right
     // bottom corner.
-    ByteMatrix matrix = new ByteMatrix(25, 25);
+    ModuleMatrix matrix = new ModuleMatrix(25, 25);
     MatrixUtil.clearMatrix(matrix);
     MatrixUtil.embedBasicPatterns(Version.getVersionForNumber(2), matrix);
     String expected =
@@ -125,7 +127,7 @@ public final class MatrixUtilTestCase extends Assert {
   @Test
   public void testEmbedTypeInfo() throws WriterException {
     // Type info bits = 100000011001110.
-    ByteMatrix matrix = new ByteMatrix(21, 21);
+    ModuleMatrix matrix = new ModuleMatrix(21, 21);
     MatrixUtil.clearMatrix(matrix);
     MatrixUtil.embedTypeInfo(ErrorCorrectionLevel.M, 5, matrix);
     String expected =
@@ -158,7 +160,7 @@ public final class MatrixUtilTestCase extends Assert {
     // Version info bits = 000111 110010 010100
     // Actually, version 7 QR Code has 45x45 matrix but we use 21x21 here
     // since 45x45 matrix is too big to depict.
-    ByteMatrix matrix = new ByteMatrix(21, 21);
+    ModuleMatrix matrix = new ModuleMatrix(21, 21);
     MatrixUtil.clearMatrix(matrix);
     MatrixUtil.maybeEmbedVersionInfo(Version.getVersionForNumber(7), matrix);
     String expected =
@@ -189,7 +191,7 @@ public final class MatrixUtilTestCase extends Assert {
   @Test
   public void testEmbedDataBits() throws WriterException {
     // Cells other than basic patterns should be filled with zero.
-    ByteMatrix matrix = new ByteMatrix(21, 21);
+    ModuleMatrix matrix = new ModuleMatrix(21, 21);
     MatrixUtil.clearMatrix(matrix);
     MatrixUtil.embedBasicPatterns(Version.getVersionForNumber(1), matrix);
     BitArray bits = new BitArray();
@@ -229,7 +231,7 @@ public final class MatrixUtilTestCase extends Assert {
     for (char c: bytes) {
       bits.appendBits(c, 8);
     }
-    ByteMatrix matrix = new ByteMatrix(21, 21);
+    ModuleMatrix matrix = new ModuleMatrix(21, 21);
     MatrixUtil.buildMatrix(bits,
                            ErrorCorrectionLevel.H,
                            Version.getVersionForNumber(1),  // Version 1
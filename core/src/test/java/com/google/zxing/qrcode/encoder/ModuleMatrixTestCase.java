@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.encoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link ModuleMatrix}.
+ */
+public final class ModuleMatrixTestCase extends Assert {
+
+  @Test
+  public void testToString() {
+    ModuleMatrix matrix = new ModuleMatrix(3, 3);
+    matrix.set(0, 0, 0);
+    matrix.set(1, 0, 1);
+    matrix.set(2, 0, 0);
+    matrix.set(0, 1, true);
+    matrix.set(1, 1, false);
+    matrix.set(2, 1, true);
+    String expected = " 0 1 0\n" + " 1 0 1\n" + "      \n";
+    assertEquals(expected, matrix.toString());
+    assertEquals(expected, matrix.toByteMatrix().toString());
+  }
+
+  @Test
+  public void testGetAndSet() {
+    ModuleMatrix matrix = new ModuleMatrix(130, 2);
+    for (int x : new int[] {0, 63, 64, 129}) {
+      assertEquals(-1, matrix.get(x, 1));
+      matrix.set(x, 1, 1);
+      assertEquals(1, matrix.get(x, 1));
+      assertTrue(matrix.isDark(x, 1));
+      matrix.set(x, 1, 0);
+      assertEquals(0, matrix.get(x, 1));
+      assertFalse(matrix.isDark(x, 1));
+      assertEquals(-1, matrix.get(x, 0));
+    }
+    matrix.clear();
+    assertEquals(-1, matrix.get(63, 1));
+  }
+
+  @Test
+  public void testSetOutsideRow() {
+    ModuleMatrix matrix = new ModuleMatrix(21, 1);
+    for (int x : new int[] {-1, 21, 63}) {
+      try {
+        matrix.set(x, 0, true);
+        fail("set " + x);
+      } catch (ArrayIndexOutOfBoundsException aioobe) {
+        // continue
+      }
+    }
+    assertEquals(21, matrix.getNextDark(0, 0));
+  }
+
+  @Test
+  public void testGetNext() {
+    Random random = new Random(1L);
+    for (int width : new int[] {1, 21, 64, 65, 177}) {
+      ModuleMatrix matrix = new ModuleMatrix(width, 1);
+      for (int x = 0; x < width; x++) {
+        matrix.set(x, 0, random.nextBoolean());
+      }
+      for (int from = 0; from <= width; from++) {
+        int nextDark = from;
+        while (nextDark < width && !matrix.isDark(nextDark, 0)) {
+          nextDark++;
+        }
+        int nextLight = from;
+        while (nextLight < width && matrix.isDark(nextLight, 0)) {
+          nextLight++;
+        }
+        assertEquals(nextDark, matrix.getNextDark(from, 0));
+        assertEquals(nextLight, matrix.getNextLight(from, 0));
+      }
+    }
+  }
+
+}
@@ -16,6 +16,7 @@
 
 package com.google.zxing.qrcode.encoder;
 
+import com.google.zxing.WriterException;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.decoder.Mode;
 import com.google.zxing.qrcode.decoder.Version;
@@ -58,6 +59,25 @@ public final class QRCodeTestCase extends Assert {
     assertSame(matrix, qrCode.getMatrix());
   }
 
+  @Test
+  public void testMatrixIsLive() throws WriterException {
+    QRCode qrCode = Encoder.encode("ABCDEF", ErrorCorrectionLevel.L);
+    ModuleMatrix modules = qrCode.getModuleMatrix();
+    assertSame(modules, qrCode.getModuleMatrix());
+
+    ByteMatrix matrix = qrCode.getMatrix();
+    assertEquals(modules.toString(), matrix.toString());
+    int flipped = 1 - matrix.get(10, 10);
+    matrix.set(10, 10, flipped);
+    assertSame(matrix, qrCode.getMatrix());
+    assertEquals(flipped, qrCode.getMatrix().get(10, 10));
+    assertEquals(flipped, qrCode.getModuleMatrix().get(10, 10));
+
+    // Once the code is held in a ByteMatrix, the packed matrix is a copy
+    qrCode.getModuleMatrix().set(10, 10, 1 - flipped);
+    assertEquals(flipped, matrix.get(10, 10));
+  }
+
   @Test
   public void testToString1() {
     QRCode qrCode = new QRCode();
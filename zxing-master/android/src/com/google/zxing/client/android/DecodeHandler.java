@@ -23,6 +23,7 @@ import com.google.zxing.MultiFormatReader;
 import com.google.zxing.PlanarYUVLuminanceSource;
 import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
+import com.google.zxing.common.BinarizerWorkspace;
 import com.google.zxing.common.HybridBinarizer;
 
 import android.os.Bundle;
@@ -37,11 +38,13 @@ final class DecodeHandler extends Handler {
 
   private final CaptureActivity activity;
   private final MultiFormatReader multiFormatReader;
+  private final BinarizerWorkspace binarizerWorkspace;
   private boolean running = true;
 
   DecodeHandler(CaptureActivity activity, Map<DecodeHintType,Object> hints) {
     multiFormatReader = new MultiFormatReader();
     multiFormatReader.setHints(hints);
+    binarizerWorkspace = new BinarizerWorkspace();
     this.activity = activity;
   }
 
@@ -63,7 +66,7 @@ final class DecodeHandler extends Handler {
 
   /**
    * Decode the data within the viewfinder rectangle, and time how long it took. For efficiency,
-   * reuse the same reader objects from one decode to the next.
+   * reuse the same reader objects and binarizer buffers from one decode to the next.
    *
    * @param data   The YUV preview frame.
    * @param width  The width of the preview frame.
@@ -73,7 +76,7 @@ final class DecodeHandler extends Handler {
     Result rawResult = null;
     PlanarYUVLuminanceSource source = activity.getCameraManager().buildLuminanceSource(data, width, height);
     if (source != null) {
-      BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+      BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source, binarizerWorkspace));
       try {
         rawResult = multiFormatReader.decodeWithState(bitmap);
       } catch (ReaderException re) {
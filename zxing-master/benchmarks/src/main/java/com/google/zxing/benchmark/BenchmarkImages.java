@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads the image corpora under {@code core/src/test/resources} for the benchmarks. The location
+ * of the resources directory can be overridden with {@code -Dzxing.benchmark.resources=...}; by
+ * default it is resolved relative to the {@code benchmarks} module directory.
+ */
+final class BenchmarkImages {
+
+  private static final String RESOURCES_PROPERTY = "zxing.benchmark.resources";
+  private static final String DEFAULT_RESOURCES = "../../core/src/test/resources";
+
+  private BenchmarkImages() {
+  }
+
+  /**
+   * @param corpora directories relative to the resources directory, like "blackbox/qrcode-1"
+   * @return all readable images in those directories, in file name order
+   * @throws IOException if a directory is missing or contains no images
+   */
+  static List<BufferedImage> load(String... corpora) throws IOException {
+    Path resources = Paths.get(System.getProperty(RESOURCES_PROPERTY, DEFAULT_RESOURCES));
+    List<BufferedImage> images = new ArrayList<>();
+    for (String corpus : corpora) {
+      Path directory = resources.resolve(corpus);
+      if (!Files.isDirectory(directory)) {
+        throw new IOException("No such image directory: " + directory.toAbsolutePath() +
+                              " (set -D" + RESOURCES_PROPERTY + ")");
+      }
+      List<Path> paths = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{jpg,jpeg,gif,png,JPG,JPEG,GIF,PNG}")) {
+        for (Path path : stream) {
+          paths.add(path);
+        }
+      }
+      Collections.sort(paths);
+      for (Path path : paths) {
+        BufferedImage image = ImageIO.read(path.toFile());
+        if (image != null) {
+          images.add(image);
+        }
+      }
+    }
+    if (images.isEmpty()) {
+      throw new IOException("No images found in " + String.join(", ", corpora));
+    }
+    return images;
+  }
+
+  /**
+   * Converts images to greyscale once up front, so that only binarization and decoding are measured,
+   * the same as the Y plane a camera delivers.
+   */
+  static List<LuminanceSource> toLuminanceSources(List<BufferedImage> images) {
+    List<LuminanceSource> sources = new ArrayList<>(images.size());
+    for (BufferedImage image : images) {
+      LuminanceSource converted = new BufferedImageLuminanceSource(image);
+      int width = converted.getWidth();
+      int height = converted.getHeight();
+      sources.add(new PlanarYUVLuminanceSource(converted.getMatrix(), width, height, 0, 0, width, height, false));
+    }
+    return sources;
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.AdaptiveThresholdBinarizer;
+import com.google.zxing.common.BinarizerWorkspace;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.common.ParallelHybridBinarizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the binarizers on their own, one image per invocation, cycling through the corpus.
+ * Luminance conversion happens once during setup and is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinarizerBenchmark {
+
+  /** Number of rows sampled per image by {@link #globalHistogramGetBlackRow}, as a 1D reader would. */
+  private static final int ROWS_PER_IMAGE = 15;
+
+  @Param({"benchmark/android-1", "benchmark/android-2", "blackbox/qrcode-2", "blackbox/datamatrix-2",
+          "blackbox/ean13-1"})
+  public String corpus;
+
+  private List<LuminanceSource> sources;
+  private int index;
+  private BitArray row;
+  private final BinarizerWorkspace workspace = new BinarizerWorkspace();
+
+  @Setup
+  public void setUp() throws IOException {
+    sources = BenchmarkImages.toLuminanceSources(BenchmarkImages.load(corpus));
+  }
+
+  private LuminanceSource nextSource() {
+    LuminanceSource source = sources.get(index);
+    index = (index + 1) % sources.size();
+    return source;
+  }
+
+  @Benchmark
+  public void hybridGetBlackMatrix(Blackhole blackhole) {
+    try {
+      blackhole.consume(new HybridBinarizer(nextSource()).getBlackMatrix());
+    } catch (NotFoundException nfe) {
+      blackhole.consume(nfe);
+    }
+  }
+
+  @Benchmark
+  public void hybridGetBlackMatrixWithWorkspace(Blackhole blackhole) {
+    try {
+      blackhole.consume(new HybridBinarizer(nextSource(), workspace).getBlackMatrix());
+    } catch (NotFoundException nfe) {
+      blackhole.consume(nfe);
+    }
+  }
+
+  @Benchmark
+  public void parallelHybridGetBlackMatrix(Blackhole blackhole) {
+    try {
+      // Threshold 0 so that the parallel path is measured even on small corpus images
+      blackhole.consume(new ParallelHybridBinarizer(nextSource(), ForkJoinPool.commonPool(), 0).getBlackMatrix());
+    } catch (NotFoundException nfe) {
+      blackhole.consume(nfe);
+    }
+  }
+
+  @Benchmark
+  public void sauvolaGetBlackMatrix(Blackhole blackhole) throws NotFoundException {
+    blackhole.consume(new AdaptiveThresholdBinarizer(nextSource()).getBlackMatrix());
+  }
+
+  @Benchmark
+  public void bradleyGetBlackMatrix(Blackhole blackhole) throws NotFoundException {
+    blackhole.consume(
+        new AdaptiveThresholdBinarizer(nextSource(), AdaptiveThresholdBinarizer.Method.BRADLEY).getBlackMatrix());
+  }
+
+  @Benchmark
+  public void globalHistogramGetBlackRow(Blackhole blackhole) {
+    LuminanceSource source = nextSource();
+    GlobalHistogramBinarizer binarizer = new GlobalHistogramBinarizer(source);
+    int height = source.getHeight();
+    for (int i = 1; i <= ROWS_PER_IMAGE; i++) {
+      try {
+        row = binarizer.getBlackRow(height * i / (ROWS_PER_IMAGE + 1), row);
+        blackhole.consume(row);
+      } catch (NotFoundException nfe) {
+        blackhole.consume(nfe);
+      }
+    }
+  }
+
+}
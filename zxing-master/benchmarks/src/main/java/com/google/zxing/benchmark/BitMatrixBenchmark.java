@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.common.detector.WhiteRectangleDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bulk {@link BitMatrix} operations and the white rectangle detector built on them, one
+ * binarized image per invocation. The {@code perBit} methods are the bit-at-a-time loops the
+ * word-parallel versions replaced, kept here for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitMatrixBenchmark {
+
+  @Param({"blackbox/datamatrix-2", "blackbox/qrcode-2", "blackbox/pdf417-2"})
+  public String corpus;
+
+  private List<BitMatrix> matrices;
+  private int index;
+
+  @Setup
+  public void setUp() throws IOException, NotFoundException {
+    matrices = new ArrayList<>();
+    for (LuminanceSource source : BenchmarkImages.toLuminanceSources(BenchmarkImages.load(corpus))) {
+      matrices.add(new HybridBinarizer(source).getBlackMatrix());
+    }
+  }
+
+  private BitMatrix nextMatrix() {
+    BitMatrix matrix = matrices.get(index);
+    index = (index + 1) % matrices.size();
+    return matrix;
+  }
+
+  @Benchmark
+  public BitMatrix rotate90() {
+    BitMatrix matrix = nextMatrix().clone();
+    matrix.rotate90();
+    return matrix;
+  }
+
+  @Benchmark
+  public BitMatrix rotate90PerBit() {
+    BitMatrix matrix = nextMatrix();
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    BitMatrix rotated = new BitMatrix(height, width);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (matrix.get(x, y)) {
+          rotated.set(y, width - 1 - x);
+        }
+      }
+    }
+    return rotated;
+  }
+
+  @Benchmark
+  public int rowRunLengths() {
+    BitMatrix matrix = nextMatrix();
+    int width = matrix.getWidth();
+    int[] runLengths = new int[width + 1];
+    int runs = 0;
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      runs += matrix.getRowRunLengths(y, 0, width, runLengths);
+    }
+    return runs;
+  }
+
+  @Benchmark
+  public int rowRunLengthsPerBit() {
+    BitMatrix matrix = nextMatrix();
+    int width = matrix.getWidth();
+    int[] runLengths = new int[width + 1];
+    int runs = 0;
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      int count = 0;
+      boolean set = false;
+      runLengths[0] = 0;
+      for (int x = 0; x < width; x++) {
+        if (matrix.get(x, y) != set) {
+          set = !set;
+          runLengths[++count] = 0;
+        }
+        runLengths[count]++;
+      }
+      runs += count + 1;
+    }
+    return runs;
+  }
+
+  @Benchmark
+  public void whiteRectangleDetect(Blackhole blackhole) {
+    try {
+      blackhole.consume(new WhiteRectangleDetector(nextMatrix()).detect());
+    } catch (NotFoundException nfe) {
+      blackhole.consume(nfe);
+    }
+  }
+
+}
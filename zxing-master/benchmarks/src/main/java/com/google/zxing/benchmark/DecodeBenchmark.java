@@ -0,0 +1,145 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.datamatrix.DataMatrixReader;
+import com.google.zxing.oned.MultiFormatOneDReader;
+import com.google.zxing.pdf417.PDF417Reader;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full decode pipeline (binarization, detection, decoding) of each reader over the
+ * corpus of its format, one image per invocation. Images which fail to decode are measured too,
+ * since failing quickly matters as much as succeeding quickly for continuous scanning.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+  /**
+   * The reader under test and the image directories it is run over.
+   */
+  public enum Pipeline {
+    QR_CODE("blackbox/qrcode-1", "blackbox/qrcode-2", "benchmark/android-1"),
+    DATA_MATRIX("blackbox/datamatrix-1", "blackbox/datamatrix-2"),
+    PDF_417("blackbox/pdf417-1", "blackbox/pdf417-2"),
+    ONE_D("blackbox/ean13-1", "blackbox/upca-1", "blackbox/code128-1", "benchmark/android-2"),
+    MULTI_FORMAT("benchmark/android-1", "benchmark/android-2");
+
+    private final String[] corpora;
+
+    Pipeline(String... corpora) {
+      this.corpora = corpora;
+    }
+  }
+
+  @Param
+  public Pipeline pipeline;
+
+  @Param({"false", "true"})
+  public boolean tryHarder;
+
+  private List<LuminanceSource> sources;
+  private int index;
+  private Map<DecodeHintType,Object> hints;
+  private Reader reader;
+  private MultiFormatReader multiFormatReader;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<BufferedImage> images = BenchmarkImages.load(pipeline.corpora);
+    sources = new ArrayList<>(images.size());
+    for (BufferedImage image : images) {
+      // Keeps rotation support, which 1D readers use when trying harder
+      sources.add(new BufferedImageLuminanceSource(image));
+    }
+    hints = new EnumMap<>(DecodeHintType.class);
+    if (tryHarder) {
+      hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+    switch (pipeline) {
+      case QR_CODE:
+        reader = new QRCodeReader();
+        break;
+      case DATA_MATRIX:
+        reader = new DataMatrixReader();
+        break;
+      case PDF_417:
+        reader = new PDF417Reader();
+        break;
+      case ONE_D:
+        reader = new MultiFormatOneDReader(hints);
+        break;
+      case MULTI_FORMAT:
+        multiFormatReader = new MultiFormatReader();
+        multiFormatReader.setHints(hints);
+        break;
+    }
+  }
+
+  @Benchmark
+  public Object decode() {
+    LuminanceSource source = sources.get(index);
+    index = (index + 1) % sources.size();
+    // A new bitmap each time, so that binarization is not cached across invocations
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+    try {
+      if (multiFormatReader != null) {
+        return multiFormatReader.decodeWithState(bitmap);
+      }
+      return reader.decode(bitmap, hints);
+    } catch (ReaderException re) {
+      return re;
+    } finally {
+      if (reader != null) {
+        reader.reset();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.common.DefaultLuminanceConverter;
+import com.google.zxing.common.LuminanceConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ARGB to luminance conversion of one whole frame. {@code installed} is whatever
+ * {@link LuminanceConverter#getInstance()} picked up; on JDK 17+ with the {@code vector} module on
+ * the class path and {@code -jvmArgsAppend --add-modules=jdk.incubator.vector}, that is the
+ * Vector API implementation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LuminanceConversionBenchmark {
+
+  @Param({"1920x1080", "3840x2160"})
+  public String size;
+
+  @Param({"default", "installed"})
+  public String converter;
+
+  private LuminanceConverter luminanceConverter;
+  private int[] pixels;
+  private byte[] luminances;
+
+  @Setup
+  public void setUp() {
+    int x = size.indexOf('x');
+    int count = Integer.parseInt(size.substring(0, x)) * Integer.parseInt(size.substring(x + 1));
+    pixels = new int[count];
+    Random random = new Random(count);
+    for (int i = 0; i < count; i++) {
+      pixels[i] = random.nextInt();
+    }
+    luminances = new byte[count];
+    luminanceConverter =
+        "default".equals(converter) ? new DefaultLuminanceConverter() : LuminanceConverter.getInstance();
+  }
+
+  @Benchmark
+  public byte[] averageToLuminance() {
+    luminanceConverter.averageToLuminance(pixels, 0, luminances, 0, pixels.length);
+    return luminances;
+  }
+
+  @Benchmark
+  public byte[] weightedToLuminance() {
+    luminanceConverter.weightedToLuminance(pixels, 0, luminances, 0, pixels.length);
+    return luminances;
+  }
+
+}
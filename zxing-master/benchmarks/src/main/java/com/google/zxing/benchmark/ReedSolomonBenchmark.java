@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ReedSolomonDecoder.Algorithm}s on blocks the size of the largest ones each
+ * symbology uses, with a given share of each block's correction capacity used up by random errors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReedSolomonBenchmark {
+
+  private static final int NUM_BLOCKS = 64;
+
+  /**
+   * qr: version 40-L, 148 codewords with 30 for EC.
+   * datamatrix: 144x144, 218 codewords with 62 for EC.
+   * aztec: a 200-word block with 60 for EC, in the 12-bit words of symbols with over 22 layers.
+   * aztec-compact: 4 compact layers, in 6-bit words, 40 codewords with 14 for EC.
+   */
+  @Param({"qr", "datamatrix", "aztec", "aztec-compact"})
+  public String block;
+
+  @Param({"EUCLIDEAN", "BERLEKAMP_MASSEY"})
+  public ReedSolomonDecoder.Algorithm algorithm;
+
+  @Param({"0", "25", "100"})
+  public int percentOfCapacity;
+
+  private ReedSolomonDecoder decoder;
+  private ReedSolomonDecoder.Workspace workspace;
+  private int ecCodewords;
+  private int[][] blocks;
+  private int[] work;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    GenericGF field;
+    int numCodewords;
+    switch (block) {
+      case "qr":
+        field = GenericGF.QR_CODE_FIELD_256;
+        numCodewords = 148;
+        ecCodewords = 30;
+        break;
+      case "datamatrix":
+        field = GenericGF.DATA_MATRIX_FIELD_256;
+        numCodewords = 218;
+        ecCodewords = 62;
+        break;
+      case "aztec":
+        field = GenericGF.AZTEC_DATA_12;
+        numCodewords = 200;
+        ecCodewords = 60;
+        break;
+      case "aztec-compact":
+        field = GenericGF.AZTEC_DATA_6;
+        numCodewords = 40;
+        ecCodewords = 14;
+        break;
+      default:
+        throw new IllegalArgumentException(block);
+    }
+    decoder = new ReedSolomonDecoder(field, algorithm);
+    workspace = new ReedSolomonDecoder.Workspace();
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    int numErrors = ecCodewords / 2 * percentOfCapacity / 100;
+    Random random = new Random(0xDEADBEEFL);
+    blocks = new int[NUM_BLOCKS][];
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      int[] codewords = new int[numCodewords];
+      for (int j = 0; j < numCodewords - ecCodewords; j++) {
+        codewords[j] = random.nextInt(field.getSize());
+      }
+      encoder.encode(codewords, ecCodewords);
+      BitSet corrupted = new BitSet(numCodewords);
+      while (corrupted.cardinality() < numErrors) {
+        int position = random.nextInt(numCodewords);
+        if (!corrupted.get(position)) {
+          corrupted.set(position);
+          codewords[position] ^= 1 + random.nextInt(field.getSize() - 1);
+        }
+      }
+      blocks[i] = codewords;
+    }
+    work = new int[numCodewords];
+  }
+
+  @Benchmark
+  public int[] decode() throws ReedSolomonException {
+    int[] codewords = blocks[index];
+    index = (index + 1) % NUM_BLOCKS;
+    System.arraycopy(codewords, 0, work, 0, work.length);
+    decoder.decode(work, ecCodewords, null, workspace);
+    return work;
+  }
+
+}
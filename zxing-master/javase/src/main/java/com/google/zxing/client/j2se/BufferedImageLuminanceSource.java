@@ -17,6 +17,7 @@
 package com.google.zxing.client.j2se;
 
 import com.google.zxing.LuminanceSource;
+import com.google.zxing.common.LuminanceConverter;
 
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
@@ -57,30 +58,15 @@ public final class BufferedImageLuminanceSource extends LuminanceSource {
       this.image = new BufferedImage(sourceWidth, sourceHeight, BufferedImage.TYPE_BYTE_GRAY);
 
       WritableRaster raster = this.image.getRaster();
+      LuminanceConverter converter = LuminanceConverter.getInstance();
       int[] buffer = new int[width];
+      byte[] row = new byte[width];
       for (int y = top; y < top + height; y++) {
         image.getRGB(left, y, width, 1, buffer, 0, sourceWidth);
-        for (int x = 0; x < width; x++) {
-          int pixel = buffer[x];
-
-          // The color of fully-transparent pixels is irrelevant. They are often, technically, fully-transparent
-          // black (0 alpha, and then 0 RGB). They are often used, of course as the "white" area in a
-          // barcode image. Force any such pixel to be white:
-          if ((pixel & 0xFF000000) == 0) {
-            // white, so we know its luminance is 255
-            buffer[x] = 0xFF;
-          } else {
-            // .299R + 0.587G + 0.114B (YUV/YIQ for PAL and NTSC),
-            // (306*R) >> 10 is approximately equal to R*0.299, and so on.
-            // 0x200 >> 10 is 0.5, it implements rounding.
-            buffer[x] =
-              (306 * ((pixel >> 16) & 0xFF) +
-                601 * ((pixel >> 8) & 0xFF) +
-                117 * (pixel & 0xFF) +
-                0x200) >> 10;
-          }
-        }
-        raster.setPixels(left, y, width, 1, buffer);
+        // Fully-transparent pixels are forced to white, as they are often used as the "white" area
+        // in a barcode image
+        converter.weightedToLuminance(buffer, 0, row, 0, width);
+        raster.setDataElements(left, y, width, 1, row);
       }
 
     }
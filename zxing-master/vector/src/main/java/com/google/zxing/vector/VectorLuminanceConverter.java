@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.vector;
+
+import com.google.zxing.common.DefaultLuminanceConverter;
+import com.google.zxing.common.LuminanceConverter;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link LuminanceConverter} which converts as many pixels at a time as the platform's preferred
+ * vector size allows, using the incubating Vector API. It produces exactly the same values as
+ * {@link DefaultLuminanceConverter}, which also handles the pixels left over at the end.
+ *
+ * This is registered as a service, so it is installed automatically when this library is on the
+ * class path and the JVM runs with {@code --add-modules jdk.incubator.vector}; otherwise the core
+ * library falls back to {@link DefaultLuminanceConverter}.
+ */
+public final class VectorLuminanceConverter extends LuminanceConverter {
+
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  // Bytes are a quarter of the size of ints, but no vector is smaller than 64 bits
+  private static final VectorSpecies<Byte> BYTES =
+      VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, INTS.vectorBitSize() / 4)));
+  // Only the first INTS.length() lanes of the narrowed bytes hold converted values
+  private static final VectorMask<Byte> STORE_MASK = BYTES.indexInRange(0, INTS.length());
+  private static final boolean MASKED_STORE = BYTES.length() != INTS.length();
+
+  private final LuminanceConverter scalar = new DefaultLuminanceConverter();
+
+  @Override
+  public void averageToLuminance(int[] pixels, int pixelOffset, byte[] luminances, int offset, int count) {
+    int vectorCount = INTS.loopBound(count);
+    for (int i = 0; i < vectorCount; i += INTS.length()) {
+      IntVector pixel = IntVector.fromArray(INTS, pixels, pixelOffset + i);
+      IntVector r = pixel.lanewise(VectorOperators.LSHR, 16).and(0xff);
+      IntVector g2 = pixel.lanewise(VectorOperators.LSHR, 7).and(0x1fe);
+      IntVector b = pixel.and(0xff);
+      // The sum is non-negative, so the shift is the same as dividing by 4
+      store(r.add(g2).add(b).lanewise(VectorOperators.LSHR, 2), luminances, offset + i);
+    }
+    scalar.averageToLuminance(pixels, pixelOffset + vectorCount, luminances, offset + vectorCount,
+                              count - vectorCount);
+  }
+
+  @Override
+  public void weightedToLuminance(int[] pixels, int pixelOffset, byte[] luminances, int offset, int count) {
+    int vectorCount = INTS.loopBound(count);
+    for (int i = 0; i < vectorCount; i += INTS.length()) {
+      IntVector pixel = IntVector.fromArray(INTS, pixels, pixelOffset + i);
+      IntVector r = pixel.lanewise(VectorOperators.LSHR, 16).and(0xff);
+      IntVector g = pixel.lanewise(VectorOperators.LSHR, 8).and(0xff);
+      IntVector b = pixel.and(0xff);
+      IntVector luminance = r.mul(306).add(g.mul(601)).add(b.mul(117)).add(0x200)
+          .lanewise(VectorOperators.LSHR, 10);
+      VectorMask<Integer> transparent = pixel.and(0xFF000000).compare(VectorOperators.EQ, 0);
+      store(luminance.blend(0xff, transparent), luminances, offset + i);
+    }
+    scalar.weightedToLuminance(pixels, pixelOffset + vectorCount, luminances, offset + vectorCount,
+                               count - vectorCount);
+  }
+
+  private static void store(IntVector luminance, byte[] luminances, int offset) {
+    ByteVector bytes = (ByteVector) luminance.convertShape(VectorOperators.I2B, BYTES, 0);
+    if (MASKED_STORE) {
+      bytes.intoArray(luminances, offset, STORE_MASK);
+    } else {
+      bytes.intoArray(luminances, offset);
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.vector;
+
+import com.google.zxing.common.DefaultLuminanceConverter;
+import com.google.zxing.common.LuminanceConverter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link VectorLuminanceConverter}.
+ */
+public final class VectorLuminanceConverterTestCase extends Assert {
+
+  private static final LuminanceConverter VECTOR = new VectorLuminanceConverter();
+  private static final LuminanceConverter SCALAR = new DefaultLuminanceConverter();
+
+  @Test
+  public void testAverageMatchesDefault() {
+    Random random = new Random(0xdeadbeef);
+    // Odd lengths and offsets exercise the scalar tail and unaligned vector loads
+    for (int count = 0; count < 300; count += 7) {
+      int[] pixels = randomPixels(random, count + 3);
+      assertArrayEquals(convert(SCALAR, pixels, count, true), convert(VECTOR, pixels, count, true));
+    }
+  }
+
+  @Test
+  public void testWeightedMatchesDefault() {
+    Random random = new Random(0xcafebabe);
+    for (int count = 0; count < 300; count += 7) {
+      int[] pixels = randomPixels(random, count + 3);
+      assertArrayEquals(convert(SCALAR, pixels, count, false), convert(VECTOR, pixels, count, false));
+    }
+  }
+
+  @Test
+  public void testServiceIsInstalled() {
+    assertTrue(LuminanceConverter.getInstance() instanceof VectorLuminanceConverter);
+  }
+
+  private static int[] randomPixels(Random random, int length) {
+    int[] pixels = new int[length];
+    for (int i = 0; i < length; i++) {
+      pixels[i] = random.nextInt();
+      // Make plenty of pixels fully transparent
+      if (random.nextInt(4) == 0) {
+        pixels[i] &= 0x00FFFFFF;
+      }
+    }
+    return pixels;
+  }
+
+  private static byte[] convert(LuminanceConverter converter, int[] pixels, int count, boolean average) {
+    byte[] luminances = new byte[count + 2];
+    if (average) {
+      converter.averageToLuminance(pixels, 3, luminances, 2, count);
+    } else {
+      converter.weightedToLuminance(pixels, 3, luminances, 2, count);
+    }
+    return luminances;
+  }
+
+}
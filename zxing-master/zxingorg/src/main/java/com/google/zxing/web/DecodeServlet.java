@@ -19,6 +19,7 @@ package com.google.zxing.web;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeContext;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.LuminanceSource;
@@ -30,7 +31,7 @@ import com.google.zxing.Result;
 import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
 import com.google.zxing.client.j2se.ImageReader;
 import com.google.zxing.common.GlobalHistogramBinarizer;
-import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.common.ParallelHybridBinarizer;
 import com.google.zxing.multi.GenericMultipleBarcodeReader;
 import com.google.zxing.multi.MultipleBarcodeReader;
 
@@ -373,7 +374,10 @@ public final class DecodeServlet extends HttpServlet {
                                    HttpServletResponse response) throws IOException, ServletException {
 
     LuminanceSource source = new BufferedImageLuminanceSource(image);
-    BinaryBitmap bitmap = new BinaryBitmap(new GlobalHistogramBinarizer(source));
+    // Shared by both binarizers' bitmaps below, which each cache their matrix across attempts,
+    // and share one rotated copy of the image
+    DecodeContext context = new DecodeContext();
+    BinaryBitmap bitmap = new BinaryBitmap(new GlobalHistogramBinarizer(source), context);
     Collection<Result> results = new ArrayList<>(1);
 
     try {
@@ -417,8 +421,8 @@ public final class DecodeServlet extends HttpServlet {
 
       if (results.isEmpty()) {
         try {
-          // Try again with other binarizer
-          BinaryBitmap hybridBitmap = new BinaryBitmap(new HybridBinarizer(source));
+          // Try again with other binarizer; large scans are binarized in parallel
+          BinaryBitmap hybridBitmap = new BinaryBitmap(new ParallelHybridBinarizer(source), context);
           Result theResult = reader.decode(hybridBitmap, HINTS);
           if (theResult != null) {
             results.add(theResult);
@@ -443,6 +447,10 @@ public final class DecodeServlet extends HttpServlet {
       // Call out unexpected errors in the log clearly
       log.log(Level.WARNING, "Unexpected exception from library", re);
       throw new ServletException(re);
+    } finally {
+      if (log.isLoggable(Level.FINE)) {
+        log.fine("Decode work: " + context);
+      }
     }
 
     String fullParameter = request.getParameter("full");